@@ -23,16 +23,21 @@ usage() {
     echo "  --ou OU             Set organizational unit (default: Development)"
     echo "  --cn CN             Set common name (default: MyOrg Root CA)"
     echo "  --clean             Remove all generated CA and keystore artifacts"
+    echo "  --revoke CERT       Revoke a certificate (PEM file) and regenerate the CRL"
+    echo "  --gen-crl           Regenerate the CRL (crl.pem) from the CA database"
     echo ""
     echo "Example:"
     echo "  $0 --org \"MyCompany\" --cn \"MyCompany Root CA\" --validity 7300"
     echo "  $0 --clean         # Remove all generated artifacts"
+    echo "  $0 --revoke client-cert.pem"
     exit 1
 }
 
 # Default configuration
 FORCE_OVERWRITE=false
 CLEAN_MODE=false
+GEN_CRL=false
+REVOKE_CERT=""
 VALIDITY_DAYS=3650  # 10 years
 KEY_SIZE=4096
 ORGANIZATION="MyOrg"
@@ -107,6 +112,19 @@ while [[ $# -gt 0 ]]; do
             CLEAN_MODE=true
             shift
             ;;
+        --revoke)
+            REVOKE_CERT="$2"
+            GEN_CRL=true
+            if [ ! -f "$REVOKE_CERT" ]; then
+                echo -e "${RED}Error: Certificate to revoke not found: $REVOKE_CERT${NC}"
+                exit 1
+            fi
+            shift 2
+            ;;
+        --gen-crl)
+            GEN_CRL=true
+            shift
+            ;;
         *)
             echo -e "${RED}Error: Unknown argument '$1'${NC}"
             usage
@@ -335,6 +353,33 @@ initialize_ca_database() {
     fi
 }
 
+# Function to revoke a certificate and regenerate the CRL
+generate_crl() {
+    if [ ! -f "$CA_KEY" ] || [ ! -f "$CA_CERT" ] || [ ! -f "$CA_CONFIG" ]; then
+        echo -e "${RED}Error: CA files not found. Create the CA first.${NC}"
+        exit 1
+    fi
+    initialize_ca_database
+
+    if [ -n "$REVOKE_CERT" ]; then
+        echo -e "${BLUE}Revoking certificate $REVOKE_CERT...${NC}"
+        if ! openssl ca -config "$CA_CONFIG" -revoke "$REVOKE_CERT"; then
+            echo -e "${RED}✗ Failed to revoke certificate${NC}"
+            exit 1
+        fi
+        echo -e "${GREEN}✓ Revoked serial $(openssl x509 -in "$REVOKE_CERT" -noout -serial | sed 's/serial=//')${NC}"
+    fi
+
+    echo -e "${BLUE}Generating CRL...${NC}"
+    if ! openssl ca -config "$CA_CONFIG" -gencrl -out "./crl.pem"; then
+        echo -e "${RED}✗ Failed to generate CRL${NC}"
+        exit 1
+    fi
+    echo -e "${GREEN}✓ CRL written to ./crl.pem${NC}"
+    openssl crl -in "./crl.pem" -noout -lastupdate -nextupdate
+    echo "Point ServerConfig.crlLocations(...) at crl.pem; the server reloads it when it changes."
+}
+
 # Function to display final instructions
 display_final_instructions() {
     echo ""
@@ -469,6 +514,12 @@ main() {
         clean_artifacts
         exit 0
     fi
+
+    # Handle CRL mode
+    if [ "$GEN_CRL" = true ]; then
+        generate_crl
+        exit 0
+    fi
     
     echo -e "${BLUE}Starting Certificate Authority creation...${NC}"
     echo -e "${BLUE}Configuration:${NC}"
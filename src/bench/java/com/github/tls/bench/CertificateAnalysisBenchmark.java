@@ -0,0 +1,85 @@
+package com.github.tls.bench;
+
+import com.github.tls.CertificateAnalyzer;
+import com.github.tls.Server;
+import com.github.tls.TLSCompatibilityAnalyzer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the certificate checks run when the server and client start and whenever a certificate
+ * is inspected: {@link CertificateAnalyzer#inspectCommonExtensions(X509Certificate)} and
+ * {@link TLSCompatibilityAnalyzer#isCertificateCompatibleWithTLS(String, String)}, on the server
+ * certificate. Logging is limited to warnings, as in the other benchmarks, so the results include
+ * the cost of disabled log statements only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CertificateAnalysisBenchmark {
+
+    /** Keystore password used by the generated keystores. */
+    private static final String PASSWORD = "changeit";
+    /** Alias of the server certificate in its keystore. */
+    private static final String ALIAS = "server";
+
+    /** Protocol the certificate is checked against; public for JMH to set. */
+    @Param({"TLSv1.2", "TLSv1.3"})
+    public String protocol;
+
+    private final CertificateAnalyzer certificateAnalyzer = new CertificateAnalyzer();
+    private TLSCompatibilityAnalyzer compatibilityAnalyzer;
+    private X509Certificate certificate;
+
+    /**
+     * Loads the server certificate.
+     * @throws Exception if the keystore cannot be loaded
+     */
+    @Setup
+    public void setUp() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream in = Server.class.getResourceAsStream("/server.jks")) {
+            if (in == null) {
+                throw new IOException("Keystore resource not found: /server.jks (run scripts/create-keystore.sh)");
+            }
+            keyStore.load(in, PASSWORD.toCharArray());
+        }
+        certificate = (X509Certificate) keyStore.getCertificate(ALIAS);
+        compatibilityAnalyzer = new TLSCompatibilityAnalyzer(keyStore, null);
+    }
+
+    /**
+     * Inspects the key usage, extended key usage, subject alternative names and other common
+     * extensions of the certificate.
+     */
+    @Benchmark
+    public void inspectCommonExtensions() {
+        certificateAnalyzer.inspectCommonExtensions(certificate);
+    }
+
+    /**
+     * Checks the validity, signature algorithm, key length and key usage of the certificate.
+     * @return whether the certificate is compatible with the protocol
+     */
+    @Benchmark
+    public boolean isCertificateCompatibleWithTLS() {
+        return compatibilityAnalyzer.isCertificateCompatibleWithTLS(ALIAS, protocol);
+    }
+}
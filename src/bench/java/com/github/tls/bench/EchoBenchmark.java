@@ -0,0 +1,74 @@
+package com.github.tls.bench;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.Server;
+import com.github.tls.ServerConfig;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link Client#sendMessage(String)} round trip to a blocking {@link Server} over a
+ * loopback socket: writing the line, the server echoing it, and reading the reply.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EchoBenchmark {
+
+    /** Keystore password used by the generated keystores. */
+    private static final String PASSWORD = "changeit";
+    /** Port of the benchmark server, away from the ports of the other benchmarks. */
+    private static final int PORT = 18543;
+    /** Message echoed by each round trip. */
+    private static final String MESSAGE = "The quick brown fox jumps over the lazy dog";
+
+    private Server server;
+    private Client client;
+
+    /**
+     * Starts the server and connects the client.
+     * @throws Exception if the server cannot be started or the client cannot connect
+     */
+    @Setup
+    public void setUp() throws Exception {
+        server = new Server(PASSWORD, ServerConfig.builder().port(PORT).jmxEnabled(false).build());
+        server.start();
+
+        client = new Client(PASSWORD, ClientConfig.builder().port(PORT).build());
+        client.connect();
+        if (!client.isConnected()) {
+            throw new IllegalStateException("Unable to connect to the benchmark server on port " + PORT);
+        }
+    }
+
+    /**
+     * Closes the client, then the server and its workers.
+     */
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    /**
+     * Sends a line and waits for its echo.
+     */
+    @Benchmark
+    public void roundTrip() {
+        client.sendMessage(MESSAGE);
+    }
+}
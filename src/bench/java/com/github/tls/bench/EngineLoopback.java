@@ -0,0 +1,112 @@
+package com.github.tls.bench;
+
+import java.nio.ByteBuffer;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Connects a client and a server {@link SSLEngine} through in-memory buffers, so that handshakes can
+ * be measured without sockets, threads or the network stack.
+ */
+final class EngineLoopback {
+
+    /** Records of a flight buffered at most in one direction, so a whole flight fits at once. */
+    private static final int RECORDS_PER_FLIGHT = 4;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final SSLEngine client;
+    private final SSLEngine server;
+    private final ByteBuffer clientToServer;
+    private final ByteBuffer serverToClient;
+    private final ByteBuffer application;
+
+    /**
+     * Creates a loopback between two engines that have not started their handshake.
+     * @param client the client engine
+     * @param server the server engine
+     */
+    EngineLoopback(SSLEngine client, SSLEngine server) {
+        this.client = client;
+        this.server = server;
+        SSLSession session = client.getSession();
+        clientToServer = ByteBuffer.allocate(session.getPacketBufferSize() * RECORDS_PER_FLIGHT);
+        serverToClient = ByteBuffer.allocate(session.getPacketBufferSize() * RECORDS_PER_FLIGHT);
+        application = ByteBuffer.allocate(session.getApplicationBufferSize());
+    }
+
+    /**
+     * Runs the handshake to completion, including the delivery of post-handshake messages such as
+     * TLS 1.3 session tickets, which the client needs to resume the session later.
+     * @throws SSLException if the handshake fails or stops making progress
+     */
+    void handshake() throws SSLException {
+        client.beginHandshake();
+        server.beginHandshake();
+        do {
+            boolean progress = step(client, serverToClient, clientToServer);
+            progress |= step(server, clientToServer, serverToClient);
+            if (!progress) {
+                throw new SSLException("Handshake stalled: client " + client.getHandshakeStatus()
+                        + ", server " + server.getHandshakeStatus());
+            }
+        } while (isHandshaking(client) || isHandshaking(server)
+                || clientToServer.position() > 0 || serverToClient.position() > 0);
+    }
+
+    /**
+     * Advances one engine as far as it can go with the data received so far.
+     * @param engine the engine
+     * @param inbound the records sent to the engine, in write mode
+     * @param outbound the records sent by the engine, in write mode
+     * @return true if the engine consumed or produced anything
+     * @throws SSLException if the engine fails
+     */
+    private boolean step(SSLEngine engine, ByteBuffer inbound, ByteBuffer outbound) throws SSLException {
+        boolean progress = false;
+        while (true) {
+            SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+            SSLEngineResult result;
+            switch (status) {
+                case NEED_TASK:
+                    Runnable task;
+                    while ((task = engine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                    progress = true;
+                    continue;
+                case NEED_WRAP:
+                    result = engine.wrap(EMPTY, outbound);
+                    break;
+                default:
+                    // Unwrap during the handshake, and afterwards for post-handshake messages
+                    if (inbound.position() == 0) {
+                        return progress;
+                    }
+                    inbound.flip();
+                    application.clear();
+                    result = engine.unwrap(inbound, application);
+                    inbound.compact();
+                    break;
+            }
+            if (result.getStatus() != SSLEngineResult.Status.OK) {
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+                    return progress;
+                }
+                throw new SSLException("Unexpected " + result.getStatus() + " during the handshake");
+            }
+            if (result.bytesConsumed() == 0 && result.bytesProduced() == 0 && engine.getHandshakeStatus() == status) {
+                return progress;
+            }
+            progress = true;
+        }
+    }
+
+    private static boolean isHandshaking(SSLEngine engine) {
+        SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+        return status != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+                && status != SSLEngineResult.HandshakeStatus.FINISHED;
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.tls.bench;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.Server;
+import com.github.tls.ServerConfig;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * Compares the platform-pool and virtual-thread execution modes of the blocking {@link Server}.
+ * Every client connection is held open for the whole run, so the number of connections that get
+ * served shows how many concurrent connections each mode sustains; the echo round trips of the
+ * served connections give the latency percentiles.
+ *
+ * <p>Usage: {@code ExecutionModeBenchmark [connections] [messagesPerConnection] [workerThreads]}.
+ * The virtual-thread mode is skipped when the JVM is older than Java 21.
+ */
+public final class ExecutionModeBenchmark {
+
+    /** Default number of concurrent client connections. */
+    private static final int DEFAULT_CONNECTIONS = 1000;
+    /** Default number of echo round trips per connection. */
+    private static final int DEFAULT_MESSAGES = 20;
+    /** Default platform worker pool size. */
+    private static final int DEFAULT_WORKERS = 64;
+    /** Time a client waits for the server before giving up, in milliseconds. */
+    private static final int CLIENT_TIMEOUT_MILLIS = 10000;
+    /** First port used by the benchmark servers. */
+    private static final int BASE_PORT = 18443;
+    /** Keystore password used by the generated keystores. */
+    private static final String PASSWORD = "changeit";
+    /** Nanoseconds per microsecond. */
+    private static final long NANOS_PER_MICRO = 1000L;
+    /** Percentile multiplier for p50. */
+    private static final double P50 = 0.50;
+    /** Percentile multiplier for p99. */
+    private static final double P99 = 0.99;
+
+    private ExecutionModeBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args optional connection count, messages per connection and worker thread count
+     * @throws Exception if the benchmark cannot be set up
+     */
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONNECTIONS;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MESSAGES;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_WORKERS;
+        SSLContext clientContext = new Client(PASSWORD, ClientConfig.builder().build()).getContext();
+        if (clientContext == null) {
+            throw new IllegalStateException("Keystores not found (run scripts/create-keystore.sh)");
+        }
+
+        int port = BASE_PORT;
+        for (ServerConfig.ExecutionMode mode : ServerConfig.ExecutionMode.values()) {
+            ServerConfig config = ServerConfig.builder()
+                    .port(port++)
+                    .executionMode(mode)
+                    .workerThreads(workers)
+                    .queueCapacity(connections)
+                    .build();
+            Server server;
+            try {
+                server = new Server(PASSWORD, config);
+            } catch (UnsupportedOperationException e) {
+                System.out.printf("%-16s skipped: %s%n", mode, e.getMessage());
+                continue;
+            }
+            server.start();
+            run(mode, clientContext, server.getPort(), connections, messages);
+            server.close();
+        }
+    }
+
+    private static void run(ServerConfig.ExecutionMode mode, SSLContext context, int port,
+            int connections, int messages) throws InterruptedException {
+        long[][] latencies = new long[connections][];
+        AtomicInteger served = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(connections);
+        CountDownLatch release = new CountDownLatch(1);
+
+        for (int i = 0; i < connections; i++) {
+            final int index = i;
+            Thread client = new Thread(() -> {
+                try (SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket("localhost", port)) {
+                    socket.setSoTimeout(CLIENT_TIMEOUT_MILLIS);
+                    PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                    long[] samples = new long[messages];
+                    for (int m = 0; m < messages; m++) {
+                        long start = System.nanoTime();
+                        writer.println("message " + m);
+                        if (reader.readLine() == null) {
+                            throw new IOException("Connection closed by server");
+                        }
+                        samples[m] = System.nanoTime() - start;
+                    }
+                    latencies[index] = samples;
+                    served.incrementAndGet();
+                    finished.countDown();
+                    // Hold the connection open until every client has finished
+                    release.await();
+                } catch (IOException e) {
+                    finished.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "bench-client-" + i);
+            client.setDaemon(true);
+            client.start();
+        }
+        finished.await();
+        release.countDown();
+
+        long[] all = Arrays.stream(latencies).filter(samples -> samples != null)
+                .flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%-16s served %d/%d connections, p50 %d us, p99 %d us, max %d us%n",
+                mode, served.get(), connections, percentile(all, P50), percentile(all, P99),
+                all.length == 0 ? 0 : all[all.length - 1] / NANOS_PER_MICRO);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / NANOS_PER_MICRO;
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.tls.bench;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.Server;
+import com.github.tls.ServerConfig;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures full and resumed mutual TLS handshakes between a client and a server {@link SSLEngine}
+ * connected by an {@link EngineLoopback}, using the SSL contexts the {@link Server} and
+ * {@link Client} build from the project keystores. Without sockets, the results are the CPU cost
+ * of both sides of the handshake.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandshakeBenchmark {
+
+    /** Keystore password used by the generated keystores. */
+    private static final String PASSWORD = "changeit";
+    /** Peer host of resumable client engines; the client session cache is keyed by host and port. */
+    private static final String PEER_HOST = "localhost";
+
+    /** Protocol negotiated by both sides; public for JMH to set. */
+    @Param({"TLSv1.2", "TLSv1.3"})
+    public String protocol;
+
+    private SSLContext serverContext;
+    private SSLContext clientContext;
+
+    /**
+     * Builds the contexts and checks that a second handshake with the same peer resumes the session.
+     * @throws Exception if the contexts cannot be built or the session is not resumed
+     */
+    @Setup
+    public void setUp() throws Exception {
+        ServerConfig serverConfig = ServerConfig.builder().tlsProtocols(protocol).jmxEnabled(false).build();
+        serverContext = new Server(PASSWORD, serverConfig).getContext();
+        clientContext = new Client(PASSWORD, ClientConfig.builder().tlsProtocols(protocol).build()).getContext();
+        if (serverContext == null || clientContext == null) {
+            throw new IllegalStateException("Keystores not found (run scripts/create-keystore.sh)");
+        }
+
+        SSLSession first = resumedHandshake();
+        SSLSession second = resumedHandshake();
+        if (!protocol.equals(second.getProtocol())) {
+            throw new IllegalStateException("Negotiated " + second.getProtocol() + " instead of " + protocol);
+        }
+        if (second.getCreationTime() > first.getCreationTime()) {
+            throw new IllegalStateException("Session was not resumed with " + protocol);
+        }
+    }
+
+    /**
+     * Runs a full handshake: the client engine has no peer identity, so it never offers a session.
+     * @return the negotiated server session
+     * @throws SSLException if the handshake fails
+     */
+    @Benchmark
+    public SSLSession fullHandshake() throws SSLException {
+        return handshake(clientContext.createSSLEngine());
+    }
+
+    /**
+     * Runs an abbreviated handshake resuming the session cached for the peer.
+     * @return the negotiated server session
+     * @throws SSLException if the handshake fails
+     */
+    @Benchmark
+    public SSLSession resumedHandshake() throws SSLException {
+        return handshake(clientContext.createSSLEngine(PEER_HOST, Server.SSL_PORT));
+    }
+
+    private SSLSession handshake(SSLEngine client) throws SSLException {
+        client.setUseClientMode(true);
+        SSLEngine server = serverContext.createSSLEngine();
+        server.setUseClientMode(false);
+        server.setNeedClientAuth(true);
+        new EngineLoopback(client, server).handshake();
+        return server.getSession();
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.tls.bench;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this project and stores the results as JSON, so that runs before and
+ * after a change can be compared.
+ *
+ * <p>Usage: {@code JmhBenchmarks [JMH options] [benchmark regexps]}, taking the options of the JMH
+ * command line ({@code -h} lists them). Unless {@code -rf} or {@code -rff} say otherwise, results are
+ * written in JSON to {@code target/jmh-result.json}.
+ */
+public final class JmhBenchmarks {
+
+    /** Default result file, relative to the project directory. */
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private JmhBenchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     * @param args JMH command line options and benchmark regexps
+     * @throws Exception if the options are invalid or a benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        exposeClassPath();
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(Paths.get(DEFAULT_RESULT_FILE).toAbsolutePath().toString());
+        }
+        Runner runner = new Runner(options.build());
+        if (commandLine.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+
+    /**
+     * Sets {@code java.class.path} to the class path this class was loaded from. JMH starts the forked
+     * benchmark JVMs with {@code java.class.path}, which under {@code exec:java} is the class path of
+     * Maven rather than that of the project.
+     * @throws URISyntaxException if the class path holds an invalid location
+     */
+    private static void exposeClassPath() throws URISyntaxException {
+        ClassLoader loader = JmhBenchmarks.class.getClassLoader();
+        if (!(loader instanceof URLClassLoader)) {
+            return;
+        }
+        StringBuilder classPath = new StringBuilder();
+        for (URL url : ((URLClassLoader) loader).getURLs()) {
+            if (classPath.length() > 0) {
+                classPath.append(File.pathSeparatorChar);
+            }
+            classPath.append(new File(url.toURI()).getPath());
+        }
+        System.setProperty("java.class.path", classPath.toString());
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.tls.bench;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.Server;
+import com.github.tls.ServerConfig;
+import com.github.tls.transport.MemoryTransport;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the same round trip as {@link EchoBenchmark}, through {@link Client#request(String)} and the
+ * {@link Server}'s connection handling, over a {@link MemoryTransport} instead of a loopback socket.
+ * The difference between the two is the cost of kernel networking; this one tracks the record layer
+ * and the server code alone and needs no free port.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemoryEchoBenchmark {
+
+    /** Keystore password used by the generated keystores. */
+    private static final String PASSWORD = "changeit";
+    /** Message echoed by each round trip. */
+    private static final String MESSAGE = "The quick brown fox jumps over the lazy dog";
+
+    private Client client;
+
+    /**
+     * Serves the server side of an in-memory connection on a daemon thread and connects the client.
+     * @throws IOException if the handshake fails
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Server server = new Server(PASSWORD, ServerConfig.builder().jmxEnabled(false).build());
+        client = new Client(PASSWORD, ClientConfig.defaults());
+        MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+        Thread serverThread = new Thread(() -> server.serve(transport.getServerStream()), "bench-memory-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        client.connect(transport.getClientStream());
+    }
+
+    /**
+     * Closes the client, which ends the server thread.
+     */
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    /**
+     * Sends a line and waits for its echo.
+     * @return the reply, consumed so that the round trip cannot be eliminated
+     * @throws IOException if the connection fails
+     */
+    @Benchmark
+    public String roundTrip() throws IOException {
+        return client.request(MESSAGE);
+    }
+}
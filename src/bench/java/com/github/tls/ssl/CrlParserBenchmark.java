@@ -0,0 +1,190 @@
+package com.github.tls.ssl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.CRL;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Compares loading a large CRL with the JDK parser, which creates an {@link X509CRLEntry} per revoked
+ * certificate, against the streaming {@link CrlReader} behind {@link RevocationIndex}. Both build the
+ * same revoked-serial index; the benchmark reports the load time and the peak heap use of each.
+ * <p>
+ * The CRL is generated with random 16 byte serials, as public CAs issue them, and an issuer that is
+ * not trusted, so that neither side spends time on the signature.
+ *
+ * <p>Usage: {@code CrlParserBenchmark [entries] [rounds]}. The peak heap is sampled while each load
+ * runs; run with a fixed heap, for example {@code -Xms4g -Xmx4g}, so that the figures are comparable.
+ */
+public final class CrlParserBenchmark {
+
+    /** Default number of revoked certificates in the generated CRL. */
+    private static final int DEFAULT_ENTRIES = 1_000_000;
+    /** Default number of timed loads per parser; the first is a warm-up. */
+    private static final int DEFAULT_ROUNDS = 4;
+    /** Length of the generated serials, in bytes. */
+    private static final int SERIAL_BYTES = 16;
+    /** Revocation date of every entry. */
+    private static final String REVOCATION_DATE = "261016120000Z";
+    /** Content of the OID of ecdsa-with-SHA256. */
+    private static final byte[] ECDSA_WITH_SHA256 = {0x2A, (byte) 0x86, 0x48, (byte) 0xCE, 0x3D, 0x04, 0x03, 0x02};
+    /** Seed of the serial generator, so that runs are repeatable. */
+    private static final long SEED = 42L;
+    /** Interval at which the used heap is sampled, in nanoseconds. */
+    private static final long SAMPLE_NANOS = 200_000L;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    /** Bytes per mebibyte. */
+    private static final long BYTES_PER_MIB = 1024L * 1024L;
+
+    private CrlParserBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args optional entry count and number of rounds
+     * @throws Exception if the CRL cannot be generated or loaded
+     */
+    public static void main(String[] args) throws Exception {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENTRIES;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+        Path crl = Files.createTempFile("bench", ".crl");
+        try {
+            generate(crl, entries);
+            System.out.printf("CRL with %d entries, %d KiB%n", entries, Files.size(crl) / 1024);
+            for (int round = 0; round < rounds; round++) {
+                String label = round == 0 ? "warm-up" : "round " + round;
+                measure("jdk " + label, () -> loadWithJdk(crl));
+                measure("streaming " + label, () -> RevocationIndex.load(
+                        Collections.singletonList(crl.toString()), new X509Certificate[0]).getSerialCount());
+            }
+        } finally {
+            Files.delete(crl);
+        }
+    }
+
+    /**
+     * Loads a CRL the way {@link RevocationIndex} did before {@link CrlReader}.
+     */
+    private static int loadWithJdk(Path file) throws Exception {
+        List<BigInteger> serials = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file)) {
+            for (CRL crl : CertificateFactory.getInstance("X.509").generateCRLs(in)) {
+                for (X509CRLEntry entry : ((X509CRL) crl).getRevokedCertificates()) {
+                    serials.add(entry.getSerialNumber());
+                }
+            }
+        }
+        return RevokedSerials.of(serials).size();
+    }
+
+    private static void measure(String label, Load load) throws Exception {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+                LockSupport.parkNanos(SAMPLE_NANOS);
+            }
+        }, "bench-heap-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+        long start = System.nanoTime();
+        int serials = load.run();
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        sampler.join();
+        System.out.printf("%-20s %8d serials in %6d ms, peak heap +%5d MiB%n", label, serials,
+                elapsed / NANOS_PER_MILLI, (peak.get() - baseline) / BYTES_PER_MIB);
+    }
+
+    /**
+     * Writes a DER CRL of an untrusted issuer with a placeholder signature.
+     */
+    private static void generate(Path file, int entries) throws IOException {
+        byte[] algorithm = element(0x30, element(0x06, ECDSA_WITH_SHA256));
+        byte[] issuer = new X500Principal("CN=Benchmark CA").getEncoded();
+        byte[] date = element(0x17, REVOCATION_DATE.getBytes(StandardCharsets.US_ASCII));
+        byte[] version = element(0x02, new byte[] {1});
+        byte[] signature = element(0x03, new byte[] {0, 0});
+        int entryLength = 2 + SERIAL_BYTES + date.length;
+        long entriesLength = (long) entries * (2 + entryLength);
+        long tbsLength = version.length + algorithm.length + issuer.length + date.length
+                + header(0x30, entriesLength).length + entriesLength;
+        long crlLength = header(0x30, tbsLength).length + tbsLength + algorithm.length + signature.length;
+
+        Random random = new Random(SEED);
+        byte[] serial = new byte[SERIAL_BYTES];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            out.write(header(0x30, crlLength));
+            out.write(header(0x30, tbsLength));
+            out.write(version);
+            out.write(algorithm);
+            out.write(issuer);
+            out.write(date);
+            out.write(header(0x30, entriesLength));
+            for (int i = 0; i < entries; i++) {
+                random.nextBytes(serial);
+                // A positive serial without a leading zero keeps every entry the same length
+                serial[0] = (byte) (serial[0] & 0x7F | 0x01);
+                out.write(0x30);
+                out.write(entryLength);
+                out.write(0x02);
+                out.write(SERIAL_BYTES);
+                out.write(serial);
+                out.write(date);
+            }
+            out.write(algorithm);
+            out.write(signature);
+        }
+    }
+
+    private static byte[] element(int tag, byte[] content) {
+        byte[] header = header(tag, content.length);
+        byte[] element = new byte[header.length + content.length];
+        System.arraycopy(header, 0, element, 0, header.length);
+        System.arraycopy(content, 0, element, header.length, content.length);
+        return element;
+    }
+
+    private static byte[] header(int tag, long length) {
+        if (length < 0x80) {
+            return new byte[] {(byte) tag, (byte) length};
+        }
+        byte[] bytes = BigInteger.valueOf(length).toByteArray();
+        int start = bytes[0] == 0 ? 1 : 0;
+        byte[] header = new byte[2 + bytes.length - start];
+        header[0] = (byte) tag;
+        header[1] = (byte) (0x80 | (bytes.length - start));
+        System.arraycopy(bytes, start, header, 2, bytes.length - start);
+        return header;
+    }
+
+    /**
+     * One way of loading the CRL.
+     */
+    @FunctionalInterface
+    private interface Load {
+        int run() throws Exception;
+    }
+}
@@ -1,50 +1,76 @@
 package com.github.tls;
 
+import com.github.tls.nio.NioServer;
+import com.github.tls.protocol.Protocol;
+import java.io.IOException;
+
 /**
  * Hello world!
  */
 public final class App {
 
-    /** Server startup delay in milliseconds. */
-    private static final int SERVER_STARTUP_DELAY = 2000;
-
     private App() {
     }
 
     /**
      * Starts a server thread and demonstrates client communication.
-     * @param args The arguments of the program. Supports -single-use flag.
+     * @param args The arguments of the program. Supports -single-use, -nio, -virtual and -framed flags.
      */
     public static void main(String[] args) {
         System.out.println("Starting mTLS Server Application...");
 
         // Parse command line arguments
         boolean singleUseMode = false;
+        boolean nioMode = false;
+        ServerConfig.ExecutionMode executionMode = ServerConfig.ExecutionMode.PLATFORM_POOL;
+        Protocol protocol = Protocol.LINE;
         for (String arg : args) {
             if ("-single-use".equals(arg)) {
                 singleUseMode = true;
                 System.out.println("Single-use mode enabled - using serverAuth EKU in client certificate");
-                break;
+            } else if ("-nio".equals(arg)) {
+                nioMode = true;
+                System.out.println("NIO mode enabled - using the non-blocking SSLEngine server");
+            } else if ("-virtual".equals(arg)) {
+                executionMode = ServerConfig.ExecutionMode.VIRTUAL_THREADS;
+                System.out.println("Virtual thread mode enabled - one virtual thread per connection");
+            } else if ("-framed".equals(arg)) {
+                protocol = Protocol.FRAMED;
+                System.out.println("Framed mode enabled - using length-prefixed binary frames");
             }
         }
 
         try {
             // Create a server instance
-            Server server = new Server("changeit");
-
-            // Start the server in a new thread
-            Thread serverThread = new Thread(server, "mTLS-Server");
-            serverThread.setDaemon(true);  // Allow program to exit when main thread ends
-            serverThread.start();
+            ServerConfig serverConfig = ServerConfig.builder()
+                    .executionMode(executionMode)
+                    .protocol(protocol)
+                    .build();
+            Server server = new Server("changeit", serverConfig);
+
+            // Start the server on a daemon thread, optionally on the non-blocking engine; both return
+            // once the socket is bound, so the client can connect right away. On exit, including Ctrl+C,
+            // the server drains its connections instead of dying with the JVM.
+            if (nioMode) {
+                NioServer nioServer = new NioServer(server.getContext(), serverConfig);
+                nioServer.bind();
+                Thread serverThread = new Thread(nioServer, "mTLS-Server");
+                serverThread.setDaemon(true);  // Allow program to exit when main thread ends
+                serverThread.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(nioServer::close, "mTLS-Shutdown"));
+            } else {
+                server.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(server::close, "mTLS-Shutdown"));
+            }
 
             System.out.println("Server thread started.");
 
-            // Give the server a moment to start up
-            Thread.sleep(SERVER_STARTUP_DELAY);
-
             // Create and use a client to send messages
             System.out.println("\nStarting client communication...");
-            Client client = new Client("changeit", singleUseMode);
+            Client client = new Client("changeit", ClientConfig.builder()
+                    .singleUseMode(singleUseMode)
+                    .protocol(protocol)
+                    .build());
             client.connect();
 
             // Send some messages to the server
@@ -58,11 +84,12 @@ public final class App {
             // Close the client connection
             client.close();
 
-            System.out.println("\nClient communication completed. Press Ctrl+C to stop the server.");
+            System.out.println("\nClient communication completed. Stopping the server.");
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Application interrupted: " + e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            System.err.println("Unsupported server option: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Unable to start server: " + e.getMessage());
         }
     }
 
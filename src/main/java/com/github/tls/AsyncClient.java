@@ -0,0 +1,219 @@
+package com.github.tls;
+
+import com.github.tls.protocol.FrameCodec;
+import com.github.tls.protocol.Protocol;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous mTLS client multiplexing concurrent requests over one connection.
+ * Every request is sent as a {@link Protocol#FRAMED} frame whose payload starts with a request ID
+ * (see {@link FrameCodec#writeFrame(OutputStream, long, ByteBuffer)}); a single reader thread matches
+ * replies to their pending futures by that ID. Any number of threads may send concurrently: a lock is
+ * held only while a frame is written, never across the round trip.
+ * <p>
+ * Futures are completed on the reader thread, so dependent stages doing real work should use the
+ * {@code *Async} variants of {@link CompletableFuture}.
+ */
+public class AsyncClient implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncClient.class);
+
+    private final SSLContext context;
+    private final ClientConfig config;
+    private final Map<Long, CompletableFuture<ByteBuffer>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final AtomicInteger waitingWriters = new AtomicInteger();
+    private final Object writeLock = new Object();
+
+    private SSLSocket socket;
+    private OutputStream out;
+    private Thread reader;
+    private volatile boolean closed;
+
+    /**
+     * Creates an asynchronous client.
+     * @param context the SSL context holding the client certificate and truststore, see {@link Client#getContext()}
+     * @param config client configuration; its protocol must be {@link Protocol#FRAMED}
+     */
+    public AsyncClient(SSLContext context, ClientConfig config) {
+        if (config.getProtocol() != Protocol.FRAMED) {
+            throw new IllegalArgumentException("AsyncClient requires the framed protocol");
+        }
+        this.context = context;
+        this.config = config;
+    }
+
+    /**
+     * Connects to the server, completes the handshake and starts the reader thread.
+     * @throws IOException if the connection or handshake fails
+     */
+    public void connect() throws IOException {
+        socket = (SSLSocket) context.getSocketFactory().createSocket(config.getHost(), config.getPort());
+        MyHandshakeListener listener = new MyHandshakeListener();
+        socket.addHandshakeCompletedListener(listener);
+        socket.setUseClientMode(true);
+        try {
+            socket.startHandshake();
+        } catch (IOException e) {
+            listener.handshakeFailed(e);
+            throw e;
+        }
+
+        out = new BufferedOutputStream(socket.getOutputStream());
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        reader = new Thread(() -> readReplies(in), "mTLS-AsyncClient-Reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Sends a payload and returns a future completed with the reply payload.
+     * @param payload the payload to send, from its position to its limit; its position is not changed
+     * @return a future completed with a read-only reply payload, or exceptionally if the payload is too
+     *     large for a frame or the connection fails; a failed write closes the connection
+     */
+    public CompletableFuture<ByteBuffer> send(ByteBuffer payload) {
+        CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+        if (closed || out == null) {
+            future.completeExceptionally(new IllegalStateException("Not connected. Call connect() first."));
+            return future;
+        }
+        try {
+            // Rejected here rather than by the codec, so that an invalid payload never leaves half a frame
+            FrameCodec.checkLength(payload.remaining() + FrameCodec.REQUEST_ID_LENGTH);
+        } catch (ProtocolException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        long requestId = nextRequestId.getAndIncrement();
+        pending.put(requestId, future);
+        if (closed && pending.remove(requestId) != null) {
+            // The reader failed the pending requests before this one was registered
+            future.completeExceptionally(new IOException("Connection closed"));
+            return future;
+        }
+
+        waitingWriters.incrementAndGet();
+        try {
+            synchronized (writeLock) {
+                waitingWriters.decrementAndGet();
+                try {
+                    FrameCodec.writeFrame(out, requestId, payload);
+                } finally {
+                    // A thread queued behind us will flush; its frame then shares our TLS record. The last
+                    // writer flushes even if its own write failed, so earlier frames are never left behind.
+                    if (waitingWriters.get() == 0) {
+                        out.flush();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            future.completeExceptionally(e);
+            if (!closed) {
+                LOGGER.error("Error writing request {}: {}", requestId, e.getMessage());
+            }
+            // Part of the frame may have been written, so the server can no longer find the next frame
+            close();
+        }
+        return future;
+    }
+
+    /**
+     * Sends a UTF-8 message and returns a future completed with the decoded reply.
+     * @param message the message to send
+     * @return a future completed with the reply message
+     */
+    public CompletableFuture<String> sendMessage(String message) {
+        return send(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)))
+                .thenApply(reply -> StandardCharsets.UTF_8.decode(reply).toString());
+    }
+
+    /**
+     * Gets the number of requests still waiting for a reply.
+     * @return the pending request count
+     */
+    public int getPendingRequests() {
+        return pending.size();
+    }
+
+    /**
+     * Closes the connection. Requests still pending complete exceptionally.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (socket != null && !socket.isClosed()) {
+            try {
+                socket.close();
+                LOGGER.info("Connection closed.");
+            } catch (IOException e) {
+                LOGGER.error("Error closing connection: {}", e.getMessage());
+            }
+        }
+        failPending(new IOException("Connection closed"));
+    }
+
+    /**
+     * Reader thread body: completes the future of every reply until the connection ends.
+     * @param in the decrypted input stream
+     */
+    private void readReplies(DataInputStream in) {
+        IOException failure = null;
+        try {
+            ByteBuffer frame = ByteBuffer.allocate(FrameCodec.INITIAL_BUFFER_CAPACITY);
+            while ((frame = FrameCodec.readFrame(in, frame)) != null) {
+                if (frame.remaining() < FrameCodec.REQUEST_ID_LENGTH) {
+                    throw new IOException("Reply frame without request ID");
+                }
+                long requestId = frame.getLong();
+                CompletableFuture<ByteBuffer> future = pending.remove(requestId);
+                if (future == null) {
+                    LOGGER.warn("Discarding reply to unknown request {}", requestId);
+                    continue;
+                }
+                // The frame buffer is reused for the next reply, so each future gets its own copy
+                ByteBuffer reply = ByteBuffer.allocate(frame.remaining());
+                reply.put(frame).flip();
+                future.complete(reply.asReadOnlyBuffer());
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                LOGGER.error("Error reading replies: {}", e.getMessage());
+            }
+            failure = e;
+        } finally {
+            if (failure == null) {
+                failure = new IOException(closed ? "Connection closed" : "Connection closed by server");
+            }
+            closed = true;
+            failPending(failure);
+        }
+    }
+
+    private void failPending(IOException cause) {
+        Iterator<CompletableFuture<ByteBuffer>> futures = pending.values().iterator();
+        while (futures.hasNext()) {
+            CompletableFuture<ByteBuffer> future = futures.next();
+            futures.remove();
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -328,7 +328,7 @@ public class CertificateAnalyzer {
      * @param oid The EKU OID
      * @return Human-readable EKU name
      */
-    private String getExtendedKeyUsageName(String oid) {
+    static String getExtendedKeyUsageName(String oid) {
         switch (oid) {
             case "1.3.6.1.5.5.7.3.1": return "Server Authentication";
             case "1.3.6.1.5.5.7.3.2": return "Client Authentication";
@@ -348,7 +348,7 @@ public class CertificateAnalyzer {
      * @param type The SAN type integer
      * @return Human-readable SAN type name
      */
-    private String getSubjectAltNameType(Integer type) {
+    static String getSubjectAltNameType(Integer type) {
         switch (type) {
             case SAN_OTHER_NAME: return "Other Name";
             case SAN_RFC822_NAME: return "RFC 822 Name (Email)";
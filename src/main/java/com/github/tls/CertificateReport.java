@@ -0,0 +1,250 @@
+package com.github.tls;
+
+import com.github.tls.utils.KeyUsageConstants;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable summary of a certificate and its compatibility with the enabled TLS versions, as produced
+ * by {@link StartupDiagnostics}. It holds the same facts that {@link CertificateAnalyzer} and
+ * {@link TLSCompatibilityAnalyzer} log, so they can be queried after startup instead of read from logs.
+ */
+public final class CertificateReport {
+
+    private final String alias;
+    private final String fingerprint;
+    private final String subject;
+    private final String issuer;
+    private final Instant notBefore;
+    private final Instant notAfter;
+    private final String signatureAlgorithm;
+    private final List<String> keyUsage;
+    private final List<String> extendedKeyUsage;
+    private final List<String> subjectAlternativeNames;
+    private final Map<String, String> incompatibilities;
+
+    private CertificateReport(String alias, String fingerprint, X509Certificate cert, List<String> keyUsage,
+            List<String> extendedKeyUsage, List<String> subjectAlternativeNames,
+            Map<String, String> incompatibilities) {
+        this.alias = alias;
+        this.fingerprint = fingerprint;
+        this.subject = cert.getSubjectX500Principal().getName();
+        this.issuer = cert.getIssuerX500Principal().getName();
+        this.notBefore = cert.getNotBefore().toInstant();
+        this.notAfter = cert.getNotAfter().toInstant();
+        this.signatureAlgorithm = cert.getSigAlgName();
+        this.keyUsage = Collections.unmodifiableList(keyUsage);
+        this.extendedKeyUsage = Collections.unmodifiableList(extendedKeyUsage);
+        this.subjectAlternativeNames = Collections.unmodifiableList(subjectAlternativeNames);
+        this.incompatibilities = Collections.unmodifiableMap(incompatibilities);
+    }
+
+    /**
+     * Builds a report for a certificate.
+     *
+     * @param alias the alias of the certificate in its keystore
+     * @param cert the certificate
+     * @param tlsVersions the TLS versions to check the certificate against
+     * @return the report
+     * @throws CertificateException if the certificate cannot be encoded or its extensions cannot be parsed
+     */
+    public static CertificateReport of(String alias, X509Certificate cert, String... tlsVersions)
+            throws CertificateException {
+        List<String> keyUsage = new ArrayList<>();
+        boolean[] bits = cert.getKeyUsage();
+        if (bits != null) {
+            for (int i = 0; i < Math.min(bits.length, KeyUsageConstants.KEY_USAGE_COUNT); i++) {
+                if (bits[i]) {
+                    keyUsage.add(KeyUsageConstants.getKeyUsageName(i));
+                }
+            }
+        }
+        List<String> extendedKeyUsage = new ArrayList<>();
+        if (cert.getExtendedKeyUsage() != null) {
+            for (String eku : cert.getExtendedKeyUsage()) {
+                extendedKeyUsage.add(CertificateAnalyzer.getExtendedKeyUsageName(eku) + " (" + eku + ")");
+            }
+        }
+        List<String> subjectAlternativeNames = new ArrayList<>();
+        Collection<List<?>> names = cert.getSubjectAlternativeNames();
+        if (names != null) {
+            for (List<?> san : names) {
+                if (san.size() >= 2) {
+                    subjectAlternativeNames.add(
+                            CertificateAnalyzer.getSubjectAltNameType((Integer) san.get(0)) + ": " + san.get(1));
+                }
+            }
+        }
+        Map<String, String> incompatibilities = new LinkedHashMap<>();
+        for (String tlsVersion : tlsVersions) {
+            incompatibilities.put(tlsVersion, TLSCompatibilityAnalyzer.findIncompatibility(cert, tlsVersion));
+        }
+        return new CertificateReport(alias, fingerprint(cert), cert, keyUsage, extendedKeyUsage,
+                subjectAlternativeNames, incompatibilities);
+    }
+
+    /**
+     * Computes the SHA-256 fingerprint of a certificate, which identifies it across keystores.
+     *
+     * @param cert the certificate
+     * @return the fingerprint as lower-case hex
+     * @throws CertificateEncodingException if the certificate cannot be encoded
+     */
+    public static String fingerprint(X509Certificate cert) throws CertificateEncodingException {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(cert.getEncoded())) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Gets the alias the certificate was first reported under.
+     *
+     * @return the alias
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Gets the SHA-256 fingerprint of the certificate.
+     *
+     * @return the fingerprint as lower-case hex
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Gets the subject distinguished name.
+     *
+     * @return the subject
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Gets the issuer distinguished name.
+     *
+     * @return the issuer
+     */
+    public String getIssuer() {
+        return issuer;
+    }
+
+    /**
+     * Gets the start of the validity period.
+     *
+     * @return the time the certificate becomes valid
+     */
+    public Instant getNotBefore() {
+        return notBefore;
+    }
+
+    /**
+     * Gets the end of the validity period.
+     *
+     * @return the time the certificate expires
+     */
+    public Instant getNotAfter() {
+        return notAfter;
+    }
+
+    /**
+     * Gets the signature algorithm name.
+     *
+     * @return the signature algorithm, such as SHA256withECDSA
+     */
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * Gets the names of the key usage bits set.
+     *
+     * @return the key usages, empty when the extension is absent
+     */
+    public List<String> getKeyUsage() {
+        return keyUsage;
+    }
+
+    /**
+     * Gets the extended key usages, each named and followed by its OID.
+     *
+     * @return the extended key usages, empty when the extension is absent
+     */
+    public List<String> getExtendedKeyUsage() {
+        return extendedKeyUsage;
+    }
+
+    /**
+     * Gets the subject alternative names, each prefixed by its type.
+     *
+     * @return the subject alternative names, empty when the extension is absent
+     */
+    public List<String> getSubjectAlternativeNames() {
+        return subjectAlternativeNames;
+    }
+
+    /**
+     * Gets the TLS versions the certificate was checked against, in the order checked.
+     *
+     * @return the TLS versions
+     */
+    public List<String> getTlsVersions() {
+        return Collections.unmodifiableList(new ArrayList<>(incompatibilities.keySet()));
+    }
+
+    /**
+     * Checks whether the certificate is compatible with a TLS version it was checked against.
+     *
+     * @param tlsVersion the TLS version, such as TLSv1.3
+     * @return true if the certificate was checked against the version and found compatible
+     */
+    public boolean isCompatibleWith(String tlsVersion) {
+        return incompatibilities.containsKey(tlsVersion) && incompatibilities.get(tlsVersion) == null;
+    }
+
+    /**
+     * Gets why the certificate is not compatible with a TLS version.
+     *
+     * @param tlsVersion the TLS version, such as TLSv1.3
+     * @return the reason, or null if the certificate is compatible or was not checked against the version
+     */
+    public String getIncompatibility(String tlsVersion) {
+        return incompatibilities.get(tlsVersion);
+    }
+
+    /**
+     * Checks whether the certificate is valid at a given time.
+     *
+     * @param time the time to check
+     * @return true if the time falls within the validity period
+     */
+    public boolean isValidAt(Instant time) {
+        return !time.isBefore(notBefore) && !time.isAfter(notAfter);
+    }
+
+    @Override
+    public String toString() {
+        return "CertificateReport[alias=" + alias + ", subject=" + subject + ", issuer=" + issuer
+                + ", notAfter=" + notAfter + ", signatureAlgorithm=" + signatureAlgorithm
+                + ", incompatibilities=" + incompatibilities + "]";
+    }
+}
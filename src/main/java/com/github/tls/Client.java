@@ -1,33 +1,56 @@
 package com.github.tls;
 
+import com.github.tls.protocol.FrameCodec;
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.SSLContextConfig;
+import com.github.tls.ssl.SSLContextFactory;
+import com.github.tls.transport.SocketStream;
+import com.github.tls.transport.TlsStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
-import java.security.cert.X509Certificate;
-import javax.net.ssl.KeyManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
-import javax.net.ssl.TrustManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * SSL Client for mTLS communication.
+ * <p>
+ * {@link #connect()} opens a socket to the configured server; {@link #connect(TlsStream)} runs the same
+ * request path over any other {@link TlsStream}, such as the client side of an in-memory
+ * {@link com.github.tls.transport.MemoryTransport}.
  */
 public class Client {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Client.class);
 
-    /** Default SSL port for secure connections. */
-    private static final int SSL_PORT = 8443;
+    private static final String KEYSTORE = SSLContextConfig.CLASSPATH_PREFIX + "/client.jks";
+    private static final String TRUSTSTORE = SSLContextConfig.CLASSPATH_PREFIX + "/truststore.jks";
 
+    private final ClientConfig config;
     private SSLContext context;
-    private SSLSocket socket;
+    private TlsStream connection;
     private PrintWriter writer;
     private BufferedReader reader;
-    private boolean singleUseMode;
+    private DataInputStream frameIn;
+    private OutputStream frameOut;
+    private ByteBuffer response;
+    private CompletableFuture<CertificateReport> diagnostics;
 
     /**
      * Constructor that initializes SSL context with client certificate and truststore.
@@ -43,72 +66,201 @@ public class Client {
      * @param singleUseMode whether to expect serverAuth EKU in client certificate
      */
     public Client(String password, boolean singleUseMode) {
-        this.singleUseMode = singleUseMode;
-        KeyManagerFactory kmf;
-        TrustManagerFactory tmf;
+        this(password, ClientConfig.builder().singleUseMode(singleUseMode).build());
+    }
+
+    /**
+     * Constructor that initializes SSL context with client certificate and truststore.
+     * @param password password for keystores
+     * @param config client configuration
+     */
+    public Client(String password, ClientConfig config) {
+        this.config = config;
         try {
-            kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-            tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-
-            // Load client keystore with CA-signed client certificate for client authentication
-            KeyStore keyStore = KeyStore.getInstance("JKS");
-            keyStore.load(getClass().getResourceAsStream("/client.jks"), password.toCharArray());
-            LOGGER.info("Client keystore loaded successfully (CA-signed certificate)");
-            kmf.init(keyStore, password.toCharArray());
-
-            // Load truststore containing CA certificate to trust CA-signed server certificate
-            KeyStore trustStore = KeyStore.getInstance("JKS");
-            trustStore.load(getClass().getResourceAsStream("/truststore.jks"), password.toCharArray());
-            LOGGER.info("Client truststore loaded successfully (contains CA certificate)");
-            tmf.init(trustStore);
-
-            context = SSLContext.getInstance("TLSv1.2");
-            context.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
-
-            // Inspect the client certificate
-            X509Certificate cert = (X509Certificate) keyStore.getCertificate("client");
-            if (this.singleUseMode) {
+            // Client keystore with CA-signed client certificate, truststore containing the CA certificate
+            SSLContextConfig tls = SSLContextConfig.builder()
+                    .keyStore(KEYSTORE, password)
+                    .trustStore(TRUSTSTORE, password)
+                    .enabledProtocols(config.getTlsProtocols().toArray(new String[0]))
+                    .cipherSuites(config.getCipherSuites().toArray(new String[0]))
+                    .build();
+            context = SSLContextFactory.getDefault().getContext(tls);
+            KeyStore keyStore = SSLContextFactory.getDefault().getKeyStore(tls);
+            LOGGER.info("Client keystore and truststore loaded successfully (CA-signed certificate)");
+
+            if (config.isSingleUseMode()) {
                 LOGGER.info("Single-use mode: Client certificate should have serverAuth EKU");
             }
-            (new CertificateAnalyzer()).inspectCommonExtensions(cert);
+            if (config.isDiagnosticsEnabled()) {
+                diagnostics = StartupDiagnostics.getDefault().analyze(keyStore, "client", context);
+            }
         } catch (java.security.GeneralSecurityException | java.io.IOException e) {
             LOGGER.error("Error initializing client", e);
         }
     }
 
+    /**
+     * Constructor that reuses an already initialized SSL context, so that many clients share one
+     * set of loaded keystores and one TLS session cache.
+     * @param context the SSL context holding the client certificate and truststore
+     * @param config client configuration
+     */
+    public Client(SSLContext context, ClientConfig config) {
+        this.context = context;
+        this.config = config;
+    }
+
+    /**
+     * Gets the startup diagnostics of the client certificate, which run in the background after
+     * construction; see {@link ClientConfig.Builder#diagnosticsEnabled(boolean)}.
+     * @return the report of the client certificate, or null if diagnostics are disabled or the client
+     *     reuses another context
+     */
+    public CompletableFuture<CertificateReport> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Gets the SSL context built from the client keystore and truststore.
+     * {@link AsyncClient} reuses it.
+     * @return the client SSL context
+     */
+    public SSLContext getContext() {
+        return context;
+    }
+
+    /**
+     * Creates a client-mode engine for connecting with {@link #connect(TlsStream)} over a transport
+     * other than a socket. The engine is created for the configured host and port, which key the
+     * client session cache, so engines of one client resume each other's sessions.
+     * @return the engine
+     */
+    public SSLEngine createEngine() {
+        SSLEngine engine = context.createSSLEngine(config.getHost(), config.getPort());
+        engine.setUseClientMode(true);
+        return engine;
+    }
+
     /**
      * Connect to the SSL server.
      */
     public void connect() {
         try {
-            socket = (SSLSocket) context.getSocketFactory().createSocket("localhost", SSL_PORT);
-            socket.addHandshakeCompletedListener(new MyHandshakeListener());
-            socket.setUseClientMode(true);
-            socket.startHandshake();
+            connectOrThrow();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            // Initialize the streams after successful handshake
-            writer = new PrintWriter(socket.getOutputStream(), true);
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+    /**
+     * Connect to the SSL server. Unlike {@link #connect()}, failures are reported to the caller.
+     * @throws IOException if the connection or the handshake fails
+     */
+    public void connectOrThrow() throws IOException {
+        SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket(config.getHost(), config.getPort());
+        socket.setUseClientMode(true);
+        connect(new SocketStream(socket));
+    }
 
+    /**
+     * Connect over an established transport, performing the handshake. Unlike {@link #connect()},
+     * failures are reported to the caller.
+     * @param stream the client side of the connection, before its handshake
+     * @throws IOException if the handshake fails
+     */
+    public void connect(TlsStream stream) throws IOException {
+        connection = stream;
+        stream.setSoTimeout(config.getReadTimeoutMillis());
+        MyHandshakeListener listener = new MyHandshakeListener();
+        try {
+            stream.startHandshake();
         } catch (IOException e) {
-            e.printStackTrace();
+            listener.handshakeFailed(e);
+            throw e;
+        }
+        listener.handshakeSucceeded(stream.getSession());
+
+        // Initialize the streams after successful handshake
+        if (config.getProtocol() == Protocol.FRAMED) {
+            frameOut = new BufferedOutputStream(stream.getOutputStream());
+            frameIn = new DataInputStream(new BufferedInputStream(stream.getInputStream()));
+            response = ByteBuffer.allocate(FrameCodec.INITIAL_BUFFER_CAPACITY);
+        } else {
+            // No autoflush: callers flush once per request or once per pipelined batch
+            writer = new PrintWriter(stream.getOutputStream());
+            reader = new BufferedReader(new InputStreamReader(stream.getInputStream()));
         }
     }
 
+    /**
+     * Checks whether connecting succeeded and the connection has not been closed locally.
+     * @return true if the client is connected
+     */
+    public boolean isConnected() {
+        return connection != null && !connection.isClosed() && (writer != null || frameOut != null);
+    }
+
+    /**
+     * Checks that the server still holds the connection open by waiting briefly for data.
+     * An idle connection must have nothing to read, so both a closed stream and unexpected
+     * data mean it can no longer be used.
+     * @param timeoutMillis how long to wait for the server to signal a close, at least 1
+     * @return true if the connection is idle and open
+     */
+    public boolean isAlive(int timeoutMillis) {
+        if (!isConnected()) {
+            return false;
+        }
+        try {
+            int timeout = connection.getSoTimeout();
+            connection.setSoTimeout(timeoutMillis);
+            try {
+                // Any outcome but a timeout means the connection is closed or out of sync
+                connection.getInputStream().read();
+                return false;
+            } finally {
+                connection.setSoTimeout(timeout);
+            }
+        } catch (SocketTimeoutException e) {
+            return true;
+        } catch (IOException e) {
+            LOGGER.debug("Connection check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Gets the TLS session negotiated when connecting.
+     * @return the session, or null if not connected
+     */
+    public SSLSession getSession() {
+        return connection == null ? null : connection.getSession();
+    }
+
     /**
      * Send a string message to the server.
      * @param message The message to send
      */
     public void sendMessage(String message) {
-        if (socket == null || socket.isClosed() || writer == null) {
+        if (connection == null || connection.isClosed() || (writer == null && frameOut == null)) {
             LOGGER.error("Socket is not connected. Call connect() first.");
             return;
         }
 
         try {
+            if (config.getProtocol() == Protocol.FRAMED) {
+                LOGGER.info("Sending frame: {}", message);
+                ByteBuffer reply = sendFrame(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+                if (reply != null) {
+                    LOGGER.info("Server response: {}", StandardCharsets.UTF_8.decode(reply));
+                }
+                return;
+            }
+
             // Send the message
             LOGGER.info("Sending message: {}", message);
             writer.println(message);
+            writer.flush();
 
             // Read the response from server
             String response = reader.readLine();
@@ -122,6 +274,143 @@ public class Client {
         }
     }
 
+    /**
+     * Send one frame to the server and wait for the echoed frame. Requires the framed protocol.
+     * The returned buffer is reused by the next call, so callers must consume it before sending again.
+     * @param payload the payload to send, from its position to its limit
+     * @return the reply payload from position 0 to its limit, or null if the server closed the connection
+     * @throws IOException if the connection fails or the reply is not a valid frame
+     */
+    public ByteBuffer sendFrame(ByteBuffer payload) throws IOException {
+        if (frameOut == null || connection.isClosed()) {
+            throw new IllegalStateException("Not connected with the framed protocol. Call connect() first.");
+        }
+        FrameCodec.writeFrame(frameOut, payload);
+        frameOut.flush();
+
+        ByteBuffer reply = FrameCodec.readFrame(frameIn, response);
+        if (reply != null) {
+            response = reply;
+        }
+        return reply;
+    }
+
+    /**
+     * Send one message and wait for its reply, with either protocol. Unlike {@link #sendMessage(String)},
+     * failures are reported to the caller, so the outcome of each request is known.
+     * @param message the message to send
+     * @return the reply, without the line terminator, or null if the server closed the connection
+     * @throws IOException if the connection fails or the reply is not valid
+     */
+    public String request(String message) throws IOException {
+        if (connection == null || connection.isClosed() || (writer == null && frameOut == null)) {
+            throw new IllegalStateException("Socket is not connected. Call connect() first.");
+        }
+        writeRequest(message);
+        flushRequests();
+        return readReply();
+    }
+
+    /**
+     * Send several messages without waiting for each reply. Requests are written back to back and
+     * flushed as one batch, so several of them share a TLS record and a round trip. At most
+     * {@link ClientConfig#getPipelineDepth()} requests and {@link ClientConfig#getPipelineBytes()} bytes are
+     * in flight; when the next request would exceed either budget the batch is flushed and the older replies
+     * are read until half of both budgets is free. Since the server echoes each request, bounding the
+     * bytes keeps large messages from filling the socket buffers of both peers, where each would wait
+     * for the other to read.
+     * @param messages the messages to send, in order
+     * @return the replies in request order, fewer than the messages if the server closed the connection
+     * @throws IOException if the connection fails or a reply is not valid
+     */
+    public List<String> sendPipelined(List<String> messages) throws IOException {
+        if (connection == null || connection.isClosed() || (writer == null && frameOut == null)) {
+            throw new IllegalStateException("Socket is not connected. Call connect() first.");
+        }
+        int depth = config.getPipelineDepth();
+        int maxBytes = config.getPipelineBytes();
+        List<String> replies = new ArrayList<>(messages.size());
+        // Sizes of the requests in flight, oldest first, in a ring of one slot per request
+        int[] sizes = new int[depth];
+        int oldest = 0;
+        int inFlight = 0;
+        int inFlightBytes = 0;
+        for (String message : messages) {
+            int size = requestBytes(message);
+            if (inFlight == depth || (inFlight > 0 && inFlightBytes + size > maxBytes)) {
+                flushRequests();
+                while (inFlight > 0 && (inFlight > depth / 2 || inFlightBytes > maxBytes / 2
+                        || inFlightBytes + size > maxBytes)) {
+                    String reply = readReply();
+                    if (reply == null) {
+                        return replies;
+                    }
+                    replies.add(reply);
+                    inFlightBytes -= sizes[oldest];
+                    oldest = (oldest + 1) % depth;
+                    inFlight--;
+                }
+            }
+            writeRequest(message);
+            sizes[(oldest + inFlight) % depth] = size;
+            inFlight++;
+            inFlightBytes += size;
+        }
+        flushRequests();
+        for (; inFlight > 0; inFlight--) {
+            String reply = readReply();
+            if (reply == null) {
+                break;
+            }
+            replies.add(reply);
+        }
+        LOGGER.debug("Pipelined {} requests, received {} replies", messages.size(), replies.size());
+        return replies;
+    }
+
+    private void writeRequest(String message) throws IOException {
+        if (config.getProtocol() == Protocol.FRAMED) {
+            FrameCodec.writeFrame(frameOut, ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+        } else {
+            writer.println(message);
+        }
+    }
+
+    /**
+     * Gets the number of bytes a request takes on the wire, before TLS framing.
+     * @param message the request
+     * @return the encoded size, with the line terminator or frame header
+     */
+    private int requestBytes(String message) {
+        int payload = message.getBytes(StandardCharsets.UTF_8).length;
+        return config.getProtocol() == Protocol.FRAMED ? FrameCodec.HEADER_LENGTH + payload : payload + 1;
+    }
+
+    private void flushRequests() throws IOException {
+        if (config.getProtocol() == Protocol.FRAMED) {
+            frameOut.flush();
+        } else if (writer.checkError()) {
+            // PrintWriter swallows write failures; checkError flushes and reports them
+            throw new IOException("Error writing pipelined requests");
+        }
+    }
+
+    /**
+     * Reads the next reply.
+     * @return the reply, or null if the server closed the connection
+     */
+    private String readReply() throws IOException {
+        if (config.getProtocol() == Protocol.FRAMED) {
+            ByteBuffer frame = FrameCodec.readFrame(frameIn, response);
+            if (frame == null) {
+                return null;
+            }
+            response = frame;
+            return StandardCharsets.UTF_8.decode(frame).toString();
+        }
+        return reader.readLine();
+    }
+
     /**
      * Send a simple "Hello World" message to the server.
      */
@@ -140,8 +429,11 @@ public class Client {
             if (reader != null) {
                 reader.close();
             }
-            if (socket != null && !socket.isClosed()) {
-                socket.close();
+            if (frameOut != null) {
+                frameOut.close();
+            }
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
                 LOGGER.info("Connection closed.");
             }
         } catch (IOException e) {
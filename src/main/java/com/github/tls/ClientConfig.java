@@ -0,0 +1,330 @@
+package com.github.tls;
+
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.SSLContextConfig;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration for the mTLS {@link Client}.
+ * Instances are immutable and created through {@link #builder()}.
+ */
+public final class ClientConfig {
+
+    /** Default server host. */
+    public static final String DEFAULT_HOST = "localhost";
+    /** Default maximum number of pipelined requests awaiting a reply. */
+    public static final int DEFAULT_PIPELINE_DEPTH = 64;
+    /**
+     * Default maximum number of pipelined request bytes awaiting a reply, small enough that the requests
+     * and their echoes fit in the socket buffers of both peers.
+     */
+    public static final int DEFAULT_PIPELINE_BYTES = 32 * 1024;
+    /** Default socket read timeout, in milliseconds: none. */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 0;
+    /** Highest valid TCP port. */
+    private static final int MAX_PORT = 65535;
+
+    private final String host;
+    private final int port;
+    private final Protocol protocol;
+    private final boolean singleUseMode;
+    private final int pipelineDepth;
+    private final int pipelineBytes;
+    private final int readTimeoutMillis;
+    private final boolean diagnosticsEnabled;
+    private final List<String> tlsProtocols;
+    private final List<String> cipherSuites;
+
+    private ClientConfig(Builder builder) {
+        this.host = builder.host;
+        this.port = builder.port;
+        this.protocol = builder.protocol;
+        this.singleUseMode = builder.singleUseMode;
+        this.pipelineDepth = builder.pipelineDepth;
+        this.pipelineBytes = builder.pipelineBytes;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+        this.diagnosticsEnabled = builder.diagnosticsEnabled;
+        this.tlsProtocols = builder.tlsProtocols;
+        this.cipherSuites = builder.cipherSuites;
+    }
+
+    /**
+     * Creates a configuration with all default values.
+     *
+     * @return the default configuration
+     */
+    public static ClientConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a new builder initialized with default values.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the server host.
+     *
+     * @return the host name or address
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Gets the server port.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Gets the application protocol spoken with the server.
+     *
+     * @return the protocol
+     */
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Checks whether the client certificate is expected to carry the serverAuth EKU.
+     *
+     * @return true in single-use mode
+     */
+    public boolean isSingleUseMode() {
+        return singleUseMode;
+    }
+
+    /**
+     * Gets the maximum number of pipelined requests sent before the oldest reply is read.
+     *
+     * @return the pipeline depth
+     */
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    /**
+     * Gets the maximum number of pipelined request bytes sent before the oldest reply is read.
+     *
+     * @return the pipeline byte budget
+     */
+    public int getPipelineBytes() {
+        return pipelineBytes;
+    }
+
+    /**
+     * Gets how long the handshake and each read wait for the server.
+     *
+     * @return the read timeout in milliseconds, or 0 to wait indefinitely
+     */
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * Checks whether the client reports on its certificate in the background after construction.
+     *
+     * @return true if startup diagnostics are enabled
+     */
+    public boolean isDiagnosticsEnabled() {
+        return diagnosticsEnabled;
+    }
+
+    /**
+     * Gets the TLS protocol versions enabled on the connection, most preferred first.
+     *
+     * @return the enabled TLS protocol versions
+     */
+    public List<String> getTlsProtocols() {
+        return tlsProtocols;
+    }
+
+    /**
+     * Gets the cipher suites enabled on the connection, most preferred first.
+     *
+     * @return the enabled cipher suites
+     */
+    public List<String> getCipherSuites() {
+        return cipherSuites;
+    }
+
+    /**
+     * Builder for {@link ClientConfig}.
+     */
+    public static final class Builder {
+
+        private String host = DEFAULT_HOST;
+        private int port = Server.SSL_PORT;
+        private Protocol protocol = Protocol.LINE;
+        private boolean singleUseMode;
+        private int pipelineDepth = DEFAULT_PIPELINE_DEPTH;
+        private int pipelineBytes = DEFAULT_PIPELINE_BYTES;
+        private int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+        private boolean diagnosticsEnabled = true;
+        private List<String> tlsProtocols = SSLContextConfig.DEFAULT_ENABLED_PROTOCOLS;
+        private List<String> cipherSuites = SSLContextConfig.DEFAULT_CIPHER_SUITES;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the server host.
+         *
+         * @param serverHost the host name or address
+         * @return this builder
+         */
+        public Builder host(String serverHost) {
+            if (serverHost == null || serverHost.isEmpty()) {
+                throw new IllegalArgumentException("Host must not be empty");
+            }
+            this.host = serverHost;
+            return this;
+        }
+
+        /**
+         * Sets the server port.
+         *
+         * @param serverPort the port
+         * @return this builder
+         */
+        public Builder port(int serverPort) {
+            if (serverPort < 1 || serverPort > MAX_PORT) {
+                throw new IllegalArgumentException("Port out of range: " + serverPort);
+            }
+            this.port = serverPort;
+            return this;
+        }
+
+        /**
+         * Sets the application protocol spoken with the server.
+         *
+         * @param appProtocol the protocol
+         * @return this builder
+         */
+        public Builder protocol(Protocol appProtocol) {
+            if (appProtocol == null) {
+                throw new IllegalArgumentException("Protocol must not be null");
+            }
+            this.protocol = appProtocol;
+            return this;
+        }
+
+        /**
+         * Sets whether the client certificate is expected to carry the serverAuth EKU.
+         *
+         * @param enabled true for single-use mode
+         * @return this builder
+         */
+        public Builder singleUseMode(boolean enabled) {
+            this.singleUseMode = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pipelined requests sent before the oldest reply is read.
+         * Bounding it keeps both peers from blocking on full socket buffers.
+         *
+         * @param depth the pipeline depth, at least 1
+         * @return this builder
+         */
+        public Builder pipelineDepth(int depth) {
+            if (depth < 1) {
+                throw new IllegalArgumentException("Pipeline depth must be at least 1: " + depth);
+            }
+            this.pipelineDepth = depth;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of pipelined request bytes sent before the oldest reply is read. A request
+         * larger than the budget is sent on its own.
+         *
+         * @param maxBytes the pipeline byte budget, at least 1
+         * @return this builder
+         */
+        public Builder pipelineBytes(int maxBytes) {
+            if (maxBytes < 1) {
+                throw new IllegalArgumentException("Pipeline bytes must be at least 1: " + maxBytes);
+            }
+            this.pipelineBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets how long the handshake and each read wait for the server before failing with a
+         * {@link java.net.SocketTimeoutException}.
+         *
+         * @param timeoutMillis the read timeout in milliseconds, or 0 to wait indefinitely
+         * @return this builder
+         */
+        public Builder readTimeoutMillis(int timeoutMillis) {
+            if (timeoutMillis < 0) {
+                throw new IllegalArgumentException("Read timeout must not be negative: " + timeoutMillis);
+            }
+            this.readTimeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * Sets whether the client runs its startup diagnostics: the parsed certificate extensions and
+         * the TLS compatibility report, logged and kept as a {@link CertificateReport}. They run on a
+         * background thread once per certificate, so many clients sharing one certificate report it once.
+         *
+         * @param enabled true to run the diagnostics
+         * @return this builder
+         */
+        public Builder diagnosticsEnabled(boolean enabled) {
+            this.diagnosticsEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the TLS protocol versions enabled on the connection. Versions the JVM does not
+         * support are skipped.
+         *
+         * @param versions the protocol versions, most preferred first
+         * @return this builder
+         */
+        public Builder tlsProtocols(String... versions) {
+            this.tlsProtocols = requireNonEmpty(versions, "TLS protocols");
+            return this;
+        }
+
+        /**
+         * Sets the cipher suites enabled on the connection. Suites the JVM does not support are skipped.
+         *
+         * @param suites the cipher suites, most preferred first
+         * @return this builder
+         */
+        public Builder cipherSuites(String... suites) {
+            this.cipherSuites = requireNonEmpty(suites, "Cipher suites");
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         *
+         * @return the immutable configuration
+         */
+        public ClientConfig build() {
+            return new ClientConfig(this);
+        }
+
+        private static List<String> requireNonEmpty(String[] values, String name) {
+            if (values == null || values.length == 0) {
+                throw new IllegalArgumentException(name + " must not be empty");
+            }
+            return Collections.unmodifiableList(Arrays.asList(values.clone()));
+        }
+    }
+}
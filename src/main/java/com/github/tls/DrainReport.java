@@ -0,0 +1,67 @@
+package com.github.tls;
+
+/**
+ * Outcome of a {@link Server#drain(long)}: how many connections were closed at the end of an exchange,
+ * with close_notify, and how many were still in an exchange at the deadline and closed anyway.
+ */
+public final class DrainReport {
+
+    private final int drained;
+    private final int cut;
+    private final long elapsedMillis;
+
+    /**
+     * Creates a report.
+     *
+     * @param drained the connections closed between exchanges
+     * @param cut the connections closed at the deadline
+     * @param elapsedMillis the time the drain took, in milliseconds
+     */
+    public DrainReport(int drained, int cut, long elapsedMillis) {
+        this.drained = drained;
+        this.cut = cut;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Gets the number of connections closed between exchanges, idle ones and ones that finished the
+     * exchange in flight.
+     *
+     * @return the drained connection count
+     */
+    public int getDrained() {
+        return drained;
+    }
+
+    /**
+     * Gets the number of connections still in an exchange, or still waiting for a worker, at the deadline.
+     *
+     * @return the cut connection count
+     */
+    public int getCut() {
+        return cut;
+    }
+
+    /**
+     * Gets the time from the start of the drain until the last connection was closed or the deadline passed.
+     *
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Checks whether every connection was drained before the deadline.
+     *
+     * @return true if no connection was cut
+     */
+    public boolean isComplete() {
+        return cut == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DrainReport[drained=" + drained + ", cut=" + cut + ", elapsedMillis=" + elapsedMillis + "]";
+    }
+}
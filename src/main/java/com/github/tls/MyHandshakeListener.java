@@ -1,20 +1,78 @@
 package com.github.tls;
 
+import com.github.tls.metrics.HandshakeMetrics;
+import java.security.Principal;
 import javax.net.ssl.HandshakeCompletedEvent;
 import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Handshake completion listener for SSL connections.
+ * Handshake completion listener for SSL connections, recording each handshake in
+ * {@link HandshakeMetrics}.
+ * <p>
+ * A listener serves one handshake: it is created just before the handshake starts and takes that
+ * time as the start of the handshake. Registered on a socket, it is notified by JSSE on a separate
+ * thread, so the recorded latency includes that hand-off; code that performs the handshake itself,
+ * such as {@link Client} over any {@link com.github.tls.transport.TlsStream}, reports the outcome
+ * directly through {@link #handshakeSucceeded(SSLSession)}. Handshake failures do not reach
+ * listeners; the code starting the handshake reports them through {@link #handshakeFailed(Exception)}.
  */
 class MyHandshakeListener implements HandshakeCompletedListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MyHandshakeListener.class);
 
+    private final HandshakeMetrics metrics;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Creates a listener recording into the {@linkplain HandshakeMetrics#getDefault() default metrics}.
+     */
+    MyHandshakeListener() {
+        this(HandshakeMetrics.getDefault());
+    }
+
+    /**
+     * Creates a listener.
+     * @param metrics the metrics recording the handshake
+     */
+    MyHandshakeListener(HandshakeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public void handshakeCompleted(HandshakeCompletedEvent e) {
-        LOGGER.info("Handshake successful!");
-        LOGGER.info("Using cipher suite: {}", e.getCipherSuite());
+        String cipherSuite = e.getCipherSuite();
+        SSLSession session = e.getSession();
+        metrics.recordSuccess(startNanos, session == null ? null : session.getProtocol(), cipherSuite, peerName(e));
+        LOGGER.debug("Handshake successful using cipher suite {}", cipherSuite);
+    }
+
+    /**
+     * Records that the handshake completed, when it was not observed through a socket.
+     * @param session the negotiated session
+     */
+    void handshakeSucceeded(SSLSession session) {
+        metrics.recordSuccess(startNanos, session);
+        LOGGER.debug("Handshake successful using cipher suite {}", session.getCipherSuite());
+    }
+
+    /**
+     * Records that the handshake failed.
+     * @param failure the exception thrown by the handshake
+     */
+    void handshakeFailed(Exception failure) {
+        metrics.recordFailure(failure);
+    }
+
+    private static String peerName(HandshakeCompletedEvent e) {
+        try {
+            Principal peer = e.getPeerPrincipal();
+            return peer == null ? null : peer.getName();
+        } catch (SSLPeerUnverifiedException unverified) {
+            return null;
+        }
     }
 }
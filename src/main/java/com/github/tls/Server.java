@@ -1,116 +1,595 @@
 package com.github.tls;
 
+import com.github.tls.jfr.AcceptEvent;
+import com.github.tls.jfr.CloseEvent;
+import com.github.tls.jfr.HandshakeEvent;
+import com.github.tls.jfr.MessageEvent;
+import com.github.tls.jfr.ServerEvent;
+import com.github.tls.metrics.ConnectionStats;
+import com.github.tls.metrics.HandshakeFailure;
+import com.github.tls.metrics.HandshakeMetrics;
+import com.github.tls.metrics.ServerStats;
+import com.github.tls.metrics.ServerStatsMXBean;
+import com.github.tls.protocol.FrameCodec;
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.CachingX509TrustManager;
+import com.github.tls.ssl.SSLContextConfig;
+import com.github.tls.ssl.SSLContextFactory;
+import com.github.tls.ssl.SessionStats;
+import com.github.tls.ssl.SharedSessionTickets;
+import com.github.tls.transport.SocketStream;
+import com.github.tls.transport.TlsStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.security.KeyStore;
-import java.security.cert.X509Certificate;
-import javax.net.ssl.KeyManagerFactory;
+import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLServerSocketFactory;
-import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * SSL Server for mTLS communication.
+ * <p>
+ * The server emits Java Flight Recorder events from {@code com.github.tls.jfr} for accepts,
+ * handshakes, echoed messages and closes when it runs on Java 11 or later from the multi-release jar.
+ * Besides the sockets it accepts, it serves any {@link TlsStream} handed to {@link #serve(TlsStream)},
+ * such as the server side of an in-memory {@link com.github.tls.transport.MemoryTransport}.
+ * <p>
+ * {@link #start()} binds the listening socket and accepts on a background thread, returning once the
+ * server is ready; {@link #ready()} signals the same to code that runs the server on its own thread
+ * through {@link #run()}. {@link #stop()} stops accepting, and the server can be started again.
+ * {@link #drain(long)} also closes the open connections, each once its exchange in flight is answered,
+ * for a shutdown that clients see as a clean close rather than a reset. {@link #close()} drains the
+ * server for good and shuts its worker pool down.
  */
-public class Server implements Runnable {
+public class Server implements Runnable, AutoCloseable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Server.class);
 
     /** Default SSL port for secure connections. */
-    private static final int SSL_PORT = 8443;
+    public static final int SSL_PORT = 8443;
+    /** Maximum time {@link #stop()} waits for the accept thread to end, in milliseconds. */
+    private static final long ACCEPT_STOP_TIMEOUT_MILLIS = 5000;
+    /** Pause after a failed accept, such as one for lack of file descriptors, in milliseconds. */
+    private static final long ACCEPT_RETRY_DELAY_MILLIS = 100;
+    /** Maximum time {@link #close()} waits for the workers to end after the drain, in milliseconds. */
+    private static final long WORKER_STOP_TIMEOUT_MILLIS = 5000;
+
+    private final ServerConfig config;
+    private final ExecutorService workers;
+    private final AtomicLong rejectedConnections = new AtomicLong();
+    private final HandshakeMetrics handshakeMetrics = new HandshakeMetrics();
+    private final ConnectionStats connectionStats = new ConnectionStats();
+    /** Connections accepted and not closed yet, including those still waiting for a worker. */
+    private final Set<TrackedConnection> connections = ConcurrentHashMap.newKeySet();
+    /** Guards the drain state and is notified whenever a connection closes during a drain. */
+    private final Object drainMonitor = new Object();
 
     private KeyStore keyStore;
     private SSLContext context;
     private SSLServerSocket serverSocket;
+    private Thread acceptThread;
+    private CompletableFuture<Integer> ready = new CompletableFuture<>();
+    private boolean ticketsStopped;
+    private SessionStats sessionStats;
+    private CachingX509TrustManager trustCache;
+    private SharedSessionTickets sharedTickets;
+    private ServerStats stats;
+    private CompletableFuture<CertificateReport> diagnostics;
+    private volatile boolean draining;
+    private boolean closed;
+    private int drainedConnections;
 
     /**
-     * Constructor that initializes SSL context and server socket.
+     * Constructor that initializes SSL context and server socket with the default configuration.
      * @param password password for keystores
      */
     public Server(String password) {
-        KeyManagerFactory kmf;
-        TrustManagerFactory tmf;
+        this(password, ServerConfig.defaults());
+    }
+
+    /**
+     * Constructor that initializes SSL context, server socket and worker pool.
+     * @param password password for keystores
+     * @param config server configuration
+     */
+    public Server(String password, ServerConfig config) {
+        this.config = config;
+        this.workers = createWorkers(config);
         try {
-            kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-            tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-
-            // Load server keystore with CA-signed server certificate
-            keyStore = KeyStore.getInstance("JKS");
-            keyStore.load(getClass().getResourceAsStream("/server.jks"), password.toCharArray());
-            LOGGER.info("Server keystore loaded successfully (CA-signed certificate)");
-            kmf.init(keyStore, password.toCharArray());
-
-            // Load truststore containing CA certificate to trust CA-signed certificates
-            KeyStore trustStore = KeyStore.getInstance("JKS");
-            trustStore.load(getClass().getResourceAsStream("/truststore.jks"), "changeit".toCharArray());
-            LOGGER.info("Server truststore loaded successfully (contains CA certificate)");
-            tmf.init(trustStore);
-
-            context = SSLContext.getInstance("TLSv1.2");
-            context.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
-
-            // Debug: List all aliases in the keystore
-            LOGGER.debug("Available aliases in keystore:");
-            java.util.Enumeration<String> aliases = keyStore.aliases();
-            while (aliases.hasMoreElements()) {
-                String alias = aliases.nextElement();
-                LOGGER.debug("  - {}", alias);
-            }
-
-            X509Certificate cert = (X509Certificate) keyStore.getCertificate("server");
-            if (cert != null) {
-                (new CertificateAnalyzer()).inspectCommonExtensions(cert);
-            } else {
+            // Server keystore with CA-signed server certificate, truststore containing the CA certificate
+            SSLContextConfig tls = SSLContextConfig.builder()
+                    .keyStore(config.getKeyStore(), password)
+                    .trustStore(config.getTrustStore(), "changeit")
+                    .enabledProtocols(config.getTlsProtocols().toArray(new String[0]))
+                    .cipherSuites(config.getCipherSuites().toArray(new String[0]))
+                    .sessionCacheSize(config.getSessionCacheSize())
+                    .sessionTimeoutSeconds(config.getSessionTimeoutSeconds())
+                    .sessionTickets(config.isSessionTickets())
+                    .reloadIntervalMillis(config.getStoreReloadMillis())
+                    .trustCacheSize(config.getTrustCacheSize())
+                    .crlLocations(config.getCrlLocations().toArray(new String[0]))
+                    .crlRefreshMillis(config.getCrlRefreshMillis())
+                    .build();
+            context = SSLContextFactory.getDefault().getContext(tls);
+            keyStore = SSLContextFactory.getDefault().getKeyStore(tls);
+            trustCache = SSLContextFactory.getDefault().getTrustCache(tls);
+            sessionStats = new SessionStats(context.getServerSessionContext());
+            stats = new ServerStats(context, connectionStats, handshakeMetrics, sessionStats,
+                    rejectedConnections::get, trustCache);
+            if (config.getSessionTicketKeyStore() != null) {
+                sharedTickets = new SharedSessionTickets(context, config.getSessionTicketKeyStore());
+                sharedTickets.start();
+            }
+            LOGGER.info("Server keystore and truststore loaded successfully (CA-signed certificate)");
+
+            if (!keyStore.containsAlias("server")) {
                 LOGGER.warn("Warning: Certificate with alias 'server' not found in keystore");
+            } else if (config.isDiagnosticsEnabled()) {
+                diagnostics = StartupDiagnostics.getDefault().analyze(keyStore, "server", context);
             }
+        } catch (java.security.GeneralSecurityException | java.io.IOException e) {
+            LOGGER.error("Error initializing server", e);
+        }
+    }
+
+    /**
+     * Gets the startup diagnostics of the server certificate, which run in the background after
+     * construction; see {@link ServerConfig.Builder#diagnosticsEnabled(boolean)}.
+     * @return the report of the server certificate, or null if diagnostics are disabled or the
+     *     certificate is missing
+     */
+    public CompletableFuture<CertificateReport> getDiagnostics() {
+        return diagnostics;
+    }
 
-            SSLServerSocketFactory factory = context.getServerSocketFactory();
-            serverSocket = (SSLServerSocket) factory.createServerSocket(SSL_PORT);
+    /**
+     * Gets the SSL context built from the server keystore and truststore.
+     * The non-blocking {@link com.github.tls.nio.NioServer} engine reuses it.
+     * @return the server SSL context
+     */
+    public SSLContext getContext() {
+        return context;
+    }
 
-            // Enable client authentication for mTLS
-            serverSocket.setWantClientAuth(true);
-            serverSocket.setNeedClientAuth(true);
+    /**
+     * Creates a server-mode engine requiring a client certificate, for serving a connection that does
+     * not come from the server socket, such as one over a {@link com.github.tls.transport.MemoryTransport}.
+     * @return the engine
+     */
+    public SSLEngine createEngine() {
+        SSLEngine engine = context.createSSLEngine();
+        engine.setUseClientMode(false);
+        engine.setNeedClientAuth(true);
+        return engine;
+    }
 
-            TLSCompatibilityAnalyzer viewer = new TLSCompatibilityAnalyzer(keyStore, context);
-            LOGGER.info("=== TLS Compatibility Analyzer Information ===");
-            viewer.displayTLSInfo();
-            viewer.displayCertificates();
-        } catch (java.security.GeneralSecurityException | java.io.IOException e) {
-            LOGGER.error("Error initializing server", e);
+    /**
+     * Serves one connection on the calling thread the way a worker serves an accepted socket: the
+     * handshake, then the configured protocol until the client leaves, then the close. The connection
+     * counts towards the statistics and metrics of this server.
+     * @param connection the server side of the connection
+     */
+    public void serve(TlsStream connection) {
+        connectionStats.connectionAccepted();
+        handleClientConnection(new TrackedConnection(connection), System.currentTimeMillis());
+    }
+
+    /**
+     * Binds the listening socket, publishes the statistics and completes {@link #ready()}. Called by
+     * {@link #start()} and {@link #run()} if not called before.
+     * @return the bound local port
+     * @throws IOException if the socket cannot be bound
+     */
+    public synchronized int bind() throws IOException {
+        if (serverSocket == null) {
+            if (context == null) {
+                throw new IllegalStateException("Server SSL context was not initialized");
+            }
+            if (closed) {
+                throw new IllegalStateException("Server is closed");
+            }
+            if (ready.isDone()) {
+                // A failed earlier attempt, or the previous run before a stop
+                ready = new CompletableFuture<>();
+            }
+            try {
+                SSLServerSocketFactory factory = context.getServerSocketFactory();
+                SSLServerSocket socket = (SSLServerSocket) factory.createServerSocket(config.getPort());
+
+                // Enable client authentication for mTLS
+                socket.setWantClientAuth(true);
+                socket.setNeedClientAuth(true);
+                serverSocket = socket;
+            } catch (IOException e) {
+                ready.completeExceptionally(e);
+                throw e;
+            }
+            if (ticketsStopped) {
+                sharedTickets.start();
+                ticketsStopped = false;
+            }
+            registerStats();
+            LOGGER.info("Server listening on port {}", serverSocket.getLocalPort());
+            ready.complete(serverSocket.getLocalPort());
+        }
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Binds the listening socket and accepts connections on a daemon thread. Returns as soon as the
+     * server is listening, so clients may connect right away.
+     * @return the bound local port
+     * @throws IOException if the socket cannot be bound
+     * @throws IllegalStateException if the server is already started
+     */
+    public synchronized int start() throws IOException {
+        if (acceptThread != null) {
+            throw new IllegalStateException("Server is already started");
+        }
+        int port = bind();
+        acceptThread = new Thread(this, "mTLS-Server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        return port;
+    }
+
+    /**
+     * Gets a future completed with the bound local port once the server listens, or exceptionally if
+     * binding fails. A stopped server hands out a new future for its next start.
+     * @return the readiness future
+     */
+    public synchronized CompletableFuture<Integer> ready() {
+        return ready;
+    }
+
+    /**
+     * Gets the port the server listens on, which differs from the configured one for port 0.
+     * @return the bound local port, or -1 if the server is not listening
+     */
+    public synchronized int getPort() {
+        return serverSocket == null ? -1 : serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections: closes the listening socket, waits for the accept loop to end,
+     * removes the statistics from JMX and stops reloading shared session ticket keys. Connections
+     * being served are left to finish. Does nothing if the server is not listening.
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            thread = acceptThread;
+            acceptThread = null;
+            closeListening(serverSocket);
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(ACCEPT_STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Drains the server within the configured {@link ServerConfig#getDrainTimeoutMillis() deadline}.
+     * @return how many connections were drained and how many were cut
+     * @see #drain(long)
+     */
+    public DrainReport drain() {
+        return drain(config.getDrainTimeoutMillis());
+    }
+
+    /**
+     * Stops accepting and closes every open connection at the end of an exchange: idle connections at
+     * once, connections with requests in flight once those are answered, and connections waiting for a
+     * worker once their handshake completes, each with a close_notify so that clients see a clean end of
+     * stream rather than a reset. Connections still in an exchange or a
+     * handshake at the deadline, or still waiting for a worker, are closed anyway. The server can be
+     * started again afterwards.
+     * @param timeoutMillis how long in-flight exchanges may take to finish, in milliseconds
+     * @return how many connections were drained and how many were cut
+     * @throws IllegalArgumentException if the timeout is negative
+     * @throws IllegalStateException if another drain is running
+     */
+    public DrainReport drain(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Drain timeout must not be negative: " + timeoutMillis);
+        }
+        long start = System.nanoTime();
+        synchronized (drainMonitor) {
+            if (draining) {
+                throw new IllegalStateException("Server is already draining");
+            }
+            draining = true;
+            drainedConnections = 0;
+        }
+        stop();
+        LOGGER.info("Draining {} connections for up to {} ms", connections.size(), timeoutMillis);
+        for (TrackedConnection connection : connections) {
+            connection.closeIfIdle();
+        }
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (drainMonitor) {
+            long remaining;
+            while (!connections.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(drainMonitor, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        int cut = 0;
+        for (TrackedConnection connection : connections) {
+            if (connection.cut()) {
+                cut++;
+            }
+        }
+
+        DrainReport report;
+        synchronized (drainMonitor) {
+            draining = false;
+            report = new DrainReport(drainedConnections, cut,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        LOGGER.info("Drained {} connections and cut {} in {} ms", report.getDrained(), report.getCut(),
+                report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Drains the server within the configured {@link ServerConfig#getDrainTimeoutMillis() deadline}, then
+     * shuts the worker pool down and waits for its threads to end. A closed server cannot be started again.
+     * Does nothing if the server is already closed.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        drain();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(WORKER_STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
 
     @Override
     public void run() {
+        SSLServerSocket listening;
+        try {
+            bind();
+            synchronized (this) {
+                listening = serverSocket;
+            }
+        } catch (IOException e) {
+            // bind() completed ready() exceptionally, which is how a caller running this thread learns of it
+            LOGGER.error("Unable to listen on port {}: {}", config.getPort(), e.toString());
+            return;
+        }
+        if (listening == null) {
+            // Stopped between binding and accepting
+            return;
+        }
         try {
             while (true) {
                 LOGGER.info("Server is waiting for connection...");
-                Socket socket = serverSocket.accept();
+                AcceptEvent acceptEvent = new AcceptEvent();
+                acceptEvent.begin();
+                Socket socket;
+                try {
+                    socket = listening.accept();
+                } catch (IOException e) {
+                    if (listening.isClosed()) {
+                        LOGGER.info("Server stopped accepting connections");
+                        return;
+                    }
+                    // Out of file descriptors, or a connection reset before it was accepted: keep serving
+                    LOGGER.warn("Accepting a connection failed, retrying in {} ms: {}", ACCEPT_RETRY_DELAY_MILLIS,
+                            e.toString());
+                    Thread.sleep(ACCEPT_RETRY_DELAY_MILLIS);
+                    continue;
+                }
+                acceptEvent.end();
+                connectionStats.connectionAccepted();
+                SocketStream connection = new SocketStream((SSLSocket) socket);
+                if (acceptEvent.shouldCommit()) {
+                    acceptEvent.setRemoteAddress(connection.getRemoteAddress());
+                    acceptEvent.commit();
+                }
                 LOGGER.info("Client connected: {}", socket.getInetAddress());
 
-                handleClientConnection(socket);
+                // Hand the connection to a worker, which performs the handshake off the accept thread
+                ConnectionTask task = new ConnectionTask(new TrackedConnection(connection));
+                try {
+                    workers.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.reject();
+                }
             }
-        } catch (java.io.IOException e) {
-            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            LOGGER.info("Server stopped accepting connections after an interrupt");
+            Thread.currentThread().interrupt();
+        } finally {
+            closeListening(listening);
         }
     }
 
+    /**
+     * Gets the number of accepted connections closed because the worker pool was saturated.
+     * @return the rejected connection count
+     */
+    public long getRejectedConnections() {
+        return rejectedConnections.get();
+    }
+
+    /**
+     * Gets the counts of full and resumed handshakes on accepted connections.
+     * @return the session statistics
+     */
+    public SessionStats getSessionStats() {
+        return sessionStats;
+    }
+
+    /**
+     * Gets the latency, negotiated parameters, client identities and failures of handshakes on
+     * accepted connections.
+     * @return the handshake metrics
+     */
+    public HandshakeMetrics getHandshakeMetrics() {
+        return handshakeMetrics;
+    }
+
+    /**
+     * Gets the live statistics of this server, the same values it publishes over JMX.
+     * @return the server statistics
+     */
+    public ServerStatsMXBean getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the cache of client certificate chain verdicts with its hit and miss counts.
+     * @return the trust cache, or null if caching is disabled
+     */
+    public CachingX509TrustManager getTrustCache() {
+        return trustCache;
+    }
+
     /**
      * Handle client connection and communication.
-     * @param socket the client socket
+     * @param tracked the client connection
+     * @param acceptedMillis when the connection was accepted, in epoch milliseconds
+     */
+    private void handleClientConnection(TrackedConnection tracked, long acceptedMillis) {
+        TlsStream connection = tracked.stream;
+        connectionStats.connectionOpened();
+        long messages = 0;
+        try {
+            if (!tracked.begin()) {
+                // Cut by a drain deadline while waiting for a worker
+                return;
+            }
+            connection.setSoTimeout(config.getReadTimeoutMillis());
+            HandshakeEvent handshakeEvent = new HandshakeEvent();
+            handshakeEvent.begin();
+            long handshakeStart = System.nanoTime();
+            try {
+                connection.startHandshake();
+            } catch (IOException e) {
+                handshakeMetrics.recordFailure(e);
+                if (handshakeEvent.shouldCommit()) {
+                    handshakeEvent.setRemoteAddress(connection.getRemoteAddress());
+                    handshakeEvent.setFailure(HandshakeFailure.of(e).name());
+                    handshakeEvent.commit();
+                }
+                throw e;
+            }
+            handshakeEvent.end();
+            SSLSession session = connection.getSession();
+            handshakeMetrics.recordSuccess(handshakeStart, session);
+            sessionStats.record(session, acceptedMillis);
+            if (handshakeEvent.shouldCommit()) {
+                identify(handshakeEvent, connection);
+                handshakeEvent.setProtocol(session.getProtocol());
+                handshakeEvent.setCipherSuite(session.getCipherSuite());
+                handshakeEvent.commit();
+            }
+
+            if (!tracked.end()) {
+                LOGGER.info("Server is draining, closing connection from {}", connection.getRemoteAddress());
+            } else if (config.getProtocol() == Protocol.FRAMED) {
+                messages = handleFrames(tracked);
+            } else {
+                messages = handleLines(tracked);
+            }
+        } catch (SocketTimeoutException e) {
+            LOGGER.info("Closing connection from {}, silent for {} ms", connection.getRemoteAddress(),
+                    config.getReadTimeoutMillis());
+        } catch (IOException e) {
+            if (tracked.isClosing()) {
+                LOGGER.debug("Connection from {} closed by a drain: {}", connection.getRemoteAddress(),
+                        e.getMessage());
+            } else {
+                LOGGER.error("Error handling client connection: {}", e.getMessage());
+            }
+        } finally {
+            CloseEvent closeEvent = new CloseEvent();
+            closeEvent.begin();
+            closeQuietly(connection);
+            closeEvent.end();
+            connectionStats.connectionClosed();
+            if (closeEvent.shouldCommit()) {
+                identify(closeEvent, connection);
+                closeEvent.setMessages(messages);
+                closeEvent.commit();
+            }
+            untrack(tracked);
+        }
+    }
+
+    /**
+     * Serves the line protocol: each line is echoed with an "Echo: " prefix.
+     * Replies are flushed only once every request already received has been answered, so a
+     * pipelined batch of requests is answered with a single write, and the connection only counts
+     * as idle for a drain at that point.
+     * @param tracked the client connection
+     * @return the number of lines received
+     * @throws IOException if the connection fails
      */
-    private void handleClientConnection(Socket socket) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-             PrintWriter writer = new PrintWriter(socket.getOutputStream(), true)) {
+    private long handleLines(TrackedConnection tracked) throws IOException {
+        TlsStream connection = tracked.stream;
+        long messages = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connectionStats.countingInput(connection.getInputStream())));
+             PrintWriter writer = new PrintWriter(connectionStats.countingOutput(connection.getOutputStream()))) {
 
             String line;
-            while ((line = reader.readLine()) != null) {
+            while ((line = reader.readLine()) != null && tracked.begin()) {
+                MessageEvent messageEvent = new MessageEvent();
+                messageEvent.begin();
+                connectionStats.messageReceived();
+                messages++;
                 LOGGER.info("Received: {}", line);
 
                 if ("quit".equalsIgnoreCase(line) || "exit".equalsIgnoreCase(line)) {
@@ -121,16 +600,314 @@ public class Server implements Runnable {
 
                 // Echo the message back to client
                 writer.println("Echo: " + line);
+                boolean answered = !reader.ready();
+                if (answered) {
+                    writer.flush();
+                }
+                messageEvent.end();
+                if (messageEvent.shouldCommit()) {
+                    identify(messageEvent, connection);
+                    messageEvent.setSize(line.length());
+                    messageEvent.commit();
+                }
+                if (answered && !tracked.end()) {
+                    break;
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Serves the framed protocol: each frame is echoed unchanged, without charset conversion,
+     * using one reusable payload buffer for the whole connection. As with lines, replies are
+     * flushed once no further request is already buffered.
+     * @param tracked the client connection
+     * @return the number of frames received
+     * @throws IOException if the connection fails or a frame is invalid
+     */
+    private long handleFrames(TrackedConnection tracked) throws IOException {
+        TlsStream connection = tracked.stream;
+        long messages = 0;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(connectionStats.countingInput(connection.getInputStream())));
+             OutputStream out = new BufferedOutputStream(
+                     connectionStats.countingOutput(connection.getOutputStream()))) {
+
+            ByteBuffer payload = ByteBuffer.allocate(FrameCodec.INITIAL_BUFFER_CAPACITY);
+            while ((payload = FrameCodec.readFrame(in, payload)) != null && tracked.begin()) {
+                MessageEvent messageEvent = new MessageEvent();
+                messageEvent.begin();
+                connectionStats.messageReceived();
+                messages++;
+                int size = payload.remaining();
+                LOGGER.debug("Received frame of {} bytes", size);
+                FrameCodec.writeFrame(out, payload);
+                boolean answered = in.available() == 0;
+                if (answered) {
+                    out.flush();
+                }
+                messageEvent.end();
+                if (messageEvent.shouldCommit()) {
+                    identify(messageEvent, connection);
+                    messageEvent.setSize(size);
+                    messageEvent.commit();
+                }
+                if (answered && !tracked.end()) {
+                    break;
+                }
             }
+        }
+        return messages;
+    }
+
+    /**
+     * Creates the executor serving accepted connections for the configured execution mode.
+     * @param config server configuration
+     * @return the connection executor
+     */
+    private ExecutorService createWorkers(ServerConfig config) {
+        if (config.getExecutionMode() == ServerConfig.ExecutionMode.VIRTUAL_THREADS) {
+            LOGGER.info("Serving connections on virtual threads");
+            return VirtualThreads.newThreadPerTaskExecutor("mTLS-Virtual-");
+        }
+        return new ThreadPoolExecutor(config.getWorkerThreads(), config.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new WorkerThreadFactory(), new ConnectionRejectionHandler());
+    }
+
+    /**
+     * Closes the listening socket of the current run, if it still is the current one, and releases
+     * what {@link #bind()} acquired.
+     * @param listening the listening socket of the run ending, or null
+     */
+    private synchronized void closeListening(SSLServerSocket listening) {
+        if (listening == null || listening != serverSocket) {
+            return;
+        }
+        int port = listening.getLocalPort();
+        serverSocket = null;
+        try {
+            listening.close();
         } catch (IOException e) {
-            LOGGER.error("Error handling client connection: {}", e.getMessage());
-        } finally {
-            try {
-                socket.close();
-            } catch (IOException e) {
-                LOGGER.error("Error closing socket: {}", e.getMessage());
+            LOGGER.error("Error closing server socket: {}", e.getMessage());
+        }
+        unregisterStats(port);
+        if (sharedTickets != null) {
+            sharedTickets.close();
+            ticketsStopped = true;
+        }
+        ready = new CompletableFuture<>();
+        LOGGER.info("Server stopped listening on port {}", port);
+    }
+
+    /**
+     * Publishes the statistics as a platform MXBean if enabled. Failing to do so does not stop the server.
+     */
+    private void registerStats() {
+        if (!config.isJmxEnabled()) {
+            return;
+        }
+        try {
+            stats.register(ServerStats.objectName(serverSocket.getLocalPort()));
+        } catch (JMException e) {
+            LOGGER.warn("Unable to publish server statistics over JMX: {}", e.toString());
+        }
+    }
+
+    private void unregisterStats(int port) {
+        if (!config.isJmxEnabled()) {
+            return;
+        }
+        try {
+            ServerStats.unregister(ServerStats.objectName(port));
+        } catch (JMException e) {
+            LOGGER.warn("Unable to remove server statistics from JMX: {}", e.toString());
+        }
+    }
+
+    /**
+     * Forgets a closed connection, counting it as drained if a drain is waiting for it.
+     * @param tracked the connection
+     */
+    private void untrack(TrackedConnection tracked) {
+        connections.remove(tracked);
+        if (draining) {
+            synchronized (drainMonitor) {
+                if (draining && !tracked.isCut()) {
+                    drainedConnections++;
+                }
+                drainMonitor.notifyAll();
             }
         }
     }
 
+    /**
+     * Sets the client address and identity of an event about to be committed.
+     * @param event the event
+     * @param connection the client connection, after its handshake
+     */
+    private static void identify(ServerEvent event, TlsStream connection) {
+        event.setRemoteAddress(connection.getRemoteAddress());
+        try {
+            Principal peer = connection.getSession().getPeerPrincipal();
+            event.setPeer(peer == null ? null : peer.getName());
+        } catch (SSLPeerUnverifiedException e) {
+            event.setPeer(null);
+        }
+    }
+
+    /**
+     * Closes a connection, logging rather than propagating failures.
+     * @param connection the connection to close
+     */
+    private static void closeQuietly(TlsStream connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            LOGGER.error("Error closing connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Worker task serving a single accepted connection.
+     */
+    private final class ConnectionTask implements Runnable {
+
+        private final TrackedConnection connection;
+        private final long acceptedMillis = System.currentTimeMillis();
+
+        ConnectionTask(TrackedConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void run() {
+            handleClientConnection(connection, acceptedMillis);
+        }
+
+        void reject() {
+            rejectedConnections.incrementAndGet();
+            LOGGER.warn("Worker pool saturated, closing connection from {}",
+                    connection.stream.getRemoteAddress());
+            closeQuietly(connection.stream);
+            untrack(connection);
+        }
+    }
+
+    /**
+     * An open connection and whether it is in an exchange, so that a drain closes it only between
+     * exchanges. A connection is busy from its acceptance, while it waits for a worker and through its
+     * handshake, and from each request until no further request is buffered and the replies are flushed.
+     */
+    private final class TrackedConnection {
+
+        private final TlsStream stream;
+        /** Starts true: a drain serves a connection waiting for a worker rather than closing it unannounced. */
+        private boolean busy = true;
+        private boolean closing;
+        private boolean cut;
+
+        TrackedConnection(TlsStream stream) {
+            this.stream = stream;
+            connections.add(this);
+        }
+
+        /**
+         * Marks the start of an exchange.
+         * @return false if a drain closed the connection, which must then not be served
+         */
+        synchronized boolean begin() {
+            if (closing) {
+                return false;
+            }
+            busy = true;
+            return true;
+        }
+
+        /**
+         * Marks the end of an exchange.
+         * @return false if the server is draining, in which case the caller closes the connection
+         */
+        synchronized boolean end() {
+            busy = false;
+            if (draining) {
+                closing = true;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Closes the connection if it is between exchanges, waking the worker blocked reading from it.
+         */
+        void closeIfIdle() {
+            synchronized (this) {
+                if (busy || closing) {
+                    return;
+                }
+                closing = true;
+            }
+            closeQuietly(stream);
+        }
+
+        /**
+         * Closes the connection whatever it is doing.
+         * @return true if it was not closed before
+         */
+        boolean cut() {
+            synchronized (this) {
+                if (cut) {
+                    return false;
+                }
+                cut = true;
+                closing = true;
+            }
+            LOGGER.warn("Drain deadline passed, cutting connection from {}", stream.getRemoteAddress());
+            closeQuietly(stream);
+            return true;
+        }
+
+        synchronized boolean isClosing() {
+            return closing;
+        }
+
+        synchronized boolean isCut() {
+            return cut;
+        }
+    }
+
+    /**
+     * Applies the configured {@link ServerConfig.RejectionPolicy} without blocking the accept loop.
+     */
+    private final class ConnectionRejectionHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (!executor.isShutdown() && config.getRejectionPolicy() == ServerConfig.RejectionPolicy.CLOSE_OLDEST) {
+                Runnable oldest = executor.getQueue().poll();
+                if (oldest != null) {
+                    ((ConnectionTask) oldest).reject();
+                    executor.execute(task);
+                    return;
+                }
+            }
+            ((ConnectionTask) task).reject();
+        }
+    }
+
+    /**
+     * Creates named daemon worker threads.
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "mTLS-Worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
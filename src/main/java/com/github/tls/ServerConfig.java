@@ -0,0 +1,708 @@
+package com.github.tls;
+
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.CachingX509TrustManager;
+import com.github.tls.ssl.SSLContextConfig;
+import com.github.tls.ssl.SessionTicketKeyStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration for the mTLS {@link Server}.
+ * Instances are immutable and created through {@link #builder()}.
+ */
+public final class ServerConfig {
+
+    /** Default number of worker threads serving client connections. */
+    public static final int DEFAULT_WORKER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+    /** Default number of accepted connections that may wait for a free worker. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 128;
+    /** Default number of event loops of the non-blocking engine. */
+    public static final int DEFAULT_EVENT_LOOPS = Runtime.getRuntime().availableProcessors();
+    /** Default keystore holding the server certificate and private key. */
+    public static final String DEFAULT_KEYSTORE = SSLContextConfig.CLASSPATH_PREFIX + "/server.jks";
+    /** Default truststore holding the CA certificate that signs client certificates. */
+    public static final String DEFAULT_TRUSTSTORE = SSLContextConfig.CLASSPATH_PREFIX + "/truststore.jks";
+    /**
+     * Default time a connection may stay silent, in the handshake or between requests, before the server
+     * closes it and frees its worker.
+     */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 60_000;
+    /** Default time a draining server lets in-flight exchanges finish before closing their connections. */
+    public static final long DEFAULT_DRAIN_TIMEOUT_MILLIS = 30_000;
+    /** System property read by JSSE to enable stateless session tickets on servers. */
+    public static final String SESSION_TICKETS_PROPERTY = SSLContextConfig.SESSION_TICKETS_PROPERTY;
+    /** Highest valid TCP port. */
+    private static final int MAX_PORT = 65535;
+
+    private final int port;
+    private final Protocol protocol;
+    private final ExecutionMode executionMode;
+    private final int eventLoops;
+    private final int workerThreads;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final int readTimeoutMillis;
+    private final List<String> tlsProtocols;
+    private final List<String> cipherSuites;
+    private final int sessionCacheSize;
+    private final int sessionTimeoutSeconds;
+    private final boolean sessionTickets;
+    private final SessionTicketKeyStore sessionTicketKeyStore;
+    private final String keyStore;
+    private final String trustStore;
+    private final long storeReloadMillis;
+    private final int trustCacheSize;
+    private final List<String> crlLocations;
+    private final long crlRefreshMillis;
+    private final long drainTimeoutMillis;
+    private final boolean jmxEnabled;
+    private final boolean diagnosticsEnabled;
+
+    private ServerConfig(Builder builder) {
+        this.port = builder.port;
+        this.protocol = builder.protocol;
+        this.executionMode = builder.executionMode;
+        this.eventLoops = builder.eventLoops;
+        this.workerThreads = builder.workerThreads;
+        this.queueCapacity = builder.queueCapacity;
+        this.rejectionPolicy = builder.rejectionPolicy;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+        this.tlsProtocols = builder.tlsProtocols;
+        this.cipherSuites = builder.cipherSuites;
+        this.sessionCacheSize = builder.sessionCacheSize;
+        this.sessionTimeoutSeconds = builder.sessionTimeoutSeconds;
+        this.sessionTickets = builder.sessionTickets;
+        this.sessionTicketKeyStore = builder.sessionTicketKeyStore;
+        this.keyStore = builder.keyStore;
+        this.trustStore = builder.trustStore;
+        this.storeReloadMillis = builder.storeReloadMillis;
+        this.trustCacheSize = builder.trustCacheSize;
+        this.crlLocations = builder.crlLocations;
+        this.crlRefreshMillis = builder.crlRefreshMillis;
+        this.drainTimeoutMillis = builder.drainTimeoutMillis;
+        this.jmxEnabled = builder.jmxEnabled;
+        this.diagnosticsEnabled = builder.diagnosticsEnabled;
+    }
+
+    /**
+     * Creates a configuration with all default values.
+     *
+     * @return the default configuration
+     */
+    public static ServerConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a new builder initialized with default values.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the listen port
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Gets the application protocol spoken on accepted connections.
+     *
+     * @return the protocol
+     */
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Gets how accepted connections are executed.
+     *
+     * @return the execution mode
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Gets the number of event loop threads used by the non-blocking engine.
+     *
+     * @return the event loop count
+     */
+    public int getEventLoops() {
+        return eventLoops;
+    }
+
+    /**
+     * Gets the number of worker threads serving client connections.
+     *
+     * @return the worker pool size
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    /**
+     * Gets the maximum number of accepted connections waiting for a worker.
+     *
+     * @return the queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the policy applied when the worker pool and its queue are full.
+     *
+     * @return the rejection policy
+     */
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * Gets how long the server waits for data from a client before closing the connection.
+     *
+     * @return the read timeout in milliseconds, 0 for none
+     */
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * Gets the TLS protocol versions enabled on accepted connections, most preferred first.
+     *
+     * @return the enabled TLS protocol versions
+     */
+    public List<String> getTlsProtocols() {
+        return tlsProtocols;
+    }
+
+    /**
+     * Gets the cipher suites enabled on accepted connections, most preferred first.
+     *
+     * @return the enabled cipher suites
+     */
+    public List<String> getCipherSuites() {
+        return cipherSuites;
+    }
+
+    /**
+     * Gets the maximum number of sessions kept in the server session cache for resumption.
+     *
+     * @return the session cache size, 0 for unlimited
+     */
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * Gets how long clients can resume a session after their full handshake.
+     *
+     * @return the session timeout in seconds, 0 for unlimited
+     */
+    public int getSessionTimeoutSeconds() {
+        return sessionTimeoutSeconds;
+    }
+
+    /**
+     * Checks whether the server issues stateless session tickets instead of keeping resumable
+     * sessions in its cache.
+     *
+     * @return true if session tickets are enabled
+     */
+    public boolean isSessionTickets() {
+        return sessionTickets;
+    }
+
+    /**
+     * Gets the store sharing session ticket keys with the other nodes of a fleet.
+     *
+     * @return the key store, or null if tickets are node-local
+     */
+    public SessionTicketKeyStore getSessionTicketKeyStore() {
+        return sessionTicketKeyStore;
+    }
+
+    /**
+     * Gets the location of the keystore holding the server certificate and private key.
+     *
+     * @return a file path, or a classpath resource prefixed with {@value SSLContextConfig#CLASSPATH_PREFIX}
+     */
+    public String getKeyStore() {
+        return keyStore;
+    }
+
+    /**
+     * Gets the location of the truststore holding the CA certificates trusted for client certificates.
+     *
+     * @return a file path, or a classpath resource prefixed with {@value SSLContextConfig#CLASSPATH_PREFIX}
+     */
+    public String getTrustStore() {
+        return trustStore;
+    }
+
+    /**
+     * Gets how often the keystore and truststore are checked for changes.
+     *
+     * @return the reload interval in milliseconds, or {@link SSLContextConfig#NO_RELOAD}
+     */
+    public long getStoreReloadMillis() {
+        return storeReloadMillis;
+    }
+
+    /**
+     * Gets how many client certificate chain verdicts are cached.
+     *
+     * @return the trust cache size, or {@link SSLContextConfig#NO_TRUST_CACHE}
+     */
+    public int getTrustCacheSize() {
+        return trustCacheSize;
+    }
+
+    /**
+     * Gets the CRL files, or directories of CRL files, whose revoked client certificates are rejected.
+     *
+     * @return the CRL locations, empty if revocation is not checked
+     */
+    public List<String> getCrlLocations() {
+        return crlLocations;
+    }
+
+    /**
+     * Gets how often the CRL files are checked for changes.
+     *
+     * @return the CRL refresh interval in milliseconds
+     */
+    public long getCrlRefreshMillis() {
+        return crlRefreshMillis;
+    }
+
+    /**
+     * Gets how long {@link Server#drain()} lets in-flight exchanges finish before closing their connections.
+     *
+     * @return the drain deadline in milliseconds
+     */
+    public long getDrainTimeoutMillis() {
+        return drainTimeoutMillis;
+    }
+
+    /**
+     * Checks whether the server publishes its statistics as a platform MXBean.
+     *
+     * @return true if JMX publishing is enabled
+     */
+    public boolean isJmxEnabled() {
+        return jmxEnabled;
+    }
+
+    /**
+     * Checks whether the server reports on its certificate and TLS configuration in the background
+     * after construction.
+     *
+     * @return true if startup diagnostics are enabled
+     */
+    public boolean isDiagnosticsEnabled() {
+        return diagnosticsEnabled;
+    }
+
+    /**
+     * How the blocking server executes accepted connections.
+     */
+    public enum ExecutionMode {
+        /** A bounded pool of platform threads with a bounded queue. */
+        PLATFORM_POOL,
+        /** A new virtual thread per connection; requires Java 21 at runtime. Pool settings are ignored. */
+        VIRTUAL_THREADS
+    }
+
+    /**
+     * Policy applied to an accepted connection that cannot be queued for a worker.
+     * Neither policy blocks the accept loop.
+     */
+    public enum RejectionPolicy {
+        /** Close the newly accepted connection. */
+        CLOSE_NEWEST,
+        /** Close the connection that has waited longest in the queue and queue the new one. */
+        CLOSE_OLDEST
+    }
+
+    /**
+     * Builder for {@link ServerConfig}.
+     */
+    public static final class Builder {
+
+        private int port = Server.SSL_PORT;
+        private Protocol protocol = Protocol.LINE;
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM_POOL;
+        private int eventLoops = DEFAULT_EVENT_LOOPS;
+        private int workerThreads = DEFAULT_WORKER_THREADS;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.CLOSE_NEWEST;
+        private int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+        private List<String> tlsProtocols = SSLContextConfig.DEFAULT_ENABLED_PROTOCOLS;
+        private List<String> cipherSuites = SSLContextConfig.DEFAULT_CIPHER_SUITES;
+        private int sessionCacheSize = SSLContextConfig.DEFAULT_SESSION_CACHE_SIZE;
+        private int sessionTimeoutSeconds = SSLContextConfig.DEFAULT_SESSION_TIMEOUT_SECONDS;
+        private boolean sessionTickets = SSLContextConfig.DEFAULT_SESSION_TICKETS;
+        private SessionTicketKeyStore sessionTicketKeyStore;
+        private String keyStore = DEFAULT_KEYSTORE;
+        private String trustStore = DEFAULT_TRUSTSTORE;
+        private long storeReloadMillis = SSLContextConfig.NO_RELOAD;
+        private int trustCacheSize = CachingX509TrustManager.DEFAULT_MAX_ENTRIES;
+        private List<String> crlLocations = Collections.emptyList();
+        private long crlRefreshMillis = SSLContextConfig.DEFAULT_CRL_REFRESH_MILLIS;
+        private long drainTimeoutMillis = DEFAULT_DRAIN_TIMEOUT_MILLIS;
+        private boolean jmxEnabled = true;
+        private boolean diagnosticsEnabled = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the port the server listens on.
+         *
+         * @param listenPort the listen port, or 0 for an ephemeral port
+         * @return this builder
+         */
+        public Builder port(int listenPort) {
+            if (listenPort < 0 || listenPort > MAX_PORT) {
+                throw new IllegalArgumentException("Port out of range: " + listenPort);
+            }
+            this.port = listenPort;
+            return this;
+        }
+
+        /**
+         * Sets the application protocol spoken on accepted connections.
+         *
+         * @param appProtocol the protocol
+         * @return this builder
+         */
+        public Builder protocol(Protocol appProtocol) {
+            if (appProtocol == null) {
+                throw new IllegalArgumentException("Protocol must not be null");
+            }
+            this.protocol = appProtocol;
+            return this;
+        }
+
+        /**
+         * Sets the number of event loop threads used by the non-blocking engine.
+         *
+         * @param loops the event loop count, at least 1
+         * @return this builder
+         */
+        public Builder eventLoops(int loops) {
+            if (loops < 1) {
+                throw new IllegalArgumentException("Event loops must be at least 1: " + loops);
+            }
+            this.eventLoops = loops;
+            return this;
+        }
+
+        /**
+         * Sets how accepted connections are executed.
+         *
+         * @param mode the execution mode
+         * @return this builder
+         */
+        public Builder executionMode(ExecutionMode mode) {
+            if (mode == null) {
+                throw new IllegalArgumentException("Execution mode must not be null");
+            }
+            this.executionMode = mode;
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads serving client connections.
+         *
+         * @param threads the worker pool size, at least 1
+         * @return this builder
+         */
+        public Builder workerThreads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Worker threads must be at least 1: " + threads);
+            }
+            this.workerThreads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of accepted connections waiting for a worker.
+         *
+         * @param capacity the queue capacity, at least 1
+         * @return this builder
+         */
+        public Builder queueCapacity(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Queue capacity must be at least 1: " + capacity);
+            }
+            this.queueCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the policy applied when the worker pool and its queue are full.
+         *
+         * @param policy the rejection policy
+         * @return this builder
+         */
+        public Builder rejectionPolicy(RejectionPolicy policy) {
+            if (policy == null) {
+                throw new IllegalArgumentException("Rejection policy must not be null");
+            }
+            this.rejectionPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Sets how long the server waits for data from a client, during the handshake or between requests,
+         * before closing the connection. Without it, idle clients hold the pool's workers indefinitely while
+         * new connections queue up and get rejected. Applies to the blocking server only; the non-blocking
+         * engine holds no thread per connection.
+         *
+         * @param timeoutMillis the read timeout in milliseconds, 0 for none
+         * @return this builder
+         */
+        public Builder readTimeoutMillis(int timeoutMillis) {
+            if (timeoutMillis < 0) {
+                throw new IllegalArgumentException("Read timeout must not be negative: " + timeoutMillis);
+            }
+            this.readTimeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * Sets the TLS protocol versions enabled on accepted connections. Versions the JVM does not
+         * support are skipped.
+         *
+         * @param versions the protocol versions, most preferred first
+         * @return this builder
+         */
+        public Builder tlsProtocols(String... versions) {
+            this.tlsProtocols = requireNonEmpty(versions, "TLS protocols");
+            return this;
+        }
+
+        /**
+         * Sets the cipher suites enabled on accepted connections. Suites the JVM does not support are skipped.
+         *
+         * @param suites the cipher suites, most preferred first
+         * @return this builder
+         */
+        public Builder cipherSuites(String... suites) {
+            this.cipherSuites = requireNonEmpty(suites, "Cipher suites");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of sessions kept in the server session cache. Each cached
+         * session lets a reconnecting client skip the full handshake and certificate verification.
+         *
+         * @param size the session cache size, 0 for unlimited
+         * @return this builder
+         */
+        public Builder sessionCacheSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Session cache size must not be negative: " + size);
+            }
+            this.sessionCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets how long clients can resume a session after their full handshake.
+         *
+         * @param seconds the session timeout in seconds, 0 for unlimited
+         * @return this builder
+         */
+        public Builder sessionTimeoutSeconds(int seconds) {
+            if (seconds < 0) {
+                throw new IllegalArgumentException("Session timeout must not be negative: " + seconds);
+            }
+            this.sessionTimeoutSeconds = seconds;
+            return this;
+        }
+
+        /**
+         * Sets whether the server issues stateless session tickets (RFC 5077, and the TLS 1.3
+         * ticket-based PSK), so that resumption needs no server-side cache entry. The setting is part of
+         * the identity of the server's context, so servers in one JVM can differ. Defaults to on, unless
+         * the JVM was started with {@code -D}{@value #SESSION_TICKETS_PROPERTY}{@code =false}.
+         *
+         * @param enabled true to issue session tickets
+         * @return this builder
+         */
+        public Builder sessionTickets(boolean enabled) {
+            this.sessionTickets = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the store sharing session ticket keys with the other nodes of a fleet, so that clients
+         * can resume their sessions on any node. Experimental: see {@link com.github.tls.ssl.SharedSessionTickets}
+         * for the JVM options this requires and its limits.
+         *
+         * @param store the key store, or null to keep tickets node-local
+         * @return this builder
+         */
+        public Builder sessionTicketKeyStore(SessionTicketKeyStore store) {
+            this.sessionTicketKeyStore = store;
+            return this;
+        }
+
+        /**
+         * Sets the keystore holding the server certificate and private key.
+         *
+         * @param location a file path, or a classpath resource prefixed with
+         *     {@value SSLContextConfig#CLASSPATH_PREFIX}
+         * @return this builder
+         */
+        public Builder keyStore(String location) {
+            this.keyStore = requireLocation(location, "Keystore");
+            return this;
+        }
+
+        /**
+         * Sets the truststore holding the CA certificates trusted for client certificates.
+         *
+         * @param location a file path, or a classpath resource prefixed with
+         *     {@value SSLContextConfig#CLASSPATH_PREFIX}
+         * @return this builder
+         */
+        public Builder trustStore(String location) {
+            this.trustStore = requireLocation(location, "Truststore");
+            return this;
+        }
+
+        /**
+         * Sets how often the keystore and truststore are checked for changes. A rotated certificate or
+         * CA is then picked up by new handshakes without restarting the server or dropping connections.
+         *
+         * @param intervalMillis the reload interval in milliseconds, or {@link SSLContextConfig#NO_RELOAD}
+         * @return this builder
+         */
+        public Builder storeReloadMillis(long intervalMillis) {
+            if (intervalMillis < 0) {
+                throw new IllegalArgumentException("Store reload interval must not be negative: " + intervalMillis);
+            }
+            this.storeReloadMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Sets how many client certificate chain verdicts are cached. Clients presenting a chain seen
+         * before skip path validation; see {@link CachingX509TrustManager}.
+         *
+         * @param size the trust cache size, or {@link SSLContextConfig#NO_TRUST_CACHE}
+         * @return this builder
+         */
+        public Builder trustCacheSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Trust cache size must not be negative: " + size);
+            }
+            this.trustCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the CRL files whose revoked client certificates are rejected, for example the
+         * {@code crl.pem} written by {@code scripts/create-ca.sh --gen-crl}. The files are reloaded in
+         * the background when they change, without blocking handshakes.
+         *
+         * @param locations CRL files in PEM or DER format, or directories whose files are all CRLs
+         * @return this builder
+         */
+        public Builder crlLocations(String... locations) {
+            this.crlLocations = requireNonEmpty(locations, "CRL locations");
+            return this;
+        }
+
+        /**
+         * Sets how often the CRL files are checked for changes.
+         *
+         * @param intervalMillis the CRL refresh interval in milliseconds, at least 1
+         * @return this builder
+         */
+        public Builder crlRefreshMillis(long intervalMillis) {
+            if (intervalMillis < 1) {
+                throw new IllegalArgumentException("CRL refresh interval must be at least 1 ms: " + intervalMillis);
+            }
+            this.crlRefreshMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Sets how long {@link Server#drain()} lets in-flight exchanges finish. Connections still in an
+         * exchange at the deadline are closed anyway and reported as cut.
+         *
+         * @param timeoutMillis the drain deadline in milliseconds, 0 to close every connection at once
+         * @return this builder
+         */
+        public Builder drainTimeoutMillis(long timeoutMillis) {
+            if (timeoutMillis < 0) {
+                throw new IllegalArgumentException("Drain timeout must not be negative: " + timeoutMillis);
+            }
+            this.drainTimeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        /**
+         * Sets whether the server publishes its statistics as a platform MXBean named
+         * {@code com.github.tls:type=Server,port=<port>}; see
+         * {@link com.github.tls.metrics.ServerStatsMXBean}.
+         *
+         * @param enabled true to register the MXBean while the server runs
+         * @return this builder
+         */
+        public Builder jmxEnabled(boolean enabled) {
+            this.jmxEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Sets whether the server runs its startup diagnostics: the parsed certificate extensions and
+         * the TLS compatibility report, logged and kept as a {@link CertificateReport}. They run on a
+         * background thread once per certificate; see {@link StartupDiagnostics}.
+         *
+         * @param enabled true to run the diagnostics
+         * @return this builder
+         */
+        public Builder diagnosticsEnabled(boolean enabled) {
+            this.diagnosticsEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         *
+         * @return the immutable configuration
+         */
+        public ServerConfig build() {
+            return new ServerConfig(this);
+        }
+
+        private static String requireLocation(String location, String name) {
+            if (location == null || location.isEmpty()) {
+                throw new IllegalArgumentException(name + " location must not be empty");
+            }
+            return location;
+        }
+
+        private static List<String> requireNonEmpty(String[] values, String name) {
+            if (values == null || values.length == 0) {
+                throw new IllegalArgumentException(name + " must not be empty");
+            }
+            return Collections.unmodifiableList(Arrays.asList(values.clone()));
+        }
+    }
+}
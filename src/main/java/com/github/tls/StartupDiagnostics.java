@@ -0,0 +1,164 @@
+package com.github.tls;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import javax.net.ssl.SSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the certificate and TLS compatibility diagnostics of a {@link Server} or {@link Client} off its
+ * construction path, once per certificate.
+ * <p>
+ * {@link #analyze(KeyStore, String, SSLContext)} only reads the certificate and its fingerprint on the
+ * calling thread; logging the parsed extensions, the {@link TLSCompatibilityAnalyzer} report and the
+ * keystore aliases, and building the {@link CertificateReport}, happen on the executor. Reports are
+ * cached by fingerprint, so a second server or a thousand clients sharing a certificate reuse the first
+ * result rather than repeating the work and the log output. The compatibility in a report covers the
+ * TLS versions enabled by the context the certificate was first analyzed with.
+ */
+public final class StartupDiagnostics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupDiagnostics.class);
+
+    private static final StartupDiagnostics DEFAULT = new StartupDiagnostics(createExecutor());
+
+    private final Executor executor;
+    private final ConcurrentMap<String, CompletableFuture<CertificateReport>> reports = new ConcurrentHashMap<>();
+
+    /**
+     * Creates diagnostics running on the given executor, with their own cache. Most callers should use
+     * {@link #getDefault()}.
+     *
+     * @param executor the executor running the diagnostics
+     */
+    public StartupDiagnostics(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the diagnostics shared by the servers and clients of this JVM, running on a single daemon thread.
+     *
+     * @return the default diagnostics
+     */
+    public static StartupDiagnostics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Analyzes a certificate in the background, unless a certificate with the same fingerprint has been
+     * analyzed already.
+     *
+     * @param keyStore the keystore holding the certificate
+     * @param alias the alias of the certificate
+     * @param context the SSL context whose protocols the certificate is checked against
+     * @return the report, shared with every earlier request for the same certificate; completed
+     *     exceptionally if the alias holds no X.509 certificate or the diagnostics fail
+     */
+    public CompletableFuture<CertificateReport> analyze(KeyStore keyStore, String alias, SSLContext context) {
+        X509Certificate cert;
+        String fingerprint;
+        List<String> aliases;
+        try {
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (!(certificate instanceof X509Certificate)) {
+                return failed(new CertificateException("No X.509 certificate with alias '" + alias + "'"));
+            }
+            cert = (X509Certificate) certificate;
+            fingerprint = CertificateReport.fingerprint(cert);
+            aliases = Collections.list(keyStore.aliases());
+        } catch (KeyStoreException | CertificateException e) {
+            return failed(e);
+        }
+
+        CompletableFuture<CertificateReport> report = new CompletableFuture<>();
+        CompletableFuture<CertificateReport> existing = reports.putIfAbsent(fingerprint, report);
+        if (existing != null) {
+            LOGGER.debug("Certificate '{}' was analyzed already as '{}'", alias, fingerprint);
+            return existing;
+        }
+        try {
+            executor.execute(() -> run(report, keyStore, alias, cert, aliases, context));
+        } catch (RejectedExecutionException e) {
+            // Let a later request retry rather than cache the rejection
+            reports.remove(fingerprint, report);
+            report.completeExceptionally(e);
+        }
+        return report;
+    }
+
+    /**
+     * Gets the report of a certificate analyzed before.
+     *
+     * @param fingerprint the SHA-256 fingerprint of the certificate, see {@link CertificateReport#fingerprint}
+     * @return the report, or null if the certificate has not been analyzed or its analysis is still running
+     *     or failed
+     */
+    public CertificateReport getReport(String fingerprint) {
+        CompletableFuture<CertificateReport> report = reports.get(fingerprint);
+        return report == null || !report.isDone() || report.isCompletedExceptionally() ? null : report.join();
+    }
+
+    /**
+     * Gets the reports of all certificates analyzed so far.
+     *
+     * @return the completed reports, keyed by fingerprint
+     */
+    public Map<String, CertificateReport> getReports() {
+        Map<String, CertificateReport> completed = new ConcurrentHashMap<>();
+        for (String fingerprint : reports.keySet()) {
+            CertificateReport report = getReport(fingerprint);
+            if (report != null) {
+                completed.put(fingerprint, report);
+            }
+        }
+        return Collections.unmodifiableMap(completed);
+    }
+
+    private static void run(CompletableFuture<CertificateReport> report, KeyStore keyStore, String alias,
+            X509Certificate cert, List<String> aliases, SSLContext context) {
+        try {
+            LOGGER.debug("Available aliases in keystore:");
+            for (String available : aliases) {
+                LOGGER.debug("  - {}", available);
+            }
+            (new CertificateAnalyzer()).inspectCommonExtensions(cert);
+
+            TLSCompatibilityAnalyzer viewer = new TLSCompatibilityAnalyzer(keyStore, context);
+            LOGGER.info("=== TLS Compatibility Analyzer Information ===");
+            viewer.displayTLSInfo();
+            viewer.displayCertificates();
+            report.complete(CertificateReport.of(alias, cert, viewer.getEnabledProtocols()));
+        } catch (CertificateException | RuntimeException e) {
+            LOGGER.warn("Startup diagnostics of certificate '{}' failed: {}", alias, e.toString());
+            report.completeExceptionally(e);
+        }
+    }
+
+    private static CompletableFuture<CertificateReport> failed(Exception cause) {
+        CompletableFuture<CertificateReport> report = new CompletableFuture<>();
+        report.completeExceptionally(cause);
+        return report;
+    }
+
+    private static ExecutorService createExecutor() {
+        return Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "mTLS-Diagnostics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,28 +44,50 @@ public class TLSCompatibilityAnalyzer {
         return context.getProtocol();
     }
 
+    /**
+     * Gets the protocol versions enabled by the SSL context, most preferred first. Contexts from
+     * {@link com.github.tls.ssl.SSLContextFactory} report their configured versions; for a context
+     * without default parameters the context protocol is used.
+     *
+     * @return the enabled protocol versions
+     */
+    public String[] getEnabledProtocols() {
+        SSLParameters parameters = context.getDefaultSSLParameters();
+        if (parameters == null || parameters.getProtocols() == null || parameters.getProtocols().length == 0) {
+            return new String[] {context.getProtocol()};
+        }
+        return parameters.getProtocols();
+    }
+
     /**
      * Displays TLS protocol information including version and provider.
      */
     public void displayTLSInfo() {
         LOGGER.info("TLS Protocol: {}", context.getProtocol());
         LOGGER.info("Provider: {}", context.getProvider().getName());
+        LOGGER.info("Enabled Protocols: {}", String.join(", ", getEnabledProtocols()));
+        SSLParameters parameters = context.getDefaultSSLParameters();
+        if (parameters != null && parameters.getCipherSuites() != null) {
+            LOGGER.debug("Enabled Cipher Suites: {}", String.join(", ", parameters.getCipherSuites()));
+        }
     }
 
     /**
-     * Displays certificates information from the keystore.
+     * Displays certificates information from the keystore, checking each certificate against every
+     * enabled protocol version.
      */
     public void displayCertificates() {
         LOGGER.info("Certificates in KeyStore:");
         CertificateUtils.enumerateCertificates(keyStore, (alias, x509Cert) -> {
             LOGGER.info("Alias: {}", alias);
-            boolean isCompatible = isCertificateCompatibleWithTLS(alias, context.getProtocol());
-            boolean isSignatureOK = isSignatureAlgorithmCompatible(
-                    x509Cert.getSigAlgName(), context.getProtocol());
-            boolean isKeyLengthSufficient = CertificateUtils.isKeyLengthSufficient(x509Cert, context.getProtocol());
-            LOGGER.info("  Compatible with {}: {}", context.getProtocol(), isCompatible);
-            LOGGER.info("  Signature Algorithm OK: {}", isSignatureOK);
-            LOGGER.info("  Key Length Sufficient: {}", isKeyLengthSufficient);
+            for (String protocol : getEnabledProtocols()) {
+                boolean isCompatible = isCertificateCompatibleWithTLS(alias, protocol);
+                boolean isSignatureOK = isSignatureAlgorithmCompatible(x509Cert.getSigAlgName(), protocol);
+                boolean isKeyLengthSufficient = CertificateUtils.isKeyLengthSufficient(x509Cert, protocol);
+                LOGGER.info("  Compatible with {}: {}", protocol, isCompatible);
+                LOGGER.info("  Signature Algorithm OK for {}: {}", protocol, isSignatureOK);
+                LOGGER.info("  Key Length Sufficient for {}: {}", protocol, isKeyLengthSufficient);
+            }
             LOGGER.debug("  Subject: {}", x509Cert.getSubjectX500Principal());
             LOGGER.debug("  Issuer: {}", x509Cert.getIssuerX500Principal());
             LOGGER.debug("  Valid From: {}", x509Cert.getNotBefore());
@@ -102,33 +125,9 @@ public class TLSCompatibilityAnalyzer {
                 return false;
             }
 
-            X509Certificate x509Cert = (X509Certificate) cert;
-
-            // Check if certificate is valid (not expired or not yet valid)
-            try {
-                x509Cert.checkValidity();
-            } catch (java.security.cert.CertificateExpiredException
-                    | java.security.cert.CertificateNotYetValidException e) {
-                LOGGER.warn("Certificate with alias '{}' is not valid: {}", alias, e.getMessage());
-                return false;
-            }
-
-            // Check signature algorithm compatibility
-            if (!isSignatureAlgorithmCompatible(x509Cert.getSigAlgName(), tlsVersion)) {
-                LOGGER.warn("Certificate with alias '{}' has incompatible signature algorithm: {} for {}",
-                           alias, x509Cert.getSigAlgName(), tlsVersion);
-                return false;
-            }
-
-            // Check key length requirements
-            if (!CertificateUtils.isKeyLengthSufficient(x509Cert, tlsVersion)) {
-                LOGGER.warn("Certificate with alias '{}' has insufficient key length for {}", alias, tlsVersion);
-                return false;
-            }
-
-            // Check key usage if present
-            if (!KeyUsageConstants.isKeyUsageCompatibleWithTLS(x509Cert.getKeyUsage(), tlsVersion)) {
-                LOGGER.warn("Certificate with alias '{}' has incompatible key usage for {}", alias, tlsVersion);
+            String incompatibility = findIncompatibility((X509Certificate) cert, tlsVersion);
+            if (incompatibility != null) {
+                LOGGER.warn("Certificate with alias '{}' {}", alias, incompatibility);
                 return false;
             }
 
@@ -141,10 +140,44 @@ public class TLSCompatibilityAnalyzer {
         }
     }
 
+    /**
+     * Checks a certificate against a TLS version without a keystore, for the same criteria as
+     * {@link #isCertificateCompatibleWithTLS(String, String)}.
+     *
+     * @param cert the certificate to check
+     * @param tlsVersion the TLS version to test compatibility against (e.g., "TLSv1.2", "TLSv1.3")
+     * @return why the certificate is not compatible, or null if it is
+     */
+    public static String findIncompatibility(X509Certificate cert, String tlsVersion) {
+        // Check if certificate is valid (not expired or not yet valid)
+        try {
+            cert.checkValidity();
+        } catch (java.security.cert.CertificateExpiredException
+                | java.security.cert.CertificateNotYetValidException e) {
+            return "is not valid: " + e.getMessage();
+        }
+
+        // Check signature algorithm compatibility
+        if (!isSignatureAlgorithmCompatible(cert.getSigAlgName(), tlsVersion)) {
+            return "has incompatible signature algorithm: " + cert.getSigAlgName() + " for " + tlsVersion;
+        }
+
+        // Check key length requirements
+        if (!CertificateUtils.isKeyLengthSufficient(cert, tlsVersion)) {
+            return "has insufficient key length for " + tlsVersion;
+        }
+
+        // Check key usage if present
+        if (!KeyUsageConstants.isKeyUsageCompatibleWithTLS(cert.getKeyUsage(), tlsVersion)) {
+            return "has incompatible key usage for " + tlsVersion;
+        }
+        return null;
+    }
+
     /**
      * Checks if the signature algorithm is compatible with the given TLS version.
      */
-    private boolean isSignatureAlgorithmCompatible(String sigAlgName, String tlsVersion) {
+    private static boolean isSignatureAlgorithmCompatible(String sigAlgName, String tlsVersion) {
         Set<String> weakAlgorithms = new HashSet<>(Arrays.asList(
             "MD5withRSA", "SHA1withRSA", "MD2withRSA", "MD5withDSA", "SHA1withDSA"
         ));
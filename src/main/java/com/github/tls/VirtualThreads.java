@@ -0,0 +1,87 @@
+package com.github.tls;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Access to Java 21 virtual threads from code compiled for Java 8.
+ * The Java 21 API is resolved reflectively once, so the same build runs on older
+ * runtimes and enables virtual threads when the running JVM provides them.
+ */
+final class VirtualThreads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+    private static final Method NAME = lookup(builderClass(), "name", String.class, long.class);
+    private static final Method FACTORY = lookup(builderClass(), "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR =
+            lookup(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether the running JVM supports virtual threads.
+     *
+     * @return true if virtual threads can be created
+     */
+    static boolean isSupported() {
+        if (OF_VIRTUAL == null || NAME == null || FACTORY == null || NEW_THREAD_PER_TASK_EXECUTOR == null) {
+            return false;
+        }
+        try {
+            // Preview builds of Java 19 and 20 expose the API but reject it unless previews are enabled
+            OF_VIRTUAL.invoke(null);
+            return true;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new named virtual thread for each task.
+     *
+     * @param namePrefix prefix of the thread names, followed by a sequence number
+     * @return the executor
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later, running "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 1L);
+            ThreadFactory factory = (ThreadFactory) FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new UnsupportedOperationException("Unable to create virtual thread executor", e);
+        }
+    }
+
+    private static Class<?> builderClass() {
+        try {
+            return Class.forName("java.lang.Thread$Builder");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            LOGGER.debug("Virtual threads unavailable: {}.{} not found", type.getName(), name);
+            return null;
+        }
+    }
+}
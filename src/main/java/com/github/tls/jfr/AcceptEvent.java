@@ -0,0 +1,7 @@
+package com.github.tls.jfr;
+
+/**
+ * Event spanning a wait for a connection in {@code ServerSocket.accept()}.
+ */
+public final class AcceptEvent extends ServerEvent {
+}
@@ -0,0 +1,15 @@
+package com.github.tls.jfr;
+
+/**
+ * Event spanning the close of a connection, which sends the TLS close_notify alert.
+ */
+public final class CloseEvent extends ServerEvent {
+
+    /**
+     * Sets the number of messages received on the connection.
+     *
+     * @param count the message count
+     */
+    public void setMessages(long count) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.tls.jfr;
+
+/**
+ * Event spanning the TLS handshake of an accepted connection.
+ */
+public final class HandshakeEvent extends ServerEvent {
+
+    /**
+     * Sets the negotiated protocol.
+     *
+     * @param name the protocol, or null if the handshake failed
+     */
+    public void setProtocol(String name) {
+    }
+
+    /**
+     * Sets the negotiated cipher suite.
+     *
+     * @param name the cipher suite, or null if the handshake failed
+     */
+    public void setCipherSuite(String name) {
+    }
+
+    /**
+     * Sets the reason the handshake failed.
+     *
+     * @param reason the failure reason, or null if the handshake completed
+     */
+    public void setFailure(String reason) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.tls.jfr;
+
+/**
+ * Event spanning the echo of one received message, from the end of its read to the end of the write
+ * of the reply.
+ */
+public final class MessageEvent extends ServerEvent {
+
+    /**
+     * Sets the size of the message.
+     *
+     * @param length the characters of a line or the payload bytes of a frame
+     */
+    public void setSize(int length) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.tls.jfr;
+
+/**
+ * Java Flight Recorder event of the server, identifying the connection it concerns.
+ * <p>
+ * Events are used the way JFR events are: {@link #begin()} before the operation, {@link #end()}
+ * after it, and the fields are set and the event committed only if {@link #shouldCommit()}. On
+ * Java 11 and later, the multi-release jar replaces this package with classes extending
+ * {@code jdk.jfr.Event}. The classes compiled for Java 8 record nothing, and the JIT compiler removes
+ * them entirely, so the server code instruments itself the same way on every runtime.
+ */
+public abstract class ServerEvent {
+
+    /**
+     * Starts timing the event.
+     */
+    public void begin() {
+    }
+
+    /**
+     * Stops timing the event.
+     */
+    public void end() {
+    }
+
+    /**
+     * Checks whether the event is enabled and lasted at least its threshold.
+     *
+     * @return true if the event should be committed
+     */
+    public boolean shouldCommit() {
+        return false;
+    }
+
+    /**
+     * Writes the event to the recording, ending it if {@link #end()} was not called.
+     */
+    public void commit() {
+    }
+
+    /**
+     * Sets the address of the client.
+     *
+     * @param address the remote socket address
+     */
+    public void setRemoteAddress(String address) {
+    }
+
+    /**
+     * Sets the identity of the client.
+     *
+     * @param principal the name of the authenticated peer, or null if not authenticated
+     */
+    public void setPeer(String principal) {
+    }
+}
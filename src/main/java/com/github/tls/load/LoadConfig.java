@@ -0,0 +1,229 @@
+package com.github.tls.load;
+
+/**
+ * Configuration of a {@link LoadGenerator} run.
+ * Instances are immutable and created through {@link #builder()}.
+ */
+public final class LoadConfig {
+
+    /** Default number of concurrent connections. */
+    public static final int DEFAULT_CONNECTIONS = 10;
+    /** Default measured run time, in milliseconds. */
+    public static final long DEFAULT_DURATION_MILLIS = 10000;
+    /** Default warm-up time before measuring, in milliseconds. */
+    public static final long DEFAULT_WARMUP_MILLIS = 2000;
+    /** Default size of each request message, in characters. */
+    public static final int DEFAULT_MESSAGE_SIZE = 64;
+
+    private final int connections;
+    private final int requestsPerSecond;
+    private final long durationMillis;
+    private final long warmupMillis;
+    private final int messageSize;
+    private final int requestsPerConnection;
+
+    private LoadConfig(Builder builder) {
+        this.connections = builder.connections;
+        this.requestsPerSecond = builder.requestsPerSecond;
+        this.durationMillis = builder.durationMillis;
+        this.warmupMillis = builder.warmupMillis;
+        this.messageSize = builder.messageSize;
+        this.requestsPerConnection = builder.requestsPerConnection;
+    }
+
+    /**
+     * Creates a configuration with all default values.
+     *
+     * @return the default configuration
+     */
+    public static LoadConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a new builder initialized with default values.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the number of concurrent connections.
+     *
+     * @return the connection count
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * Gets the target request rate over all connections.
+     *
+     * @return the requests per second, or 0 to send each request as soon as the previous reply
+     *         arrives (closed loop)
+     */
+    public int getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Checks whether requests follow a schedule at the target rate (open loop).
+     *
+     * @return true if a target rate is set
+     */
+    public boolean isPaced() {
+        return requestsPerSecond > 0;
+    }
+
+    /**
+     * Gets the measured run time, after the warm-up.
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Gets the time during which load is applied but not measured.
+     *
+     * @return the warm-up in milliseconds
+     */
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    /**
+     * Gets the size of each request message.
+     *
+     * @return the message size in characters
+     */
+    public int getMessageSize() {
+        return messageSize;
+    }
+
+    /**
+     * Gets the number of requests after which a connection is closed and opened again.
+     *
+     * @return the requests per connection, or 0 to keep connections open for the whole run
+     */
+    public int getRequestsPerConnection() {
+        return requestsPerConnection;
+    }
+
+    /**
+     * Builder for {@link LoadConfig}.
+     */
+    public static final class Builder {
+
+        private int connections = DEFAULT_CONNECTIONS;
+        private int requestsPerSecond;
+        private long durationMillis = DEFAULT_DURATION_MILLIS;
+        private long warmupMillis = DEFAULT_WARMUP_MILLIS;
+        private int messageSize = DEFAULT_MESSAGE_SIZE;
+        private int requestsPerConnection;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of concurrent connections, each driven by its own thread.
+         *
+         * @param count the connection count, at least 1
+         * @return this builder
+         */
+        public Builder connections(int count) {
+            if (count < 1) {
+                throw new IllegalArgumentException("Connections must be at least 1: " + count);
+            }
+            this.connections = count;
+            return this;
+        }
+
+        /**
+         * Sets the target request rate, spread evenly over the connections. Each request is due at
+         * a fixed time; latencies are measured from that time, so a stalled server is charged for
+         * the requests it delayed. 0 selects a closed loop, sending each request as soon as the
+         * previous reply arrives.
+         *
+         * @param rate the requests per second over all connections, or 0
+         * @return this builder
+         */
+        public Builder requestsPerSecond(int rate) {
+            if (rate < 0) {
+                throw new IllegalArgumentException("Requests per second must not be negative: " + rate);
+            }
+            this.requestsPerSecond = rate;
+            return this;
+        }
+
+        /**
+         * Sets the measured run time, after the warm-up.
+         *
+         * @param millis the duration in milliseconds, at least 1
+         * @return this builder
+         */
+        public Builder durationMillis(long millis) {
+            if (millis < 1) {
+                throw new IllegalArgumentException("Duration must be at least 1 ms: " + millis);
+            }
+            this.durationMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the time during which load is applied but not measured, letting the JIT compiler
+         * and the server reach a steady state.
+         *
+         * @param millis the warm-up in milliseconds, or 0 to measure from the start
+         * @return this builder
+         */
+        public Builder warmupMillis(long millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("Warm-up must not be negative: " + millis);
+            }
+            this.warmupMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the size of each request message.
+         *
+         * @param characters the message size in characters, at least 1
+         * @return this builder
+         */
+        public Builder messageSize(int characters) {
+            if (characters < 1) {
+                throw new IllegalArgumentException("Message size must be at least 1: " + characters);
+            }
+            this.messageSize = characters;
+            return this;
+        }
+
+        /**
+         * Sets the number of requests after which a connection is closed and opened again, to
+         * measure handshakes under load.
+         *
+         * @param requests the requests per connection, or 0 to keep connections open for the whole run
+         * @return this builder
+         */
+        public Builder requestsPerConnection(int requests) {
+            if (requests < 0) {
+                throw new IllegalArgumentException("Requests per connection must not be negative: " + requests);
+            }
+            this.requestsPerConnection = requests;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         *
+         * @return the configuration
+         */
+        public LoadConfig build() {
+            return new LoadConfig(this);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.github.tls.load;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.metrics.LatencyHistogram;
+import com.github.tls.protocol.Protocol;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.net.ssl.SSLContext;
+
+/**
+ * Drives load against an mTLS echo server through {@link Client} connections and measures the
+ * handshake, service and response times described in {@link LoadReport}.
+ * <p>
+ * Every connection has its own thread. All connections are opened first, which measures the
+ * handshakes; the clock then starts, and after the warm-up requests are measured until the run
+ * ends. With a target rate, each connection sends its share of the requests at fixed intervals,
+ * staggered across connections. A request that cannot be sent on time is sent as soon as possible,
+ * and its response time still counts from when it was due. Without a target rate, each connection
+ * sends its next request as soon as the previous reply arrives.
+ * <p>
+ * Usage: {@code LoadGenerator [-host h] [-port p] [-connections n] [-rate r] [-duration s]
+ * [-warmup s] [-size n] [-reconnect n] [-timeout s] [-framed] [-password p]}, with the rate in
+ * requests per second (0 for a closed loop) and the durations in seconds. Connections give up on a
+ * handshake or reply after the timeout, 10 seconds by default.
+ */
+public final class LoadGenerator {
+
+    /** Nanoseconds per second. */
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    /** Time a connection waits before retrying after a failed connection in a closed loop. */
+    private static final long RETRY_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    /** Time given to the connections to finish their last request once the run is over, in milliseconds. */
+    private static final long STOP_GRACE_MILLIS = 10000;
+    /** Default read timeout of the command line, in seconds. */
+    private static final int DEFAULT_TIMEOUT_SECONDS = 10;
+    /** Default keystore password. */
+    private static final String DEFAULT_PASSWORD = "changeit";
+
+    private final SSLContext context;
+    private final ClientConfig clientConfig;
+    private final LoadConfig config;
+    private final String message;
+
+    private final LatencyHistogram handshakes = new LatencyHistogram();
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> failureCauses = new ConcurrentHashMap<>();
+    private final CountDownLatch start = new CountDownLatch(1);
+
+    private long startNanos;
+    private long measureStartNanos;
+    private long endNanos;
+
+    /**
+     * Creates a load generator.
+     * @param context the client SSL context, shared by all connections
+     * @param clientConfig the server address and application protocol
+     * @param config the load to apply
+     */
+    public LoadGenerator(SSLContext context, ClientConfig clientConfig, LoadConfig config) {
+        this.context = context;
+        this.clientConfig = clientConfig;
+        this.config = config;
+        char[] payload = new char[config.getMessageSize()];
+        Arrays.fill(payload, 'x');
+        this.message = new String(payload);
+    }
+
+    /**
+     * Opens the connections, applies the load and waits for the run to end.
+     * A generator runs once.
+     * @return the results
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public LoadReport run() throws InterruptedException {
+        int connections = config.getConnections();
+        CountDownLatch connected = new CountDownLatch(connections);
+        Worker[] workers = new Worker[connections];
+        Thread[] threads = new Thread[connections];
+        for (int i = 0; i < connections; i++) {
+            workers[i] = new Worker(i, connected);
+            threads[i] = new Thread(workers[i], "load-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        connected.await();
+
+        // Published to the workers by the latch
+        startNanos = System.nanoTime();
+        measureStartNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(config.getWarmupMillis());
+        endNanos = measureStartNanos + TimeUnit.MILLISECONDS.toNanos(config.getDurationMillis());
+        start.countDown();
+
+        long deadline = System.currentTimeMillis() + config.getWarmupMillis() + config.getDurationMillis()
+                + STOP_GRACE_MILLIS;
+        for (int i = 0; i < connections; i++) {
+            threads[i].join(Math.max(1, deadline - System.currentTimeMillis()));
+            if (threads[i].isAlive()) {
+                // Unblocks a read waiting for a reply that is not coming
+                workers[i].abort();
+                threads[i].join();
+            }
+        }
+        long elapsed = Math.max(System.nanoTime(), endNanos) - measureStartNanos;
+        Map<String, Long> causes = new TreeMap<>();
+        failureCauses.forEach((cause, count) -> causes.put(cause, count.sum()));
+        return new LoadReport(config, elapsed, completed.sum(), failed.sum(), connectFailures.sum(), causes,
+                handshakes.snapshot(), serviceTimes.snapshot(), responseTimes.snapshot());
+    }
+
+    /**
+     * Counts a failed connection or request under the type of its exception.
+     * @param cause the failure
+     */
+    private void recordFailure(Exception cause) {
+        failureCauses.computeIfAbsent(cause.getClass().getSimpleName(), name -> new LongAdder()).increment();
+    }
+
+    /**
+     * Computes when the first request of a connection is due. Connections are staggered evenly over
+     * one interval, so that together they send at a steady rate rather than in bursts.
+     * @param startNanos when the run starts
+     * @param connection the index of the connection
+     * @param connections the number of connections
+     * @param intervalNanos the interval between the requests of one connection
+     * @return the due time of the first request
+     */
+    static long firstDueNanos(long startNanos, int connection, int connections, long intervalNanos) {
+        return startNanos + intervalNanos * connection / connections;
+    }
+
+    /**
+     * Computes the interval between the requests of one connection at the target rate.
+     * @param requestsPerSecond the target rate over all connections
+     * @param connections the number of connections
+     * @return the interval in nanoseconds, at least 1
+     */
+    static long intervalNanos(int requestsPerSecond, int connections) {
+        return Math.max(1, NANOS_PER_SECOND * connections / requestsPerSecond);
+    }
+
+    /**
+     * Runs a load test from the command line and prints the report.
+     * @param args the options described in the class documentation
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        ClientConfig.Builder client = ClientConfig.builder()
+                .readTimeoutMillis((int) TimeUnit.SECONDS.toMillis(DEFAULT_TIMEOUT_SECONDS));
+        LoadConfig.Builder load = LoadConfig.builder();
+        String password = DEFAULT_PASSWORD;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("-framed".equals(option)) {
+                client.protocol(Protocol.FRAMED);
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "-host":
+                    client.host(value);
+                    break;
+                case "-port":
+                    client.port(Integer.parseInt(value));
+                    break;
+                case "-connections":
+                    load.connections(Integer.parseInt(value));
+                    break;
+                case "-rate":
+                    load.requestsPerSecond(Integer.parseInt(value));
+                    break;
+                case "-duration":
+                    load.durationMillis(TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+                    break;
+                case "-warmup":
+                    load.warmupMillis(TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+                    break;
+                case "-size":
+                    load.messageSize(Integer.parseInt(value));
+                    break;
+                case "-reconnect":
+                    load.requestsPerConnection(Integer.parseInt(value));
+                    break;
+                case "-timeout":
+                    client.readTimeoutMillis((int) TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+                    break;
+                case "-password":
+                    password = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        ClientConfig clientConfig = client.build();
+        SSLContext context = new Client(password, clientConfig).getContext();
+        if (context == null) {
+            throw new IllegalStateException("Unable to load the client keystore and truststore");
+        }
+        System.out.print(new LoadGenerator(context, clientConfig, load.build()).run());
+    }
+
+    /**
+     * Drives one connection.
+     */
+    private final class Worker implements Runnable {
+
+        private final int index;
+        private final CountDownLatch connected;
+        private volatile Client client;
+
+        Worker(int index, CountDownLatch connected) {
+            this.index = index;
+            this.connected = connected;
+        }
+
+        @Override
+        public void run() {
+            try {
+                try {
+                    client = connect(true);
+                } finally {
+                    connected.countDown();
+                }
+                start.await();
+                drive();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                Client current = client;
+                if (current != null) {
+                    current.close();
+                }
+            }
+        }
+
+        void abort() {
+            Client current = client;
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        private void drive() {
+            boolean paced = config.isPaced();
+            long interval = paced ? intervalNanos(config.getRequestsPerSecond(), config.getConnections()) : 0;
+            long due = firstDueNanos(startNanos, index, config.getConnections(), interval);
+            int onConnection = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                if (paced) {
+                    if (due - endNanos >= 0) {
+                        return;
+                    }
+                    parkUntil(due);
+                } else {
+                    due = System.nanoTime();
+                    if (due - endNanos >= 0) {
+                        return;
+                    }
+                }
+                long requestDue = due;
+                boolean measured = requestDue - measureStartNanos >= 0;
+                due += interval;
+                if (client == null) {
+                    client = connect(measured);
+                    onConnection = 0;
+                    if (client == null) {
+                        if (measured) {
+                            failed.increment();
+                        }
+                        if (!paced) {
+                            LockSupport.parkNanos(RETRY_DELAY_NANOS);
+                        }
+                        continue;
+                    }
+                }
+                request(requestDue, measured);
+                if (client != null && ++onConnection == config.getRequestsPerConnection()) {
+                    client.close();
+                    client = null;
+                }
+            }
+        }
+
+        /**
+         * Sends one request and records its latencies.
+         * @param dueNanos when the request was due
+         * @param measured whether the request counts towards the results
+         */
+        private void request(long dueNanos, boolean measured) {
+            long sent = System.nanoTime();
+            try {
+                if (client.request(message) == null) {
+                    throw new EOFException("Connection closed by the server");
+                }
+                long received = System.nanoTime();
+                if (measured) {
+                    serviceTimes.record(received - sent);
+                    responseTimes.record(received - dueNanos);
+                    completed.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // IllegalStateException: the connection was closed by abort()
+                if (measured) {
+                    failed.increment();
+                    recordFailure(e);
+                }
+                client.close();
+                client = null;
+            }
+        }
+
+        /**
+         * Opens a connection and records its handshake time.
+         * @param measured whether the handshake counts towards the results
+         * @return the connected client, or null if the connection failed
+         */
+        private Client connect(boolean measured) {
+            Client candidate = new Client(context, clientConfig);
+            long begin = System.nanoTime();
+            try {
+                candidate.connectOrThrow();
+            } catch (IOException e) {
+                candidate.close();
+                connectFailures.increment();
+                recordFailure(e);
+                return null;
+            }
+            if (measured) {
+                handshakes.record(System.nanoTime() - begin);
+            }
+            return candidate;
+        }
+
+        private void parkUntil(long dueNanos) {
+            long wait;
+            while ((wait = dueNanos - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.tls.load;
+
+import com.github.tls.metrics.LatencyHistogram;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Results of a {@link LoadGenerator} run.
+ * <p>
+ * Three latencies are reported. The handshake time is that of opening a connection: the TCP
+ * connection and the TLS handshake. The service time runs from writing a request to reading its
+ * reply. The response time runs from when the request was due, so it includes the time the request
+ * waited for an earlier reply or a reconnection: with a target rate, this corrects the latencies for
+ * coordinated omission, as a client that stalls behind a slow reply would otherwise not send, nor
+ * measure, the requests that the stall delayed.
+ */
+public final class LoadReport {
+
+    /** Nanoseconds per millisecond, as a double for fractional milliseconds. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    /** Milliseconds per second, as a double for fractional seconds. */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    /** Nanoseconds per second, as a double for rates. */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    /** Percentiles of the latency lines. */
+    private static final double[] PERCENTILES = {0.50, 0.90, 0.99, 0.999};
+
+    private final LoadConfig config;
+    private final long elapsedNanos;
+    private final long completed;
+    private final long failed;
+    private final long connectFailures;
+    private final Map<String, Long> failureCauses;
+    private final LatencyHistogram.Snapshot handshakes;
+    private final LatencyHistogram.Snapshot serviceTimes;
+    private final LatencyHistogram.Snapshot responseTimes;
+
+    LoadReport(LoadConfig config, long elapsedNanos, long completed, long failed, long connectFailures,
+            Map<String, Long> failureCauses, LatencyHistogram.Snapshot handshakes,
+            LatencyHistogram.Snapshot serviceTimes, LatencyHistogram.Snapshot responseTimes) {
+        this.config = config;
+        this.elapsedNanos = elapsedNanos;
+        this.completed = completed;
+        this.failed = failed;
+        this.connectFailures = connectFailures;
+        this.failureCauses = Collections.unmodifiableMap(new TreeMap<>(failureCauses));
+        this.handshakes = handshakes;
+        this.serviceTimes = serviceTimes;
+        this.responseTimes = responseTimes;
+    }
+
+    /**
+     * Gets the configuration of the run.
+     *
+     * @return the configuration
+     */
+    public LoadConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the measured time, from the end of the warm-up until the last reply.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the number of measured requests that received their reply.
+     *
+     * @return the completed request count
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the number of measured requests that failed or whose connection was closed.
+     *
+     * @return the failed request count
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the number of connection attempts that failed, including the handshake.
+     *
+     * @return the failed connection count
+     */
+    public long getConnectFailures() {
+        return connectFailures;
+    }
+
+    /**
+     * Gets the failed connection attempts and measured requests by cause.
+     *
+     * @return the failure counts, keyed by the simple name of the exception and sorted by it
+     */
+    public Map<String, Long> getFailureCauses() {
+        return failureCauses;
+    }
+
+    /**
+     * Gets the achieved throughput.
+     *
+     * @return the completed requests per second
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : completed * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    /**
+     * Gets the times of the initial connections and of the measured reconnections.
+     *
+     * @return the handshake latencies
+     */
+    public LatencyHistogram.Snapshot getHandshakes() {
+        return handshakes;
+    }
+
+    /**
+     * Gets the times from writing each measured request to reading its reply.
+     *
+     * @return the service time latencies
+     */
+    public LatencyHistogram.Snapshot getServiceTimes() {
+        return serviceTimes;
+    }
+
+    /**
+     * Gets the times from when each measured request was due to reading its reply.
+     *
+     * @return the response time latencies, corrected for coordinated omission
+     */
+    public LatencyHistogram.Snapshot getResponseTimes() {
+        return responseTimes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        String load = config.isPaced() ? "target " + config.getRequestsPerSecond() + " req/s" : "closed loop";
+        report.append(String.format(Locale.ROOT, "Connections:    %d, %s%n", config.getConnections(), load));
+        report.append(String.format(Locale.ROOT, "Duration:       %.1f s after %.1f s warm-up%n",
+                elapsedNanos / NANOS_PER_SECOND, config.getWarmupMillis() / MILLIS_PER_SECOND));
+        report.append(String.format(Locale.ROOT, "Requests:       %d completed, %d failed, %d failed connections%n",
+                completed, failed, connectFailures));
+        if (!failureCauses.isEmpty()) {
+            StringBuilder causes = new StringBuilder();
+            failureCauses.forEach((cause, count) -> causes.append(causes.length() == 0 ? "" : ", ")
+                    .append(cause).append(' ').append(count));
+            report.append(String.format(Locale.ROOT, "Failures:       %s%n", causes));
+        }
+        report.append(String.format(Locale.ROOT, "Throughput:     %.1f req/s%n", getThroughput()));
+        report.append(String.format(Locale.ROOT, "%-15s %8s %9s %9s %9s %9s %9s %9s%n",
+                "Latency (ms)", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        appendLatency(report, "Handshake", handshakes);
+        appendLatency(report, "Service time", serviceTimes);
+        appendLatency(report, "Response time", responseTimes);
+        return report.toString();
+    }
+
+    private static void appendLatency(StringBuilder report, String name, LatencyHistogram.Snapshot latency) {
+        report.append(String.format(Locale.ROOT, "%-15s %8d %9.3f", name, latency.getCount(),
+                latency.getMeanNanos() / NANOS_PER_MILLI));
+        for (double percentile : PERCENTILES) {
+            long nanos = latency.getPercentileNanos(percentile);
+            report.append(String.format(Locale.ROOT, " %9.3f", nanos / NANOS_PER_MILLI));
+        }
+        report.append(String.format(Locale.ROOT, " %9.3f%n", latency.getMaxNanos() / NANOS_PER_MILLI));
+    }
+}
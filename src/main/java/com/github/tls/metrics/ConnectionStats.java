@@ -0,0 +1,238 @@
+package com.github.tls.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the connections, application bytes and messages of a server. Recording is lock-free.
+ * <p>
+ * Bytes are counted by wrapping the plaintext streams of a connection with
+ * {@link #countingInput(InputStream)} and {@link #countingOutput(OutputStream)}, below any
+ * buffering so that each bulk read or write costs one counter update. The message rate is
+ * averaged over the last {@value #RATE_WINDOW_SECONDS} complete seconds, using one slot per
+ * second that packs the second and its count into a single atomic {@code long}.
+ */
+public final class ConnectionStats {
+
+    /** Seconds of message counts kept for the rate, including the current, incomplete second. */
+    static final int RATE_WINDOW_SECONDS = 11;
+    /** Nanoseconds per second. */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    /** Bits of a rate slot holding the count; the second is kept above them. */
+    private static final int COUNT_BITS = 32;
+    /** Mask of the count bits of a rate slot. */
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final LongSupplier nanoClock;
+    private final long originNanos;
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+    private final AtomicLongArray rateSlots = new AtomicLongArray(RATE_WINDOW_SECONDS);
+
+    /**
+     * Creates empty statistics.
+     */
+    public ConnectionStats() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates empty statistics with a clock.
+     *
+     * @param nanoClock a monotonic clock in nanoseconds
+     */
+    ConnectionStats(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.originNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Records an accepted connection, whether or not it is served.
+     */
+    public void connectionAccepted() {
+        accepted.increment();
+    }
+
+    /**
+     * Records that a connection started being served.
+     */
+    public void connectionOpened() {
+        active.incrementAndGet();
+    }
+
+    /**
+     * Records that a connection opened with {@link #connectionOpened()} was closed.
+     */
+    public void connectionClosed() {
+        active.decrementAndGet();
+    }
+
+    /**
+     * Records a received message and counts it towards the message rate.
+     */
+    public void messageReceived() {
+        messages.increment();
+        long second = second();
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        long current;
+        long updated;
+        do {
+            current = rateSlots.get(slot);
+            // A slot still holding an earlier second starts over for this one
+            updated = current >>> COUNT_BITS == second ? current + 1 : second << COUNT_BITS | 1;
+        } while (!rateSlots.compareAndSet(slot, current, updated));
+    }
+
+    /**
+     * Wraps a stream to count the bytes read from it.
+     *
+     * @param in the plaintext input of a connection
+     * @return the counting stream
+     */
+    public InputStream countingInput(InputStream in) {
+        return new CountingInputStream(in);
+    }
+
+    /**
+     * Wraps a stream to count the bytes written to it.
+     *
+     * @param out the plaintext output of a connection
+     * @return the counting stream
+     */
+    public OutputStream countingOutput(OutputStream out) {
+        return new CountingOutputStream(out);
+    }
+
+    /**
+     * Gets the number of connections being served.
+     *
+     * @return the active connection count
+     */
+    public int getActiveConnections() {
+        return active.get();
+    }
+
+    /**
+     * Gets the number of accepted connections.
+     *
+     * @return the accepted connection count
+     */
+    public long getAcceptedConnections() {
+        return accepted.sum();
+    }
+
+    /**
+     * Gets the number of application bytes read from clients.
+     *
+     * @return the bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Gets the number of application bytes written to clients.
+     *
+     * @return the bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Gets the number of messages received.
+     *
+     * @return the message count
+     */
+    public long getMessagesReceived() {
+        return messages.sum();
+    }
+
+    /**
+     * Gets the mean message rate over the last complete seconds, at most
+     * {@code RATE_WINDOW_SECONDS - 1} of them.
+     *
+     * @return the messages per second
+     */
+    public double getMessagesPerSecond() {
+        long now = second();
+        int seconds = (int) Math.min(RATE_WINDOW_SECONDS - 1, now);
+        if (seconds == 0) {
+            return 0;
+        }
+        long count = 0;
+        for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+            long slot = rateSlots.get(i);
+            long second = slot >>> COUNT_BITS;
+            if (second < now && second >= now - seconds) {
+                count += slot & COUNT_MASK;
+            }
+        }
+        return (double) count / seconds;
+    }
+
+    private long second() {
+        return (nanoClock.getAsLong() - originNanos) / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Input stream counting the bytes read through it.
+     */
+    private final class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                bytesRead.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                bytesRead.add(read);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Output stream counting the bytes written through it.
+     */
+    private final class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            out.write(value);
+            bytesWritten.increment();
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            // FilterOutputStream would write the array one byte at a time
+            out.write(buffer, offset, length);
+            bytesWritten.add(length);
+        }
+    }
+}
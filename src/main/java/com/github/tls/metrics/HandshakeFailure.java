@@ -0,0 +1,101 @@
+package com.github.tls.metrics;
+
+import java.io.EOFException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.security.cert.CertPathBuilderException;
+import java.security.cert.CertPathValidatorException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateExpiredException;
+import java.security.cert.CertificateRevokedException;
+
+/**
+ * Reasons a TLS handshake fails, as far as they can be told from the exception.
+ * <p>
+ * JSSE reports most failures as an {@link javax.net.ssl.SSLHandshakeException}: the side that
+ * detects the problem has the underlying exception as its cause, the other side only the name
+ * of the alert it received in the message. Both are recognized. Constants are declared from the
+ * most to the least specific, and the most specific reason found anywhere in the cause chain wins.
+ */
+public enum HandshakeFailure {
+
+    /** A certificate of the chain has been revoked. */
+    CERTIFICATE_REVOKED,
+    /** A certificate of the chain has expired or is not yet valid. */
+    CERTIFICATE_EXPIRED,
+    /** The client sent no certificate although the server requires one. */
+    NO_CLIENT_CERTIFICATE,
+    /** The chain does not lead to a trusted CA or was otherwise rejected. */
+    CERTIFICATE_UNTRUSTED,
+    /** The peers share no enabled protocol version. */
+    PROTOCOL_MISMATCH,
+    /** The peers share no cipher suite or other handshake parameter. */
+    NO_SHARED_CIPHER,
+    /** The peer did not answer in time. */
+    TIMEOUT,
+    /** The connection was closed or reset during the handshake. */
+    CONNECTION_CLOSED,
+    /** Any other failure. */
+    OTHER;
+
+    /** Causes followed at most, in case of a cyclic or very long cause chain. */
+    private static final int MAX_CAUSES = 16;
+
+    /**
+     * Classifies a handshake failure.
+     *
+     * @param failure the exception thrown by the handshake
+     * @return the most specific reason found in the exception or its causes
+     */
+    public static HandshakeFailure of(Throwable failure) {
+        HandshakeFailure reason = OTHER;
+        Throwable cause = failure;
+        for (int depth = 0; cause != null && depth < MAX_CAUSES; depth++) {
+            HandshakeFailure found = classify(cause);
+            if (found.ordinal() < reason.ordinal()) {
+                reason = found;
+            }
+            cause = cause.getCause();
+        }
+        return reason;
+    }
+
+    private static HandshakeFailure classify(Throwable failure) {
+        String message = failure.getMessage() == null ? "" : failure.getMessage();
+        CertPathValidatorException.Reason pathReason = failure instanceof CertPathValidatorException
+                ? ((CertPathValidatorException) failure).getReason() : null;
+        if (failure instanceof CertificateRevokedException
+                || pathReason == CertPathValidatorException.BasicReason.REVOKED
+                || message.contains("revoked")) {
+            return CERTIFICATE_REVOKED;
+        }
+        if (failure instanceof CertificateExpiredException
+                || pathReason == CertPathValidatorException.BasicReason.EXPIRED
+                || message.contains("certificate_expired")) {
+            return CERTIFICATE_EXPIRED;
+        }
+        if (message.contains("Empty client certificate chain") || message.contains("certificate_required")) {
+            return NO_CLIENT_CERTIFICATE;
+        }
+        if (failure instanceof CertificateException || failure instanceof CertPathValidatorException
+                || failure instanceof CertPathBuilderException || message.contains("certificate_unknown")
+                || message.contains("unknown_ca") || message.contains("bad_certificate")) {
+            return CERTIFICATE_UNTRUSTED;
+        }
+        if (message.contains("protocol_version") || message.contains("No appropriate protocol")) {
+            return PROTOCOL_MISMATCH;
+        }
+        if (message.contains("no cipher suites in common") || message.contains("handshake_failure")
+                || message.contains("insufficient_security")) {
+            return NO_SHARED_CIPHER;
+        }
+        if (failure instanceof SocketTimeoutException) {
+            return TIMEOUT;
+        }
+        if (failure instanceof EOFException || failure instanceof SocketException
+                || message.contains("Remote host terminated")) {
+            return CONNECTION_CLOSED;
+        }
+        return OTHER;
+    }
+}
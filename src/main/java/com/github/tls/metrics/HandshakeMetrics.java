@@ -0,0 +1,139 @@
+package com.github.tls.metrics;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Records the outcome of TLS handshakes: latency, negotiated protocol and cipher suite, peer
+ * identity and failure reason.
+ * <p>
+ * Recording is meant for the handshake thread. It takes no locks: counters are {@link LongAdder}s
+ * and atomic arrays, and the per-protocol, per-cipher and per-peer counters live in
+ * {@link ConcurrentHashMap}s whose lookups do not lock. Once a protocol, cipher suite or peer has
+ * been seen, recording it again allocates nothing; JSSE hands out the same strings and the peer
+ * name is cached by the certificate. At most {@value #MAX_PEERS} peers are counted individually,
+ * later ones under {@link #OTHER_PEERS}, so that a stream of distinct clients cannot grow the map
+ * without bound. {@link #snapshot()} reads everything into an immutable {@link HandshakeSnapshot}.
+ */
+public final class HandshakeMetrics {
+
+    /** Most peers counted individually. */
+    public static final int MAX_PEERS = 1024;
+    /** Key counting the peers beyond {@link #MAX_PEERS}. */
+    public static final String OTHER_PEERS = "(other)";
+    /** Key counting handshakes whose protocol, cipher suite or peer is not known. */
+    public static final String UNKNOWN = "(unknown)";
+
+    private static final HandshakeMetrics DEFAULT = new HandshakeMetrics();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final AtomicLongArray failures = new AtomicLongArray(HandshakeFailure.values().length);
+    private final Map<String, LongAdder> protocols = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> cipherSuites = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> peers = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the metrics shared by the clients of this JVM.
+     *
+     * @return the default metrics
+     */
+    public static HandshakeMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Records a completed handshake from its session.
+     *
+     * @param startNanos {@link System#nanoTime()} when the handshake started
+     * @param session the negotiated session
+     */
+    public void recordSuccess(long startNanos, SSLSession session) {
+        recordSuccess(startNanos, session.getProtocol(), session.getCipherSuite(), peerName(session));
+    }
+
+    /**
+     * Records a completed handshake.
+     *
+     * @param startNanos {@link System#nanoTime()} when the handshake started
+     * @param protocol the negotiated protocol, or null if not known
+     * @param cipherSuite the negotiated cipher suite, or null if not known
+     * @param peer the name of the authenticated peer, or null if the peer was not authenticated
+     */
+    public void recordSuccess(long startNanos, String protocol, String cipherSuite, String peer) {
+        latency.record(System.nanoTime() - startNanos);
+        completed.increment();
+        increment(protocols, protocol, Integer.MAX_VALUE);
+        increment(cipherSuites, cipherSuite, Integer.MAX_VALUE);
+        increment(peers, peer, MAX_PEERS);
+    }
+
+    /**
+     * Records a failed handshake. Failures do not count towards the latency.
+     *
+     * @param failure the exception thrown by the handshake
+     */
+    public void recordFailure(Throwable failure) {
+        failures.incrementAndGet(HandshakeFailure.of(failure).ordinal());
+    }
+
+    /**
+     * Reads the current values.
+     *
+     * @return the snapshot
+     */
+    public HandshakeSnapshot snapshot() {
+        Map<HandshakeFailure, Long> failureCounts = new EnumMap<>(HandshakeFailure.class);
+        for (HandshakeFailure reason : HandshakeFailure.values()) {
+            long count = failures.get(reason.ordinal());
+            if (count > 0) {
+                failureCounts.put(reason, count);
+            }
+        }
+        return new HandshakeSnapshot(completed.sum(), latency.snapshot(), counts(protocols),
+                counts(cipherSuites), counts(peers), Collections.unmodifiableMap(failureCounts));
+    }
+
+    /**
+     * Gets the name of the authenticated peer of a session.
+     *
+     * @param session the session
+     * @return the peer's principal name, or null if the peer was not authenticated
+     */
+    static String peerName(SSLSession session) {
+        try {
+            Principal principal = session.getPeerPrincipal();
+            return principal == null ? null : principal.getName();
+        } catch (SSLPeerUnverifiedException e) {
+            return null;
+        }
+    }
+
+    private static void increment(Map<String, LongAdder> counters, String key, int maxKeys) {
+        String name = key == null ? UNKNOWN : key;
+        LongAdder counter = counters.get(name);
+        if (counter == null) {
+            // Only the first occurrence of a key allocates; the size check may overshoot slightly under races
+            counter = counters.size() < maxKeys
+                    ? counters.computeIfAbsent(name, ignored -> new LongAdder())
+                    : counters.computeIfAbsent(OTHER_PEERS, ignored -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    private static Map<String, Long> counts(Map<String, LongAdder> counters) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            counts.put(counter.getKey(), counter.getValue().sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.tls.metrics;
+
+import java.util.Map;
+
+/**
+ * Point-in-time snapshot of {@link HandshakeMetrics}.
+ */
+public final class HandshakeSnapshot {
+
+    private final long completed;
+    private final LatencyHistogram.Snapshot latency;
+    private final Map<String, Long> protocols;
+    private final Map<String, Long> cipherSuites;
+    private final Map<String, Long> peers;
+    private final Map<HandshakeFailure, Long> failures;
+
+    HandshakeSnapshot(long completed, LatencyHistogram.Snapshot latency, Map<String, Long> protocols,
+            Map<String, Long> cipherSuites, Map<String, Long> peers, Map<HandshakeFailure, Long> failures) {
+        this.completed = completed;
+        this.latency = latency;
+        this.protocols = protocols;
+        this.cipherSuites = cipherSuites;
+        this.peers = peers;
+        this.failures = failures;
+    }
+
+    /**
+     * Gets the number of completed handshakes.
+     *
+     * @return the completed handshake count
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the number of failed handshakes.
+     *
+     * @return the failed handshake count, for all reasons
+     */
+    public long getFailed() {
+        long failed = 0;
+        for (long count : failures.values()) {
+            failed += count;
+        }
+        return failed;
+    }
+
+    /**
+     * Gets the latency distribution of completed handshakes.
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the completed handshakes per negotiated protocol.
+     *
+     * @return the counts by protocol name, sorted
+     */
+    public Map<String, Long> getProtocols() {
+        return protocols;
+    }
+
+    /**
+     * Gets the completed handshakes per negotiated cipher suite.
+     *
+     * @return the counts by cipher suite name, sorted
+     */
+    public Map<String, Long> getCipherSuites() {
+        return cipherSuites;
+    }
+
+    /**
+     * Gets the completed handshakes per authenticated peer.
+     *
+     * @return the counts by peer principal name, sorted
+     */
+    public Map<String, Long> getPeers() {
+        return peers;
+    }
+
+    /**
+     * Gets the failed handshakes per reason.
+     *
+     * @return the counts of the reasons that occurred
+     */
+    public Map<HandshakeFailure, Long> getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return "HandshakeSnapshot{completed=" + completed + ", failed=" + getFailed() + ", latency=" + latency
+                + ", protocols=" + protocols + ", cipherSuites=" + cipherSuites + ", failures=" + failures + '}';
+    }
+}
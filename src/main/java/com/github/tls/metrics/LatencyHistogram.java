@@ -0,0 +1,165 @@
+package com.github.tls.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with a bounded relative error.
+ * <p>
+ * Values are counted in log-linear buckets: every power of two is split into
+ * {@value #SUB_BUCKETS} equal sub-buckets, so a recorded value is known to within 1/16 (6.25%)
+ * across the whole {@code long} range, in a fixed array of counters. Recording is a few shifts
+ * and one atomic increment, never takes a lock and never allocates. A {@link Snapshot} copies
+ * the counters for percentile queries.
+ */
+public final class LatencyHistogram {
+
+    /** Bits of a value kept below its leading one bit. */
+    private static final int SUB_BUCKET_BITS = 4;
+    /** Sub-buckets per power of two. */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Number of buckets needed to cover every non-negative {@code long}. */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    /** Quantile of the median. */
+    private static final double P50 = 0.50;
+    /** Quantile of the 99th percentile. */
+    private static final double P99 = 0.99;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values, from a clock going backwards,
+     *        count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Copies the current counts. Latencies recorded while the copy is taken may or may not be
+     * included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    /**
+     * Maps a value to its bucket: values below {@link #SUB_BUCKETS} have a bucket each, larger
+     * values are bucketed by their leading one bit and the {@value #SUB_BUCKET_BITS} bits after it.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - SUB_BUCKET_BITS - Long.numberOfLeadingZeros(value);
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Gets the largest value of a bucket.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+
+    /**
+     * Point-in-time copy of a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Gets the number of recorded latencies.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the mean latency.
+         *
+         * @return the mean in nanoseconds, or 0 if nothing was recorded
+         */
+        public long getMeanNanos() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Gets the highest latency recorded.
+         *
+         * @return the maximum in nanoseconds, exact rather than bucketed
+         */
+        public long getMaxNanos() {
+            return max;
+        }
+
+        /**
+         * Gets a percentile of the recorded latencies, rounded up to the end of its bucket.
+         *
+         * @param quantile the quantile, from 0 to 1, for example 0.99 for the 99th percentile
+         * @return the latency in nanoseconds at or below which that share of latencies fall, or 0
+         *         if nothing was recorded
+         */
+        public long getPercentileNanos(double quantile) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "Latency{count=" + count + ", meanNanos=" + getMeanNanos()
+                    + ", p50Nanos=" + getPercentileNanos(P50) + ", p99Nanos=" + getPercentileNanos(P99)
+                    + ", maxNanos=" + max + '}';
+        }
+    }
+}
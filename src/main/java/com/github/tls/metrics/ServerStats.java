@@ -0,0 +1,210 @@
+package com.github.tls.metrics;
+
+import com.github.tls.ssl.CachingX509TrustManager;
+import com.github.tls.ssl.SessionStats;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+/**
+ * {@link ServerStatsMXBean} reading the live counters of a server.
+ */
+public final class ServerStats implements ServerStatsMXBean {
+
+    /** JMX domain of the server MXBeans. */
+    public static final String DOMAIN = "com.github.tls";
+    /** Quantile of the median. */
+    private static final double P50 = 0.50;
+    /** Quantile of the 99th percentile. */
+    private static final double P99 = 0.99;
+    /** Quantile of the 99.9th percentile. */
+    private static final double P999 = 0.999;
+    /** Nanoseconds per millisecond, as a double for fractional milliseconds. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final SSLContext context;
+    private final ConnectionStats connections;
+    private final HandshakeMetrics handshakes;
+    private final SessionStats sessions;
+    private final LongSupplier rejectedConnections;
+    private final CachingX509TrustManager trustCache;
+
+    /**
+     * Creates statistics over the counters of a server.
+     *
+     * @param context the server's SSL context
+     * @param connections the connection, byte and message counters
+     * @param handshakes the handshake metrics
+     * @param sessions the full and resumed handshake counts
+     * @param rejectedConnections the number of connections rejected because the server was saturated
+     * @param trustCache the trust decision cache, or null if it is disabled
+     */
+    public ServerStats(SSLContext context, ConnectionStats connections, HandshakeMetrics handshakes,
+            SessionStats sessions, LongSupplier rejectedConnections, CachingX509TrustManager trustCache) {
+        this.context = context;
+        this.connections = connections;
+        this.handshakes = handshakes;
+        this.sessions = sessions;
+        this.rejectedConnections = rejectedConnections;
+        this.trustCache = trustCache;
+    }
+
+    /**
+     * Builds the name under which the statistics of a server are registered.
+     *
+     * @param port the port the server listens on
+     * @return the object name
+     */
+    public static ObjectName objectName(int port) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Server,port=" + port);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid port for an object name: " + port, e);
+        }
+    }
+
+    /**
+     * Registers these statistics with the platform MBean server, replacing statistics registered
+     * earlier under the same name by a server that is no longer running.
+     *
+     * @param name the object name, see {@link #objectName(int)}
+     * @throws JMException if the statistics cannot be registered
+     */
+    public void register(ObjectName name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+
+    /**
+     * Removes statistics from the platform MBean server, if registered.
+     *
+     * @param name the object name
+     * @throws JMException if the statistics cannot be unregistered
+     */
+    public static void unregister(ObjectName name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return connections.getActiveConnections();
+    }
+
+    @Override
+    public long getAcceptedConnections() {
+        return connections.getAcceptedConnections();
+    }
+
+    @Override
+    public long getRejectedConnections() {
+        return rejectedConnections.getAsLong();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return connections.getBytesRead();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return connections.getBytesWritten();
+    }
+
+    @Override
+    public long getMessagesReceived() {
+        return connections.getMessagesReceived();
+    }
+
+    @Override
+    public double getMessagesPerSecond() {
+        return connections.getMessagesPerSecond();
+    }
+
+    @Override
+    public long getHandshakesCompleted() {
+        return handshakes.snapshot().getCompleted();
+    }
+
+    @Override
+    public long getHandshakesFailed() {
+        return handshakes.snapshot().getFailed();
+    }
+
+    @Override
+    public Map<String, Long> getHandshakeFailures() {
+        Map<String, Long> failures = new TreeMap<>();
+        for (Map.Entry<HandshakeFailure, Long> failure : handshakes.snapshot().getFailures().entrySet()) {
+            failures.put(failure.getKey().name(), failure.getValue());
+        }
+        return failures;
+    }
+
+    @Override
+    public double getHandshakeResumptionRatio() {
+        return sessions.getResumptionRatio();
+    }
+
+    @Override
+    public double getHandshakeLatencyP50Millis() {
+        return millis(handshakes.snapshot().getLatency().getPercentileNanos(P50));
+    }
+
+    @Override
+    public double getHandshakeLatencyP99Millis() {
+        return millis(handshakes.snapshot().getLatency().getPercentileNanos(P99));
+    }
+
+    @Override
+    public double getHandshakeLatencyP999Millis() {
+        return millis(handshakes.snapshot().getLatency().getPercentileNanos(P999));
+    }
+
+    @Override
+    public double getHandshakeLatencyMaxMillis() {
+        return millis(handshakes.snapshot().getLatency().getMaxNanos());
+    }
+
+    @Override
+    public double getTrustCacheHitRatio() {
+        return trustCache == null ? 0 : trustCache.getHitRatio();
+    }
+
+    @Override
+    public String getProtocol() {
+        return context.getProtocol();
+    }
+
+    @Override
+    public String getProvider() {
+        return context.getProvider().getName();
+    }
+
+    @Override
+    public String[] getEnabledProtocols() {
+        SSLParameters parameters = context.getDefaultSSLParameters();
+        return parameters.getProtocols() == null ? new String[0] : parameters.getProtocols();
+    }
+
+    @Override
+    public String[] getEnabledCipherSuites() {
+        SSLParameters parameters = context.getDefaultSSLParameters();
+        return parameters.getCipherSuites() == null ? new String[0] : parameters.getCipherSuites();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.tls.metrics;
+
+import java.util.Map;
+
+/**
+ * Live statistics of a server, published as a platform MXBean named
+ * {@code com.github.tls:type=Server,port=<port>} so that any JMX client, such as JConsole or
+ * VisualVM, can watch throughput and saturation. Every attribute is read when requested.
+ */
+public interface ServerStatsMXBean {
+
+    /**
+     * Gets the number of connections being served.
+     *
+     * @return the active connection count
+     */
+    int getActiveConnections();
+
+    /**
+     * Gets the number of accepted connections.
+     *
+     * @return the accepted connection count
+     */
+    long getAcceptedConnections();
+
+    /**
+     * Gets the number of accepted connections closed because the server was saturated.
+     *
+     * @return the rejected connection count
+     */
+    long getRejectedConnections();
+
+    /**
+     * Gets the number of application bytes read from clients.
+     *
+     * @return the bytes read
+     */
+    long getBytesRead();
+
+    /**
+     * Gets the number of application bytes written to clients.
+     *
+     * @return the bytes written
+     */
+    long getBytesWritten();
+
+    /**
+     * Gets the number of messages received.
+     *
+     * @return the message count
+     */
+    long getMessagesReceived();
+
+    /**
+     * Gets the mean message rate over the last ten seconds.
+     *
+     * @return the messages per second
+     */
+    double getMessagesPerSecond();
+
+    /**
+     * Gets the number of completed handshakes.
+     *
+     * @return the completed handshake count
+     */
+    long getHandshakesCompleted();
+
+    /**
+     * Gets the number of failed handshakes.
+     *
+     * @return the failed handshake count
+     */
+    long getHandshakesFailed();
+
+    /**
+     * Gets the failed handshakes per reason.
+     *
+     * @return the counts by {@link HandshakeFailure} name
+     */
+    Map<String, Long> getHandshakeFailures();
+
+    /**
+     * Gets the share of completed handshakes that resumed a session.
+     *
+     * @return the resumption ratio, from 0 to 1
+     */
+    double getHandshakeResumptionRatio();
+
+    /**
+     * Gets the median handshake latency.
+     *
+     * @return the 50th percentile in milliseconds
+     */
+    double getHandshakeLatencyP50Millis();
+
+    /**
+     * Gets the 99th percentile of handshake latency.
+     *
+     * @return the 99th percentile in milliseconds
+     */
+    double getHandshakeLatencyP99Millis();
+
+    /**
+     * Gets the 99.9th percentile of handshake latency.
+     *
+     * @return the 99.9th percentile in milliseconds
+     */
+    double getHandshakeLatencyP999Millis();
+
+    /**
+     * Gets the highest handshake latency.
+     *
+     * @return the maximum in milliseconds
+     */
+    double getHandshakeLatencyMaxMillis();
+
+    /**
+     * Gets the share of client certificate checks answered by the trust decision cache.
+     *
+     * @return the hit ratio from 0 to 1, or 0 if the cache is disabled
+     */
+    double getTrustCacheHitRatio();
+
+    /**
+     * Gets the protocol of the server's {@link javax.net.ssl.SSLContext}.
+     *
+     * @return the context protocol, such as {@code TLSv1.3}
+     */
+    String getProtocol();
+
+    /**
+     * Gets the JSSE provider of the server's {@link javax.net.ssl.SSLContext}.
+     *
+     * @return the provider name, such as {@code SunJSSE}
+     */
+    String getProvider();
+
+    /**
+     * Gets the protocol versions the server accepts.
+     *
+     * @return the enabled protocols
+     */
+    String[] getEnabledProtocols();
+
+    /**
+     * Gets the cipher suites the server accepts.
+     *
+     * @return the enabled cipher suites
+     */
+    String[] getEnabledCipherSuites();
+}
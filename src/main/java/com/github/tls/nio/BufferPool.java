@@ -0,0 +1,95 @@
+package com.github.tls.nio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of TLS packet and application buffers owned by a single event loop thread.
+ * Connections borrow buffers only while they hold unprocessed data, so idle
+ * connections do not pin any buffer memory. This class is not thread-safe.
+ */
+final class BufferPool {
+
+    /** Default number of buffers of each kind kept for reuse. */
+    static final int DEFAULT_MAX_POOLED = 256;
+
+    private final int packetSize;
+    private final int applicationSize;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> packetBuffers = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> applicationBuffers = new ArrayDeque<>();
+
+    /**
+     * Creates a buffer pool.
+     *
+     * @param packetSize capacity of network (encrypted) buffers
+     * @param applicationSize capacity of application (plaintext) buffers
+     * @param maxPooled maximum number of idle buffers of each kind to retain
+     */
+    BufferPool(int packetSize, int applicationSize, int maxPooled) {
+        this.packetSize = packetSize;
+        this.applicationSize = applicationSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Borrows a cleared buffer for encrypted network data.
+     *
+     * @return a buffer of at least the packet size
+     */
+    ByteBuffer acquirePacket() {
+        ByteBuffer buffer = packetBuffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocate(packetSize);
+    }
+
+    /**
+     * Borrows a cleared buffer for plaintext application data.
+     *
+     * @return a buffer of at least the application size
+     */
+    ByteBuffer acquireApplication() {
+        ByteBuffer buffer = applicationBuffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocate(applicationSize);
+    }
+
+    /**
+     * Returns a buffer to the pool. Buffers that were enlarged beyond the pooled
+     * sizes are dropped and left to the garbage collector.
+     *
+     * @param buffer the buffer to return, may be null
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        buffer.clear();
+        if (buffer.capacity() == packetSize && packetBuffers.size() < maxPooled) {
+            packetBuffers.push(buffer);
+        } else if (buffer.capacity() == applicationSize && applicationBuffers.size() < maxPooled) {
+            applicationBuffers.push(buffer);
+        }
+    }
+
+    /**
+     * Gets the number of idle buffers currently retained.
+     *
+     * @return the pooled buffer count
+     */
+    int pooledCount() {
+        return packetBuffers.size() + applicationBuffers.size();
+    }
+
+    /**
+     * Copies a buffer in write mode into a new buffer of at least the given capacity.
+     *
+     * @param buffer the buffer to enlarge, in write mode
+     * @param minCapacity the minimum capacity of the new buffer
+     * @return the enlarged buffer, in write mode
+     */
+    static ByteBuffer enlarge(ByteBuffer buffer, int minCapacity) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(minCapacity, buffer.capacity() * 2));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.tls.nio;
+
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.SessionStats;
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import javax.net.ssl.SSLEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Event loop owning one {@link Selector} and every connection registered with it.
+ * A connection is only ever touched by the loop thread that owns it, so the read and
+ * write paths need no locking; other threads hand work over through {@link #execute(Runnable)}.
+ */
+final class EventLoop implements Runnable, Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLoop.class);
+
+    private final String name;
+    private final Selector selector;
+    private final BufferPool buffers;
+    private final Executor delegatedTasks;
+    private final Protocol protocol;
+    private final SessionStats sessionStats;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Creates an event loop.
+     *
+     * @param name the name of the loop thread
+     * @param packetSize capacity of pooled network buffers
+     * @param applicationSize capacity of pooled application buffers
+     * @param delegatedTasks executor running SSLEngine delegated tasks
+     * @param protocol the application protocol spoken on connections of this loop
+     * @param sessionStats statistics recording the handshakes of this loop's connections
+     * @throws IOException if the selector cannot be opened
+     */
+    EventLoop(String name, int packetSize, int applicationSize, Executor delegatedTasks, Protocol protocol,
+            SessionStats sessionStats) throws IOException {
+        this.name = name;
+        this.selector = Selector.open();
+        this.buffers = new BufferPool(packetSize, applicationSize, BufferPool.DEFAULT_MAX_POOLED);
+        this.delegatedTasks = delegatedTasks;
+        this.protocol = protocol;
+        this.sessionStats = sessionStats;
+    }
+
+    /**
+     * Starts the loop thread.
+     */
+    void start() {
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Hands an accepted channel to this loop, which owns it for its whole lifetime.
+     * May be called from any thread.
+     *
+     * @param channel the accepted non-blocking channel
+     * @param engine the server-mode engine for the channel
+     */
+    void register(SocketChannel channel, SSLEngine engine) {
+        execute(() -> {
+            TlsConnection connection = new TlsConnection(channel, engine, protocol, buffers, delegatedTasks, this,
+                    sessionStats);
+            try {
+                connection.register(selector);
+            } catch (IOException e) {
+                LOGGER.error("Error registering client connection: {}", e.getMessage());
+                connection.close();
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the loop thread. May be called from any thread.
+     *
+     * @param task the task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop and waits for it to close its connections.
+     *
+     * @param timeoutMillis maximum time to wait for the loop thread
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void close(long timeoutMillis) throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            thread.join(timeoutMillis);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                runTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid()) {
+                        onSelected((TlsConnection) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Event loop {} failed: {}", name, e.getMessage());
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void onSelected(TlsConnection connection) {
+        // A bug in one connection must not take down the loop and every other connection on it
+        try {
+            connection.onSelected();
+        } catch (RuntimeException e) {
+            LOGGER.error("Closing connection after unexpected error", e);
+            connection.close();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Event loop {} task failed", name, e);
+            }
+        }
+    }
+
+    private void shutdown() {
+        // Register connections handed over after the last select so they are closed too
+        runTasks();
+        for (SelectionKey key : selector.keys()) {
+            ((TlsConnection) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            LOGGER.error("Error closing selector: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.github.tls.nio;
+
+import com.github.tls.ServerConfig;
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.SessionStats;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non-blocking mTLS echo server multiplexing {@link SSLEngine} connections on event loops.
+ * The thread running {@link #run()} accepts connections and spreads them round-robin over
+ * a fixed set of {@link EventLoop}s, one per core by default. Each connection stays on its
+ * loop for its whole lifetime. Unlike the blocking {@link com.github.tls.Server}, idle
+ * connections cost no thread and hold no buffers.
+ */
+public class NioServer implements Runnable, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioServer.class);
+
+    /** Listen backlog for the server channel. */
+    private static final int ACCEPT_BACKLOG = 1024;
+    /** Application buffers hold one full TLS record plus one partially received line. */
+    private static final int APPLICATION_BUFFER_FACTOR = 2;
+    /** Maximum time to wait for each event loop to stop, in milliseconds. */
+    private static final long LOOP_STOP_TIMEOUT_MILLIS = 5000;
+    /** Pause after a failed accept, such as one for lack of file descriptors, in milliseconds. */
+    private static final long ACCEPT_RETRY_DELAY_MILLIS = 100;
+
+    private final SSLContext context;
+    private final int port;
+    private final Protocol protocol;
+    private final EventLoop[] loops;
+    private final ExecutorService delegatedTasks;
+    private final SessionStats sessionStats;
+
+    private ServerSocketChannel serverChannel;
+    private int nextLoop;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a non-blocking server with one event loop per available processor.
+     *
+     * @param context the SSL context, typically the one built by {@link com.github.tls.Server#getContext()}
+     * @param port the port to listen on, or 0 for an ephemeral port
+     */
+    public NioServer(SSLContext context, int port) {
+        this(context, ServerConfig.builder().port(port).build());
+    }
+
+    /**
+     * Creates a non-blocking server.
+     *
+     * @param context the SSL context, typically the one built by {@link com.github.tls.Server#getContext()}
+     * @param port the port to listen on, or 0 for an ephemeral port
+     * @param eventLoops the number of event loop threads, at least 1
+     */
+    public NioServer(SSLContext context, int port, int eventLoops) {
+        this(context, ServerConfig.builder().port(port).eventLoops(eventLoops).build());
+    }
+
+    /**
+     * Creates a non-blocking server using the port, protocol and event loop count of a server configuration.
+     *
+     * @param context the SSL context, typically the one built by {@link com.github.tls.Server#getContext()}
+     * @param config the server configuration
+     */
+    public NioServer(SSLContext context, ServerConfig config) {
+        this.context = context;
+        this.port = config.getPort();
+        this.protocol = config.getProtocol();
+        this.loops = new EventLoop[config.getEventLoops()];
+        this.delegatedTasks = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new DaemonThreadFactory("mTLS-NIO-Task-"));
+        this.sessionStats = new SessionStats(context.getServerSessionContext());
+    }
+
+    /**
+     * Binds the listening channel and starts the event loops. Called by {@link #run()} if not called before.
+     *
+     * @return the bound local port
+     * @throws IOException if the channel cannot be bound
+     */
+    public synchronized int bind() throws IOException {
+        if (serverChannel == null) {
+            SSLSession prototype = context.createSSLEngine().getSession();
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop("mTLS-EventLoop-" + (i + 1), prototype.getPacketBufferSize(),
+                        prototype.getApplicationBufferSize() * APPLICATION_BUFFER_FACTOR, delegatedTasks, protocol,
+                        sessionStats);
+            }
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+            for (EventLoop loop : loops) {
+                loop.start();
+            }
+            LOGGER.info("NIO server listening on port {} with {} event loops",
+                    serverChannel.socket().getLocalPort(), loops.length);
+        }
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Gets the number of event loop threads.
+     *
+     * @return the event loop count
+     */
+    public int getEventLoopCount() {
+        return loops.length;
+    }
+
+    /**
+     * Gets the counts of full and resumed handshakes on accepted connections.
+     *
+     * @return the session statistics
+     */
+    public SessionStats getSessionStats() {
+        return sessionStats;
+    }
+
+    @Override
+    public void run() {
+        try {
+            bind();
+            while (running) {
+                SocketChannel channel;
+                try {
+                    channel = serverChannel.accept();
+                } catch (ClosedChannelException e) {
+                    break;
+                } catch (IOException e) {
+                    // Out of file descriptors, or a connection aborted before it was accepted: keep serving
+                    LOGGER.warn("Accepting a connection failed, retrying in {} ms: {}", ACCEPT_RETRY_DELAY_MILLIS,
+                            e.toString());
+                    Thread.sleep(ACCEPT_RETRY_DELAY_MILLIS);
+                    continue;
+                }
+                try {
+                    accept(channel);
+                } catch (IOException e) {
+                    LOGGER.error("Error accepting client connection: {}", e.getMessage());
+                    channel.close();
+                }
+            }
+            LOGGER.info("NIO server stopped accepting connections");
+        } catch (InterruptedException e) {
+            LOGGER.info("NIO server stopped accepting connections after an interrupt");
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops accepting, stops the event loops and closes all connections.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            synchronized (this) {
+                if (serverChannel != null) {
+                    serverChannel.close();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Error closing server channel: {}", e.getMessage());
+        }
+        shutdown();
+    }
+
+    private void accept(SocketChannel channel) throws IOException {
+        LOGGER.info("Client connected: {}", channel.socket().getInetAddress());
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+
+        SSLEngine engine = context.createSSLEngine();
+        engine.setUseClientMode(false);
+        engine.setNeedClientAuth(true);
+
+        // Round-robin ownership: the chosen loop is the only thread that ever touches this connection
+        EventLoop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        loop.register(channel, engine);
+    }
+
+    private void shutdown() {
+        for (EventLoop loop : loops) {
+            if (loop == null) {
+                continue;
+            }
+            try {
+                loop.close(LOOP_STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        delegatedTasks.shutdownNow();
+    }
+
+    /**
+     * Creates named daemon threads.
+     */
+    static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package com.github.tls.nio;
+
+import com.github.tls.protocol.FrameCodec;
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.SessionStats;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single non-blocking mTLS connection driven by an {@link SSLEngine}.
+ * All methods except the delegated task runner are invoked on the owning event loop thread.
+ */
+final class TlsConnection {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TlsConnection.class);
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    private static final byte[] ECHO_PREFIX = "Echo: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GOODBYE = "Goodbye!\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] QUIT = "quit".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EXIT = "exit".getBytes(StandardCharsets.UTF_8);
+
+    /** Bits per byte, used to assemble frame headers. */
+    private static final int BYTE_BITS = 8;
+    /** Mask of the low byte of an int. */
+    private static final int BYTE_MASK = 0xff;
+    /** Largest plaintext fragment carried by one TLS record. */
+    private static final int MAX_RECORD_PLAINTEXT = 16384;
+
+    private final SocketChannel channel;
+    private final SSLEngine engine;
+    private final Protocol protocol;
+    private final BufferPool buffers;
+    private final Executor taskExecutor;
+    private final Executor loopExecutor;
+    private final SessionStats sessionStats;
+    private final long createdMillis = System.currentTimeMillis();
+    private final byte[] frameHeader = new byte[FrameCodec.HEADER_LENGTH];
+
+    private SelectionKey key;
+    private ByteBuffer netIn;
+    private ByteBuffer appIn;
+    private ByteBuffer appOut;
+    private ByteBuffer netOut;
+    private int frameHeaderBytes;
+    private int frameLength;
+    private int frameRemaining;
+    private boolean tasksPending;
+    private boolean closeAfterReply;
+    private boolean closed;
+    private boolean handshakeRecorded;
+
+    /**
+     * Creates a connection.
+     *
+     * @param channel the accepted non-blocking channel
+     * @param engine the server-mode engine for this connection
+     * @param protocol the application protocol spoken on this connection
+     * @param buffers the buffer pool of the owning event loop
+     * @param taskExecutor executor running the engine's delegated tasks off the event loop
+     * @param loopExecutor executor that runs work on the owning event loop thread
+     * @param sessionStats statistics recording whether the handshake resumed a session
+     */
+    TlsConnection(SocketChannel channel, SSLEngine engine, Protocol protocol, BufferPool buffers,
+            Executor taskExecutor, Executor loopExecutor, SessionStats sessionStats) {
+        this.channel = channel;
+        this.engine = engine;
+        this.protocol = protocol;
+        this.buffers = buffers;
+        this.taskExecutor = taskExecutor;
+        this.loopExecutor = loopExecutor;
+        this.sessionStats = sessionStats;
+    }
+
+    /**
+     * Registers the connection for reads with the given selector and starts the handshake.
+     *
+     * @param selector the selector of the owning event loop
+     * @throws IOException if the channel cannot be registered or the handshake cannot start
+     */
+    void register(Selector selector) throws IOException {
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+        engine.beginHandshake();
+    }
+
+    /**
+     * Handles readiness reported by the selector.
+     */
+    void onSelected() {
+        try {
+            if (key.isValid() && key.isWritable()) {
+                flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                read();
+            }
+            process();
+            updateInterest();
+        } catch (IOException e) {
+            LOGGER.debug("Closing connection after error: {}", e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Closes the channel and returns all buffers to the pool.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Error closing channel: {}", e.getMessage());
+        }
+        buffers.release(netIn);
+        buffers.release(appIn);
+        buffers.release(appOut);
+        buffers.release(netOut);
+        netIn = null;
+        appIn = null;
+        appOut = null;
+        netOut = null;
+    }
+
+    /**
+     * Checks whether the connection is closed.
+     *
+     * @return true once the connection has been closed
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    private void read() throws IOException {
+        if (netIn == null) {
+            netIn = buffers.acquirePacket();
+        }
+        if (channel.read(netIn) < 0) {
+            try {
+                engine.closeInbound();
+            } catch (SSLException e) {
+                LOGGER.debug("Peer closed without close_notify: {}", e.getMessage());
+            }
+            engine.closeOutbound();
+        }
+    }
+
+    /**
+     * Drives the engine as far as the buffered data allows: handshake steps, decryption of
+     * everything already received, and encryption of all pending replies into one network write.
+     */
+    private void process() throws IOException {
+        while (!closed && !tasksPending) {
+            HandshakeStatus status = engine.getHandshakeStatus();
+            boolean progress;
+            if (status == HandshakeStatus.NEED_TASK) {
+                runDelegatedTasks();
+                return;
+            } else if (status == HandshakeStatus.NEED_WRAP) {
+                progress = wrap(EMPTY);
+            } else {
+                progress = unwrap();
+                // Decrypt every request already received before encrypting, so the replies to a
+                // pipelined batch share records instead of each reply producing its own
+                if (status == HandshakeStatus.NOT_HANDSHAKING && (!progress || hasFullRecord())) {
+                    progress |= wrapApplicationData();
+                }
+            }
+            if (!progress) {
+                break;
+            }
+        }
+        flush();
+    }
+
+    private boolean unwrap() throws IOException {
+        if (netIn == null || netIn.position() == 0 || engine.isInboundDone()) {
+            return false;
+        }
+        if (appIn == null) {
+            appIn = buffers.acquireApplication();
+        }
+        netIn.flip();
+        SSLEngineResult result;
+        try {
+            result = engine.unwrap(netIn, appIn);
+        } finally {
+            netIn.compact();
+        }
+        if (result.getHandshakeStatus() == HandshakeStatus.FINISHED) {
+            onHandshakeFinished();
+        }
+        switch (result.getStatus()) {
+            case OK:
+                if (appIn.position() > 0) {
+                    handleApplicationData();
+                }
+                return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+            case BUFFER_UNDERFLOW:
+                if (!netIn.hasRemaining()) {
+                    netIn = BufferPool.enlarge(netIn, engine.getSession().getPacketBufferSize());
+                }
+                return false;
+            case BUFFER_OVERFLOW:
+                handleApplicationData();
+                if (appIn.remaining() < engine.getSession().getApplicationBufferSize()) {
+                    throw new IOException("Line exceeds " + engine.getSession().getApplicationBufferSize() + " bytes");
+                }
+                return true;
+            case CLOSED:
+                engine.closeOutbound();
+                return result.bytesConsumed() > 0;
+            default:
+                throw new IllegalStateException("Unexpected unwrap status: " + result.getStatus());
+        }
+    }
+
+    private boolean wrap(ByteBuffer source) throws IOException {
+        if (netOut == null) {
+            netOut = buffers.acquirePacket();
+        }
+        SSLEngineResult result = engine.wrap(source, netOut);
+        if (result.getHandshakeStatus() == HandshakeStatus.FINISHED) {
+            onHandshakeFinished();
+        }
+        switch (result.getStatus()) {
+            case OK:
+                return result.bytesProduced() > 0 || result.bytesConsumed() > 0;
+            case BUFFER_OVERFLOW:
+                if (!flush()) {
+                    return false;
+                }
+                netOut = buffers.acquirePacket();
+                if (netOut.remaining() < engine.getSession().getPacketBufferSize()) {
+                    netOut = BufferPool.enlarge(netOut, engine.getSession().getPacketBufferSize());
+                }
+                return true;
+            case CLOSED:
+                return result.bytesProduced() > 0;
+            default:
+                throw new IllegalStateException("Unexpected wrap status: " + result.getStatus());
+        }
+    }
+
+    /**
+     * Checks whether the pending replies fill at least one TLS record, in which case waiting for
+     * more would only grow the outbound buffer.
+     */
+    private boolean hasFullRecord() {
+        return appOut != null && appOut.position() >= MAX_RECORD_PLAINTEXT;
+    }
+
+    private boolean wrapApplicationData() throws IOException {
+        if (appOut == null || appOut.position() == 0) {
+            return false;
+        }
+        appOut.flip();
+        boolean progress = false;
+        try {
+            while (appOut.hasRemaining() && wrap(appOut)) {
+                progress = true;
+            }
+        } finally {
+            appOut.compact();
+        }
+        if (appOut.position() == 0) {
+            buffers.release(appOut);
+            appOut = null;
+            if (closeAfterReply) {
+                engine.closeOutbound();
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Moves decrypted application data into replies according to the connection's protocol.
+     */
+    private void handleApplicationData() throws IOException {
+        if (protocol == Protocol.FRAMED) {
+            handleFrames();
+        } else {
+            handleLines();
+        }
+    }
+
+    /**
+     * Echoes every complete line in the inbound plaintext buffer into the outbound buffer.
+     */
+    private void handleLines() {
+        appIn.flip();
+        int start = appIn.position();
+        int limit = appIn.limit();
+        for (int i = start; i < limit && !closeAfterReply; i++) {
+            if (appIn.get(i) != '\n') {
+                continue;
+            }
+            int end = i > start && appIn.get(i - 1) == '\r' ? i - 1 : i;
+            if (matchesIgnoreCase(appIn, start, end, QUIT) || matchesIgnoreCase(appIn, start, end, EXIT)) {
+                LOGGER.info("Client requested to close connection");
+                append(GOODBYE, 0, GOODBYE.length);
+                closeAfterReply = true;
+            } else {
+                append(ECHO_PREFIX, 0, ECHO_PREFIX.length);
+                appendLine(start, end);
+            }
+            start = i + 1;
+        }
+        appIn.position(closeAfterReply ? limit : start);
+        appIn.compact();
+    }
+
+    /**
+     * Echoes frames byte for byte. Payload bytes are streamed through as they arrive, so a frame
+     * never has to fit in a buffer; only the headers are parsed to validate the announced lengths.
+     */
+    private void handleFrames() throws IOException {
+        appIn.flip();
+        while (appIn.hasRemaining()) {
+            if (frameRemaining == 0) {
+                while (frameHeaderBytes < FrameCodec.HEADER_LENGTH && appIn.hasRemaining()) {
+                    frameLength = (frameLength << BYTE_BITS) | (appIn.get() & BYTE_MASK);
+                    frameHeaderBytes++;
+                }
+                if (frameHeaderBytes < FrameCodec.HEADER_LENGTH) {
+                    break;
+                }
+                FrameCodec.checkLength(frameLength);
+                FrameCodec.putHeader(frameHeader, frameLength);
+                append(frameHeader, 0, frameHeader.length);
+                frameRemaining = frameLength;
+                frameHeaderBytes = 0;
+                frameLength = 0;
+            }
+            int chunk = Math.min(frameRemaining, appIn.remaining());
+            ensureOutboundCapacity(chunk);
+            ByteBuffer slice = appIn.duplicate();
+            slice.limit(slice.position() + chunk);
+            appOut.put(slice);
+            appIn.position(appIn.position() + chunk);
+            frameRemaining -= chunk;
+        }
+        appIn.compact();
+    }
+
+    private void appendLine(int start, int end) {
+        ensureOutboundCapacity(end - start + 1);
+        ByteBuffer line = appIn.duplicate();
+        line.limit(end).position(start);
+        appOut.put(line);
+        appOut.put((byte) '\n');
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        ensureOutboundCapacity(length);
+        appOut.put(bytes, offset, length);
+    }
+
+    private void ensureOutboundCapacity(int length) {
+        if (appOut == null) {
+            appOut = buffers.acquireApplication();
+        }
+        if (appOut.remaining() < length) {
+            appOut = BufferPool.enlarge(appOut, appOut.position() + length);
+        }
+    }
+
+    private static boolean matchesIgnoreCase(ByteBuffer buffer, int start, int end, byte[] word) {
+        if (end - start != word.length) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            if (Character.toLowerCase((char) buffer.get(start + i)) != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes as much buffered ciphertext as the socket accepts.
+     *
+     * @return true if all buffered ciphertext was written
+     */
+    private boolean flush() throws IOException {
+        if (netOut == null) {
+            return true;
+        }
+        netOut.flip();
+        try {
+            channel.write(netOut);
+        } finally {
+            netOut.compact();
+        }
+        if (netOut.position() > 0) {
+            return false;
+        }
+        buffers.release(netOut);
+        netOut = null;
+        return true;
+    }
+
+    private void runDelegatedTasks() {
+        List<Runnable> tasks = new ArrayList<>();
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            tasks.add(task);
+        }
+        tasksPending = true;
+        key.interestOps(0);
+        taskExecutor.execute(() -> {
+            for (Runnable delegated : tasks) {
+                delegated.run();
+            }
+            loopExecutor.execute(this::resume);
+        });
+    }
+
+    private void resume() {
+        tasksPending = false;
+        if (closed) {
+            return;
+        }
+        try {
+            process();
+            updateInterest();
+        } catch (IOException e) {
+            LOGGER.debug("Closing connection after error: {}", e.getMessage());
+            close();
+        } catch (RuntimeException e) {
+            LOGGER.error("Closing connection after unexpected error", e);
+            close();
+        }
+    }
+
+    private void updateInterest() throws ClosedChannelException {
+        if (closed || tasksPending) {
+            return;
+        }
+        if (netOut != null && netOut.position() > 0) {
+            // Stop reading until the peer drains our output
+            key.interestOps(SelectionKey.OP_WRITE);
+            return;
+        }
+        if (engine.isOutboundDone()) {
+            close();
+            return;
+        }
+        if (netIn != null && netIn.position() == 0) {
+            buffers.release(netIn);
+            netIn = null;
+        }
+        if (appIn != null && appIn.position() == 0) {
+            buffers.release(appIn);
+            appIn = null;
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void onHandshakeFinished() {
+        // TLS 1.3 reports FINISHED again after wrapping post-handshake messages such as session tickets
+        if (!handshakeRecorded) {
+            handshakeRecorded = true;
+            sessionStats.record(engine.getSession(), createdMillis);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            String peer;
+            try {
+                peer = engine.getSession().getPeerPrincipal().getName();
+            } catch (SSLPeerUnverifiedException e) {
+                peer = "unverified";
+            }
+            LOGGER.debug("Handshake finished with {} using {}", peer, engine.getSession().getCipherSuite());
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.github.tls.pool;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.ssl.SessionStats;
+import java.io.IOException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of connected mTLS {@link Client}s to one server.
+ * <p>
+ * All connections are opened from one shared {@link SSLContext}, so keystores are loaded once and
+ * reconnects resume sessions from the context's client session cache instead of performing a full
+ * handshake with certificate verification. Idle connections are lent most recently used first,
+ * checked for a server-side close once they have been idle for a while, and closed by a background
+ * task once idle too long, while that task keeps {@link ClientPoolConfig#getMinIdle()} connections warm.
+ */
+public class ClientPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientPool.class);
+
+    private final SSLContext context;
+    private final ClientConfig clientConfig;
+    private final ClientPoolConfig config;
+    private final BlockingDeque<PooledClient> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService maintenance;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder handshakes = new LongAdder();
+    private final LongAdder resumedHandshakes = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool and starts warming up its minimum idle connections in the background.
+     *
+     * @param context the SSL context shared by all connections, see {@link Client#getContext()}
+     * @param clientConfig configuration of each pooled client
+     * @param config pool configuration
+     */
+    public ClientPool(SSLContext context, ClientConfig clientConfig, ClientPoolConfig config) {
+        this.context = context;
+        this.clientConfig = clientConfig;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxTotal(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "mTLS-ClientPool-Maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, config.getEvictionIntervalMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connected client, opening a new connection if no idle one is usable.
+     *
+     * @return the lease, to be closed to return the connection
+     * @throws IOException if a new connection cannot be opened
+     * @throws InterruptedException if interrupted while waiting
+     * @throws TimeoutException if all connections stay in use for {@link ClientPoolConfig#getMaxWaitMillis()}
+     */
+    public PooledClient borrow() throws IOException, InterruptedException, TimeoutException {
+        if (closed) {
+            throw new IllegalStateException("Client pool is closed");
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+        if (!permits.tryAcquire(config.getMaxWaitMillis(), TimeUnit.MILLISECONDS)) {
+            throw timeout();
+        }
+        try {
+            PooledClient pooled = takeIdle();
+            if (pooled == null) {
+                if (reserve()) {
+                    pooled = open();
+                } else {
+                    // Every other connection is idle but being opened by the background task
+                    pooled = idle.pollFirst(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (pooled == null) {
+                        throw timeout();
+                    }
+                }
+            }
+            active.incrementAndGet();
+            recordWait(System.nanoTime() - start);
+            pooled.lend();
+            return pooled;
+        } catch (IOException | InterruptedException | TimeoutException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a snapshot of the pool's activity.
+     *
+     * @return the current metrics
+     */
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(active.get(), idle.size(), borrows.sum(), totalWaitNanos.sum(), maxWaitNanos.get(),
+                handshakes.sum(), resumedHandshakes.sum());
+    }
+
+    /**
+     * Closes all idle connections and stops the background task. Borrowed connections are closed
+     * when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        closeIdle();
+    }
+
+    /**
+     * Returns a borrowed connection, closing it if it is broken or the pool is closed.
+     *
+     * @param pooled the returned connection
+     */
+    void release(PooledClient pooled) {
+        active.decrementAndGet();
+        try {
+            if (closed || pooled.isBroken() || !pooled.getClient().isConnected()) {
+                destroy(pooled);
+            } else {
+                pooled.setLastReturnedNanos(System.nanoTime());
+                idle.offerFirst(pooled);
+                if (closed) {
+                    // Raced with close(), which may already have drained the idle connections
+                    closeIdle();
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Takes the most recently returned idle connection that is still usable.
+     *
+     * @return an idle connection, or null if none is usable
+     */
+    private PooledClient takeIdle() {
+        long validateAfterNanos = TimeUnit.MILLISECONDS.toNanos(config.getValidateAfterIdleMillis());
+        PooledClient pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long idleNanos = System.nanoTime() - pooled.getLastReturnedNanos();
+            if (idleNanos < validateAfterNanos || pooled.getClient().isAlive(config.getValidationTimeoutMillis())) {
+                return pooled;
+            }
+            LOGGER.debug("Discarding pooled connection closed by the server");
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    /**
+     * Reserves room for one more connection if the pool is below its maximum size.
+     *
+     * @return true if a connection may be opened
+     */
+    private boolean reserve() {
+        int current;
+        do {
+            current = total.get();
+            if (current >= config.getMaxTotal()) {
+                return false;
+            }
+        } while (!total.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Opens a new connection. The caller must have reserved it, and the reservation is
+     * given back if opening fails.
+     *
+     * @return the new connection, not yet lent
+     * @throws IOException if the connection or handshake fails
+     */
+    private PooledClient open() throws IOException {
+        Client client = new Client(context, clientConfig);
+        long start = System.currentTimeMillis();
+        boolean connected = false;
+        try {
+            client.connectOrThrow();
+            connected = true;
+        } finally {
+            if (!connected) {
+                total.decrementAndGet();
+                client.close();
+            }
+        }
+        handshakes.increment();
+        SSLSession session = client.getSession();
+        if (session != null && SessionStats.isResumed(session, start)) {
+            resumedHandshakes.increment();
+        }
+        return new PooledClient(this, client);
+    }
+
+    /**
+     * Background task: closes connections idle longer than the idle timeout, oldest first and never
+     * below the minimum idle count, then reopens connections up to the minimum idle count.
+     */
+    private void maintain() {
+        try {
+            long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+            while (idle.size() > config.getMinIdle()) {
+                PooledClient oldest = idle.peekLast();
+                if (oldest == null || System.nanoTime() - oldest.getLastReturnedNanos() < idleTimeoutNanos) {
+                    break;
+                }
+                if (idle.removeLastOccurrence(oldest)) {
+                    LOGGER.debug("Closing idle pooled connection");
+                    destroy(oldest);
+                }
+            }
+            while (!closed && idle.size() < config.getMinIdle() && reserve()) {
+                PooledClient pooled = open();
+                pooled.setLastReturnedNanos(System.nanoTime());
+                idle.offerLast(pooled);
+                if (closed) {
+                    closeIdle();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to refill client pool: {}", e.getMessage());
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrows.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void closeIdle() {
+        PooledClient pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private TimeoutException timeout() {
+        return new TimeoutException("No pooled connection available within " + config.getMaxWaitMillis() + " ms");
+    }
+
+    private void destroy(PooledClient pooled) {
+        total.decrementAndGet();
+        pooled.getClient().close();
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.tls.pool;
+
+/**
+ * Configuration for a {@link ClientPool}.
+ * Instances are immutable and created through {@link #builder()}.
+ */
+public final class ClientPoolConfig {
+
+    /** Default maximum number of open connections. */
+    public static final int DEFAULT_MAX_TOTAL = 8;
+    /** Default number of idle connections kept open and warm. */
+    public static final int DEFAULT_MIN_IDLE = 1;
+    /** Default time a borrower waits for a connection, in milliseconds. */
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5000;
+    /** Default time after which connections above the minimum idle count are closed, in milliseconds. */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60000;
+    /** Default idle time after which a connection is checked before being lent out, in milliseconds. */
+    public static final long DEFAULT_VALIDATE_AFTER_IDLE_MILLIS = 1000;
+    /** Default interval of the eviction and refill task, in milliseconds. */
+    public static final long DEFAULT_EVICTION_INTERVAL_MILLIS = 10000;
+    /** Default time a validation waits for the server to signal a close, in milliseconds. */
+    public static final int DEFAULT_VALIDATION_TIMEOUT_MILLIS = 1;
+
+    private final int maxTotal;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long validateAfterIdleMillis;
+    private final long evictionIntervalMillis;
+    private final int validationTimeoutMillis;
+
+    private ClientPoolConfig(Builder builder) {
+        this.maxTotal = builder.maxTotal;
+        this.minIdle = builder.minIdle;
+        this.maxWaitMillis = builder.maxWaitMillis;
+        this.idleTimeoutMillis = builder.idleTimeoutMillis;
+        this.validateAfterIdleMillis = builder.validateAfterIdleMillis;
+        this.evictionIntervalMillis = builder.evictionIntervalMillis;
+        this.validationTimeoutMillis = builder.validationTimeoutMillis;
+    }
+
+    /**
+     * Creates a configuration with all default values.
+     *
+     * @return the default configuration
+     */
+    public static ClientPoolConfig defaults() {
+        return builder().build();
+    }
+
+    /**
+     * Creates a new builder initialized with default values.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the maximum number of open connections, borrowed and idle together.
+     *
+     * @return the maximum pool size
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Gets the number of idle connections kept open and warm.
+     *
+     * @return the minimum idle count
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Gets how long a borrower waits for a connection when all are in use.
+     *
+     * @return the maximum wait in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Gets how long a connection above the minimum idle count may stay idle before it is closed.
+     *
+     * @return the idle timeout in milliseconds
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Gets the idle time after which a connection is checked before it is lent out.
+     * Connections returned more recently are lent without a check.
+     *
+     * @return the validation threshold in milliseconds
+     */
+    public long getValidateAfterIdleMillis() {
+        return validateAfterIdleMillis;
+    }
+
+    /**
+     * Gets the interval of the background task evicting idle connections and refilling warm ones.
+     *
+     * @return the eviction interval in milliseconds
+     */
+    public long getEvictionIntervalMillis() {
+        return evictionIntervalMillis;
+    }
+
+    /**
+     * Gets how long a validation waits for the server to signal that it closed the connection.
+     *
+     * @return the validation timeout in milliseconds
+     */
+    public int getValidationTimeoutMillis() {
+        return validationTimeoutMillis;
+    }
+
+    /**
+     * Builder for {@link ClientPoolConfig}.
+     */
+    public static final class Builder {
+
+        private int maxTotal = DEFAULT_MAX_TOTAL;
+        private int minIdle = DEFAULT_MIN_IDLE;
+        private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+        private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+        private long validateAfterIdleMillis = DEFAULT_VALIDATE_AFTER_IDLE_MILLIS;
+        private long evictionIntervalMillis = DEFAULT_EVICTION_INTERVAL_MILLIS;
+        private int validationTimeoutMillis = DEFAULT_VALIDATION_TIMEOUT_MILLIS;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of open connections.
+         *
+         * @param connections the maximum pool size, at least 1
+         * @return this builder
+         */
+        public Builder maxTotal(int connections) {
+            if (connections < 1) {
+                throw new IllegalArgumentException("Max total must be at least 1: " + connections);
+            }
+            this.maxTotal = connections;
+            return this;
+        }
+
+        /**
+         * Sets the number of idle connections kept open and warm.
+         *
+         * @param connections the minimum idle count, not negative
+         * @return this builder
+         */
+        public Builder minIdle(int connections) {
+            if (connections < 0) {
+                throw new IllegalArgumentException("Min idle must not be negative: " + connections);
+            }
+            this.minIdle = connections;
+            return this;
+        }
+
+        /**
+         * Sets how long a borrower waits for a connection when all are in use.
+         *
+         * @param millis the maximum wait in milliseconds, not negative
+         * @return this builder
+         */
+        public Builder maxWaitMillis(long millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("Max wait must not be negative: " + millis);
+            }
+            this.maxWaitMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets how long a connection above the minimum idle count may stay idle.
+         *
+         * @param millis the idle timeout in milliseconds, at least 1
+         * @return this builder
+         */
+        public Builder idleTimeoutMillis(long millis) {
+            if (millis < 1) {
+                throw new IllegalArgumentException("Idle timeout must be at least 1: " + millis);
+            }
+            this.idleTimeoutMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the idle time after which a connection is checked before it is lent out.
+         *
+         * @param millis the validation threshold in milliseconds, 0 to check on every borrow
+         * @return this builder
+         */
+        public Builder validateAfterIdleMillis(long millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("Validation threshold must not be negative: " + millis);
+            }
+            this.validateAfterIdleMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets the interval of the background eviction and refill task.
+         *
+         * @param millis the eviction interval in milliseconds, at least 1
+         * @return this builder
+         */
+        public Builder evictionIntervalMillis(long millis) {
+            if (millis < 1) {
+                throw new IllegalArgumentException("Eviction interval must be at least 1: " + millis);
+            }
+            this.evictionIntervalMillis = millis;
+            return this;
+        }
+
+        /**
+         * Sets how long a validation waits for the server to signal that it closed the connection.
+         *
+         * @param millis the validation timeout in milliseconds, at least 1
+         * @return this builder
+         */
+        public Builder validationTimeoutMillis(int millis) {
+            if (millis < 1) {
+                throw new IllegalArgumentException("Validation timeout must be at least 1: " + millis);
+            }
+            this.validationTimeoutMillis = millis;
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         *
+         * @return the immutable configuration
+         * @throws IllegalArgumentException if the minimum idle count exceeds the maximum pool size
+         */
+        public ClientPoolConfig build() {
+            if (minIdle > maxTotal) {
+                throw new IllegalArgumentException("Min idle " + minIdle + " exceeds max total " + maxTotal);
+            }
+            return new ClientPoolConfig(this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.tls.pool;
+
+/**
+ * Point-in-time snapshot of {@link ClientPool} activity.
+ */
+public final class PoolMetrics {
+
+    private final int active;
+    private final int idle;
+    private final long borrows;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long handshakes;
+    private final long resumedHandshakes;
+
+    PoolMetrics(int active, int idle, long borrows, long totalWaitNanos, long maxWaitNanos,
+            long handshakes, long resumedHandshakes) {
+        this.active = active;
+        this.idle = idle;
+        this.borrows = borrows;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.handshakes = handshakes;
+        this.resumedHandshakes = resumedHandshakes;
+    }
+
+    /**
+     * Gets the number of connections currently borrowed.
+     *
+     * @return the active connection count
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * Gets the number of open connections waiting to be borrowed.
+     *
+     * @return the idle connection count
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Gets the number of successful borrows.
+     *
+     * @return the borrow count
+     */
+    public long getBorrows() {
+        return borrows;
+    }
+
+    /**
+     * Gets the time borrowers spent waiting for a connection, including connection setup.
+     *
+     * @return the total wait in nanoseconds
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /**
+     * Gets the longest time a single borrower waited for a connection.
+     *
+     * @return the maximum wait in nanoseconds
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /**
+     * Gets the mean time borrowers waited for a connection.
+     *
+     * @return the mean wait in nanoseconds, or 0 before the first borrow
+     */
+    public long getMeanWaitNanos() {
+        return borrows == 0 ? 0 : totalWaitNanos / borrows;
+    }
+
+    /**
+     * Gets the number of TLS handshakes performed to open connections.
+     *
+     * @return the handshake count, full and resumed
+     */
+    public long getHandshakes() {
+        return handshakes;
+    }
+
+    /**
+     * Gets the number of handshakes that resumed a cached TLS session instead of a full handshake.
+     *
+     * @return the resumed handshake count
+     */
+    public long getResumedHandshakes() {
+        return resumedHandshakes;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{active=" + active + ", idle=" + idle + ", borrows=" + borrows
+                + ", meanWaitNanos=" + getMeanWaitNanos() + ", maxWaitNanos=" + maxWaitNanos
+                + ", handshakes=" + handshakes + ", resumedHandshakes=" + resumedHandshakes + "}";
+    }
+}
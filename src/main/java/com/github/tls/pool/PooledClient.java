@@ -0,0 +1,65 @@
+package com.github.tls.pool;
+
+import com.github.tls.Client;
+
+/**
+ * A connection borrowed from a {@link ClientPool}. Closing it returns the connection to the pool,
+ * so it is meant to be used with try-with-resources.
+ */
+public final class PooledClient implements AutoCloseable {
+
+    private final ClientPool pool;
+    private final Client client;
+    private long lastReturnedNanos;
+    private boolean broken;
+    private boolean borrowed;
+
+    PooledClient(ClientPool pool, Client client) {
+        this.pool = pool;
+        this.client = client;
+    }
+
+    /**
+     * Gets the connected client. It must not be closed or used after this lease is closed.
+     *
+     * @return the client
+     */
+    public Client getClient() {
+        return client;
+    }
+
+    /**
+     * Marks the connection as unusable, for example after an I/O error or a protocol exchange left
+     * unfinished, so that it is closed instead of being lent out again.
+     */
+    public void invalidate() {
+        broken = true;
+    }
+
+    /**
+     * Returns the connection to the pool, or closes it if it was invalidated.
+     */
+    @Override
+    public void close() {
+        if (borrowed) {
+            borrowed = false;
+            pool.release(this);
+        }
+    }
+
+    void lend() {
+        borrowed = true;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    long getLastReturnedNanos() {
+        return lastReturnedNanos;
+    }
+
+    void setLastReturnedNanos(long nanos) {
+        this.lastReturnedNanos = nanos;
+    }
+}
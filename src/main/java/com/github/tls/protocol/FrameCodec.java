@@ -0,0 +1,152 @@
+package com.github.tls.protocol;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec for the {@link Protocol#FRAMED} wire format: a 4-byte big-endian payload length
+ * followed by the raw payload bytes. Payloads are read into caller-supplied buffers so a
+ * connection can reuse one buffer for every frame.
+ */
+public final class FrameCodec {
+
+    /** Length of the frame header in bytes. */
+    public static final int HEADER_LENGTH = 4;
+    /** Largest accepted payload length in bytes. */
+    public static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+    /** Initial capacity of frame buffers allocated by callers. */
+    public static final int INITIAL_BUFFER_CAPACITY = 8192;
+    /** Length of the request ID that starts the payload of a multiplexed frame. */
+    public static final int REQUEST_ID_LENGTH = 8;
+
+    /** Bits per byte, used to assemble the header. */
+    private static final int BYTE_BITS = 8;
+    /** Mask of the low byte of an int. */
+    private static final int BYTE_MASK = 0xff;
+
+    private FrameCodec() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Reads one frame into a reusable buffer.
+     *
+     * @param in the stream to read from
+     * @param reusable the buffer to read into, replaced by a larger one if the payload does not fit
+     * @return the buffer holding the payload between position 0 and its limit,
+     *         or null if the stream ended cleanly before a new frame
+     * @throws IOException if the stream fails, ends inside a frame, or announces an invalid length
+     */
+    public static ByteBuffer readFrame(DataInputStream in, ByteBuffer reusable) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        int length = first;
+        for (int i = 1; i < HEADER_LENGTH; i++) {
+            length = (length << BYTE_BITS) | in.readUnsignedByte();
+        }
+        checkLength(length);
+
+        ByteBuffer buffer = ensureCapacity(reusable, length);
+        buffer.clear();
+        in.readFully(buffer.array(), buffer.arrayOffset(), length);
+        buffer.limit(length);
+        return buffer;
+    }
+
+    /**
+     * Writes the remaining bytes of a payload as one frame without flushing the stream,
+     * so that several frames can share one flush. The payload position is not changed.
+     *
+     * @param out the stream to write to
+     * @param payload the payload to frame
+     * @throws IOException if the payload is too large or the stream fails
+     */
+    public static void writeFrame(OutputStream out, ByteBuffer payload) throws IOException {
+        int length = checkLength(payload.remaining());
+        writeBigEndian(out, length, HEADER_LENGTH);
+        writePayload(out, payload, length);
+    }
+
+    /**
+     * Writes a multiplexed frame whose payload is a request ID followed by the remaining bytes of the
+     * given payload. Peers that echo frames unchanged return the ID, so replies can be matched to
+     * requests. Like {@link #writeFrame(OutputStream, ByteBuffer)}, the stream is not flushed.
+     *
+     * @param out the stream to write to
+     * @param requestId the request ID
+     * @param payload the payload following the ID
+     * @throws IOException if the payload is too large or the stream fails
+     */
+    public static void writeFrame(OutputStream out, long requestId, ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        writeBigEndian(out, checkLength(length + REQUEST_ID_LENGTH), HEADER_LENGTH);
+        writeBigEndian(out, requestId, REQUEST_ID_LENGTH);
+        writePayload(out, payload, length);
+    }
+
+    private static void writeBigEndian(OutputStream out, long value, int bytes) throws IOException {
+        for (int shift = (bytes - 1) * BYTE_BITS; shift >= 0; shift -= BYTE_BITS) {
+            out.write((int) (value >>> shift) & BYTE_MASK);
+        }
+    }
+
+    private static void writePayload(OutputStream out, ByteBuffer payload, int length) throws IOException {
+        if (payload.hasArray()) {
+            out.write(payload.array(), payload.arrayOffset() + payload.position(), length);
+        } else {
+            byte[] bytes = new byte[length];
+            payload.duplicate().get(bytes);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Encodes a payload length as a frame header.
+     *
+     * @param header destination of at least {@link #HEADER_LENGTH} bytes
+     * @param length the payload length
+     */
+    public static void putHeader(byte[] header, int length) {
+        for (int i = HEADER_LENGTH - 1; i >= 0; i--) {
+            header[i] = (byte) (length & BYTE_MASK);
+            length >>>= BYTE_BITS;
+        }
+    }
+
+    /**
+     * Validates a payload length announced by or for a frame header.
+     *
+     * @param length the payload length
+     * @return the length, for chaining
+     * @throws ProtocolException if the length is negative or exceeds {@link #MAX_FRAME_LENGTH}
+     */
+    public static int checkLength(int length) throws ProtocolException {
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new ProtocolException("Invalid frame length: " + Integer.toUnsignedString(length));
+        }
+        return length;
+    }
+
+    /**
+     * Returns the given buffer if it can hold the requested number of bytes, otherwise a new heap buffer.
+     *
+     * @param buffer the current buffer, may be null
+     * @param capacity the required capacity
+     * @return a heap buffer of at least the required capacity
+     */
+    public static ByteBuffer ensureCapacity(ByteBuffer buffer, int capacity) {
+        if (buffer != null && buffer.hasArray() && buffer.capacity() >= capacity) {
+            return buffer;
+        }
+        int size = INITIAL_BUFFER_CAPACITY;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        return ByteBuffer.allocate(size);
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.tls.protocol;
+
+/**
+ * Application protocols spoken over an mTLS connection.
+ */
+public enum Protocol {
+
+    /**
+     * Newline-terminated text lines echoed with an {@code "Echo: "} prefix; {@code quit} or {@code exit}
+     * ends the connection. This is the original protocol and the default for compatibility.
+     */
+    LINE,
+
+    /**
+     * Length-prefixed binary frames, see {@link FrameCodec}. Frames are echoed byte for byte
+     * without any charset conversion, so payloads may contain newlines or arbitrary binary data.
+     */
+    FRAMED
+}
@@ -0,0 +1,312 @@
+package com.github.tls.ssl;
+
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.net.ssl.ExtendedSSLSession;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+/**
+ * Trust manager remembering the verdicts of another trust manager, so that a peer presenting a
+ * chain seen before skips PKIX path building and validation.
+ * <p>
+ * Verdicts are keyed by the SHA-256 digest of every certificate of the chain together with
+ * everything else the check depends on: the direction, the key exchange algorithm, the negotiated
+ * protocol and the local signature algorithms, and for checks with endpoint identification the
+ * algorithm and peer host. Accepted chains are remembered until the earliest {@code notAfter} of
+ * the chain or the maximum age, whichever comes first; rejected chains for the maximum age. The
+ * least recently used verdict is evicted when the cache is full. {@link #invalidate()} forgets all
+ * verdicts, for example after the trusted certificates changed.
+ */
+public final class CachingX509TrustManager extends X509ExtendedTrustManager {
+
+    /** Default number of remembered verdicts. */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    /** Default longest time a verdict is remembered: five minutes. */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 300_000L;
+
+    private static final String CLIENT = "client";
+    private static final String SERVER = "server";
+
+    private final X509ExtendedTrustManager delegate;
+    private final int maxEntries;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+    private final Map<ByteBuffer, Verdict> verdicts;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long generation;
+
+    /**
+     * Creates a cache remembering verdicts for up to {@value #DEFAULT_MAX_AGE_MILLIS} ms.
+     *
+     * @param delegate the trust manager making the decisions
+     * @param maxEntries the number of remembered verdicts, at least 1
+     */
+    public CachingX509TrustManager(X509ExtendedTrustManager delegate, int maxEntries) {
+        this(delegate, maxEntries, DEFAULT_MAX_AGE_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param delegate the trust manager making the decisions
+     * @param maxEntries the number of remembered verdicts, at least 1
+     * @param maxAgeMillis the longest time a verdict is remembered
+     * @param clock the current time in epoch milliseconds
+     */
+    CachingX509TrustManager(X509ExtendedTrustManager delegate, int maxEntries, long maxAgeMillis,
+            LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Trust cache size must be at least 1: " + maxEntries);
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+        this.verdicts = new LinkedHashMap<ByteBuffer, Verdict>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Verdict> eldest) {
+                return size() > CachingX509TrustManager.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        check(key(chain, CLIENT, authType, null, null), chain, () -> delegate.checkClientTrusted(chain, authType));
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        check(key(chain, CLIENT, authType, handshakeSession(socket), endpointIdentification(socket)), chain,
+                () -> delegate.checkClientTrusted(chain, authType, socket));
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        check(key(chain, CLIENT, authType, handshakeSession(engine), endpointIdentification(engine)), chain,
+                () -> delegate.checkClientTrusted(chain, authType, engine));
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        check(key(chain, SERVER, authType, null, null), chain, () -> delegate.checkServerTrusted(chain, authType));
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        check(key(chain, SERVER, authType, handshakeSession(socket), endpointIdentification(socket)), chain,
+                () -> delegate.checkServerTrusted(chain, authType, socket));
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        check(key(chain, SERVER, authType, handshakeSession(engine), endpointIdentification(engine)), chain,
+                () -> delegate.checkServerTrusted(chain, authType, engine));
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+
+    /**
+     * Forgets all verdicts. Checks running concurrently do not remember theirs.
+     */
+    public synchronized void invalidate() {
+        verdicts.clear();
+        generation++;
+    }
+
+    /**
+     * Gets the number of checks answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of checks passed on to the underlying trust manager.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the share of checks answered from the cache.
+     *
+     * @return the hits divided by all checks, or 0 before the first check
+     */
+    public double getHitRatio() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Gets the number of remembered verdicts, including expired ones not yet evicted.
+     *
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return verdicts.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TrustCache{hits=%d, misses=%d, hitRatio=%.3f, size=%d}",
+                getHits(), getMisses(), getHitRatio(), size());
+    }
+
+    private void check(ByteBuffer key, X509Certificate[] chain, Check check) throws CertificateException {
+        long now = clock.getAsLong();
+        long checkGeneration;
+        synchronized (this) {
+            Verdict verdict = key == null ? null : verdicts.get(key);
+            if (verdict != null && now < verdict.expiresMillis) {
+                hits.increment();
+                verdict.apply();
+                return;
+            }
+            checkGeneration = generation;
+        }
+        misses.increment();
+        try {
+            check.run();
+        } catch (CertificateException e) {
+            remember(key, checkGeneration, new Verdict(now + maxAgeMillis, e));
+            throw e;
+        }
+        remember(key, checkGeneration, new Verdict(Math.min(now + maxAgeMillis, notAfter(chain)), null));
+    }
+
+    private synchronized void remember(ByteBuffer key, long checkGeneration, Verdict verdict) {
+        if (key != null && checkGeneration == generation) {
+            verdicts.put(key, verdict);
+        }
+    }
+
+    private static long notAfter(X509Certificate[] chain) {
+        long notAfter = Long.MAX_VALUE;
+        for (X509Certificate certificate : chain) {
+            notAfter = Math.min(notAfter, certificate.getNotAfter().getTime());
+        }
+        return notAfter;
+    }
+
+    /**
+     * Digests a check into a cache key.
+     *
+     * @return the key, or null if the chain cannot be digested and the check must not be cached
+     */
+    private static ByteBuffer key(X509Certificate[] chain, String direction, String authType, SSLSession session,
+            String endpointIdentification) {
+        if (chain == null || chain.length == 0) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, direction);
+            update(digest, authType);
+            if (session != null) {
+                update(digest, session.getProtocol());
+                if (session instanceof ExtendedSSLSession) {
+                    String[] algorithms = ((ExtendedSSLSession) session).getLocalSupportedSignatureAlgorithms();
+                    update(digest, String.join(",", algorithms));
+                }
+                if (endpointIdentification != null) {
+                    update(digest, endpointIdentification);
+                    update(digest, session.getPeerHost());
+                }
+            }
+            for (X509Certificate certificate : chain) {
+                update(digest, certificate.getEncoded());
+            }
+            // ByteBuffer compares and hashes by content, which makes it a compact map key
+            return ByteBuffer.wrap(digest.digest());
+        } catch (NoSuchAlgorithmException | CertificateEncodingException e) {
+            return null;
+        }
+    }
+
+    private static void update(MessageDigest digest, String field) {
+        update(digest, field == null ? new byte[0] : field.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds a length-prefixed field to a digest, so that adjacent fields cannot run into each other.
+     */
+    private static void update(MessageDigest digest, byte[] field) {
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(field.length).array());
+        digest.update(field);
+    }
+
+    private static SSLSession handshakeSession(Socket socket) {
+        return socket instanceof SSLSocket ? ((SSLSocket) socket).getHandshakeSession() : null;
+    }
+
+    private static SSLSession handshakeSession(SSLEngine engine) {
+        return engine == null ? null : engine.getHandshakeSession();
+    }
+
+    private static String endpointIdentification(Socket socket) {
+        return socket instanceof SSLSocket
+                ? ((SSLSocket) socket).getSSLParameters().getEndpointIdentificationAlgorithm() : null;
+    }
+
+    private static String endpointIdentification(SSLEngine engine) {
+        return engine == null ? null : engine.getSSLParameters().getEndpointIdentificationAlgorithm();
+    }
+
+    /**
+     * A check performed by the underlying trust manager.
+     */
+    @FunctionalInterface
+    private interface Check {
+        void run() throws CertificateException;
+    }
+
+    /**
+     * A remembered verdict: accepted, or rejected with the underlying failure.
+     */
+    private static final class Verdict {
+
+        private final long expiresMillis;
+        private final CertificateException failure;
+
+        Verdict(long expiresMillis, CertificateException failure) {
+            this.expiresMillis = expiresMillis;
+            this.failure = failure;
+        }
+
+        void apply() throws CertificateException {
+            if (failure != null) {
+                // A fresh exception per handshake, with the original failure as its cause
+                throw new CertificateException(failure.getMessage(), failure);
+            }
+        }
+    }
+}
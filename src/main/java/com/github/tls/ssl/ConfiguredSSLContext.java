@@ -0,0 +1,246 @@
+package com.github.tls.ssl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.KeyManagementException;
+import java.security.SecureRandom;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+/**
+ * An initialized {@link SSLContext} whose sockets, server sockets and engines are created with a
+ * fixed set of enabled protocols and cipher suites, in preference order. Because the settings live in
+ * the context, every engine and client built from it applies them without further plumbing, and
+ * {@link SSLContext#getDefaultSSLParameters()} reports them.
+ */
+final class ConfiguredSSLContext extends SSLContext {
+
+    private final SSLContext delegate;
+
+    /**
+     * Wraps an initialized context.
+     *
+     * @param delegate the initialized context
+     * @param protocols the enabled protocols, all supported by the delegate
+     * @param cipherSuites the enabled cipher suites in preference order, all supported by the delegate
+     */
+    ConfiguredSSLContext(SSLContext delegate, String[] protocols, String[] cipherSuites) {
+        super(new Spi(delegate, protocols, cipherSuites), delegate.getProvider(), delegate.getProtocol());
+        this.delegate = delegate;
+    }
+
+    /**
+     * Gets the wrapped provider context.
+     *
+     * @return the initialized context
+     */
+    SSLContext getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Delegating service provider that applies the configured parameters.
+     */
+    private static final class Spi extends SSLContextSpi {
+
+        private final SSLContext delegate;
+        private final String[] protocols;
+        private final String[] cipherSuites;
+
+        Spi(SSLContext delegate, String[] protocols, String[] cipherSuites) {
+            this.delegate = delegate;
+            this.protocols = protocols.clone();
+            this.cipherSuites = cipherSuites.clone();
+        }
+
+        @Override
+        protected void engineInit(KeyManager[] km, TrustManager[] tm, SecureRandom sr) throws KeyManagementException {
+            throw new KeyManagementException("Context is already initialized");
+        }
+
+        @Override
+        protected SSLSocketFactory engineGetSocketFactory() {
+            return new SocketFactory(delegate.getSocketFactory(), this);
+        }
+
+        @Override
+        protected SSLServerSocketFactory engineGetServerSocketFactory() {
+            return new ServerSocketFactory(delegate.getServerSocketFactory(), this);
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine() {
+            return configure(delegate.createSSLEngine());
+        }
+
+        @Override
+        protected SSLEngine engineCreateSSLEngine(String host, int port) {
+            return configure(delegate.createSSLEngine(host, port));
+        }
+
+        @Override
+        protected SSLSessionContext engineGetServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+
+        @Override
+        protected SSLSessionContext engineGetClientSessionContext() {
+            return delegate.getClientSessionContext();
+        }
+
+        @Override
+        protected SSLParameters engineGetDefaultSSLParameters() {
+            return apply(delegate.getDefaultSSLParameters());
+        }
+
+        @Override
+        protected SSLParameters engineGetSupportedSSLParameters() {
+            return delegate.getSupportedSSLParameters();
+        }
+
+        private SSLParameters apply(SSLParameters parameters) {
+            parameters.setProtocols(protocols);
+            parameters.setCipherSuites(cipherSuites);
+            // Servers pick the first suite of their own list the client also offers
+            parameters.setUseCipherSuitesOrder(true);
+            return parameters;
+        }
+
+        private SSLEngine configure(SSLEngine engine) {
+            engine.setSSLParameters(apply(engine.getSSLParameters()));
+            return engine;
+        }
+
+        private Socket configure(Socket socket) {
+            SSLSocket sslSocket = (SSLSocket) socket;
+            sslSocket.setSSLParameters(apply(sslSocket.getSSLParameters()));
+            return sslSocket;
+        }
+
+        private ServerSocket configure(ServerSocket socket) {
+            SSLServerSocket sslSocket = (SSLServerSocket) socket;
+            sslSocket.setSSLParameters(apply(sslSocket.getSSLParameters()));
+            return sslSocket;
+        }
+
+        private String[] getCipherSuites() {
+            return cipherSuites.clone();
+        }
+    }
+
+    /**
+     * Client socket factory applying the configured parameters to every socket it creates.
+     */
+    private static final class SocketFactory extends SSLSocketFactory {
+
+        private final SSLSocketFactory delegate;
+        private final Spi spi;
+
+        SocketFactory(SSLSocketFactory delegate, Spi spi) {
+            this.delegate = delegate;
+            this.spi = spi;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return spi.getCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return spi.configure(delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return spi.configure(delegate.createSocket(socket, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, InputStream consumed, boolean autoClose) throws IOException {
+            return spi.configure(delegate.createSocket(socket, consumed, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return spi.configure(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return spi.configure(delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return spi.configure(delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+                throws IOException {
+            return spi.configure(delegate.createSocket(address, port, localAddress, localPort));
+        }
+    }
+
+    /**
+     * Server socket factory applying the configured parameters to every server socket it creates.
+     */
+    private static final class ServerSocketFactory extends SSLServerSocketFactory {
+
+        private final SSLServerSocketFactory delegate;
+        private final Spi spi;
+
+        ServerSocketFactory(SSLServerSocketFactory delegate, Spi spi) {
+            this.delegate = delegate;
+            this.spi = spi;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return spi.getCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return spi.configure(delegate.createServerSocket());
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return spi.configure(delegate.createServerSocket(port));
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            return spi.configure(delegate.createServerSocket(port, backlog));
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            return spi.configure(delegate.createServerSocket(port, backlog, address));
+        }
+    }
+}
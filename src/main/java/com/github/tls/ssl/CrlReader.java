@@ -0,0 +1,594 @@
+package com.github.tls.ssl;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.cert.CRLException;
+import java.security.cert.X509Certificate;
+import java.security.spec.PSSParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Streaming reader for X.509 CRLs in DER or PEM format.
+ * <p>
+ * {@link java.security.cert.CertificateFactory#generateCRLs} holds the whole CRL in memory and
+ * creates an {@link java.security.cert.X509CRLEntry} with its own objects for every revoked
+ * certificate, which for a CRL with millions of entries costs far more heap than the serials
+ * themselves. This reader walks the DER encoding of the {@code revokedCertificates} sequence
+ * through a fixed buffer and passes each serial number and revocation date to a {@link Handler}
+ * as raw bytes and a {@code long}. The signature of a CRL from a trusted issuer is verified in
+ * the same pass, by feeding the signed bytes to the verifier as they stream by.
+ * <p>
+ * Only the parts of RFC 5280 needed for revocation are interpreted: the issuer, the update
+ * times, the entries and the certificate issuer extension of indirect CRLs. Other extensions
+ * are skipped.
+ */
+final class CrlReader {
+
+    /** DER tag of an INTEGER. */
+    private static final int INTEGER = 0x02;
+    /** DER tag of a BIT STRING. */
+    private static final int BIT_STRING = 0x03;
+    /** DER tag of an OCTET STRING. */
+    private static final int OCTET_STRING = 0x04;
+    /** DER tag of a NULL. */
+    private static final int NULL = 0x05;
+    /** DER tag of an OBJECT IDENTIFIER. */
+    private static final int OID = 0x06;
+    /** DER tag of a UTCTime. */
+    private static final int UTC_TIME = 0x17;
+    /** DER tag of a GeneralizedTime. */
+    private static final int GENERALIZED_TIME = 0x18;
+    /** DER tag of a SEQUENCE. */
+    private static final int SEQUENCE = 0x30;
+    /** DER tag of the explicit crlExtensions field of a TBSCertList. */
+    private static final int CRL_EXTENSIONS = 0xA0;
+    /** DER tag of a directoryName GeneralName. */
+    private static final int DIRECTORY_NAME = 0xA4;
+    /** Content of the OID of the certificate issuer CRL entry extension, 2.5.29.29. */
+    private static final byte[] CERTIFICATE_ISSUER = {0x55, 0x1D, 0x1D};
+    /** Content of the OID of RSASSA-PSS, 1.2.840.113549.1.1.10, whose parameters configure the verifier. */
+    private static final byte[] RSASSA_PSS = {
+        0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x01, 0x0A,
+    };
+    /** Largest length accepted in a length prefix, which also rules out indefinite lengths. */
+    private static final int MAX_LENGTH_BYTES = 4;
+    /** Size of the read buffer. */
+    private static final int BUFFER_SIZE = 16384;
+    /** Returned for a CRL that does not announce its next update. */
+    static final long NO_NEXT_UPDATE = Long.MAX_VALUE;
+
+    private static final String PEM_BEGIN = "-----BEGIN X509 CRL-----";
+    private static final String PEM_END = "-----END X509 CRL-----";
+
+    private final DerInput in;
+    private final X509Certificate[] trustedIssuers;
+    private final Handler handler;
+
+    private CrlReader(DerInput in, X509Certificate[] trustedIssuers, Handler handler) {
+        this.in = in;
+        this.trustedIssuers = trustedIssuers;
+        this.handler = handler;
+    }
+
+    /**
+     * Receives the content of CRLs as they are read.
+     */
+    interface Handler {
+
+        /**
+         * Starts a CRL. Called before its entries.
+         *
+         * @param issuer the issuer of the CRL
+         * @param nextUpdateMillis the next update in epoch milliseconds, or {@link #NO_NEXT_UPDATE}
+         * @param verified true if the issuer is trusted, in which case the read fails unless the
+         *        signature is valid
+         */
+        void crl(X500Principal issuer, long nextUpdateMillis, boolean verified);
+
+        /**
+         * Reports a revoked certificate. The buffer is reused after the call returns.
+         *
+         * @param issuer the issuer of the revoked certificate
+         * @param serial buffer holding the two's complement big-endian serial number
+         * @param offset offset of the serial in the buffer
+         * @param length length of the serial
+         * @param revocationMillis the revocation date in epoch milliseconds
+         */
+        void revoked(X500Principal issuer, byte[] serial, int offset, int length, long revocationMillis);
+    }
+
+    /**
+     * Reads all CRLs of a stream, which holds either one DER-encoded CRL or any number of PEM blocks.
+     * A CRL signed by a trusted issuer must carry a valid signature; a CRL from an issuer that is not
+     * trusted is read without verification.
+     *
+     * @param stream the CRL data, read to its end but not closed
+     * @param trustedIssuers the trusted CA certificates used to verify CRL signatures
+     * @param handler receives the CRLs and their entries
+     * @return the number of CRLs read
+     * @throws IOException if the stream cannot be read
+     * @throws GeneralSecurityException if a CRL is malformed or its signature is invalid
+     */
+    static int read(InputStream stream, X509Certificate[] trustedIssuers, Handler handler)
+            throws IOException, GeneralSecurityException {
+        PushbackInputStream pushback = new PushbackInputStream(stream, 1);
+        int first = pushback.read();
+        if (first < 0) {
+            return 0;
+        }
+        pushback.unread(first);
+        if (first == SEQUENCE) {
+            new CrlReader(new DerInput(pushback), trustedIssuers, handler).readCrl();
+            return 1;
+        }
+        BufferedReader lines = new BufferedReader(new InputStreamReader(pushback, StandardCharsets.US_ASCII));
+        int count = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().equals(PEM_BEGIN)) {
+                new CrlReader(new DerInput(new PemInputStream(lines)), trustedIssuers, handler).readCrl();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void readCrl() throws IOException, GeneralSecurityException {
+        in.expect(SEQUENCE);
+        in.readLength();
+
+        // The signed TBSCertList starts here; its bytes are kept until the verifiers are known
+        ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+        in.record(prefix::write);
+        in.expect(SEQUENCE);
+        long tbsEnd = in.readLength() + in.position();
+        if (in.peek() == INTEGER) {
+            in.skipValue();
+        }
+        byte[] algorithm = in.readElement();
+        X500Principal issuer = new X500Principal(in.readElement());
+        in.readTime();
+        long nextUpdate = NO_NEXT_UPDATE;
+        if (in.position() < tbsEnd && (in.peek() == UTC_TIME || in.peek() == GENERALIZED_TIME)) {
+            nextUpdate = in.readTime();
+        }
+
+        List<Signature> verifiers = verifiers(issuer, algorithm);
+        in.record(null);
+        byte[] signed = prefix.toByteArray();
+        for (Signature verifier : verifiers) {
+            verifier.update(signed);
+        }
+        in.record(verifiers.isEmpty() ? null : (bytes, offset, length) -> {
+            try {
+                for (Signature verifier : verifiers) {
+                    verifier.update(bytes, offset, length);
+                }
+            } catch (SignatureException e) {
+                // Only thrown for a verifier that is not initialized
+                throw new IllegalStateException(e);
+            }
+        });
+
+        handler.crl(issuer, nextUpdate, !verifiers.isEmpty());
+        if (in.position() < tbsEnd && in.peek() == SEQUENCE) {
+            readEntries(issuer);
+        }
+        if (in.position() < tbsEnd && in.peek() == CRL_EXTENSIONS) {
+            in.skipValue();
+        }
+        if (in.position() != tbsEnd) {
+            throw new CRLException("Malformed TBSCertList of CRL issued by " + issuer);
+        }
+        in.record(null);
+
+        in.skipValue();
+        in.expect(BIT_STRING);
+        int length = (int) in.readLength();
+        byte[] signature = in.readBytes(length);
+        if (!verifiers.isEmpty() && !verifiesAny(verifiers, signature)) {
+            throw new SignatureException("Invalid signature on CRL issued by " + issuer);
+        }
+    }
+
+    private void readEntries(X500Principal crlIssuer) throws IOException, GeneralSecurityException {
+        in.expect(SEQUENCE);
+        long end = in.readLength() + in.position();
+        X500Principal issuer = crlIssuer;
+        byte[] serial = new byte[0];
+        while (in.position() < end) {
+            in.expect(SEQUENCE);
+            long entryEnd = in.readLength() + in.position();
+            in.expect(INTEGER);
+            int serialLength = (int) in.readLength();
+            if (serialLength < 1) {
+                throw new CRLException("Empty serial number in CRL issued by " + crlIssuer);
+            }
+            if (serial.length < serialLength) {
+                serial = new byte[serialLength];
+            }
+            in.readFully(serial, 0, serialLength);
+            long revocationMillis = in.readTime();
+            if (in.position() < entryEnd) {
+                // Per RFC 5280 the certificate issuer applies to this entry and all that follow
+                issuer = entryIssuer(entryEnd, issuer);
+            }
+            if (in.position() != entryEnd) {
+                throw new CRLException("Malformed entry in CRL issued by " + crlIssuer);
+            }
+            handler.revoked(issuer, serial, 0, serialLength, revocationMillis);
+        }
+    }
+
+    /**
+     * Reads the extensions of an entry, returning the issuer named by its certificate issuer
+     * extension, or the current issuer if it has none.
+     */
+    private X500Principal entryIssuer(long entryEnd, X500Principal current) throws IOException, CRLException {
+        X500Principal issuer = current;
+        in.expect(SEQUENCE);
+        in.readLength();
+        while (in.position() < entryEnd) {
+            in.expect(SEQUENCE);
+            long extensionEnd = in.readLength() + in.position();
+            in.expect(OID);
+            byte[] oid = in.readBytes((int) in.readLength());
+            if (!Arrays.equals(oid, CERTIFICATE_ISSUER)) {
+                in.skip(extensionEnd - in.position());
+                continue;
+            }
+            if (in.peek() != OCTET_STRING) {
+                in.skipValue();
+            }
+            in.expect(OCTET_STRING);
+            in.readLength();
+            in.expect(SEQUENCE);
+            long namesEnd = in.readLength() + in.position();
+            while (in.position() < namesEnd) {
+                if (in.peek() == DIRECTORY_NAME) {
+                    in.expect(DIRECTORY_NAME);
+                    in.readLength();
+                    issuer = new X500Principal(in.readElement());
+                } else {
+                    in.skipValue();
+                }
+            }
+        }
+        return issuer;
+    }
+
+    /**
+     * Creates a verifier for each trusted certificate of the issuer; a rotated CA may be trusted
+     * under the same name with several keys.
+     */
+    private List<Signature> verifiers(X500Principal issuer, byte[] algorithmIdentifier)
+            throws IOException, GeneralSecurityException {
+        List<Signature> verifiers = new ArrayList<>();
+        for (X509Certificate trusted : trustedIssuers) {
+            if (trusted.getSubjectX500Principal().equals(issuer)) {
+                Signature verifier = signature(algorithmIdentifier);
+                verifier.initVerify(trusted.getPublicKey());
+                verifiers.add(verifier);
+            }
+        }
+        return verifiers;
+    }
+
+    private static Signature signature(byte[] algorithmIdentifier) throws IOException, GeneralSecurityException {
+        DerInput identifier = new DerInput(new ByteArrayInputStream(algorithmIdentifier));
+        identifier.expect(SEQUENCE);
+        long end = identifier.readLength() + identifier.position();
+        identifier.expect(OID);
+        byte[] oid = identifier.readBytes((int) identifier.readLength());
+        // JCA providers register their signature algorithms under their OIDs as aliases
+        Signature signature = Signature.getInstance(oidString(oid));
+        if (Arrays.equals(oid, RSASSA_PSS) && identifier.position() < end && identifier.peek() != NULL) {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("RSASSA-PSS");
+            parameters.init(identifier.readElement());
+            signature.setParameter(parameters.getParameterSpec(PSSParameterSpec.class));
+        }
+        return signature;
+    }
+
+    private static boolean verifiesAny(List<Signature> verifiers, byte[] bitString) throws SignatureException {
+        // The first content byte of a BIT STRING counts the unused bits, always 0 for signatures
+        byte[] signature = Arrays.copyOfRange(bitString, 1, bitString.length);
+        for (Signature verifier : verifiers) {
+            if (verifier.verify(signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String oidString(byte[] oid) {
+        StringBuilder text = new StringBuilder();
+        long value = 0;
+        for (int i = 0; i < oid.length; i++) {
+            value = (value << 7) | (oid[i] & 0x7F);
+            if ((oid[i] & 0x80) == 0) {
+                if (text.length() == 0) {
+                    int first = (int) Math.min(value / 40, 2);
+                    text.append(first).append('.').append(value - 40L * first);
+                } else {
+                    text.append('.').append(value);
+                }
+                value = 0;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Receives the bytes of a recorded range.
+     */
+    @FunctionalInterface
+    private interface ByteSink {
+        void write(byte[] bytes, int offset, int length);
+    }
+
+    /**
+     * Buffered DER input tracking its position, with an optional sink receiving every byte consumed.
+     */
+    private static final class DerInput {
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int pos;
+        private int limit;
+        private long offset;
+        private ByteSink sink;
+        private int recordedUpTo;
+
+        DerInput(InputStream in) {
+            this.in = in;
+        }
+
+        long position() {
+            return offset + pos;
+        }
+
+        /**
+         * Sends every byte consumed from now on to a sink, or stops recording.
+         */
+        void record(ByteSink newSink) {
+            flush();
+            sink = newSink;
+            recordedUpTo = pos;
+        }
+
+        int peek() throws IOException {
+            if (pos == limit) {
+                fill();
+            }
+            return buffer[pos] & 0xFF;
+        }
+
+        int read() throws IOException {
+            int value = peek();
+            pos++;
+            return value;
+        }
+
+        void expect(int tag) throws IOException, CRLException {
+            int actual = read();
+            if (actual != tag) {
+                throw new CRLException(String.format("Expected DER tag 0x%02x but found 0x%02x at offset %d",
+                        tag, actual, position() - 1));
+            }
+        }
+
+        long readLength() throws IOException, CRLException {
+            int first = read();
+            if (first < 0x80) {
+                return first;
+            }
+            int count = first & 0x7F;
+            if (count == 0 || count > MAX_LENGTH_BYTES) {
+                throw new CRLException("Unsupported DER length encoding at offset " + (position() - 1));
+            }
+            long length = 0;
+            for (int i = 0; i < count; i++) {
+                length = (length << Byte.SIZE) | read();
+            }
+            return length;
+        }
+
+        void readFully(byte[] target, int targetOffset, int length) throws IOException {
+            int copied = 0;
+            while (copied < length) {
+                if (pos == limit) {
+                    fill();
+                }
+                int chunk = Math.min(length - copied, limit - pos);
+                System.arraycopy(buffer, pos, target, targetOffset + copied, chunk);
+                pos += chunk;
+                copied += chunk;
+            }
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            readFully(bytes, 0, length);
+            return bytes;
+        }
+
+        /**
+         * Reads a whole element, tag and length included.
+         */
+        byte[] readElement() throws IOException, CRLException {
+            int tag = read();
+            long length = readLength();
+            ByteArrayOutputStream element = new ByteArrayOutputStream();
+            element.write(tag);
+            if (length < 0x80) {
+                element.write((int) length);
+            } else {
+                int count = (Long.SIZE - Long.numberOfLeadingZeros(length) + Byte.SIZE - 1) / Byte.SIZE;
+                element.write(0x80 | count);
+                for (int i = count - 1; i >= 0; i--) {
+                    element.write((int) (length >>> (Byte.SIZE * i)));
+                }
+            }
+            element.write(readBytes((int) length), 0, (int) length);
+            return element.toByteArray();
+        }
+
+        void skipValue() throws IOException, CRLException {
+            read();
+            skip(readLength());
+        }
+
+        void skip(long length) throws IOException {
+            long remaining = length;
+            while (remaining > 0) {
+                if (pos == limit) {
+                    fill();
+                }
+                int chunk = (int) Math.min(remaining, limit - pos);
+                pos += chunk;
+                remaining -= chunk;
+            }
+        }
+
+        /**
+         * Reads a UTCTime or GeneralizedTime in the DER form {@code YYMMDDHHMMSSZ} or
+         * {@code YYYYMMDDHHMMSSZ}, without creating calendar objects.
+         *
+         * @return the time in epoch milliseconds
+         */
+        long readTime() throws IOException, CRLException {
+            int tag = read();
+            int length = (int) readLength();
+            int digits = tag == UTC_TIME ? 12 : 14;
+            if ((tag != UTC_TIME && tag != GENERALIZED_TIME) || length < digits) {
+                throw new CRLException("Expected a DER time at offset " + (position() - 2));
+            }
+            int year = tag == UTC_TIME ? digits(2) : digits(4);
+            if (tag == UTC_TIME) {
+                // RFC 5280: UTCTime years 50 to 99 are 1950 to 1999
+                year += year < 50 ? 2000 : 1900;
+            }
+            int month = digits(2);
+            int day = digits(2);
+            int hour = digits(2);
+            int minute = digits(2);
+            int second = digits(2);
+            skip(length - digits);
+            long days = daysFromCivil(year, month, day);
+            return ((days * 24 + hour) * 60 + minute) * 60_000L + second * 1000L;
+        }
+
+        private int digits(int count) throws IOException, CRLException {
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                int digit = read() - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new CRLException("Invalid digit in DER time at offset " + (position() - 1));
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        /**
+         * Counts the days from 1970-01-01 to a date of the proleptic Gregorian calendar.
+         */
+        private static long daysFromCivil(int year, int month, int day) {
+            int y = month <= 2 ? year - 1 : year;
+            int era = Math.floorDiv(y, 400);
+            int yearOfEra = y - era * 400;
+            int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+            int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+            return era * 146097L + dayOfEra - 719468;
+        }
+
+        private void fill() throws IOException {
+            flush();
+            offset += limit;
+            pos = 0;
+            limit = 0;
+            recordedUpTo = 0;
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                throw new EOFException("Truncated CRL at offset " + offset);
+            }
+            limit = read;
+        }
+
+        private void flush() {
+            if (sink != null && pos > recordedUpTo) {
+                sink.write(buffer, recordedUpTo, pos - recordedUpTo);
+            }
+            recordedUpTo = pos;
+        }
+    }
+
+    /**
+     * Decodes the base64 lines of one PEM block, stopping at its end marker.
+     */
+    private static final class PemInputStream extends InputStream {
+
+        private final BufferedReader lines;
+        private byte[] decoded = new byte[0];
+        private int pos;
+        private String carry = "";
+        private boolean ended;
+
+        PemInputStream(BufferedReader lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            while (pos == decoded.length) {
+                if (ended || !decodeLine()) {
+                    return -1;
+                }
+            }
+            int chunk = Math.min(length, decoded.length - pos);
+            System.arraycopy(decoded, pos, target, offset, chunk);
+            pos += chunk;
+            return chunk;
+        }
+
+        private boolean decodeLine() throws IOException {
+            String line = lines.readLine();
+            if (line == null || line.trim().equals(PEM_END)) {
+                ended = true;
+                decoded = carry.isEmpty() ? new byte[0] : Base64.getDecoder().decode(carry);
+                pos = 0;
+                carry = "";
+                return decoded.length > 0;
+            }
+            // Lines are usually whole base64 quanta; any remainder is decoded with the next line
+            String text = carry + line.trim();
+            int whole = text.length() - text.length() % 4;
+            carry = text.substring(whole);
+            decoded = Base64.getDecoder().decode(text.substring(0, whole));
+            pos = 0;
+            return true;
+        }
+    }
+}
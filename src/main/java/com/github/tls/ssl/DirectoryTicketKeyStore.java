@@ -0,0 +1,166 @@
+package com.github.tls.ssl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link SessionTicketKeyStore} sharing keys through a directory, for example on a shared volume
+ * or, for tests, on the local disk.
+ * <p>
+ * Time is divided into rotation periods and each period has its own key, stored in a file named
+ * after the period number. The period number is derived from the clock, so all nodes agree on it
+ * without coordination. The first node to need a period's key creates its file exclusively; a
+ * node losing that race reads the winner's key instead. Keys are kept for the retention time
+ * after their period ends, so tickets issued near the end of a period can still be resumed, and
+ * older files are deleted.
+ */
+public final class DirectoryTicketKeyStore implements SessionTicketKeyStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryTicketKeyStore.class);
+
+    /** Default time each key encrypts new tickets: one hour. */
+    public static final long DEFAULT_ROTATION_MILLIS = 3_600_000L;
+    /** Default time keys decrypt tickets after their rotation period, matching the default session timeout. */
+    public static final long DEFAULT_RETENTION_MILLIS = SSLContextConfig.DEFAULT_SESSION_TIMEOUT_SECONDS * 1000L;
+    /** Shortest allowed rotation period, which keeps period numbers small. */
+    public static final long MIN_ROTATION_MILLIS = 60_000L;
+
+    private static final String SUFFIX = ".key";
+    private static final Set<PosixFilePermission> OWNER_READ_WRITE = PosixFilePermissions.fromString("rw-------");
+
+    private final Path directory;
+    private final long rotationMillis;
+    private final long retentionMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Creates a store with the default rotation and retention.
+     *
+     * @param directory the directory shared by all nodes, created if missing
+     */
+    public DirectoryTicketKeyStore(Path directory) {
+        this(directory, DEFAULT_ROTATION_MILLIS, DEFAULT_RETENTION_MILLIS);
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param directory the directory shared by all nodes, created if missing
+     * @param rotationMillis how long each key encrypts new tickets, at least {@value #MIN_ROTATION_MILLIS}
+     * @param retentionMillis how long keys keep decrypting tickets after their rotation period;
+     *     should be at least the session timeout
+     */
+    public DirectoryTicketKeyStore(Path directory, long rotationMillis, long retentionMillis) {
+        if (rotationMillis < MIN_ROTATION_MILLIS) {
+            throw new IllegalArgumentException("Rotation must be at least " + MIN_ROTATION_MILLIS + " ms: "
+                    + rotationMillis);
+        }
+        if (retentionMillis < 0) {
+            throw new IllegalArgumentException("Retention must not be negative: " + retentionMillis);
+        }
+        this.directory = directory;
+        this.rotationMillis = rotationMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @Override
+    public List<SessionTicketKey> getKeys(long nowMillis) throws IOException {
+        Files.createDirectories(directory);
+        long current = nowMillis / rotationMillis;
+        long oldest = current - (retentionMillis + rotationMillis - 1) / rotationMillis;
+        create(current);
+
+        List<SessionTicketKey> keys = new ArrayList<>();
+        for (long period = current; period >= oldest; period--) {
+            byte[] secret = read(period);
+            if (secret != null) {
+                keys.add(new SessionTicketKey((int) period, secret, (period + 1) * rotationMillis));
+            }
+        }
+        prune(oldest);
+        return keys;
+    }
+
+    /**
+     * Creates the key of a period unless another node already has.
+     */
+    private void create(long period) throws IOException {
+        Path file = file(period);
+        if (Files.exists(file)) {
+            return;
+        }
+        byte[] secret = new byte[SessionTicketKey.SECRET_LENGTH];
+        random.nextBytes(secret);
+        // Exclusive creation makes the first node win; readers skip the file until it is complete
+        try (SeekableByteChannel channel = Files.newByteChannel(file,
+                EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), ownerOnly())) {
+            channel.write(ByteBuffer.wrap(secret));
+            LOGGER.info("Created session ticket key {} in {}", period, directory);
+        } catch (FileAlreadyExistsException e) {
+            LOGGER.debug("Session ticket key {} was created by another node", period);
+        }
+    }
+
+    /**
+     * Reads the key of a period.
+     *
+     * @return the secret, or null if the key is missing or still being written
+     */
+    private byte[] read(long period) throws IOException {
+        try {
+            byte[] secret = Files.readAllBytes(file(period));
+            return secret.length == SessionTicketKey.SECRET_LENGTH ? secret : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the keys of periods before the oldest retained one.
+     */
+    private void prune(long oldest) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    if (Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) < oldest) {
+                        Files.deleteIfExists(file);
+                        LOGGER.debug("Deleted expired session ticket key {}", name);
+                    }
+                } catch (NumberFormatException e) {
+                    LOGGER.debug("Ignoring unexpected file {}", name);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete expired session ticket keys: {}", e.getMessage());
+        }
+    }
+
+    private Path file(long period) {
+        return directory.resolve(period + SUFFIX);
+    }
+
+    private FileAttribute<?>[] ownerOnly() {
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(OWNER_READ_WRITE)};
+        }
+        return new FileAttribute<?>[0];
+    }
+}
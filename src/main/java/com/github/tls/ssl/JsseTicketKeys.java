@@ -0,0 +1,186 @@
+package com.github.tls.ssl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import javax.net.ssl.SSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Installs shared session ticket keys into the SunJSSE provider. Experimental: it depends on JDK
+ * internals that may change in any release.
+ * <p>
+ * JSSE has no API for ticket keys: each context keeps its own keys in a map, numbered from a
+ * JVM-wide counter, and encrypts new tickets with the key filed under the counter's current value.
+ * The counter is never written here, since it is shared by every server context of the JVM. Instead,
+ * the newest shared key is filed a second time under the current value in this context's map only;
+ * tickets carry the number stored in the key itself, so other nodes find it under its shared id.
+ * If another context moves the counter on, this context issues node-local tickets until the next
+ * install files the shared key again.
+ * <p>
+ * JSSE only creates keys during handshakes, so keys are allocated without a constructor and their
+ * final fields are set reflectively. The internals are resolved once, the same way
+ * {@code VirtualThreads} reaches newer APIs, and used only when the running JVM exposes them.
+ * On Java 16 and later this requires
+ * {@code --add-opens java.base/javax.net.ssl=ALL-UNNAMED --add-opens java.base/sun.security.ssl=ALL-UNNAMED}.
+ * Without it, or on a provider other than SunJSSE, tickets stay node-local.
+ */
+final class JsseTicketKeys {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsseTicketKeys.class);
+
+    private static final Field CONTEXT_SPI = field("javax.net.ssl.SSLContext", "contextSpi");
+    private static final Field KEY_MAP = field("sun.security.ssl.SSLContextImpl", "keyHashMap");
+    private static final Field CURRENT_KEY_ID = field("sun.security.ssl.SessionTicketExtension", "currentKeyID");
+    private static final Class<?> STATELESS_KEY = type("sun.security.ssl.SessionTicketExtension$StatelessKey");
+    private static final Field KEY_SECRET = field(STATELESS_KEY, "key");
+    private static final Field KEY_TIMEOUT = field(STATELESS_KEY, "timeout");
+    private static final Field KEY_NUM = field(STATELESS_KEY, "num");
+    private static final Object UNSAFE = unsafe();
+    private static final Method ALLOCATE_INSTANCE = allocateInstance();
+
+    private JsseTicketKeys() {
+    }
+
+    /**
+     * Checks whether the running JVM lets keys be installed.
+     *
+     * @return true if the SunJSSE internals are accessible
+     */
+    static boolean isSupported() {
+        return CONTEXT_SPI != null && KEY_MAP != null && CURRENT_KEY_ID != null && KEY_SECRET != null
+                && KEY_TIMEOUT != null && KEY_NUM != null && ALLOCATE_INSTANCE != null;
+    }
+
+    /**
+     * Makes a context encrypt new tickets with the first key and decrypt tickets with any of them.
+     *
+     * @param context the server context
+     * @param keys the shared keys, newest first
+     * @param retired ids installed earlier that are no longer shared, to be removed
+     * @param graceMillis how long the current key may still encrypt after its period ends, so that
+     *     JSSE does not switch to a key of its own before the next key is installed
+     * @throws ReflectiveOperationException if the internals cannot be accessed
+     */
+    @SuppressWarnings("unchecked")
+    static void install(SSLContext context, List<SessionTicketKey> keys, Collection<Integer> retired,
+            long graceMillis) throws ReflectiveOperationException {
+        SSLContext target = context instanceof ConfiguredSSLContext
+                ? ((ConfiguredSSLContext) context).getDelegate() : context;
+        Map<Integer, Object> keyMap = (Map<Integer, Object>) KEY_MAP.get(CONTEXT_SPI.get(target));
+        // JSSE itself guards key rotation with the map's monitor
+        synchronized (keyMap) {
+            for (Integer id : retired) {
+                keyMap.remove(id);
+            }
+            removeAliases(keyMap);
+            for (int i = 0; i < keys.size(); i++) {
+                SessionTicketKey key = keys.get(i);
+                long timeout = i == 0 ? key.getNotAfterMillis() + graceMillis : key.getNotAfterMillis();
+                Object installed = keyMap.get(key.getId());
+                if (installed == null || !matches(installed, key, timeout)) {
+                    keyMap.put(key.getId(), statelessKey(key, timeout));
+                }
+            }
+            if (!keys.isEmpty()) {
+                int current = CURRENT_KEY_ID.getInt(null);
+                // A shared id that happens to be current already encrypts with a shared key
+                if (!containsId(keys, current)) {
+                    keyMap.put(current, keyMap.get(keys.get(0).getId()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entries filed under a number other than their key's own, left by an earlier install.
+     */
+    private static void removeAliases(Map<Integer, Object> keyMap) throws IllegalAccessException {
+        Iterator<Map.Entry<Integer, Object>> entries = keyMap.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, Object> entry = entries.next();
+            if (KEY_NUM.getInt(entry.getValue()) != entry.getKey()) {
+                entries.remove();
+            }
+        }
+    }
+
+    private static boolean containsId(List<SessionTicketKey> keys, int id) {
+        for (SessionTicketKey key : keys) {
+            if (key.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(Object installed, SessionTicketKey key, long timeout)
+            throws IllegalAccessException {
+        return KEY_TIMEOUT.getLong(installed) == timeout
+                && Arrays.equals(((SecretKey) KEY_SECRET.get(installed)).getEncoded(), key.getSecret());
+    }
+
+    private static Object statelessKey(SessionTicketKey key, long timeout) throws ReflectiveOperationException {
+        Object statelessKey = ALLOCATE_INSTANCE.invoke(UNSAFE, STATELESS_KEY);
+        KEY_SECRET.set(statelessKey, new SecretKeySpec(key.getSecret(), "AES"));
+        KEY_TIMEOUT.setLong(statelessKey, timeout);
+        KEY_NUM.setInt(statelessKey, key.getId());
+        return statelessKey;
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.debug("Shared session tickets unavailable, {} not found", name);
+            return null;
+        }
+    }
+
+    private static Field field(String className, String name) {
+        return field(type(className), name);
+    }
+
+    private static Field field(Class<?> type, String name) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            // RuntimeException covers InaccessibleObjectException on Java 9 and later
+            LOGGER.debug("Shared session tickets unavailable, {}.{} not accessible: {}", type.getName(), name,
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private static Object unsafe() {
+        Field field = field("sun.misc.Unsafe", "theUnsafe");
+        try {
+            return field == null ? null : field.get(null);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static Method allocateInstance() {
+        if (UNSAFE == null) {
+            return null;
+        }
+        try {
+            return UNSAFE.getClass().getMethod("allocateInstance", Class.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
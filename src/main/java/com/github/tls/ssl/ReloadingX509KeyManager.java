@@ -0,0 +1,152 @@
+package com.github.tls.ssl;
+
+import java.net.Socket;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+
+/**
+ * Key manager whose key material can be replaced while the context is in use.
+ * <p>
+ * A handshake first chooses an alias and then asks for that alias's certificate chain and private
+ * key in separate calls, so a replacement in between could pair the old certificate with the new
+ * key. Aliases are therefore tagged with the generation of the material they were chosen from, and
+ * later lookups use that generation. The generation before the current one is kept for handshakes
+ * that are in progress during a replacement. Replacing is a single volatile write that never blocks
+ * handshakes.
+ */
+final class ReloadingX509KeyManager extends X509ExtendedKeyManager {
+
+    /** Separates the generation from the alias of the underlying key manager. */
+    private static final char SEPARATOR = ':';
+
+    private volatile Generation current;
+
+    /**
+     * Creates a key manager.
+     *
+     * @param initial the key manager holding the initial key material
+     */
+    ReloadingX509KeyManager(X509ExtendedKeyManager initial) {
+        this.current = new Generation(0, initial, null);
+    }
+
+    /**
+     * Replaces the key material used by handshakes that start from now on.
+     *
+     * @param replacement the key manager holding the new key material
+     */
+    synchronized void swap(X509ExtendedKeyManager replacement) {
+        Generation previous = current;
+        current = new Generation(previous.id + 1, replacement, new Generation(previous.id, previous.keyManager, null));
+    }
+
+    @Override
+    public String[] getClientAliases(String keyType, Principal[] issuers) {
+        Generation generation = current;
+        return generation.tag(generation.keyManager.getClientAliases(keyType, issuers));
+    }
+
+    @Override
+    public String chooseClientAlias(String[] keyTypes, Principal[] issuers, Socket socket) {
+        Generation generation = current;
+        return generation.tag(generation.keyManager.chooseClientAlias(keyTypes, issuers, socket));
+    }
+
+    @Override
+    public String chooseEngineClientAlias(String[] keyTypes, Principal[] issuers, SSLEngine engine) {
+        Generation generation = current;
+        return generation.tag(generation.keyManager.chooseEngineClientAlias(keyTypes, issuers, engine));
+    }
+
+    @Override
+    public String[] getServerAliases(String keyType, Principal[] issuers) {
+        Generation generation = current;
+        return generation.tag(generation.keyManager.getServerAliases(keyType, issuers));
+    }
+
+    @Override
+    public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+        Generation generation = current;
+        return generation.tag(generation.keyManager.chooseServerAlias(keyType, issuers, socket));
+    }
+
+    @Override
+    public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+        Generation generation = current;
+        return generation.tag(generation.keyManager.chooseEngineServerAlias(keyType, issuers, engine));
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(String alias) {
+        Generation generation = find(alias);
+        return generation == null ? null : generation.keyManager.getCertificateChain(untag(alias));
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String alias) {
+        Generation generation = find(alias);
+        return generation == null ? null : generation.keyManager.getPrivateKey(untag(alias));
+    }
+
+    /**
+     * Finds the generation a tagged alias was chosen from.
+     *
+     * @return the generation, or null if the alias is not tagged or its generation was retired
+     */
+    private Generation find(String alias) {
+        int separator = alias == null ? -1 : alias.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+        long id;
+        try {
+            id = Long.parseLong(alias.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        for (Generation generation = current; generation != null; generation = generation.previous) {
+            if (generation.id == id) {
+                return generation;
+            }
+        }
+        return null;
+    }
+
+    private static String untag(String alias) {
+        return alias.substring(alias.indexOf(SEPARATOR) + 1);
+    }
+
+    /**
+     * One version of the key material.
+     */
+    private static final class Generation {
+
+        private final long id;
+        private final X509ExtendedKeyManager keyManager;
+        private final Generation previous;
+
+        Generation(long id, X509ExtendedKeyManager keyManager, Generation previous) {
+            this.id = id;
+            this.keyManager = keyManager;
+            this.previous = previous;
+        }
+
+        String tag(String alias) {
+            return alias == null ? null : Long.toString(id) + SEPARATOR + alias;
+        }
+
+        String[] tag(String[] aliases) {
+            if (aliases == null) {
+                return null;
+            }
+            String[] tagged = new String[aliases.length];
+            for (int i = 0; i < aliases.length; i++) {
+                tagged[i] = tag(aliases[i]);
+            }
+            return tagged;
+        }
+    }
+}
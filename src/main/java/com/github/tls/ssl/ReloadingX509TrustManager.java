@@ -0,0 +1,74 @@
+package com.github.tls.ssl;
+
+import java.net.Socket;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+/**
+ * Trust manager whose trusted certificates can be replaced while the context is in use.
+ * Each check runs entirely against one version of the trust material, and replacing it is a
+ * single volatile write that never blocks handshakes.
+ */
+final class ReloadingX509TrustManager extends X509ExtendedTrustManager {
+
+    private volatile X509ExtendedTrustManager delegate;
+
+    /**
+     * Creates a trust manager.
+     *
+     * @param initial the trust manager holding the initial trusted certificates
+     */
+    ReloadingX509TrustManager(X509ExtendedTrustManager initial) {
+        this.delegate = initial;
+    }
+
+    /**
+     * Replaces the trusted certificates used by checks that start from now on.
+     *
+     * @param replacement the trust manager holding the new trusted certificates
+     */
+    void swap(X509ExtendedTrustManager replacement) {
+        this.delegate = replacement;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        delegate.checkServerTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+}
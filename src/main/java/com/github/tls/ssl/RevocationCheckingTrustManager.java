@@ -0,0 +1,179 @@
+package com.github.tls.ssl;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Trust manager rejecting chains that contain a certificate revoked by one of a set of local CRL
+ * files, before passing them on to another trust manager.
+ * <p>
+ * The CRLs are parsed into a {@link RevocationIndex} once, so that a check only looks up each
+ * certificate's issuer and serial. {@link #refresh()}, run in the background by
+ * {@link SSLContextFactory}, re-reads the files when they change and replaces the index with a
+ * single volatile write; handshakes never wait for it. If the files cannot be read, the previous
+ * index stays in use.
+ */
+final class RevocationCheckingTrustManager extends X509ExtendedTrustManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationCheckingTrustManager.class);
+
+    private final X509ExtendedTrustManager delegate;
+    private final List<String> locations;
+    private final LongAdder revokedChains = new LongAdder();
+    private volatile RevocationIndex index = RevocationIndex.EMPTY;
+    private String loadedVersion;
+
+    /**
+     * Creates a trust manager and loads the CRLs.
+     *
+     * @param delegate the trust manager validating chains that are not revoked
+     * @param locations CRL files in PEM or DER format, or directories whose files are all CRLs
+     * @throws IOException if a location cannot be read
+     * @throws GeneralSecurityException if a CRL cannot be parsed or its signature is invalid
+     */
+    RevocationCheckingTrustManager(X509ExtendedTrustManager delegate, List<String> locations)
+            throws IOException, GeneralSecurityException {
+        this.delegate = delegate;
+        this.locations = locations;
+        load(version());
+    }
+
+    /**
+     * Reloads the CRLs if any of the files changed since they were last loaded.
+     *
+     * @return true if the CRLs were reloaded
+     */
+    synchronized boolean refresh() {
+        try {
+            String version = version();
+            if (version.equals(loadedVersion)) {
+                warnIfStale();
+                return false;
+            }
+            load(version);
+            return true;
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            LOGGER.warn("Unable to reload CRLs, keeping {} revoked serials: {}", index.getSerialCount(), e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of chains rejected because they contain a revoked certificate.
+     *
+     * @return the rejected chain count
+     */
+    long getRevokedChains() {
+        return revokedChains.sum();
+    }
+
+    /**
+     * Gets the index currently checked against.
+     *
+     * @return the revocation index
+     */
+    RevocationIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        checkRevocation(chain);
+        delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        checkRevocation(chain);
+        delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        checkRevocation(chain);
+        delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        checkRevocation(chain);
+        delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+            throws CertificateException {
+        checkRevocation(chain);
+        delegate.checkServerTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+            throws CertificateException {
+        checkRevocation(chain);
+        delegate.checkServerTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return delegate.getAcceptedIssuers();
+    }
+
+    private void checkRevocation(X509Certificate[] chain) throws CertificateException {
+        if (chain == null) {
+            return;
+        }
+        RevocationIndex current = index;
+        for (X509Certificate certificate : chain) {
+            long revocationMillis = current.getRevocationMillis(certificate);
+            if (revocationMillis != RevokedSerials.NOT_REVOKED) {
+                revokedChains.increment();
+                throw new CertificateException("Certificate " + certificate.getSerialNumber().toString(16)
+                        + " issued by " + certificate.getIssuerX500Principal() + " has been revoked on "
+                        + Instant.ofEpochMilli(revocationMillis));
+            }
+        }
+    }
+
+    private void load(String version) throws IOException, GeneralSecurityException {
+        RevocationIndex loaded = RevocationIndex.load(locations, delegate.getAcceptedIssuers());
+        index = loaded;
+        loadedVersion = version;
+        LOGGER.info("Loaded {} CRLs with {} revoked serials", loaded.getCrlCount(), loaded.getSerialCount());
+        warnIfStale();
+    }
+
+    private void warnIfStale() {
+        Date nextUpdate = index.getNextUpdate();
+        if (nextUpdate != null && nextUpdate.before(new Date())) {
+            LOGGER.warn("CRLs are past their next update of {}, revocations since then are unknown", nextUpdate);
+        }
+    }
+
+    /**
+     * Describes the current state of the CRL files, so that unchanged files are not parsed again.
+     */
+    private String version() throws IOException {
+        StringBuilder version = new StringBuilder();
+        for (Path file : RevocationIndex.files(locations)) {
+            version.append(file).append('@').append(Files.getLastModifiedTime(file).toMillis())
+                    .append('/').append(Files.size(file)).append(';');
+        }
+        return version.toString();
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.tls.ssl;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.cert.CRLException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.security.auth.x500.X500Principal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable snapshot of the certificates revoked by a set of CRL files, indexed by issuer.
+ * <p>
+ * Serial numbers are only unique per issuer, so each issuer has its own {@link RevokedSerials}.
+ * Checking a certificate is a hash lookup of its issuer and a binary search of its serial. The CRLs
+ * are streamed by {@link CrlReader} straight into the serial arrays, so loading a CRL with millions
+ * of entries takes little more heap than the index itself.
+ */
+final class RevocationIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationIndex.class);
+
+    /** Index revoking nothing. */
+    static final RevocationIndex EMPTY = new RevocationIndex(Collections.emptyMap(), 0, 0, null);
+
+    private final Map<X500Principal, RevokedSerials> revoked;
+    private final int crlCount;
+    private final int serialCount;
+    private final Date nextUpdate;
+
+    private RevocationIndex(Map<X500Principal, RevokedSerials> revoked, int crlCount, int serialCount,
+            Date nextUpdate) {
+        this.revoked = revoked;
+        this.crlCount = crlCount;
+        this.serialCount = serialCount;
+        this.nextUpdate = nextUpdate;
+    }
+
+    /**
+     * Loads the CRLs at the given locations. A CRL signed by a trusted issuer must carry a valid
+     * signature; a CRL from an issuer that is not trusted only revokes certificates that would be
+     * rejected anyway, so it is loaded without verification.
+     *
+     * @param locations CRL files in PEM or DER format, or directories whose files are all CRLs
+     * @param trustedIssuers the trusted CA certificates used to verify CRL signatures
+     * @return the index
+     * @throws IOException if a location cannot be read
+     * @throws GeneralSecurityException if a CRL cannot be parsed or its signature is invalid
+     */
+    static RevocationIndex load(List<String> locations, X509Certificate[] trustedIssuers)
+            throws IOException, GeneralSecurityException {
+        Loader loader = new Loader();
+        for (Path file : files(locations)) {
+            loader.file = file;
+            int crls;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                crls = CrlReader.read(in, trustedIssuers, loader);
+            } catch (GeneralSecurityException e) {
+                throw new GeneralSecurityException("Invalid CRL " + file + ": " + e.getMessage(), e);
+            }
+            if (crls == 0) {
+                throw new CRLException("No CRL found in " + file);
+            }
+        }
+
+        Map<X500Principal, RevokedSerials> revoked = new HashMap<>();
+        int serialCount = 0;
+        for (Map.Entry<X500Principal, RevokedSerials.Builder> issuer : loader.builders.entrySet()) {
+            RevokedSerials issuerSerials = issuer.getValue().build();
+            revoked.put(issuer.getKey(), issuerSerials);
+            serialCount += issuerSerials.size();
+        }
+        Date nextUpdate = loader.nextUpdate == CrlReader.NO_NEXT_UPDATE ? null : new Date(loader.nextUpdate);
+        return new RevocationIndex(revoked, loader.crlCount, serialCount, nextUpdate);
+    }
+
+    /**
+     * Checks whether a certificate is revoked.
+     *
+     * @param certificate the certificate
+     * @return true if a loaded CRL of the certificate's issuer lists its serial number
+     */
+    boolean isRevoked(X509Certificate certificate) {
+        return getRevocationMillis(certificate) != RevokedSerials.NOT_REVOKED;
+    }
+
+    /**
+     * Looks up when a certificate was revoked.
+     *
+     * @param certificate the certificate
+     * @return the revocation date in epoch milliseconds, or {@link RevokedSerials#NOT_REVOKED}
+     */
+    long getRevocationMillis(X509Certificate certificate) {
+        RevokedSerials issuerSerials = revoked.get(certificate.getIssuerX500Principal());
+        return issuerSerials == null ? RevokedSerials.NOT_REVOKED : issuerSerials.find(certificate.getSerialNumber());
+    }
+
+    /**
+     * Gets the number of CRLs loaded.
+     *
+     * @return the CRL count
+     */
+    int getCrlCount() {
+        return crlCount;
+    }
+
+    /**
+     * Gets the number of revoked serials across all issuers.
+     *
+     * @return the serial count
+     */
+    int getSerialCount() {
+        return serialCount;
+    }
+
+    /**
+     * Gets the earliest time one of the loaded CRLs is due to be replaced.
+     *
+     * @return the earliest next update, or null if no CRL announces one
+     */
+    Date getNextUpdate() {
+        return nextUpdate;
+    }
+
+    /**
+     * Lists the CRL files at the given locations, in a stable order.
+     *
+     * @param locations CRL files, or directories whose files are all CRLs
+     * @return the files
+     * @throws IOException if a directory cannot be listed
+     */
+    static List<Path> files(List<String> locations) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String location : locations) {
+            Path path = Paths.get(location);
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(path, Files::isRegularFile)) {
+                    for (Path entry : entries) {
+                        files.add(entry);
+                    }
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Collects the entries of the CRLs into a builder per issuer.
+     */
+    private static final class Loader implements CrlReader.Handler {
+
+        private final Map<X500Principal, RevokedSerials.Builder> builders = new HashMap<>();
+        private Path file;
+        private int crlCount;
+        private long nextUpdate = CrlReader.NO_NEXT_UPDATE;
+        private X500Principal lastIssuer;
+        private RevokedSerials.Builder lastBuilder;
+
+        @Override
+        public void crl(X500Principal issuer, long nextUpdateMillis, boolean verified) {
+            if (!verified) {
+                LOGGER.debug("Issuer of CRL {} is not trusted, loading it unverified: {}", file, issuer);
+            }
+            crlCount++;
+            nextUpdate = Math.min(nextUpdate, nextUpdateMillis);
+            builder(issuer);
+        }
+
+        @Override
+        public void revoked(X500Principal issuer, byte[] serial, int offset, int length, long revocationMillis) {
+            builder(issuer).add(serial, offset, length, revocationMillis);
+        }
+
+        private RevokedSerials.Builder builder(X500Principal issuer) {
+            // Consecutive entries share their issuer, which saves hashing it for each of them
+            if (issuer != lastIssuer) {
+                lastIssuer = issuer;
+                lastBuilder = builders.computeIfAbsent(issuer, key -> new RevokedSerials.Builder());
+            }
+            return lastBuilder;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.github.tls.ssl;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of revoked certificate serial numbers of one issuer, with their revocation dates,
+ * stored in sorted primitive arrays so that a lookup is a binary search without allocation or boxing.
+ * <p>
+ * Serials that fit in 63 bits, which covers sequential CA serials, are kept in a sorted
+ * {@code long[]}. Longer serials, such as the random 16 to 20 byte serials of public CAs, are
+ * sorted by their low 64 bits into a second {@code long[]}, with their full encodings packed in
+ * the same order into one {@code byte[]} to confirm a match. Revocation dates are kept in parallel
+ * {@code long[]}s.
+ */
+final class RevokedSerials {
+
+    /** Returned by {@link #find(BigInteger)} for a serial that is not revoked. */
+    static final long NOT_REVOKED = Long.MIN_VALUE;
+
+    /** Bytes of a serial that fit the short array, provided the first is below 0x80. */
+    private static final int SHORT_BYTES = 8;
+    /** Initial capacity of the builder arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long[] shortSerials;
+    private final long[] shortDates;
+    private final long[] longKeys;
+    private final long[] longDates;
+    /** Encodings of the long serials, back to back in key order. */
+    private final byte[] longSerials;
+    /** Start of each long serial in {@link #longSerials}, followed by the end of the last one. */
+    private final int[] longOffsets;
+
+    private RevokedSerials(long[] shortSerials, long[] shortDates, long[] longKeys, long[] longDates,
+            byte[] longSerials, int[] longOffsets) {
+        this.shortSerials = shortSerials;
+        this.shortDates = shortDates;
+        this.longKeys = longKeys;
+        this.longDates = longDates;
+        this.longSerials = longSerials;
+        this.longOffsets = longOffsets;
+    }
+
+    /**
+     * Indexes serial numbers without revocation dates.
+     *
+     * @param serials the revoked serial numbers, in any order and possibly repeated
+     * @return the index
+     */
+    static RevokedSerials of(Collection<BigInteger> serials) {
+        Builder builder = new Builder();
+        for (BigInteger serial : serials) {
+            byte[] encoded = serial.toByteArray();
+            builder.add(encoded, 0, encoded.length, 0);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Checks whether a serial number is revoked.
+     *
+     * @param serial the certificate serial number
+     * @return true if the serial is in the set
+     */
+    boolean contains(BigInteger serial) {
+        return find(serial) != NOT_REVOKED;
+    }
+
+    /**
+     * Looks up the revocation date of a serial number.
+     *
+     * @param serial the certificate serial number
+     * @return the revocation date in epoch milliseconds, or {@link #NOT_REVOKED}
+     */
+    long find(BigInteger serial) {
+        if (serial.signum() >= 0 && serial.bitLength() < Long.SIZE) {
+            int found = Arrays.binarySearch(shortSerials, serial.longValue());
+            return found >= 0 ? shortDates[found] : NOT_REVOKED;
+        }
+        long key = serial.longValue();
+        int found = Arrays.binarySearch(longKeys, key);
+        if (found < 0) {
+            return NOT_REVOKED;
+        }
+        // Several long serials may share their low 64 bits; the equal keys are adjacent
+        int first = found;
+        while (first > 0 && longKeys[first - 1] == key) {
+            first--;
+        }
+        byte[] encoding = serial.toByteArray();
+        for (int i = first; i < longKeys.length && longKeys[i] == key; i++) {
+            if (matches(i, encoding)) {
+                return longDates[i];
+            }
+        }
+        return NOT_REVOKED;
+    }
+
+    private boolean matches(int index, byte[] encoding) {
+        int start = longOffsets[index];
+        if (longOffsets[index + 1] - start != encoding.length) {
+            return false;
+        }
+        for (int i = 0; i < encoding.length; i++) {
+            if (longSerials[start + i] != encoding[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of distinct serials in the set.
+     *
+     * @return the serial count
+     */
+    int size() {
+        return shortSerials.length + longKeys.length;
+    }
+
+    /**
+     * Collects serials into primitive arrays. Serials are added as the two's complement big-endian
+     * content of their DER INTEGER, so a streaming parser can add them without creating objects.
+     */
+    static final class Builder {
+
+        private long[] shortSerials = new long[INITIAL_CAPACITY];
+        private long[] shortDates = new long[INITIAL_CAPACITY];
+        private int shortCount;
+        private long[] longKeys = new long[0];
+        private long[] longDates = new long[0];
+        private int[] longStarts = new int[0];
+        private int[] longLengths = new int[0];
+        private byte[] longBytes = new byte[0];
+        private int longCount;
+        private int longByteCount;
+
+        /**
+         * Adds a revoked serial.
+         *
+         * @param serial buffer holding the two's complement big-endian serial
+         * @param offset offset of the serial in the buffer
+         * @param length length of the serial, at least 1
+         * @param revocationMillis the revocation date in epoch milliseconds
+         */
+        void add(byte[] serial, int offset, int length, long revocationMillis) {
+            int start = offset;
+            int end = offset + length;
+            // Redundant leading zeros, as written by some non-conforming CAs
+            while (end - start > 1 && serial[start] == 0 && serial[start + 1] >= 0) {
+                start++;
+            }
+            if (serial[start] >= 0 && end - start <= SHORT_BYTES) {
+                long value = 0;
+                for (int i = start; i < end; i++) {
+                    value = (value << Byte.SIZE) | (serial[i] & 0xFF);
+                }
+                if (shortCount == shortSerials.length) {
+                    shortSerials = Arrays.copyOf(shortSerials, shortCount * 2);
+                    shortDates = Arrays.copyOf(shortDates, shortCount * 2);
+                }
+                shortSerials[shortCount] = value;
+                shortDates[shortCount++] = revocationMillis;
+                return;
+            }
+            while (end - start > 1 && serial[start] == -1 && serial[start + 1] < 0) {
+                start++;
+            }
+            if (longCount == longKeys.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, longCount * 2);
+                longKeys = Arrays.copyOf(longKeys, capacity);
+                longDates = Arrays.copyOf(longDates, capacity);
+                longStarts = Arrays.copyOf(longStarts, capacity);
+                longLengths = Arrays.copyOf(longLengths, capacity);
+            }
+            if (longByteCount + end - start > longBytes.length) {
+                longBytes = Arrays.copyOf(longBytes,
+                        Math.max(longByteCount + end - start, Math.max(INITIAL_CAPACITY, longByteCount * 2)));
+            }
+            long key = 0;
+            for (int i = Math.max(start, end - SHORT_BYTES); i < end; i++) {
+                key = (key << Byte.SIZE) | (serial[i] & 0xFF);
+            }
+            if (serial[start] < 0 && end - start < SHORT_BYTES) {
+                // Sign-extend short negative serials the way BigInteger.longValue() does
+                key |= -1L << (Byte.SIZE * (end - start));
+            }
+            longKeys[longCount] = key;
+            longDates[longCount] = revocationMillis;
+            longStarts[longCount] = longByteCount;
+            longLengths[longCount++] = end - start;
+            System.arraycopy(serial, start, longBytes, longByteCount, end - start);
+            longByteCount += end - start;
+        }
+
+        /**
+         * Sorts the collected serials into an immutable set. Repeated serials keep one date.
+         *
+         * @return the set
+         */
+        RevokedSerials build() {
+            long[][] shorts = {shortSerials, shortDates};
+            sort(shorts, new int[0][], shortCount);
+            int unique = 0;
+            for (int i = 0; i < shortCount; i++) {
+                if (unique == 0 || shortSerials[unique - 1] != shortSerials[i]) {
+                    shortSerials[unique] = shortSerials[i];
+                    shortDates[unique++] = shortDates[i];
+                }
+            }
+            sort(new long[][] {longKeys, longDates}, new int[][] {longStarts, longLengths}, longCount);
+            // Pack the encodings in key order, so that the offsets of consecutive serials bound each one
+            byte[] packed = new byte[longByteCount];
+            int[] offsets = new int[longCount + 1];
+            for (int i = 0; i < longCount; i++) {
+                System.arraycopy(longBytes, longStarts[i], packed, offsets[i], longLengths[i]);
+                offsets[i + 1] = offsets[i] + longLengths[i];
+            }
+            return new RevokedSerials(Arrays.copyOf(shortSerials, unique), Arrays.copyOf(shortDates, unique),
+                    Arrays.copyOf(longKeys, longCount), Arrays.copyOf(longDates, longCount), packed, offsets);
+        }
+
+        /**
+         * Sorts parallel arrays by the first one in place. Serials usually arrive sorted, which is
+         * detected in one pass; otherwise a heap sort keeps the memory use flat.
+         */
+        private static void sort(long[][] columns, int[][] positions, int count) {
+            long[] keys = columns[0];
+            boolean sorted = true;
+            for (int i = 1; i < count && sorted; i++) {
+                sorted = keys[i - 1] <= keys[i];
+            }
+            if (sorted) {
+                return;
+            }
+            for (int i = count / 2 - 1; i >= 0; i--) {
+                siftDown(columns, positions, i, count);
+            }
+            for (int end = count - 1; end > 0; end--) {
+                swap(columns, positions, 0, end);
+                siftDown(columns, positions, 0, end);
+            }
+        }
+
+        private static void siftDown(long[][] columns, int[][] positions, int root, int count) {
+            long[] keys = columns[0];
+            int parent = root;
+            while (2 * parent + 1 < count) {
+                int child = 2 * parent + 1;
+                if (child + 1 < count && keys[child] < keys[child + 1]) {
+                    child++;
+                }
+                if (keys[parent] >= keys[child]) {
+                    return;
+                }
+                swap(columns, positions, parent, child);
+                parent = child;
+            }
+        }
+
+        private static void swap(long[][] columns, int[][] positions, int i, int j) {
+            for (long[] column : columns) {
+                long value = column[i];
+                column[i] = column[j];
+                column[j] = value;
+            }
+            for (int[] column : positions) {
+                int value = column[i];
+                column[i] = column[j];
+                column[j] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package com.github.tls.ssl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Declarative description of an {@link javax.net.ssl.SSLContext}: where its key and trust
+ * material comes from, and which protocol versions and cipher suites it enables. Instances are
+ * immutable and created through {@link #builder()}.
+ * <p>
+ * Store locations starting with {@value #CLASSPATH_PREFIX} are classpath resources; any other
+ * location is a file system path. A missing classpath resource yields an empty store.
+ */
+public final class SSLContextConfig {
+
+    /** Prefix of store locations resolved on the classpath. */
+    public static final String CLASSPATH_PREFIX = "classpath:";
+    /** Default keystore and truststore type. */
+    public static final String DEFAULT_STORE_TYPE = "JKS";
+    /** Default SSLContext protocol; the enabled versions are chosen by {@link #getEnabledProtocols()}. */
+    public static final String DEFAULT_PROTOCOL = "TLS";
+    /** Default enabled protocol versions, most preferred first. */
+    public static final List<String> DEFAULT_ENABLED_PROTOCOLS =
+            Collections.unmodifiableList(Arrays.asList("TLSv1.3", "TLSv1.2"));
+    /**
+     * Default enabled cipher suites in server preference order: the TLS 1.3 suites, then the
+     * TLS 1.2 ECDHE suites with AEAD ciphers. All provide forward secrecy and authenticated encryption.
+     */
+    public static final List<String> DEFAULT_CIPHER_SUITES = Collections.unmodifiableList(Arrays.asList(
+            "TLS_AES_256_GCM_SHA384",
+            "TLS_AES_128_GCM_SHA256",
+            "TLS_CHACHA20_POLY1305_SHA256",
+            "TLS_ECDHE_ECDSA_WITH_AES_256_GCM_SHA384",
+            "TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384",
+            "TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256",
+            "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+            "TLS_ECDHE_ECDSA_WITH_CHACHA20_POLY1305_SHA256",
+            "TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256"));
+    /** Default maximum number of cached sessions per side, the JDK default. */
+    public static final int DEFAULT_SESSION_CACHE_SIZE = 20480;
+    /** Default session lifetime in seconds, the JDK default of 24 hours. */
+    public static final int DEFAULT_SESSION_TIMEOUT_SECONDS = 86400;
+    /** Reload interval that disables checking the stores for changes. */
+    public static final long NO_RELOAD = 0;
+    /** Trust cache size that disables caching trust decisions. */
+    public static final int NO_TRUST_CACHE = 0;
+    /** Default interval between checks of the CRL files for changes: five minutes. */
+    public static final long DEFAULT_CRL_REFRESH_MILLIS = 300_000L;
+    /** System property read by JSSE, whenever a context is created, to enable stateless session tickets. */
+    public static final String SESSION_TICKETS_PROPERTY = "jdk.tls.server.enableSessionTicketExtension";
+    /**
+     * Default for issuing stateless session tickets: on, unless the JVM was started with
+     * {@code -D}{@value #SESSION_TICKETS_PROPERTY}{@code =false}.
+     */
+    public static final boolean DEFAULT_SESSION_TICKETS =
+            !"false".equalsIgnoreCase(System.getProperty(SESSION_TICKETS_PROPERTY));
+
+    private final String protocol;
+    private final List<String> enabledProtocols;
+    private final List<String> cipherSuites;
+    private final int sessionCacheSize;
+    private final int sessionTimeoutSeconds;
+    private final long reloadIntervalMillis;
+    private final int trustCacheSize;
+    private final List<String> crlLocations;
+    private final long crlRefreshMillis;
+    private final boolean sessionTickets;
+    private final String keyStoreLocation;
+    private final String keyStoreType;
+    private final char[] keyStorePassword;
+    private final String trustStoreLocation;
+    private final String trustStoreType;
+    private final char[] trustStorePassword;
+
+    private SSLContextConfig(Builder builder) {
+        this.protocol = builder.protocol;
+        this.enabledProtocols = builder.enabledProtocols;
+        this.cipherSuites = builder.cipherSuites;
+        this.sessionCacheSize = builder.sessionCacheSize;
+        this.sessionTimeoutSeconds = builder.sessionTimeoutSeconds;
+        this.reloadIntervalMillis = builder.reloadIntervalMillis;
+        this.trustCacheSize = builder.trustCacheSize;
+        this.crlLocations = builder.crlLocations;
+        this.crlRefreshMillis = builder.crlRefreshMillis;
+        this.sessionTickets = builder.sessionTickets;
+        this.keyStoreLocation = builder.keyStoreLocation;
+        this.keyStoreType = builder.keyStoreType;
+        this.keyStorePassword = builder.keyStorePassword;
+        this.trustStoreLocation = builder.trustStoreLocation;
+        this.trustStoreType = builder.trustStoreType;
+        this.trustStorePassword = builder.trustStorePassword;
+    }
+
+    /**
+     * Creates a new builder initialized with default values.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the protocol passed to {@link javax.net.ssl.SSLContext#getInstance(String)}.
+     *
+     * @return the protocol
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Gets the protocol versions enabled on sockets and engines, most preferred first.
+     * Versions the running JVM does not support are skipped.
+     *
+     * @return the enabled protocol versions
+     */
+    public List<String> getEnabledProtocols() {
+        return enabledProtocols;
+    }
+
+    /**
+     * Gets the cipher suites enabled on sockets and engines in server preference order.
+     * Suites the running JVM does not support are skipped.
+     *
+     * @return the enabled cipher suites
+     */
+    public List<String> getCipherSuites() {
+        return cipherSuites;
+    }
+
+    /**
+     * Gets the maximum number of sessions cached by the client and server session contexts.
+     *
+     * @return the session cache size, 0 for unlimited
+     */
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    /**
+     * Gets how long sessions can be resumed after the full handshake that established them.
+     *
+     * @return the session timeout in seconds, 0 for unlimited
+     */
+    public int getSessionTimeoutSeconds() {
+        return sessionTimeoutSeconds;
+    }
+
+    /**
+     * Gets how often the stores are checked for changes. Changed stores are loaded into the
+     * existing context, so new handshakes use the new material without rebuilding the context.
+     *
+     * @return the reload interval in milliseconds, or {@link #NO_RELOAD}
+     */
+    public long getReloadIntervalMillis() {
+        return reloadIntervalMillis;
+    }
+
+    /**
+     * Gets how many peer certificate chain verdicts are cached, see {@link CachingX509TrustManager}.
+     *
+     * @return the trust cache size, or {@link #NO_TRUST_CACHE}
+     */
+    public int getTrustCacheSize() {
+        return trustCacheSize;
+    }
+
+    /**
+     * Gets the CRL files, or directories of CRL files, whose revoked certificates are rejected.
+     *
+     * @return the CRL locations, empty if revocation is not checked
+     */
+    public List<String> getCrlLocations() {
+        return crlLocations;
+    }
+
+    /**
+     * Gets how often the CRL files are checked for changes.
+     *
+     * @return the CRL refresh interval in milliseconds
+     */
+    public long getCrlRefreshMillis() {
+        return crlRefreshMillis;
+    }
+
+    /**
+     * Checks whether the server side of the context issues stateless session tickets instead of keeping
+     * resumable sessions in its cache.
+     *
+     * @return true if session tickets are enabled
+     */
+    public boolean isSessionTickets() {
+        return sessionTickets;
+    }
+
+    /**
+     * Gets the location of the keystore holding this side's certificate and private key.
+     *
+     * @return the keystore location
+     */
+    public String getKeyStoreLocation() {
+        return keyStoreLocation;
+    }
+
+    /**
+     * Gets the keystore type.
+     *
+     * @return the keystore type
+     */
+    public String getKeyStoreType() {
+        return keyStoreType;
+    }
+
+    /**
+     * Gets the password of the keystore and its private keys.
+     *
+     * @return a copy of the keystore password
+     */
+    public char[] getKeyStorePassword() {
+        return keyStorePassword.clone();
+    }
+
+    /**
+     * Gets the location of the truststore holding the trusted CA certificates.
+     *
+     * @return the truststore location
+     */
+    public String getTrustStoreLocation() {
+        return trustStoreLocation;
+    }
+
+    /**
+     * Gets the truststore type.
+     *
+     * @return the truststore type
+     */
+    public String getTrustStoreType() {
+        return trustStoreType;
+    }
+
+    /**
+     * Gets the truststore password.
+     *
+     * @return a copy of the truststore password
+     */
+    public char[] getTrustStorePassword() {
+        return trustStorePassword.clone();
+    }
+
+    /**
+     * Builder for {@link SSLContextConfig}.
+     */
+    public static final class Builder {
+
+        private String protocol = DEFAULT_PROTOCOL;
+        private List<String> enabledProtocols = DEFAULT_ENABLED_PROTOCOLS;
+        private List<String> cipherSuites = DEFAULT_CIPHER_SUITES;
+        private int sessionCacheSize = DEFAULT_SESSION_CACHE_SIZE;
+        private int sessionTimeoutSeconds = DEFAULT_SESSION_TIMEOUT_SECONDS;
+        private long reloadIntervalMillis = NO_RELOAD;
+        private int trustCacheSize = NO_TRUST_CACHE;
+        private List<String> crlLocations = Collections.emptyList();
+        private long crlRefreshMillis = DEFAULT_CRL_REFRESH_MILLIS;
+        private boolean sessionTickets = DEFAULT_SESSION_TICKETS;
+        private String keyStoreLocation;
+        private String keyStoreType = DEFAULT_STORE_TYPE;
+        private char[] keyStorePassword;
+        private String trustStoreLocation;
+        private String trustStoreType = DEFAULT_STORE_TYPE;
+        private char[] trustStorePassword;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the SSLContext protocol.
+         *
+         * @param contextProtocol the protocol, for example {@code TLSv1.2}
+         * @return this builder
+         */
+        public Builder protocol(String contextProtocol) {
+            this.protocol = requireText(contextProtocol, "Protocol");
+            return this;
+        }
+
+        /**
+         * Sets the protocol versions enabled on sockets and engines.
+         *
+         * @param versions the protocol versions, most preferred first
+         * @return this builder
+         */
+        public Builder enabledProtocols(String... versions) {
+            this.enabledProtocols = requireNonEmpty(versions, "Enabled protocols");
+            return this;
+        }
+
+        /**
+         * Sets the cipher suites enabled on sockets and engines.
+         *
+         * @param suites the cipher suites in server preference order
+         * @return this builder
+         */
+        public Builder cipherSuites(String... suites) {
+            this.cipherSuites = requireNonEmpty(suites, "Cipher suites");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of sessions cached by the client and server session contexts.
+         * When the cache is full, the least recently used session is evicted.
+         *
+         * @param size the session cache size, 0 for unlimited
+         * @return this builder
+         */
+        public Builder sessionCacheSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Session cache size must not be negative: " + size);
+            }
+            this.sessionCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets how long sessions can be resumed after the full handshake that established them.
+         *
+         * @param seconds the session timeout in seconds, 0 for unlimited
+         * @return this builder
+         */
+        public Builder sessionTimeoutSeconds(int seconds) {
+            if (seconds < 0) {
+                throw new IllegalArgumentException("Session timeout must not be negative: " + seconds);
+            }
+            this.sessionTimeoutSeconds = seconds;
+            return this;
+        }
+
+        /**
+         * Sets how often the stores are checked for changes.
+         *
+         * @param intervalMillis the reload interval in milliseconds, or {@link #NO_RELOAD}
+         * @return this builder
+         */
+        public Builder reloadIntervalMillis(long intervalMillis) {
+            if (intervalMillis < 0) {
+                throw new IllegalArgumentException("Reload interval must not be negative: " + intervalMillis);
+            }
+            this.reloadIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Sets how many peer certificate chain verdicts are cached, so that peers presenting a chain
+         * seen before skip path validation.
+         *
+         * @param size the trust cache size, or {@link #NO_TRUST_CACHE}
+         * @return this builder
+         */
+        public Builder trustCacheSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Trust cache size must not be negative: " + size);
+            }
+            this.trustCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the CRL files whose revoked certificates are rejected. The files are reloaded in the
+         * background when they change.
+         *
+         * @param locations CRL files in PEM or DER format, or directories whose files are all CRLs
+         * @return this builder
+         */
+        public Builder crlLocations(String... locations) {
+            this.crlLocations = locations == null || locations.length == 0
+                    ? Collections.emptyList() : requireNonEmpty(locations, "CRL locations");
+            return this;
+        }
+
+        /**
+         * Sets how often the CRL files are checked for changes.
+         *
+         * @param intervalMillis the CRL refresh interval in milliseconds, at least 1
+         * @return this builder
+         */
+        public Builder crlRefreshMillis(long intervalMillis) {
+            if (intervalMillis < 1) {
+                throw new IllegalArgumentException("CRL refresh interval must be at least 1 ms: " + intervalMillis);
+            }
+            this.crlRefreshMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Sets whether the server side of the context issues stateless session tickets. Each context gets
+         * its own setting, see {@link SSLContextFactory}.
+         *
+         * @param enabled true to issue session tickets
+         * @return this builder
+         */
+        public Builder sessionTickets(boolean enabled) {
+            this.sessionTickets = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the keystore holding this side's certificate and private key.
+         *
+         * @param location the keystore location
+         * @param password the password of the keystore and its private keys
+         * @return this builder
+         */
+        public Builder keyStore(String location, String password) {
+            this.keyStoreLocation = requireText(location, "Keystore location");
+            this.keyStorePassword = password.toCharArray();
+            return this;
+        }
+
+        /**
+         * Sets the keystore type.
+         *
+         * @param type the keystore type, for example {@code JKS} or {@code PKCS12}
+         * @return this builder
+         */
+        public Builder keyStoreType(String type) {
+            this.keyStoreType = requireText(type, "Keystore type");
+            return this;
+        }
+
+        /**
+         * Sets the truststore holding the trusted CA certificates.
+         *
+         * @param location the truststore location
+         * @param password the truststore password
+         * @return this builder
+         */
+        public Builder trustStore(String location, String password) {
+            this.trustStoreLocation = requireText(location, "Truststore location");
+            this.trustStorePassword = password.toCharArray();
+            return this;
+        }
+
+        /**
+         * Sets the truststore type.
+         *
+         * @param type the truststore type, for example {@code JKS} or {@code PKCS12}
+         * @return this builder
+         */
+        public Builder trustStoreType(String type) {
+            this.trustStoreType = requireText(type, "Truststore type");
+            return this;
+        }
+
+        /**
+         * Builds the configuration.
+         *
+         * @return the immutable configuration
+         * @throws IllegalStateException if the keystore or truststore is not set
+         */
+        public SSLContextConfig build() {
+            if (keyStoreLocation == null || trustStoreLocation == null) {
+                throw new IllegalStateException("Both a keystore and a truststore must be configured");
+            }
+            return new SSLContextConfig(this);
+        }
+
+        private static List<String> requireNonEmpty(String[] values, String name) {
+            if (values == null || values.length == 0) {
+                throw new IllegalArgumentException(name + " must not be empty");
+            }
+            return Collections.unmodifiableList(Arrays.asList(values.clone()));
+        }
+
+        private static String requireText(String value, String name) {
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException(name + " must not be empty");
+            }
+            return value;
+        }
+    }
+}
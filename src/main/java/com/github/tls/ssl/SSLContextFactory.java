@@ -0,0 +1,499 @@
+package com.github.tls.ssl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds {@link SSLContext}s from {@link SSLContextConfig}s and shares one instance per identity.
+ * <p>
+ * The identity of a context is a SHA-256 digest over its protocols, cipher suites, session, session ticket,
+ * reload, trust cache and CRL settings and, for both stores, the type, location and password. Each cached context also
+ * records a digest of the content of both stores it was built from.
+ * Requesting a context therefore still reads the store files, which is cheap, but the expensive part
+ * (decrypting the keystore and initializing the key and trust managers) happens once per identity and
+ * content. A store whose content changes gets a fresh context on the next request, which replaces the
+ * cached one, so the cache holds at most one context per configuration however often stores are rotated.
+ * <p>
+ * Configurations with a {@linkplain SSLContextConfig#getReloadIntervalMillis() reload interval} instead
+ * keep one context per identity regardless of content: a background task checks the stores at that
+ * interval and loads changed stores into the existing context, so a server rotating its certificate
+ * keeps its sockets, sessions and statistics. Handshakes already in progress finish with the material
+ * they started with. A store that fails to load is logged and the previous material stays in use.
+ * <p>
+ * Configurations with {@linkplain SSLContextConfig#getCrlLocations() CRLs} reject revoked peer certificates
+ * ahead of all other trust checks, and the same background thread reloads the CRLs when they change.
+ * <p>
+ * JSSE only takes the session ticket switch from {@value SSLContextConfig#SESSION_TICKETS_PROPERTY}, which
+ * it reads when a context object is created. The factory sets that property to the configured value while
+ * it creates a context and restores it right after, so contexts in one JVM can differ. A context created
+ * elsewhere in the JVM at that same moment may see the temporary value.
+ */
+public final class SSLContextFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SSLContextFactory.class);
+
+    private static final SSLContextFactory DEFAULT = new SSLContextFactory();
+
+    /** Marker digested in place of the content of a missing classpath store. */
+    private static final byte[] ABSENT = {0};
+    /** Size of the chunks in which store content is read. */
+    private static final int READ_CHUNK = 4096;
+    /** Guards the session ticket property while a context is created. */
+    private static final Object SESSION_TICKETS_LOCK = new Object();
+
+    private final Map<String, Material> cache = new ConcurrentHashMap<>();
+    private ScheduledThreadPoolExecutor reloader;
+
+    /**
+     * Creates a factory with its own cache. Most callers should use {@link #getDefault()}.
+     */
+    public SSLContextFactory() {
+    }
+
+    /**
+     * Gets the process-wide factory shared by {@link com.github.tls.Server} and {@link com.github.tls.Client}.
+     *
+     * @return the shared factory
+     */
+    public static SSLContextFactory getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the context for a configuration, building it on first use.
+     *
+     * @param config the context configuration
+     * @return the shared initialized context
+     * @throws GeneralSecurityException if a store or the context cannot be initialized
+     * @throws IOException if a store cannot be read or its password is wrong
+     */
+    public SSLContext getContext(SSLContextConfig config) throws GeneralSecurityException, IOException {
+        return getMaterial(config).context;
+    }
+
+    /**
+     * Gets the keystore loaded for a configuration, building the context on first use.
+     * The returned store is shared and must not be modified.
+     *
+     * @param config the context configuration
+     * @return the shared loaded keystore
+     * @throws GeneralSecurityException if a store or the context cannot be initialized
+     * @throws IOException if a store cannot be read or its password is wrong
+     */
+    public KeyStore getKeyStore(SSLContextConfig config) throws GeneralSecurityException, IOException {
+        return getMaterial(config).keyStore;
+    }
+
+    /**
+     * Gets the trust decision cache of the context for a configuration, building the context on first use.
+     *
+     * @param config the context configuration
+     * @return the cache, or null if the configuration does not cache trust decisions
+     * @throws GeneralSecurityException if a store or the context cannot be initialized
+     * @throws IOException if a store cannot be read or its password is wrong
+     */
+    public CachingX509TrustManager getTrustCache(SSLContextConfig config)
+            throws GeneralSecurityException, IOException {
+        return getMaterial(config).trustCache;
+    }
+
+    /**
+     * Gets the number of distinct contexts built so far.
+     *
+     * @return the cached context count
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the number of store reload and CRL refresh tasks still scheduled, for all contexts this
+     * factory built.
+     *
+     * @return the scheduled task count
+     */
+    synchronized int getScheduledTaskCount() {
+        return reloader == null ? 0 : reloader.getQueue().size();
+    }
+
+    /**
+     * Drops all cached contexts. Contexts already handed out stay usable but are no longer reloaded.
+     */
+    public void clear() {
+        for (Material material : cache.values()) {
+            material.stopReloading();
+        }
+        cache.clear();
+    }
+
+    private Material getMaterial(SSLContextConfig config) throws GeneralSecurityException, IOException {
+        byte[] keyStoreBytes = read(config.getKeyStoreLocation());
+        byte[] trustStoreBytes = read(config.getTrustStoreLocation());
+        String identity = identity(config);
+        // Reloaded contexts follow content changes themselves, so their content is never compared
+        String content = config.getReloadIntervalMillis() > 0 ? "" : contentIdentity(keyStoreBytes, trustStoreBytes);
+
+        while (true) {
+            Material cached = cache.get(identity);
+            if (cached != null && cached.content.equals(content)) {
+                return cached;
+            }
+            Material created = build(config, keyStoreBytes, trustStoreBytes, content);
+            // Concurrent requests may both build; all callers share whichever was cached first
+            boolean stored = cached == null ? cache.putIfAbsent(identity, created) == null
+                    : cache.replace(identity, cached, created);
+            if (stored) {
+                if (cached != null) {
+                    // The replaced context is no longer handed out; its tasks would keep it alive
+                    cached.stopReloading();
+                }
+                LOGGER.debug("{} {} context for keystore {} and truststore {}", cached == null ? "Built" : "Rebuilt",
+                        config.getProtocol(), config.getKeyStoreLocation(), config.getTrustStoreLocation());
+                return created;
+            }
+            created.stopReloading();
+        }
+    }
+
+    private Material build(SSLContextConfig config, byte[] keyStoreBytes, byte[] trustStoreBytes, String content)
+            throws GeneralSecurityException, IOException {
+        KeyStore keyStore = load(config.getKeyStoreType(), keyStoreBytes, config.getKeyStorePassword());
+        X509ExtendedKeyManager keyManager = keyManager(keyStore, config.getKeyStorePassword());
+        KeyStore trustStore = load(config.getTrustStoreType(), trustStoreBytes, config.getTrustStorePassword());
+        X509ExtendedTrustManager trustManager = trustManager(trustStore);
+
+        ReloadingX509KeyManager reloadingKeyManager = null;
+        ReloadingX509TrustManager reloadingTrustManager = null;
+        if (config.getReloadIntervalMillis() > 0) {
+            reloadingKeyManager = new ReloadingX509KeyManager(keyManager);
+            reloadingTrustManager = new ReloadingX509TrustManager(trustManager);
+            keyManager = reloadingKeyManager;
+            trustManager = reloadingTrustManager;
+        }
+        CachingX509TrustManager trustCache = null;
+        if (config.getTrustCacheSize() > 0) {
+            trustCache = new CachingX509TrustManager(trustManager, config.getTrustCacheSize());
+            trustManager = trustCache;
+        }
+        // Outermost, so that cached verdicts cannot outlive a revocation
+        RevocationCheckingTrustManager revocation = null;
+        if (!config.getCrlLocations().isEmpty()) {
+            revocation = new RevocationCheckingTrustManager(trustManager, config.getCrlLocations());
+            trustManager = revocation;
+        }
+
+        SSLContext context = newContext(config);
+        context.init(new KeyManager[] {keyManager}, new TrustManager[] {trustManager}, null);
+        configureSessions(context.getServerSessionContext(), config);
+        configureSessions(context.getClientSessionContext(), config);
+
+        SSLParameters supported = context.getSupportedSSLParameters();
+        String[] protocols = retainSupported(config.getEnabledProtocols(), supported.getProtocols(), "protocols");
+        String[] cipherSuites = retainSupported(config.getCipherSuites(), supported.getCipherSuites(), "cipher suites");
+        LOGGER.info("Enabled protocols: {}", String.join(", ", protocols));
+        LOGGER.debug("Enabled cipher suites: {}", String.join(", ", cipherSuites));
+        Material material = new Material(new ConfiguredSSLContext(context, protocols, cipherSuites), keyStore,
+                trustCache, content);
+
+        if (reloadingKeyManager != null) {
+            StoreReload reload = new StoreReload(config, material, reloadingKeyManager, reloadingTrustManager,
+                    keyStoreBytes, trustStoreBytes);
+            material.schedule(reload, config.getReloadIntervalMillis());
+        }
+        if (revocation != null) {
+            material.schedule(revocation::refresh, config.getCrlRefreshMillis());
+        }
+        return material;
+    }
+
+    private static SSLContext newContext(SSLContextConfig config) throws NoSuchAlgorithmException {
+        synchronized (SESSION_TICKETS_LOCK) {
+            String previous = System.getProperty(SSLContextConfig.SESSION_TICKETS_PROPERTY);
+            System.setProperty(SSLContextConfig.SESSION_TICKETS_PROPERTY, Boolean.toString(config.isSessionTickets()));
+            try {
+                return SSLContext.getInstance(config.getProtocol());
+            } finally {
+                if (previous == null) {
+                    System.clearProperty(SSLContextConfig.SESSION_TICKETS_PROPERTY);
+                } else {
+                    System.setProperty(SSLContextConfig.SESSION_TICKETS_PROPERTY, previous);
+                }
+            }
+        }
+    }
+
+    private synchronized ScheduledExecutorService reloader() {
+        if (reloader == null) {
+            reloader = new ScheduledThreadPoolExecutor(1, task -> {
+                Thread thread = new Thread(task, "mTLS-StoreReloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Release a cancelled task, and the context it refers to, at once rather than at its next run
+            reloader.setRemoveOnCancelPolicy(true);
+        }
+        return reloader;
+    }
+
+    /**
+     * Initializes a key manager for a keystore.
+     *
+     * @param keyStore the loaded keystore
+     * @param password the password of the keys
+     * @return the key manager
+     * @throws GeneralSecurityException if the keys cannot be recovered
+     */
+    private static X509ExtendedKeyManager keyManager(KeyStore keyStore, char[] password)
+            throws GeneralSecurityException {
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(keyStore, password);
+        for (KeyManager keyManager : kmf.getKeyManagers()) {
+            if (keyManager instanceof X509ExtendedKeyManager) {
+                return (X509ExtendedKeyManager) keyManager;
+            }
+        }
+        throw new NoSuchAlgorithmException("No X.509 key manager for " + kmf.getAlgorithm());
+    }
+
+    /**
+     * Initializes a trust manager for a truststore.
+     *
+     * @param trustStore the loaded truststore
+     * @return the trust manager
+     * @throws GeneralSecurityException if the trust manager cannot be initialized
+     */
+    private static X509ExtendedTrustManager trustManager(KeyStore trustStore) throws GeneralSecurityException {
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(trustStore);
+        for (TrustManager trustManager : tmf.getTrustManagers()) {
+            if (trustManager instanceof X509ExtendedTrustManager) {
+                return (X509ExtendedTrustManager) trustManager;
+            }
+        }
+        throw new NoSuchAlgorithmException("No X.509 trust manager for " + tmf.getAlgorithm());
+    }
+
+    private static void configureSessions(SSLSessionContext sessions, SSLContextConfig config) {
+        sessions.setSessionCacheSize(config.getSessionCacheSize());
+        sessions.setSessionTimeout(config.getSessionTimeoutSeconds());
+    }
+
+    /**
+     * Keeps the configured values the JVM supports, in configured order.
+     *
+     * @param configured the configured values
+     * @param supported the values supported by the context
+     * @param kind what the values are, for messages
+     * @return the supported configured values
+     * @throws GeneralSecurityException if none of the configured values is supported
+     */
+    private static String[] retainSupported(List<String> configured, String[] supported, String kind)
+            throws GeneralSecurityException {
+        List<String> available = Arrays.asList(supported);
+        List<String> retained = new ArrayList<>();
+        for (String value : configured) {
+            if (available.contains(value)) {
+                retained.add(value);
+            } else {
+                LOGGER.debug("Skipping unsupported {}: {}", kind, value);
+            }
+        }
+        if (retained.isEmpty()) {
+            throw new NoSuchAlgorithmException("None of the configured " + kind + " is supported: " + configured);
+        }
+        return retained.toArray(new String[0]);
+    }
+
+    private static KeyStore load(String type, byte[] bytes, char[] password)
+            throws GeneralSecurityException, IOException {
+        KeyStore store = KeyStore.getInstance(type);
+        store.load(bytes == null ? null : new ByteArrayInputStream(bytes), password);
+        return store;
+    }
+
+    /**
+     * Reads the content of a store.
+     *
+     * @param location the store location
+     * @return the store content, or null for a missing classpath resource
+     * @throws IOException if the store cannot be read
+     */
+    private static byte[] read(String location) throws IOException {
+        if (!location.startsWith(SSLContextConfig.CLASSPATH_PREFIX)) {
+            return Files.readAllBytes(Paths.get(location));
+        }
+        String resource = location.substring(SSLContextConfig.CLASSPATH_PREFIX.length());
+        try (InputStream in = SSLContextFactory.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[READ_CHUNK];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                out.write(chunk, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static String identity(SSLContextConfig config) throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        update(digest, config.getProtocol().getBytes(StandardCharsets.UTF_8));
+        update(digest, String.join(",", config.getEnabledProtocols()).getBytes(StandardCharsets.UTF_8));
+        update(digest, String.join(",", config.getCipherSuites()).getBytes(StandardCharsets.UTF_8));
+        update(digest, (config.getSessionCacheSize() + "/" + config.getSessionTimeoutSeconds() + "/"
+                + config.getTrustCacheSize()).getBytes(StandardCharsets.UTF_8));
+        update(digest, (String.join(",", config.getCrlLocations()) + "/" + config.getCrlRefreshMillis())
+                .getBytes(StandardCharsets.UTF_8));
+        update(digest, Boolean.toString(config.isSessionTickets()).getBytes(StandardCharsets.UTF_8));
+        update(digest, Long.toString(config.getReloadIntervalMillis()).getBytes(StandardCharsets.UTF_8));
+        update(digest, config.getKeyStoreType().getBytes(StandardCharsets.UTF_8));
+        update(digest, config.getKeyStoreLocation().getBytes(StandardCharsets.UTF_8));
+        update(digest, new String(config.getKeyStorePassword()).getBytes(StandardCharsets.UTF_8));
+        update(digest, config.getTrustStoreType().getBytes(StandardCharsets.UTF_8));
+        update(digest, config.getTrustStoreLocation().getBytes(StandardCharsets.UTF_8));
+        update(digest, new String(config.getTrustStorePassword()).getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest());
+    }
+
+    private static String contentIdentity(byte[] keyStoreBytes, byte[] trustStoreBytes)
+            throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        update(digest, contentDigest(keyStoreBytes));
+        update(digest, contentDigest(trustStoreBytes));
+        return hex(digest.digest());
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] contentDigest(byte[] content) throws GeneralSecurityException {
+        return content == null ? ABSENT : MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    /**
+     * Adds a length-prefixed field to a digest, so that adjacent fields cannot run into each other.
+     */
+    private static void update(MessageDigest digest, byte[] field) {
+        digest.update(Integer.toString(field.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(field);
+    }
+
+    /**
+     * A built context together with the keystore it currently uses and the digest of the store content
+     * it was built from.
+     */
+    private final class Material {
+
+        private final SSLContext context;
+        private final CachingX509TrustManager trustCache;
+        private final String content;
+        private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+        private volatile KeyStore keyStore;
+
+        Material(SSLContext context, KeyStore keyStore, CachingX509TrustManager trustCache, String content) {
+            this.context = context;
+            this.keyStore = keyStore;
+            this.trustCache = trustCache;
+            this.content = content;
+        }
+
+        void schedule(Runnable task, long intervalMillis) {
+            tasks.add(reloader().scheduleWithFixedDelay(task, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS));
+        }
+
+        void stopReloading() {
+            for (ScheduledFuture<?> task : tasks) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Checks the stores of a reloaded context and swaps in changed material.
+     */
+    private static final class StoreReload implements Runnable {
+
+        private final SSLContextConfig config;
+        private final Material material;
+        private final ReloadingX509KeyManager keyManager;
+        private final ReloadingX509TrustManager trustManager;
+        private byte[] keyStoreBytes;
+        private byte[] trustStoreBytes;
+
+        StoreReload(SSLContextConfig config, Material material, ReloadingX509KeyManager keyManager,
+                ReloadingX509TrustManager trustManager, byte[] keyStoreBytes, byte[] trustStoreBytes) {
+            this.config = config;
+            this.material = material;
+            this.keyManager = keyManager;
+            this.trustManager = trustManager;
+            this.keyStoreBytes = keyStoreBytes;
+            this.trustStoreBytes = trustStoreBytes;
+        }
+
+        @Override
+        public void run() {
+            try {
+                byte[] newKeyStoreBytes = read(config.getKeyStoreLocation());
+                if (!Arrays.equals(keyStoreBytes, newKeyStoreBytes)) {
+                    KeyStore keyStore = load(config.getKeyStoreType(), newKeyStoreBytes, config.getKeyStorePassword());
+                    keyManager.swap(keyManager(keyStore, config.getKeyStorePassword()));
+                    material.keyStore = keyStore;
+                    keyStoreBytes = newKeyStoreBytes;
+                    LOGGER.info("Reloaded keystore {}", config.getKeyStoreLocation());
+                }
+                byte[] newTrustStoreBytes = read(config.getTrustStoreLocation());
+                if (!Arrays.equals(trustStoreBytes, newTrustStoreBytes)) {
+                    KeyStore trustStore = load(config.getTrustStoreType(), newTrustStoreBytes,
+                            config.getTrustStorePassword());
+                    trustManager.swap(trustManager(trustStore));
+                    if (material.trustCache != null) {
+                        // Verdicts were reached against the old trusted certificates
+                        material.trustCache.invalidate();
+                    }
+                    trustStoreBytes = newTrustStoreBytes;
+                    LOGGER.info("Reloaded truststore {}", config.getTrustStoreLocation());
+                }
+            } catch (GeneralSecurityException | IOException | RuntimeException e) {
+                // A store caught mid-write fails to load; the next check picks up the complete file
+                LOGGER.warn("Unable to reload stores, keeping the current ones: {}", e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.tls.ssl;
+
+import java.util.Enumeration;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+/**
+ * Counts full and resumed handshakes on one side of an {@link javax.net.ssl.SSLContext}.
+ * <p>
+ * JSSE does not say whether a handshake resumed a session, but a resumed session keeps the
+ * creation time of the full handshake that established it. A session created before its
+ * connection was accepted or opened therefore was resumed, whether from the session cache or
+ * from a stateless session ticket. Recording is lock-free and safe from any thread.
+ */
+public final class SessionStats {
+
+    private final SSLSessionContext sessionContext;
+    private final LongAdder fullHandshakes = new LongAdder();
+    private final LongAdder resumedHandshakes = new LongAdder();
+
+    /**
+     * Creates statistics for the sessions of a session context.
+     *
+     * @param sessionContext the server or client session context, used to count cached sessions
+     */
+    public SessionStats(SSLSessionContext sessionContext) {
+        this.sessionContext = sessionContext;
+    }
+
+    /**
+     * Checks whether a session was resumed rather than established by a full handshake.
+     *
+     * @param session the session negotiated on a connection
+     * @param connectionStartMillis when the connection was accepted or opened, in epoch milliseconds
+     * @return true if the session predates the connection
+     */
+    public static boolean isResumed(SSLSession session, long connectionStartMillis) {
+        return session.getCreationTime() < connectionStartMillis;
+    }
+
+    /**
+     * Records a completed handshake.
+     *
+     * @param session the session negotiated on the connection
+     * @param connectionStartMillis when the connection was accepted or opened, in epoch milliseconds
+     */
+    public void record(SSLSession session, long connectionStartMillis) {
+        if (isResumed(session, connectionStartMillis)) {
+            resumedHandshakes.increment();
+        } else {
+            fullHandshakes.increment();
+        }
+    }
+
+    /**
+     * Gets the number of full handshakes, each of which verified the peer's certificate chain.
+     *
+     * @return the full handshake count
+     */
+    public long getFullHandshakes() {
+        return fullHandshakes.sum();
+    }
+
+    /**
+     * Gets the number of handshakes that resumed an earlier session.
+     *
+     * @return the resumed handshake count
+     */
+    public long getResumedHandshakes() {
+        return resumedHandshakes.sum();
+    }
+
+    /**
+     * Gets the share of handshakes that resumed a session, the hit ratio of the session cache
+     * and session tickets together.
+     *
+     * @return the resumed handshakes divided by all handshakes, or 0 before the first handshake
+     */
+    public double getResumptionRatio() {
+        long resumed = resumedHandshakes.sum();
+        long total = resumed + fullHandshakes.sum();
+        return total == 0 ? 0 : (double) resumed / total;
+    }
+
+    /**
+     * Counts the sessions currently held by the session cache. Sessions resumed from stateless
+     * tickets are not cached and do not count. This walks the cache, so it is meant for occasional
+     * reporting rather than per-connection use.
+     *
+     * @return the cached session count
+     */
+    public int getCachedSessions() {
+        int count = 0;
+        for (Enumeration<byte[]> ids = sessionContext.getIds(); ids.hasMoreElements(); ids.nextElement()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the maximum number of sessions the session cache holds.
+     *
+     * @return the cache size, 0 for unlimited
+     */
+    public int getCacheSize() {
+        return sessionContext.getSessionCacheSize();
+    }
+
+    /**
+     * Gets how long cached sessions and issued tickets stay valid.
+     *
+     * @return the session timeout in seconds, 0 for unlimited
+     */
+    public int getSessionTimeoutSeconds() {
+        return sessionContext.getSessionTimeout();
+    }
+
+    @Override
+    public String toString() {
+        return "SessionStats{fullHandshakes=" + getFullHandshakes()
+                + ", resumedHandshakes=" + getResumedHandshakes()
+                + ", resumptionRatio=" + String.format("%.3f", getResumptionRatio())
+                + ", cachedSessions=" + getCachedSessions()
+                + ", cacheSize=" + getCacheSize()
+                + ", sessionTimeoutSeconds=" + getSessionTimeoutSeconds() + '}';
+    }
+}
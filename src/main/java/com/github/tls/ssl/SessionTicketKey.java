@@ -0,0 +1,86 @@
+package com.github.tls.ssl;
+
+import java.util.Arrays;
+
+/**
+ * A secret that encrypts stateless session tickets. Every server node holding the same key can
+ * resume sessions from tickets issued by any other node. Keys are identified by a number that is
+ * carried in the clear in each ticket, so a node can pick the right key for decryption.
+ */
+public final class SessionTicketKey {
+
+    /** Length of the AES-256 key secret in bytes. */
+    public static final int SECRET_LENGTH = 32;
+
+    private final int id;
+    private final byte[] secret;
+    private final long notAfterMillis;
+
+    /**
+     * Creates a key.
+     *
+     * @param id the key number, unique within a key store
+     * @param secret the {@value #SECRET_LENGTH} byte AES key
+     * @param notAfterMillis when the key stops encrypting new tickets, in epoch milliseconds;
+     *     it keeps decrypting tickets issued before
+     */
+    public SessionTicketKey(int id, byte[] secret, long notAfterMillis) {
+        if (secret.length != SECRET_LENGTH) {
+            throw new IllegalArgumentException("Session ticket key must be " + SECRET_LENGTH + " bytes: "
+                    + secret.length);
+        }
+        this.id = id;
+        this.secret = secret.clone();
+        this.notAfterMillis = notAfterMillis;
+    }
+
+    /**
+     * Gets the key number.
+     *
+     * @return the key number
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the key secret.
+     *
+     * @return a copy of the AES key
+     */
+    public byte[] getSecret() {
+        return secret.clone();
+    }
+
+    /**
+     * Gets when the key stops encrypting new tickets.
+     *
+     * @return the end of the issuing period in epoch milliseconds
+     */
+    public long getNotAfterMillis() {
+        return notAfterMillis;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SessionTicketKey)) {
+            return false;
+        }
+        SessionTicketKey key = (SessionTicketKey) other;
+        return id == key.id && notAfterMillis == key.notAfterMillis && Arrays.equals(secret, key.secret);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Integer.hashCode(id) + Long.hashCode(notAfterMillis);
+    }
+
+    @Override
+    public String toString() {
+        // Never print the secret
+        return "SessionTicketKey{id=" + id + ", notAfterMillis=" + notAfterMillis + '}';
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.tls.ssl;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Backend sharing rotating {@link SessionTicketKey}s between the server nodes of a fleet.
+ * <p>
+ * Implementations must hand every node the same key for the same period, so that a client
+ * resuming against any node presents a ticket that node can decrypt. {@link DirectoryTicketKeyStore}
+ * shares keys through a directory; a network store or secret manager can implement the same contract.
+ */
+public interface SessionTicketKeyStore {
+
+    /**
+     * Gets the keys in use at a point in time, creating the current key if no node has yet.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the keys newest first; the first encrypts new tickets and all of them decrypt tickets
+     * @throws IOException if the backend cannot be read or written
+     */
+    List<SessionTicketKey> getKeys(long nowMillis) throws IOException;
+}
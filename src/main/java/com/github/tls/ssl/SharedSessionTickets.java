@@ -0,0 +1,146 @@
+package com.github.tls.ssl;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the session ticket keys of a server context in sync with a {@link SessionTicketKeyStore},
+ * so that every node of a fleet encrypts tickets with the same rotating keys and a client can
+ * resume its session on whichever node the load balancer picks.
+ * <p>
+ * A background task reloads the keys periodically, picking up each new rotation period's key.
+ * Reloading never blocks handshakes. If the JVM does not allow installing keys (see
+ * {@link #isSupported()}) or the store fails, the context keeps its node-local tickets, and
+ * clients fall back to a full handshake on other nodes.
+ * <p>
+ * This is experimental. JSSE has no API for ticket keys, so {@link JsseTicketKeys} writes them into
+ * SunJSSE internals, which may change in any JDK update. Several server contexts in one JVM share
+ * the JDK's current key number; a context may issue node-local tickets for a while after another
+ * context rotates its own keys, until its next reload.
+ */
+public class SharedSessionTickets implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedSessionTickets.class);
+
+    /** Default interval between key reloads. */
+    public static final long DEFAULT_REFRESH_MILLIS = 30_000L;
+
+    private final SSLContext context;
+    private final SessionTicketKeyStore store;
+    private final long refreshMillis;
+    private final Set<Integer> installed = new HashSet<>();
+    private ScheduledExecutorService refresher;
+
+    /**
+     * Creates a synchronizer reloading keys every {@value #DEFAULT_REFRESH_MILLIS} ms.
+     *
+     * @param context the server context, typically from {@link SSLContextFactory}
+     * @param store the shared key store
+     */
+    public SharedSessionTickets(SSLContext context, SessionTicketKeyStore store) {
+        this(context, store, DEFAULT_REFRESH_MILLIS);
+    }
+
+    /**
+     * Creates a synchronizer.
+     *
+     * @param context the server context, typically from {@link SSLContextFactory}
+     * @param store the shared key store
+     * @param refreshMillis interval between key reloads, well below the store's rotation period
+     */
+    public SharedSessionTickets(SSLContext context, SessionTicketKeyStore store, long refreshMillis) {
+        if (refreshMillis < 1) {
+            throw new IllegalArgumentException("Refresh interval must be at least 1 ms: " + refreshMillis);
+        }
+        this.context = context;
+        this.store = store;
+        this.refreshMillis = refreshMillis;
+    }
+
+    /**
+     * Checks whether the running JVM lets shared keys be installed into JSSE. On Java 16 and later this
+     * requires {@code --add-opens java.base/javax.net.ssl=ALL-UNNAMED} and
+     * {@code --add-opens java.base/sun.security.ssl=ALL-UNNAMED}.
+     *
+     * @return true if shared session tickets are supported
+     */
+    public static boolean isSupported() {
+        return JsseTicketKeys.isSupported();
+    }
+
+    /**
+     * Installs the current keys and starts reloading them in the background.
+     *
+     * @return true if the keys were installed
+     */
+    public synchronized boolean start() {
+        boolean installedKeys = refresh();
+        if (refresher == null && isSupported()) {
+            refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "mTLS-SessionTickets");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        }
+        return installedKeys;
+    }
+
+    /**
+     * Reloads the keys from the store and installs them.
+     *
+     * @return true if the keys were installed
+     */
+    public synchronized boolean refresh() {
+        if (!isSupported()) {
+            LOGGER.warn("Shared session tickets are not supported by this JVM, tickets stay node-local");
+            return false;
+        }
+        try {
+            List<SessionTicketKey> keys = store.getKeys(System.currentTimeMillis());
+            Set<Integer> retired = new HashSet<>(installed);
+            for (SessionTicketKey key : keys) {
+                retired.remove(key.getId());
+            }
+            // A grace of two refreshes lets the next key arrive before JSSE would generate its own
+            JsseTicketKeys.install(context, keys, retired, 2 * refreshMillis);
+            installed.removeAll(retired);
+            for (SessionTicketKey key : keys) {
+                installed.add(key.getId());
+            }
+            LOGGER.debug("Installed {} shared session ticket keys", keys.size());
+            return !keys.isEmpty();
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Unable to install shared session ticket keys: {}", e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Gets the ids of the keys currently installed.
+     *
+     * @return a copy of the installed key ids
+     */
+    public synchronized Set<Integer> getInstalledKeyIds() {
+        return new HashSet<>(installed);
+    }
+
+    /**
+     * Stops reloading keys. Installed keys stay in use until JSSE rotates them out.
+     */
+    @Override
+    public synchronized void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+}
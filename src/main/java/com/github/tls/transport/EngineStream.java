@@ -0,0 +1,382 @@
+package com.github.tls.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link TlsStream} driving an {@link SSLEngine} over a pair of {@link MemoryPipe}s, with the blocking
+ * semantics of an {@link javax.net.ssl.SSLSocket}: reads wait for a whole record and honour the read
+ * timeout, each write is encrypted and sent at once, and delegated tasks run on the calling thread.
+ * <p>
+ * Reads and writes hold separate locks, so one thread may read while another writes. A read that
+ * unwraps a post-handshake message needing an answer, such as a TLS 1.3 key update, wraps that
+ * answer itself. The handshake holds its own lock and is driven before the stream locks are taken.
+ */
+final class EngineStream implements TlsStream {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EngineStream.class);
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    /** Mask of the low byte of an int. */
+    private static final int BYTE_MASK = 0xff;
+
+    private final SSLEngine engine;
+    private final MemoryPipe inbound;
+    private final MemoryPipe outbound;
+    private final String remoteAddress;
+    private final InputStream in = new EngineInputStream();
+    private final OutputStream out = new EngineOutputStream();
+    private final Object handshakeLock = new Object();
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /** Records received but not unwrapped yet, in write mode; guarded by the read lock. */
+    private ByteBuffer netIn;
+    /** Plaintext unwrapped but not read yet, in read mode; guarded by the read lock. */
+    private ByteBuffer appIn;
+    /** Records being sent, in write mode; guarded by the write lock. */
+    private ByteBuffer netOut;
+    private volatile int timeoutMillis;
+    private volatile boolean handshakeDone;
+    private volatile boolean closed;
+
+    /**
+     * Creates a stream.
+     *
+     * @param engine the engine, already set to client or server mode
+     * @param inbound the pipe carrying records from the peer
+     * @param outbound the pipe carrying records to the peer
+     * @param remoteAddress the description of the peer
+     */
+    EngineStream(SSLEngine engine, MemoryPipe inbound, MemoryPipe outbound, String remoteAddress) {
+        this.engine = engine;
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.remoteAddress = remoteAddress;
+        SSLSession session = engine.getSession();
+        this.netIn = ByteBuffer.allocate(session.getPacketBufferSize());
+        this.appIn = ByteBuffer.allocate(session.getApplicationBufferSize());
+        this.appIn.flip();
+        this.netOut = ByteBuffer.allocate(session.getPacketBufferSize());
+    }
+
+    @Override
+    public void startHandshake() throws IOException {
+        if (handshakeDone) {
+            return;
+        }
+        synchronized (handshakeLock) {
+            if (handshakeDone) {
+                return;
+            }
+            checkOpen();
+            try {
+                engine.beginHandshake();
+                HandshakeStatus status;
+                while ((status = engine.getHandshakeStatus()) != HandshakeStatus.NOT_HANDSHAKING
+                        && status != HandshakeStatus.FINISHED) {
+                    if (status == HandshakeStatus.NEED_TASK) {
+                        runDelegatedTasks();
+                    } else if (status == HandshakeStatus.NEED_WRAP) {
+                        wrap(EMPTY);
+                    } else {
+                        unwrapHandshake();
+                    }
+                }
+            } catch (SSLException e) {
+                sendAlert();
+                throw e;
+            }
+            handshakeDone = true;
+        }
+    }
+
+    @Override
+    public SSLSession getSession() {
+        return engine.getSession();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        checkOpen();
+        return in;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        checkOpen();
+        return out;
+    }
+
+    @Override
+    public int getSoTimeout() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public void setSoTimeout(int timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative: " + timeoutMillis);
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * Sends close_notify, unless another thread is blocked writing, and closes both pipes so that the
+     * peer reads the end of the stream and blocked readers and writers on this side wake up.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        engine.closeOutbound();
+        if (writeLock.tryLock()) {
+            try {
+                wrap(EMPTY);
+            } catch (IOException e) {
+                LOGGER.debug("Unable to send close_notify to {}: {}", remoteAddress, e.getMessage());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        outbound.close();
+        inbound.close();
+    }
+
+    private void checkOpen() throws SocketException {
+        if (closed) {
+            throw new SocketException("Connection closed");
+        }
+    }
+
+    private void unwrapHandshake() throws IOException {
+        readLock.lock();
+        try {
+            if (unwrap() < 0) {
+                throw new EOFException("Connection closed by " + remoteAddress + " during the handshake");
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Unwraps one record, reading from the inbound pipe until a whole record has arrived. Called with
+     * the read lock held.
+     *
+     * @return the number of plaintext bytes produced, or -1 at the end of the stream
+     */
+    private int unwrap() throws IOException {
+        while (true) {
+            netIn.flip();
+            appIn.compact();
+            SSLEngineResult result;
+            try {
+                result = engine.unwrap(netIn, appIn);
+            } finally {
+                netIn.compact();
+                appIn.flip();
+            }
+            switch (result.getStatus()) {
+                case OK:
+                    return result.bytesProduced();
+                case CLOSED:
+                    return -1;
+                case BUFFER_UNDERFLOW:
+                    if (!netIn.hasRemaining()) {
+                        netIn = enlarge(netIn, engine.getSession().getPacketBufferSize());
+                    }
+                    if (inbound.read(netIn, timeoutMillis) < 0) {
+                        return -1;
+                    }
+                    break;
+                case BUFFER_OVERFLOW:
+                    ByteBuffer larger = ByteBuffer.allocate(appIn.remaining()
+                            + engine.getSession().getApplicationBufferSize());
+                    larger.put(appIn).flip();
+                    appIn = larger;
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected unwrap status: " + result.getStatus());
+            }
+        }
+    }
+
+    /**
+     * Encrypts a buffer and sends the records, or a handshake message when the buffer is empty.
+     */
+    private void wrap(ByteBuffer source) throws IOException {
+        writeLock.lock();
+        try {
+            while (true) {
+                SSLEngineResult result = engine.wrap(source, netOut);
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                    netOut = enlarge(netOut, engine.getSession().getPacketBufferSize());
+                    continue;
+                }
+                if (netOut.position() > 0) {
+                    netOut.flip();
+                    try {
+                        outbound.write(netOut);
+                    } finally {
+                        netOut.clear();
+                    }
+                }
+                if (result.getHandshakeStatus() == HandshakeStatus.NEED_TASK) {
+                    runDelegatedTasks();
+                }
+                if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                    if (source.hasRemaining()) {
+                        throw new SSLException("Connection to " + remoteAddress + " is closed");
+                    }
+                    return;
+                }
+                if (!source.hasRemaining()) {
+                    return;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Answers post-handshake messages after an unwrap, such as a key update or a TLS 1.2 close_notify.
+     */
+    private void respond() throws IOException {
+        HandshakeStatus status;
+        while (!engine.isOutboundDone() && ((status = engine.getHandshakeStatus()) == HandshakeStatus.NEED_TASK
+                || status == HandshakeStatus.NEED_WRAP)) {
+            if (status == HandshakeStatus.NEED_TASK) {
+                runDelegatedTasks();
+            } else {
+                wrap(EMPTY);
+            }
+        }
+    }
+
+    /**
+     * Sends the alert of a failed handshake, so that the peer fails too rather than waiting for a reply.
+     */
+    private void sendAlert() {
+        engine.closeOutbound();
+        try {
+            wrap(EMPTY);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to send the handshake alert to {}: {}", remoteAddress, e.getMessage());
+        }
+    }
+
+    private void runDelegatedTasks() {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    private static ByteBuffer enlarge(ByteBuffer buffer, int minimumFree) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.position() + minimumFree);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    /**
+     * Plaintext received from the peer.
+     */
+    private final class EngineInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & BYTE_MASK;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            startHandshake();
+            readLock.lock();
+            try {
+                while (!appIn.hasRemaining()) {
+                    checkOpen();
+                    if (unwrap() < 0) {
+                        checkOpen();
+                        return -1;
+                    }
+                    respond();
+                }
+                int count = Math.min(length, appIn.remaining());
+                appIn.get(buffer, offset, count);
+                return count;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public int available() {
+            readLock.lock();
+            try {
+                return appIn.remaining();
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            EngineStream.this.close();
+        }
+    }
+
+    /**
+     * Plaintext sent to the peer.
+     */
+    private final class EngineOutputStream extends OutputStream {
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[] {(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            checkOpen();
+            startHandshake();
+            wrap(ByteBuffer.wrap(buffer, offset, length));
+        }
+
+        @Override
+        public void close() {
+            EngineStream.this.close();
+        }
+    }
+}
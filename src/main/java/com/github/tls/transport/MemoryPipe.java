@@ -0,0 +1,103 @@
+package com.github.tls.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded in-memory byte pipe carrying TLS records in one direction between two {@link EngineStream}s,
+ * the in-memory counterpart of one direction of a TCP connection. Writers block while the pipe is
+ * full and readers while it is empty. Closing the pipe fails further writes and lets readers drain
+ * what was already written before they see the end of the stream.
+ */
+final class MemoryPipe {
+
+    private final ByteBuffer buffer;
+    private boolean closed;
+
+    /**
+     * Creates an empty pipe.
+     *
+     * @param capacity the number of bytes buffered before writers block
+     */
+    MemoryPipe(int capacity) {
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer, waiting for the reader to make room as needed.
+     *
+     * @param source the bytes to write, from its position to its limit
+     * @throws IOException if the pipe is closed or the thread is interrupted
+     */
+    synchronized void write(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            if (closed) {
+                throw new IOException("Pipe closed");
+            }
+            if (buffer.hasRemaining()) {
+                int count = Math.min(source.remaining(), buffer.remaining());
+                ByteBuffer chunk = source.duplicate();
+                chunk.limit(chunk.position() + count);
+                buffer.put(chunk);
+                source.position(source.position() + count);
+                notifyAll();
+            } else {
+                await(0);
+            }
+        }
+    }
+
+    /**
+     * Reads the available bytes into a buffer, waiting for at least one if the pipe is empty.
+     *
+     * @param target the buffer to fill, which must have room
+     * @param timeoutMillis the longest time to wait for data, or 0 to wait indefinitely
+     * @return the number of bytes read, or -1 if the pipe is closed and drained
+     * @throws SocketTimeoutException if no data arrived within the timeout
+     * @throws IOException if the thread is interrupted
+     */
+    synchronized int read(ByteBuffer target, int timeoutMillis) throws IOException {
+        long deadline = timeoutMillis == 0 ? 0 : System.currentTimeMillis() + timeoutMillis;
+        while (buffer.position() == 0) {
+            if (closed) {
+                return -1;
+            }
+            long wait = 0;
+            if (deadline != 0) {
+                wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+            }
+            await(wait);
+        }
+        buffer.flip();
+        int count = Math.min(buffer.remaining(), target.remaining());
+        ByteBuffer chunk = buffer.duplicate();
+        chunk.limit(chunk.position() + count);
+        target.put(chunk);
+        buffer.position(buffer.position() + count);
+        buffer.compact();
+        notifyAll();
+        return count;
+    }
+
+    /**
+     * Closes the pipe, waking blocked readers and writers.
+     */
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    private void await(long timeoutMillis) throws InterruptedIOException {
+        try {
+            wait(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting on an in-memory pipe");
+        }
+    }
+}
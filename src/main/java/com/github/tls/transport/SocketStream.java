@@ -0,0 +1,84 @@
+package com.github.tls.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * {@link TlsStream} over a connected {@link SSLSocket}.
+ */
+public final class SocketStream implements TlsStream {
+
+    private final SSLSocket socket;
+
+    /**
+     * Wraps a socket.
+     *
+     * @param socket the connected socket, in client or server mode
+     */
+    public SocketStream(SSLSocket socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * Gets the wrapped socket.
+     *
+     * @return the socket
+     */
+    public SSLSocket getSocket() {
+        return socket;
+    }
+
+    @Override
+    public void startHandshake() throws IOException {
+        socket.startHandshake();
+    }
+
+    @Override
+    public SSLSession getSession() {
+        return socket.getSession();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return socket.getInputStream();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        return socket.getOutputStream();
+    }
+
+    @Override
+    public int getSoTimeout() throws IOException {
+        return socket.getSoTimeout();
+    }
+
+    @Override
+    public void setSoTimeout(int timeoutMillis) throws IOException {
+        socket.setSoTimeout(timeoutMillis);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    /**
+     * Formats the numeric address and port of the peer, without a host name that may or may not
+     * have been resolved yet.
+     *
+     * @return the remote address
+     */
+    @Override
+    public String getRemoteAddress() {
+        return socket.getInetAddress().getHostAddress() + ':' + socket.getPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.tls.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import javax.net.ssl.SSLSession;
+
+/**
+ * A TLS connection seen as a pair of blocking plaintext streams, the part of {@link javax.net.ssl.SSLSocket}
+ * that {@link com.github.tls.Server} and {@link com.github.tls.Client} use. {@link SocketStream} runs it
+ * over a TCP socket and {@link MemoryTransport} over a pair of in-memory {@link javax.net.ssl.SSLEngine}s.
+ * <p>
+ * As with a socket, one thread may read while another writes, and the handshake runs on first use
+ * of a stream if it was not started explicitly.
+ */
+public interface TlsStream extends Closeable {
+
+    /**
+     * Performs the TLS handshake, if it has not completed yet.
+     *
+     * @throws IOException if the handshake fails or the connection is closed
+     */
+    void startHandshake() throws IOException;
+
+    /**
+     * Gets the session negotiated by the handshake.
+     *
+     * @return the session
+     */
+    SSLSession getSession();
+
+    /**
+     * Gets the stream of plaintext received from the peer.
+     *
+     * @return the input stream, the same one on every call
+     * @throws IOException if the connection is closed
+     */
+    InputStream getInputStream() throws IOException;
+
+    /**
+     * Gets the stream of plaintext sent to the peer. Each write is encrypted and sent immediately.
+     *
+     * @return the output stream, the same one on every call
+     * @throws IOException if the connection is closed
+     */
+    OutputStream getOutputStream() throws IOException;
+
+    /**
+     * Gets how long a read waits for data.
+     *
+     * @return the read timeout in milliseconds, 0 for none
+     * @throws IOException if the timeout cannot be read
+     */
+    int getSoTimeout() throws IOException;
+
+    /**
+     * Sets how long a read waits for data before it throws {@link java.net.SocketTimeoutException}.
+     *
+     * @param timeoutMillis the read timeout in milliseconds, 0 for none
+     * @throws IOException if the timeout cannot be set
+     */
+    void setSoTimeout(int timeoutMillis) throws IOException;
+
+    /**
+     * Checks whether this side closed the connection.
+     *
+     * @return true if closed
+     */
+    boolean isClosed();
+
+    /**
+     * Describes the peer for logs and events, for a socket its numeric address and port.
+     *
+     * @return the remote address
+     */
+    String getRemoteAddress();
+}
@@ -0,0 +1,14 @@
+package com.github.tls.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event spanning a wait for a connection in {@code ServerSocket.accept()}.
+ */
+@Name("com.github.tls.Accept")
+@Label("Accept")
+@Description("Wait for a client connection")
+public final class AcceptEvent extends ServerEvent {
+}
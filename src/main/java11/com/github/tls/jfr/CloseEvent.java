@@ -0,0 +1,27 @@
+package com.github.tls.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event spanning the close of a connection, which sends the TLS close_notify alert.
+ */
+@Name("com.github.tls.Close")
+@Label("Close")
+@Description("Close of a client connection")
+public final class CloseEvent extends ServerEvent {
+
+    @Label("Messages")
+    @Description("Messages received on the connection")
+    private long messages;
+
+    /**
+     * Sets the number of messages received on the connection.
+     *
+     * @param count the message count
+     */
+    public void setMessages(long count) {
+        messages = count;
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.tls.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Event spanning the TLS handshake of an accepted connection.
+ */
+@Name("com.github.tls.Handshake")
+@Label("TLS Handshake")
+@Description("TLS handshake of an accepted connection")
+public final class HandshakeEvent extends ServerEvent {
+
+    @Label("Protocol")
+    private String protocol;
+
+    @Label("Cipher Suite")
+    private String cipherSuite;
+
+    @Label("Failure")
+    private String failure;
+
+    /**
+     * Sets the negotiated protocol.
+     *
+     * @param name the protocol, or null if the handshake failed
+     */
+    public void setProtocol(String name) {
+        protocol = name;
+    }
+
+    /**
+     * Sets the negotiated cipher suite.
+     *
+     * @param name the cipher suite, or null if the handshake failed
+     */
+    public void setCipherSuite(String name) {
+        cipherSuite = name;
+    }
+
+    /**
+     * Sets the reason the handshake failed.
+     *
+     * @param reason the failure reason, or null if the handshake completed
+     */
+    public void setFailure(String reason) {
+        failure = reason;
+    }
+}
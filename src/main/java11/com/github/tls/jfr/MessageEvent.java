@@ -0,0 +1,33 @@
+package com.github.tls.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Event spanning the echo of one received message, from the end of its read to the end of the write
+ * of the reply.
+ * <p>
+ * Messages are frequent, so by default only those taking at least a millisecond are recorded; a
+ * recording setting {@code com.github.tls.Message#threshold} to {@code 0 ms} records all of them.
+ */
+@Name("com.github.tls.Message")
+@Label("Message")
+@Description("Echo of a received message")
+@Threshold("1 ms")
+public final class MessageEvent extends ServerEvent {
+
+    @Label("Size")
+    @Description("Characters of a line or payload bytes of a frame")
+    private int size;
+
+    /**
+     * Sets the size of the message.
+     *
+     * @param length the characters of a line or the payload bytes of a frame
+     */
+    public void setSize(int length) {
+        size = length;
+    }
+}
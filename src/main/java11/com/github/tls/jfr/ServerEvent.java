@@ -0,0 +1,42 @@
+package com.github.tls.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of the server, identifying the connection it concerns.
+ * <p>
+ * Java 11 version of the class, recording the event. Stack traces are not recorded: the events
+ * come from a handful of call sites, and walking the stack would dominate their cost.
+ */
+@Category({"mTLS", "Server"})
+@StackTrace(false)
+public abstract class ServerEvent extends Event {
+
+    // Not private: JFR records the private fields of the event class only, not those of its superclasses
+    @Label("Remote Address")
+    String remoteAddress;
+
+    @Label("Peer")
+    String peer;
+
+    /**
+     * Sets the address of the client.
+     *
+     * @param address the remote socket address
+     */
+    public void setRemoteAddress(String address) {
+        remoteAddress = address;
+    }
+
+    /**
+     * Sets the identity of the client.
+     *
+     * @param principal the name of the authenticated peer, or null if not authenticated
+     */
+    public void setPeer(String principal) {
+        peer = principal;
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.tls;
+
+import com.github.tls.protocol.FrameCodec;
+import com.github.tls.protocol.Protocol;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for AsyncClient class.
+ */
+class AsyncClientTest {
+
+    /** Seconds a test waits for replies. */
+    private static final long TIMEOUT_SECONDS = 10;
+    /** Number of threads sending concurrently over one connection. */
+    private static final int THREADS = 8;
+    /** Number of requests sent by each thread. */
+    private static final int REQUESTS_PER_THREAD = 200;
+
+    private Path keyStore;
+    private Server server;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyStore = TestStores.writeKeyStore();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        if (server != null) {
+            server.close();
+        }
+        Files.deleteIfExists(keyStore);
+    }
+
+    /**
+     * Test that the line protocol is rejected, since replies cannot be matched to requests.
+     */
+    @Test
+    void testRequiresFramedProtocol() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncClient(null, ClientConfig.defaults()));
+    }
+
+    /**
+     * Test that requests sent before connecting fail instead of waiting forever.
+     */
+    @Test
+    void testSendBeforeConnectFails() {
+        AsyncClient client = new AsyncClient(null, ClientConfig.builder().protocol(Protocol.FRAMED).build());
+
+        CompletableFuture<ByteBuffer> reply = client.send(ByteBuffer.allocate(1));
+
+        assertTrue(reply.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, reply::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals(0, client.getPendingRequests());
+    }
+
+    /**
+     * Test that replies to requests sent from many threads at once each reach their own request.
+     */
+    @Test
+    void testConcurrentRequestsGetTheirOwnReplies() throws Exception {
+        try (AsyncClient client = connect()) {
+            List<Future<List<String>>> mismatches = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                mismatches.add(executor.submit(() -> sendAll(client, thread)));
+            }
+            for (Future<List<String>> mismatch : mismatches) {
+                assertEquals(new ArrayList<String>(), mismatch.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            assertEquals(0, client.getPendingRequests());
+        }
+    }
+
+    /**
+     * Test that a payload too large for a frame fails on its own and leaves the connection usable.
+     */
+    @Test
+    void testOversizedPayloadKeepsConnection() throws Exception {
+        try (AsyncClient client = connect()) {
+            CompletableFuture<ByteBuffer> oversized = client.send(ByteBuffer.allocate(FrameCodec.MAX_FRAME_LENGTH));
+
+            ExecutionException e = assertThrows(ExecutionException.class, oversized::get);
+            assertTrue(e.getCause() instanceof ProtocolException);
+            assertEquals("still open", client.sendMessage("still open").get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    private AsyncClient connect() throws Exception {
+        server = new Server(TestStores.PASSWORD,
+                TestStores.serverConfig(keyStore).port(0).protocol(Protocol.FRAMED).build());
+        int port = server.start();
+        AsyncClient client = new AsyncClient(server.getContext(),
+                ClientConfig.builder().protocol(Protocol.FRAMED).port(port).build());
+        client.connect();
+        return client;
+    }
+
+    /**
+     * Sends all requests of one thread before waiting for any reply.
+     *
+     * @return the requests whose reply did not match, empty if every reply matched
+     */
+    private static List<String> sendAll(AsyncClient client, int thread) throws Exception {
+        List<String> messages = new ArrayList<>();
+        List<CompletableFuture<String>> replies = new ArrayList<>();
+        for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+            String message = "thread " + thread + " request " + i;
+            messages.add(message);
+            replies.add(client.sendMessage(message));
+        }
+        List<String> mismatches = new ArrayList<>();
+        for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+            if (!messages.get(i).equals(replies.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS))) {
+                mismatches.add(messages.get(i));
+            }
+        }
+        return mismatches;
+    }
+}
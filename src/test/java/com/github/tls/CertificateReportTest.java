@@ -0,0 +1,74 @@
+package com.github.tls;
+
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for CertificateReport class.
+ */
+class CertificateReportTest {
+
+    /** Length of a SHA-256 fingerprint in hex. */
+    private static final int FINGERPRINT_LENGTH = 64;
+
+    private X509Certificate cert;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cert = (X509Certificate) TestStores.loadKeyStore().getCertificate("server");
+    }
+
+    @Test
+    void testReportHoldsCertificateFields() throws Exception {
+        CertificateReport report = CertificateReport.of("server", cert, "TLSv1.3", "TLSv1.2");
+
+        assertEquals(FINGERPRINT_LENGTH, report.getFingerprint().length());
+        assertEquals(cert.getSubjectX500Principal().getName(), report.getSubject());
+        assertEquals(cert.getIssuerX500Principal().getName(), report.getIssuer());
+        assertEquals(cert.getNotAfter().toInstant(), report.getNotAfter());
+        assertEquals("SHA256withECDSA", report.getSignatureAlgorithm());
+        assertTrue(report.getKeyUsage().isEmpty());
+        assertTrue(report.getExtendedKeyUsage().isEmpty());
+        assertTrue(report.getSubjectAlternativeNames().isEmpty());
+        assertEquals(Arrays.asList("TLSv1.3", "TLSv1.2"), report.getTlsVersions());
+        assertTrue(report.isValidAt(Instant.now()));
+        assertFalse(report.isValidAt(report.getNotAfter().plusSeconds(1)));
+    }
+
+    @Test
+    void testCompatibility() throws Exception {
+        CertificateReport report = CertificateReport.of("server", cert, "TLSv1.3", "TLSv1.2");
+
+        assertTrue(report.isCompatibleWith("TLSv1.3"));
+        assertNull(report.getIncompatibility("TLSv1.3"));
+        // Versions that were not checked are not reported as compatible
+        assertFalse(report.isCompatibleWith("TLSv1.1"));
+        assertNull(report.getIncompatibility("TLSv1.1"));
+    }
+
+    @Test
+    void testFingerprintMatchesAcrossInstances() throws Exception {
+        X509Certificate reloaded = (X509Certificate) TestStores.loadKeyStore().getCertificate("server");
+
+        assertEquals(CertificateReport.fingerprint(cert), CertificateReport.fingerprint(reloaded));
+    }
+
+    @Test
+    void testReportIsImmutable() throws Exception {
+        CertificateReport report = CertificateReport.of("server", cert, "TLSv1.3");
+
+        assertThrows(UnsupportedOperationException.class, () -> report.getKeyUsage().add("x"));
+        assertThrows(UnsupportedOperationException.class, () -> report.getTlsVersions().add("x"));
+        assertNotNull(report.toString());
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.tls;
+
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.SSLContextConfig;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ClientConfig class.
+ */
+class ClientConfigTest {
+
+    /**
+     * Test default configuration values.
+     */
+    @Test
+    void testDefaults() {
+        ClientConfig config = ClientConfig.defaults();
+
+        assertEquals(ClientConfig.DEFAULT_HOST, config.getHost());
+        assertEquals(Server.SSL_PORT, config.getPort());
+        assertEquals(Protocol.LINE, config.getProtocol());
+        assertFalse(config.isSingleUseMode());
+        assertTrue(config.isDiagnosticsEnabled());
+        assertEquals(ClientConfig.DEFAULT_PIPELINE_DEPTH, config.getPipelineDepth());
+        assertEquals(ClientConfig.DEFAULT_PIPELINE_BYTES, config.getPipelineBytes());
+        assertEquals(ClientConfig.DEFAULT_READ_TIMEOUT_MILLIS, config.getReadTimeoutMillis());
+        assertEquals(SSLContextConfig.DEFAULT_ENABLED_PROTOCOLS, config.getTlsProtocols());
+        assertEquals(SSLContextConfig.DEFAULT_CIPHER_SUITES, config.getCipherSuites());
+    }
+
+    /**
+     * Test builder overrides.
+     */
+    @Test
+    void testBuilderOverrides() {
+        ClientConfig config = ClientConfig.builder()
+                .host("example.com")
+                .port(9443)
+                .protocol(Protocol.FRAMED)
+                .singleUseMode(true)
+                .pipelineDepth(8)
+                .pipelineBytes(4096)
+                .readTimeoutMillis(2500)
+                .diagnosticsEnabled(false)
+                .tlsProtocols("TLSv1.3")
+                .cipherSuites("TLS_AES_128_GCM_SHA256")
+                .build();
+
+        assertEquals("example.com", config.getHost());
+        assertEquals(9443, config.getPort());
+        assertEquals(Protocol.FRAMED, config.getProtocol());
+        assertTrue(config.isSingleUseMode());
+        assertEquals(8, config.getPipelineDepth());
+        assertEquals(4096, config.getPipelineBytes());
+        assertEquals(2500, config.getReadTimeoutMillis());
+        assertFalse(config.isDiagnosticsEnabled());
+        assertEquals(Collections.singletonList("TLSv1.3"), config.getTlsProtocols());
+        assertEquals(Collections.singletonList("TLS_AES_128_GCM_SHA256"), config.getCipherSuites());
+    }
+
+    /**
+     * Test builder validation of invalid values.
+     */
+    @Test
+    void testBuilderRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().host(""));
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().host(null));
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().port(0));
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().protocol(null));
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().pipelineDepth(0));
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().pipelineBytes(0));
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().readTimeoutMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().tlsProtocols());
+        assertThrows(IllegalArgumentException.class, () -> ClientConfig.builder().cipherSuites());
+    }
+}
@@ -2,6 +2,7 @@ package com.github.tls;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import javax.net.ssl.SSLContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -137,4 +139,14 @@ class ClientTest {
         assertNotNull(Client.class);
         assertEquals("Client", Client.class.getSimpleName());
     }
+
+    /**
+     * Test that a request before connecting is rejected rather than silently dropped.
+     */
+    @Test
+    void testRequestRequiresConnection() throws Exception {
+        Client client = new Client(SSLContext.getDefault(), ClientConfig.defaults());
+
+        assertThrows(IllegalStateException.class, () -> client.request("Hello"));
+    }
 }
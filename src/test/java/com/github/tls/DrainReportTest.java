@@ -0,0 +1,31 @@
+package com.github.tls;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for DrainReport class.
+ */
+class DrainReportTest {
+
+    @Test
+    void testCompleteWhenNothingWasCut() {
+        DrainReport report = new DrainReport(3, 0, 12);
+
+        assertEquals(3, report.getDrained());
+        assertEquals(0, report.getCut());
+        assertEquals(12, report.getElapsedMillis());
+        assertTrue(report.isComplete());
+        assertEquals("DrainReport[drained=3, cut=0, elapsedMillis=12]", report.toString());
+    }
+
+    @Test
+    void testIncompleteWhenConnectionsWereCut() {
+        DrainReport report = new DrainReport(1, 2, 30_000);
+
+        assertFalse(report.isComplete());
+    }
+}
@@ -1,7 +1,11 @@
 package com.github.tls;
 
+import com.github.tls.metrics.HandshakeFailure;
+import com.github.tls.metrics.HandshakeMetrics;
+import com.github.tls.metrics.HandshakeSnapshot;
 import javax.net.ssl.HandshakeCompletedEvent;
 import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLHandshakeException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -147,4 +151,23 @@ class MyHandshakeListenerTest {
 
         verify(mockEvent).getCipherSuite();
     }
+
+    /**
+     * Test that completed and failed handshakes are recorded in the listener's metrics.
+     */
+    @Test
+    void testHandshakeRecordedInMetrics() {
+        when(mockEvent.getCipherSuite()).thenReturn("TLS_AES_256_GCM_SHA384");
+        HandshakeMetrics metrics = new HandshakeMetrics();
+
+        new MyHandshakeListener(metrics).handshakeCompleted(mockEvent);
+        new MyHandshakeListener(metrics).handshakeFailed(
+                new SSLHandshakeException("Received fatal alert: certificate_unknown"));
+
+        HandshakeSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getCompleted());
+        assertEquals(Long.valueOf(1), snapshot.getCipherSuites().get("TLS_AES_256_GCM_SHA384"));
+        assertEquals(Long.valueOf(1), snapshot.getFailures().get(HandshakeFailure.CERTIFICATE_UNTRUSTED));
+        verify(mockEvent).getCipherSuite();
+    }
 }
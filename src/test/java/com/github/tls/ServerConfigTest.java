@@ -0,0 +1,148 @@
+package com.github.tls;
+
+import com.github.tls.protocol.Protocol;
+import com.github.tls.ssl.CachingX509TrustManager;
+import com.github.tls.ssl.SSLContextConfig;
+import com.github.tls.ssl.SessionTicketKeyStore;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ServerConfig class.
+ */
+class ServerConfigTest {
+
+    /**
+     * Test default configuration values.
+     */
+    @Test
+    void testDefaults() {
+        ServerConfig config = ServerConfig.defaults();
+
+        assertEquals(ServerConfig.DEFAULT_WORKER_THREADS, config.getWorkerThreads());
+        assertEquals(ServerConfig.DEFAULT_QUEUE_CAPACITY, config.getQueueCapacity());
+        assertEquals(ServerConfig.RejectionPolicy.CLOSE_NEWEST, config.getRejectionPolicy());
+        assertEquals(ServerConfig.DEFAULT_READ_TIMEOUT_MILLIS, config.getReadTimeoutMillis());
+        assertEquals(Server.SSL_PORT, config.getPort());
+        assertEquals(ServerConfig.ExecutionMode.PLATFORM_POOL, config.getExecutionMode());
+        assertEquals(Protocol.LINE, config.getProtocol());
+        assertEquals(ServerConfig.DEFAULT_EVENT_LOOPS, config.getEventLoops());
+        assertEquals(SSLContextConfig.DEFAULT_ENABLED_PROTOCOLS, config.getTlsProtocols());
+        assertEquals(SSLContextConfig.DEFAULT_CIPHER_SUITES, config.getCipherSuites());
+        assertEquals(SSLContextConfig.DEFAULT_SESSION_CACHE_SIZE, config.getSessionCacheSize());
+        assertEquals(SSLContextConfig.DEFAULT_SESSION_TIMEOUT_SECONDS, config.getSessionTimeoutSeconds());
+        assertTrue(config.isSessionTickets());
+        assertNull(config.getSessionTicketKeyStore());
+        assertEquals(ServerConfig.DEFAULT_KEYSTORE, config.getKeyStore());
+        assertEquals(ServerConfig.DEFAULT_TRUSTSTORE, config.getTrustStore());
+        assertEquals(SSLContextConfig.NO_RELOAD, config.getStoreReloadMillis());
+        assertEquals(CachingX509TrustManager.DEFAULT_MAX_ENTRIES, config.getTrustCacheSize());
+        assertTrue(config.getCrlLocations().isEmpty());
+        assertEquals(SSLContextConfig.DEFAULT_CRL_REFRESH_MILLIS, config.getCrlRefreshMillis());
+        assertEquals(ServerConfig.DEFAULT_DRAIN_TIMEOUT_MILLIS, config.getDrainTimeoutMillis());
+        assertTrue(config.isJmxEnabled());
+        assertTrue(config.isDiagnosticsEnabled());
+        assertTrue(config.getWorkerThreads() >= 2);
+    }
+
+    /**
+     * Test builder overrides.
+     */
+    @Test
+    void testBuilderOverrides() {
+        SessionTicketKeyStore store = now -> Collections.emptyList();
+        ServerConfig config = ServerConfig.builder()
+                .workerThreads(4)
+                .queueCapacity(16)
+                .rejectionPolicy(ServerConfig.RejectionPolicy.CLOSE_OLDEST)
+                .readTimeoutMillis(250)
+                .port(9443)
+                .executionMode(ServerConfig.ExecutionMode.VIRTUAL_THREADS)
+                .protocol(Protocol.FRAMED)
+                .eventLoops(3)
+                .tlsProtocols("TLSv1.3")
+                .cipherSuites("TLS_AES_128_GCM_SHA256")
+                .sessionCacheSize(1000)
+                .sessionTimeoutSeconds(3600)
+                .sessionTickets(false)
+                .sessionTicketKeyStore(store)
+                .keyStore("/etc/mtls/server.p12")
+                .trustStore("/etc/mtls/truststore.p12")
+                .storeReloadMillis(5000)
+                .trustCacheSize(0)
+                .crlLocations("/etc/mtls/crl.pem")
+                .crlRefreshMillis(1000)
+                .drainTimeoutMillis(0)
+                .jmxEnabled(false)
+                .diagnosticsEnabled(false)
+                .build();
+
+        assertEquals(4, config.getWorkerThreads());
+        assertEquals(16, config.getQueueCapacity());
+        assertEquals(ServerConfig.RejectionPolicy.CLOSE_OLDEST, config.getRejectionPolicy());
+        assertEquals(250, config.getReadTimeoutMillis());
+        assertEquals(9443, config.getPort());
+        assertEquals(ServerConfig.ExecutionMode.VIRTUAL_THREADS, config.getExecutionMode());
+        assertEquals(Protocol.FRAMED, config.getProtocol());
+        assertEquals(3, config.getEventLoops());
+        assertEquals(Collections.singletonList("TLSv1.3"), config.getTlsProtocols());
+        assertEquals(Collections.singletonList("TLS_AES_128_GCM_SHA256"), config.getCipherSuites());
+        assertEquals(1000, config.getSessionCacheSize());
+        assertEquals(3600, config.getSessionTimeoutSeconds());
+        assertFalse(config.isSessionTickets());
+        assertSame(store, config.getSessionTicketKeyStore());
+        assertEquals("/etc/mtls/server.p12", config.getKeyStore());
+        assertEquals("/etc/mtls/truststore.p12", config.getTrustStore());
+        assertEquals(5000, config.getStoreReloadMillis());
+        assertEquals(SSLContextConfig.NO_TRUST_CACHE, config.getTrustCacheSize());
+        assertEquals(Collections.singletonList("/etc/mtls/crl.pem"), config.getCrlLocations());
+        assertEquals(1000, config.getCrlRefreshMillis());
+        assertEquals(0, config.getDrainTimeoutMillis());
+        assertFalse(config.isJmxEnabled());
+        assertFalse(config.isDiagnosticsEnabled());
+    }
+
+    /**
+     * Test that each build returns a new instance.
+     */
+    @Test
+    void testBuildReturnsNewInstance() {
+        ServerConfig.Builder builder = ServerConfig.builder();
+        assertNotSame(builder.build(), builder.build());
+    }
+
+    /**
+     * Test builder validation of invalid values.
+     */
+    @Test
+    void testBuilderRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().workerThreads(0));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().queueCapacity(0));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().rejectionPolicy(null));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().port(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().port(65536));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().executionMode(null));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().protocol(null));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().eventLoops(0));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().tlsProtocols());
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().cipherSuites());
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().sessionCacheSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().sessionTimeoutSeconds(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().keyStore(""));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().trustStore(null));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().storeReloadMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().trustCacheSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().crlLocations());
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().crlRefreshMillis(0));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().drainTimeoutMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.builder().readTimeoutMillis(-1));
+    }
+}
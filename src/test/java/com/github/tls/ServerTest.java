@@ -1,8 +1,25 @@
 package com.github.tls;
 
+import com.github.tls.protocol.FrameCodec;
+import com.github.tls.protocol.Protocol;
+import com.github.tls.transport.MemoryTransport;
+import com.github.tls.transport.TlsStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLSocket;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +29,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -22,6 +40,15 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 @ExtendWith(MockitoExtension.class)
 class ServerTest {
 
+    /** Longest wait for the server in the lifecycle tests, in seconds. */
+    private static final long TIMEOUT_SECONDS = 10;
+    /** Payload larger than the in-memory pipes, so that echoing it blocks until the client reads. */
+    private static final int LARGE_PAYLOAD = 2 * MemoryTransport.DEFAULT_PIPE_CAPACITY;
+    /** Milliseconds between checks of a condition the test waits for. */
+    private static final long POLL_MILLIS = 10;
+    /** Read timeout short enough for a test to wait it out, in milliseconds. */
+    private static final int SHORT_TIMEOUT_MILLIS = 200;
+
     private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
     private final PrintStream originalOut = System.out;
 
@@ -97,6 +124,11 @@ class ServerTest {
         assertDoesNotThrow(() -> {
             Server.class.getDeclaredConstructor(String.class);
         });
+
+        // Verify Server has a constructor that takes a configuration
+        assertDoesNotThrow(() -> {
+            Server.class.getDeclaredConstructor(String.class, ServerConfig.class);
+        });
     }
 
     /**
@@ -119,4 +151,295 @@ class ServerTest {
         assertEquals("com.github.tls", Server.class.getPackage().getName());
         assertTrue(java.lang.reflect.Modifier.isPublic(Server.class.getModifiers()));
     }
+
+    /**
+     * Test that start returns once the server listens and that a stopped server can be started again.
+     */
+    @Test
+    void testStartStopAndRestart() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        try {
+            Server server = new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).port(0).build());
+            int port = server.start();
+            assertTrue(port > 0);
+            assertEquals(port, server.getPort());
+            assertEquals(port, server.ready().get(TIMEOUT_SECONDS, TimeUnit.SECONDS).intValue());
+            assertEquals("Echo: Hello", request(server, port, "Hello"));
+            assertThrows(IllegalStateException.class, server::start);
+
+            server.stop();
+            assertEquals(-1, server.getPort());
+            assertFalse(server.ready().isDone());
+            assertThrows(IOException.class, () -> new Socket(InetAddress.getLoopbackAddress(), port).close());
+
+            int restarted = server.start();
+            assertEquals("Echo: again", request(server, restarted, "again"));
+            server.stop();
+        } finally {
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that the ready future completes for a server run on a caller-provided thread.
+     */
+    @Test
+    void testReadyWhenRunOnOwnThread() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        try {
+            Server server = new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).port(0).build());
+            assertDoesNotThrow(server::stop);
+            assertFalse(server.ready().isDone());
+
+            Thread thread = new Thread(server, "server-test");
+            thread.start();
+            int port = server.ready().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(port, server.getPort());
+
+            server.stop();
+            thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            assertFalse(thread.isAlive());
+        } finally {
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that a drain closes an idle connection at once and stops accepting.
+     */
+    @Test
+    void testDrainClosesIdleConnections() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        try {
+            Server server = new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).port(0).build());
+            int port = server.start();
+            Client client = new Client(server.getContext(), ClientConfig.builder().port(port).build());
+            client.connect();
+            assertEquals("Echo: Hello", client.request("Hello"));
+
+            DrainReport report = server.drain(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            client.close();
+
+            assertEquals(1, report.getDrained());
+            assertEquals(0, report.getCut());
+            assertTrue(report.isComplete());
+            assertTrue(report.getElapsedMillis() < TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            assertEquals(-1, server.getPort());
+            assertEquals(0, server.getStats().getActiveConnections());
+        } finally {
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that a drain lets the exchange in flight finish, then closes the connection cleanly.
+     */
+    @Test
+    void testDrainLetsExchangeInFlightFinish() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Server server = framedServer(keyStore);
+            TlsStream client = inFlight(server, executor);
+            Future<DrainReport> draining = executor.submit(
+                    () -> server.drain(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)));
+
+            DataInputStream in = new DataInputStream(client.getInputStream());
+            ByteBuffer reply = FrameCodec.readFrame(in, ByteBuffer.allocate(FrameCodec.INITIAL_BUFFER_CAPACITY));
+            assertEquals(LARGE_PAYLOAD, reply.remaining());
+            assertEquals(-1, in.read());
+
+            DrainReport report = draining.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(1, report.getDrained());
+            assertEquals(0, report.getCut());
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that a drain completes the handshake of a connection waiting for a worker, then closes it
+     * cleanly, rather than closing it before its handshake.
+     */
+    @Test
+    void testDrainServesConnectionWaitingForWorker() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Server server = new Server(TestStores.PASSWORD,
+                    TestStores.serverConfig(keyStore).port(0).workerThreads(1).build());
+            int port = server.start();
+            Client first = new Client(server.getContext(), ClientConfig.builder().port(port).build());
+            first.connect();
+            assertEquals("Echo: Hello", first.request("Hello"));
+            // The only worker is serving the first connection, so the second one waits in the queue
+            SSLSocket waiting = (SSLSocket) server.getContext().getSocketFactory()
+                    .createSocket(ClientConfig.DEFAULT_HOST, port);
+            Future<Integer> handshake = executor.submit(() -> {
+                waiting.startHandshake();
+                return waiting.getInputStream().read();
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (server.getStats().getAcceptedConnections() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(POLL_MILLIS);
+            }
+
+            DrainReport report = server.drain(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+
+            assertEquals(-1, (int) handshake.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(2, report.getDrained());
+            assertEquals(0, report.getCut());
+            first.close();
+            waiting.close();
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that a server run on its own thread reports a port it cannot bind through its readiness
+     * future rather than by throwing.
+     */
+    @Test
+    void testRunReportsBindFailure() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        try (ServerSocket taken = new ServerSocket(0)) {
+            Server server = new Server(TestStores.PASSWORD,
+                    TestStores.serverConfig(keyStore).port(taken.getLocalPort()).build());
+
+            assertDoesNotThrow(server::run);
+            assertTrue(server.ready().isCompletedExceptionally());
+            assertEquals(-1, server.getPort());
+        } finally {
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that a drain cuts a connection still in an exchange at the deadline.
+     */
+    @Test
+    void testDrainCutsAtDeadline() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Server server = framedServer(keyStore);
+            inFlight(server, executor);
+
+            DrainReport report = server.drain(0);
+
+            assertEquals(0, report.getDrained());
+            assertEquals(1, report.getCut());
+            assertFalse(report.isComplete());
+            assertThrows(IllegalArgumentException.class, () -> server.drain(-1));
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that a connection silent for longer than the read timeout is closed.
+     */
+    @Test
+    void testSilentConnectionTimesOut() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Server server = new Server(TestStores.PASSWORD,
+                    TestStores.serverConfig(keyStore).readTimeoutMillis(SHORT_TIMEOUT_MILLIS).build());
+            Client client = new Client(server.getContext(), ClientConfig.defaults());
+            MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+            Future<?> serving = executor.submit(() -> server.serve(transport.getServerStream()));
+            client.connect(transport.getClientStream());
+            assertEquals("Echo: Hello", client.request("Hello"));
+
+            // The server gives up on the silent client and frees the thread serving it
+            serving.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertTrue(transport.getServerStream().isClosed());
+            assertEquals(0, server.getStats().getActiveConnections());
+            client.close();
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that closing the server ends its worker threads and that it cannot be started again.
+     */
+    @Test
+    void testCloseEndsWorkers() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        try {
+            int workersBefore = countWorkerThreads();
+            Server server = new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).port(0).build());
+            int port = server.start();
+            assertEquals("Echo: Hello", request(server, port, "Hello"));
+
+            server.close();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (countWorkerThreads() > workersBefore && System.nanoTime() < deadline) {
+                Thread.sleep(POLL_MILLIS);
+            }
+            assertEquals(workersBefore, countWorkerThreads());
+            assertEquals(-1, server.getPort());
+            assertThrows(IllegalStateException.class, server::start);
+            assertDoesNotThrow(server::close);
+        } finally {
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    private static int countWorkerThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("mTLS-Worker-") && thread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Server framedServer(Path keyStore) {
+        return new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).protocol(Protocol.FRAMED).build());
+    }
+
+    /**
+     * Serves an in-memory connection and sends it a frame whose echo does not fit in the pipe, so the
+     * server stays in the exchange until the client reads the reply.
+     */
+    private static TlsStream inFlight(Server server, ExecutorService executor) throws Exception {
+        Client client = new Client(server.getContext(), ClientConfig.defaults());
+        MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+        executor.submit(() -> server.serve(transport.getServerStream()));
+        TlsStream stream = transport.getClientStream();
+        byte[] payload = new byte[LARGE_PAYLOAD];
+        Arrays.fill(payload, (byte) 'x');
+        FrameCodec.writeFrame(stream.getOutputStream(), ByteBuffer.wrap(payload));
+        stream.getOutputStream().flush();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (server.getStats().getMessagesReceived() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        assertEquals(1, server.getStats().getMessagesReceived());
+        return stream;
+    }
+
+    private static String request(Server server, int port, String message) throws IOException {
+        Client client = new Client(server.getContext(), ClientConfig.builder()
+                .port(port)
+                .readTimeoutMillis((int) TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS))
+                .build());
+        client.connect();
+        try {
+            return client.request(message);
+        } finally {
+            client.close();
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.github.tls;
+
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for StartupDiagnostics class, running the diagnostics on the calling thread.
+ */
+class StartupDiagnosticsTest {
+
+    private KeyStore keyStore;
+    private SSLContext context;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyStore = TestStores.loadKeyStore();
+        context = SSLContext.getInstance("TLS");
+        context.init(null, null, null);
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    void testAnalyzeBuildsReport() throws Exception {
+        StartupDiagnostics diagnostics = new StartupDiagnostics(this::countAndRun);
+
+        CertificateReport report = diagnostics.analyze(keyStore, "server", context).get();
+
+        X509Certificate cert = (X509Certificate) keyStore.getCertificate("server");
+        assertEquals("server", report.getAlias());
+        assertEquals(CertificateReport.fingerprint(cert), report.getFingerprint());
+        assertEquals("CN=memory-transport-test", report.getSubject());
+        assertEquals(context.getDefaultSSLParameters().getProtocols().length, report.getTlsVersions().size());
+        assertSame(report, diagnostics.getReport(report.getFingerprint()));
+        assertEquals(1, diagnostics.getReports().size());
+    }
+
+    @Test
+    void testAnalyzeRunsOncePerCertificate() throws Exception {
+        StartupDiagnostics diagnostics = new StartupDiagnostics(this::countAndRun);
+        // The same certificate under a second alias is still the same certificate
+        keyStore.setCertificateEntry("copy", keyStore.getCertificate("server"));
+
+        CompletableFuture<CertificateReport> first = diagnostics.analyze(keyStore, "server", context);
+        CompletableFuture<CertificateReport> second = diagnostics.analyze(keyStore, "copy", context);
+
+        assertSame(first, second);
+        assertEquals(1, runs.get());
+        assertEquals("server", second.get().getAlias());
+    }
+
+    @Test
+    void testAnalyzeIsDeferredToExecutor() throws Exception {
+        CompletableFuture<Runnable> submitted = new CompletableFuture<>();
+        StartupDiagnostics diagnostics = new StartupDiagnostics(submitted::complete);
+
+        CompletableFuture<CertificateReport> report = diagnostics.analyze(keyStore, "server", context);
+        assertFalse(report.isDone());
+        assertTrue(diagnostics.getReports().isEmpty());
+
+        submitted.get().run();
+        assertTrue(report.isDone());
+        assertEquals(1, diagnostics.getReports().size());
+    }
+
+    @Test
+    void testMissingAliasFails() {
+        StartupDiagnostics diagnostics = new StartupDiagnostics(this::countAndRun);
+
+        CompletableFuture<CertificateReport> report = diagnostics.analyze(keyStore, "missing", context);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, report::get);
+        assertTrue(failure.getCause() instanceof CertificateException);
+        assertEquals(0, runs.get());
+        assertTrue(diagnostics.getReports().isEmpty());
+    }
+
+    @Test
+    void testRejectedAnalysisIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        StartupDiagnostics diagnostics = new StartupDiagnostics(task -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RejectedExecutionException("busy");
+            }
+            task.run();
+        });
+
+        CompletableFuture<CertificateReport> rejected = diagnostics.analyze(keyStore, "server", context);
+        assertTrue(rejected.isCompletedExceptionally());
+        assertNull(diagnostics.getReport(CertificateReport.fingerprint(
+                (X509Certificate) keyStore.getCertificate("server"))));
+
+        CompletableFuture<CertificateReport> retried = diagnostics.analyze(keyStore, "server", context);
+        assertEquals("server", retried.get().getAlias());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testDefaultIsShared() {
+        assertSame(StartupDiagnostics.getDefault(), StartupDiagnostics.getDefault());
+    }
+
+    private void countAndRun(Runnable task) {
+        runs.incrementAndGet();
+        task.run();
+    }
+}
@@ -4,12 +4,14 @@ import java.security.KeyStore;
 import java.security.Provider;
 import java.util.Enumeration;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -82,6 +84,27 @@ class TLSCompatibilityAnalyzerTest {
         });
     }
 
+    /**
+     * Test that the enabled protocols come from the context's default parameters.
+     */
+    @Test
+    void testGetEnabledProtocols() {
+        SSLParameters parameters = new SSLParameters(new String[0], new String[] {"TLSv1.3", "TLSv1.2"});
+        when(mockSSLContext.getDefaultSSLParameters()).thenReturn(parameters);
+
+        assertArrayEquals(new String[] {"TLSv1.3", "TLSv1.2"}, analyzer.getEnabledProtocols());
+    }
+
+    /**
+     * Test that the context protocol is used when the context has no default parameters.
+     */
+    @Test
+    void testGetEnabledProtocolsFallsBackToContextProtocol() {
+        when(mockSSLContext.getProtocol()).thenReturn("TLSv1.2");
+
+        assertArrayEquals(new String[] {"TLSv1.2"}, analyzer.getEnabledProtocols());
+    }
+
     /**
      * Test displayTLSInfo method.
      */
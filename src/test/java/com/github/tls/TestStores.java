@@ -0,0 +1,77 @@
+package com.github.tls;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Base64;
+
+/**
+ * Key material for tests that run a real {@link Server} and {@link Client} without the keystores
+ * generated by {@code create-keystore.sh}.
+ */
+public final class TestStores {
+
+    /** Password of the test keystore. */
+    public static final String PASSWORD = "changeit";
+    /**
+     * JKS keystore holding a self-signed EC key under the alias "server", valid until 2126. Serving
+     * as its own truststore, it lets the same identity act as both server and client.
+     */
+    private static final String KEYSTORE = "/u3+7QAAAAIAAAABAAAAAQAGc2VydmVyAAABoUZPy2oAAAB/MH0wDgYKKwYBBAEq"
+            + "AhEBAQUABGvdLYNc4/shDcil8oZWgSoPhztbjTbPVOAmsV2IPzMlAdHw44Yr0VtF"
+            + "5q0+whHE2/46syOnHGvnv5dNRJ+VyqIfgjJ/3t0psPmvFqUDDbXipWbGetPt9j+X"
+            + "ynzGz2OWFK5C1Wj7Yheuvna7UAAAAAEABVguNTA5AAABXDCCAVgwgf+gAwIBAgII"
+            + "FqwTfleM678wCgYIKoZIzj0EAwIwIDEeMBwGA1UEAxMVbWVtb3J5LXRyYW5zcG9y"
+            + "dC10ZXN0MCAXDTI2MTAxNjIwMDMxNloYDzIxMjYwOTIyMjAwMzE2WjAgMR4wHAYD"
+            + "VQQDExVtZW1vcnktdHJhbnNwb3J0LXRlc3QwWTATBgcqhkjOPQIBBggqhkjOPQMB"
+            + "BwNCAATGiIw9ei2VomL08yaGv4PMGG3oDKHj8vgWGjflLi3UDfDu3+KdOWDvIA7t"
+            + "g/ReYJngmGX3ovrCQbwSVV/cCa1YoyEwHzAdBgNVHQ4EFgQUahCNs2k+kiD5Sa3t"
+            + "AESTlSyjpNMwCgYIKoZIzj0EAwIDSAAwRQIhAKZVkAeOcqLNsTR9wXl7IEVAj7b0"
+            + "wkDaDJ5zdMIReYaeAiBxCHhKWCs8/OV883+PtcVLIQEFQ0+EMiYLAIBpiFyTArhK"
+            + "nRfi1esR0HebhHT88BInr+qN";
+
+    private TestStores() {
+    }
+
+    /**
+     * Writes the test keystore to a temporary file, which the caller deletes.
+     *
+     * @return the keystore file
+     * @throws IOException if the file cannot be written
+     */
+    public static Path writeKeyStore() throws IOException {
+        Path keyStore = Files.createTempFile("test-keystore", ".jks");
+        Files.write(keyStore, Base64.getDecoder().decode(KEYSTORE));
+        return keyStore;
+    }
+
+    /**
+     * Loads the test keystore in memory.
+     *
+     * @return the keystore
+     * @throws GeneralSecurityException if the keystore cannot be read
+     * @throws IOException if the keystore cannot be read
+     */
+    public static KeyStore loadKeyStore() throws GeneralSecurityException, IOException {
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        keyStore.load(new ByteArrayInputStream(Base64.getDecoder().decode(KEYSTORE)), PASSWORD.toCharArray());
+        return keyStore;
+    }
+
+    /**
+     * Starts a server configuration using a test keystore as both keystore and truststore, with JMX
+     * disabled so that tests do not share MXBeans.
+     *
+     * @param keyStore the file written by {@link #writeKeyStore()}
+     * @return the configuration builder
+     */
+    public static ServerConfig.Builder serverConfig(Path keyStore) {
+        return ServerConfig.builder()
+                .keyStore(keyStore.toString())
+                .trustStore(keyStore.toString())
+                .jmxEnabled(false);
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.tls;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for VirtualThreads class.
+ */
+class VirtualThreadsTest {
+
+    /** Java release that made virtual threads final. */
+    private static final int VIRTUAL_THREADS_RELEASE = 21;
+
+    /**
+     * Test that support detection matches the running Java release.
+     */
+    @Test
+    void testSupportMatchesJavaRelease() {
+        assertEquals(javaRelease() >= VIRTUAL_THREADS_RELEASE, VirtualThreads.isSupported());
+    }
+
+    /**
+     * Test executor creation, which runs tasks on virtual threads or fails on older runtimes.
+     */
+    @Test
+    void testNewThreadPerTaskExecutor() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            assertThrows(UnsupportedOperationException.class,
+                    () -> VirtualThreads.newThreadPerTaskExecutor("test-"));
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        String[] name = new String[1];
+        executor.execute(() -> name[0] = Thread.currentThread().getName());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(name[0].startsWith("test-"));
+    }
+
+    private static int javaRelease() {
+        String version = System.getProperty("java.specification.version");
+        return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.tls.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for LoadConfig class.
+ */
+class LoadConfigTest {
+
+    /**
+     * Test default values.
+     */
+    @Test
+    void testDefaults() {
+        LoadConfig config = LoadConfig.defaults();
+
+        assertEquals(LoadConfig.DEFAULT_CONNECTIONS, config.getConnections());
+        assertEquals(0, config.getRequestsPerSecond());
+        assertFalse(config.isPaced());
+        assertEquals(LoadConfig.DEFAULT_DURATION_MILLIS, config.getDurationMillis());
+        assertEquals(LoadConfig.DEFAULT_WARMUP_MILLIS, config.getWarmupMillis());
+        assertEquals(LoadConfig.DEFAULT_MESSAGE_SIZE, config.getMessageSize());
+        assertEquals(0, config.getRequestsPerConnection());
+    }
+
+    /**
+     * Test builder overrides.
+     */
+    @Test
+    void testBuilderOverrides() {
+        LoadConfig config = LoadConfig.builder()
+                .connections(50)
+                .requestsPerSecond(5000)
+                .durationMillis(30000)
+                .warmupMillis(0)
+                .messageSize(1024)
+                .requestsPerConnection(100)
+                .build();
+
+        assertEquals(50, config.getConnections());
+        assertEquals(5000, config.getRequestsPerSecond());
+        assertTrue(config.isPaced());
+        assertEquals(30000, config.getDurationMillis());
+        assertEquals(0, config.getWarmupMillis());
+        assertEquals(1024, config.getMessageSize());
+        assertEquals(100, config.getRequestsPerConnection());
+    }
+
+    /**
+     * Test builder validation of invalid values.
+     */
+    @Test
+    void testBuilderRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.builder().connections(0));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.builder().requestsPerSecond(-1));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.builder().durationMillis(0));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.builder().warmupMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.builder().messageSize(0));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.builder().requestsPerConnection(-1));
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.tls.load;
+
+import com.github.tls.ClientConfig;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import javax.net.ssl.SSLContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for LoadGenerator class.
+ */
+class LoadGeneratorTest {
+
+    /**
+     * Test that the target rate is spread over the connections, staggered within one interval.
+     */
+    @Test
+    void testSchedule() {
+        long interval = LoadGenerator.intervalNanos(1000, 4);
+
+        assertEquals(4_000_000L, interval);
+        assertEquals(100L, LoadGenerator.firstDueNanos(100L, 0, 4, interval));
+        assertEquals(1_000_100L, LoadGenerator.firstDueNanos(100L, 1, 4, interval));
+        assertEquals(3_000_100L, LoadGenerator.firstDueNanos(100L, 3, 4, interval));
+        assertEquals(1L, LoadGenerator.intervalNanos(Integer.MAX_VALUE, 1));
+    }
+
+    /**
+     * Test that requests due while no connection can be opened count as failed, with the cause.
+     */
+    @Test
+    void testRunWithoutServer() throws Exception {
+        ClientConfig clientConfig = ClientConfig.builder().port(unusedPort()).build();
+        LoadConfig config = LoadConfig.builder()
+                .connections(2)
+                .requestsPerSecond(100)
+                .durationMillis(200)
+                .warmupMillis(0)
+                .build();
+
+        LoadReport report = new LoadGenerator(SSLContext.getDefault(), clientConfig, config).run();
+
+        assertEquals(0, report.getCompleted());
+        assertEquals(0, report.getHandshakes().getCount());
+        assertTrue(report.getFailed() > 0);
+        assertTrue(report.getConnectFailures() >= report.getFailed());
+        assertTrue(report.getElapsedNanos() >= 200_000_000L);
+        assertEquals(0.0, report.getThroughput());
+        assertEquals(Collections.singletonMap("ConnectException", report.getConnectFailures()),
+                report.getFailureCauses());
+        assertTrue(report.toString().contains("Failures:       ConnectException " + report.getConnectFailures()));
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.tls.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for ConnectionStats class.
+ */
+class ConnectionStatsTest {
+
+    /** Nanoseconds per second. */
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42L);
+    private final ConnectionStats stats = new ConnectionStats(clock::get);
+
+    /**
+     * Test the connection counters.
+     */
+    @Test
+    void testConnections() {
+        stats.connectionAccepted();
+        stats.connectionAccepted();
+        stats.connectionOpened();
+        stats.connectionOpened();
+        stats.connectionClosed();
+
+        assertEquals(2, stats.getAcceptedConnections());
+        assertEquals(1, stats.getActiveConnections());
+    }
+
+    /**
+     * Test that bytes are counted through the wrapped streams.
+     */
+    @Test
+    void testCountingStreams() throws Exception {
+        InputStream in = stats.countingInput(new ByteArrayInputStream(new byte[100]));
+        in.read();
+        in.read(new byte[64], 0, 64);
+        in.read(new byte[64], 0, 64);
+        in.read();
+        OutputStream out = stats.countingOutput(new ByteArrayOutputStream());
+        out.write(1);
+        out.write(new byte[10], 2, 5);
+
+        assertEquals(100, stats.getBytesRead());
+        assertEquals(6, stats.getBytesWritten());
+    }
+
+    /**
+     * Test that the message rate averages the complete seconds of the window only.
+     */
+    @Test
+    void testMessagesPerSecond() {
+        assertEquals(0, stats.getMessagesPerSecond());
+        for (int second = 0; second < 20; second++) {
+            for (int i = 0; i < second; i++) {
+                stats.messageReceived();
+            }
+            clock.addAndGet(SECOND);
+        }
+        // Seconds 10 to 19 are in the window, the current second 20 has no messages yet
+        assertEquals(14.5, stats.getMessagesPerSecond(), 1e-9);
+        stats.messageReceived();
+        assertEquals(14.5, stats.getMessagesPerSecond(), 1e-9);
+        assertEquals(191, stats.getMessagesReceived());
+
+        clock.addAndGet(60 * SECOND);
+        assertEquals(0, stats.getMessagesPerSecond());
+    }
+
+    /**
+     * Test the rate while fewer seconds than the window have passed.
+     */
+    @Test
+    void testMessagesPerSecondAfterStart() {
+        for (int i = 0; i < 6; i++) {
+            stats.messageReceived();
+        }
+        clock.addAndGet(2 * SECOND);
+
+        assertEquals(3, stats.getMessagesPerSecond(), 1e-9);
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.tls.metrics;
+
+import java.io.EOFException;
+import java.net.SocketTimeoutException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateExpiredException;
+import javax.net.ssl.SSLHandshakeException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for HandshakeMetrics class.
+ */
+class HandshakeMetricsTest {
+
+    private static final String TLS13 = "TLSv1.3";
+    private static final String AES128 = "TLS_AES_128_GCM_SHA256";
+
+    /**
+     * Test that completed handshakes are counted by protocol, cipher suite and peer.
+     */
+    @Test
+    void testRecordSuccess() {
+        HandshakeMetrics metrics = new HandshakeMetrics();
+        metrics.recordSuccess(System.nanoTime(), TLS13, AES128, "CN=client");
+        metrics.recordSuccess(System.nanoTime(), TLS13, "TLS_AES_256_GCM_SHA384", "CN=client");
+        metrics.recordSuccess(System.nanoTime(), "TLSv1.2", AES128, null);
+        HandshakeSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(3, snapshot.getCompleted());
+        assertEquals(0, snapshot.getFailed());
+        assertEquals(3, snapshot.getLatency().getCount());
+        assertEquals(Long.valueOf(2), snapshot.getProtocols().get(TLS13));
+        assertEquals(Long.valueOf(2), snapshot.getCipherSuites().get(AES128));
+        assertEquals(Long.valueOf(2), snapshot.getPeers().get("CN=client"));
+        assertEquals(Long.valueOf(1), snapshot.getPeers().get(HandshakeMetrics.UNKNOWN));
+    }
+
+    /**
+     * Test that peers beyond the limit are counted together.
+     */
+    @Test
+    void testPeersAreBounded() {
+        HandshakeMetrics metrics = new HandshakeMetrics();
+        for (int i = 0; i < HandshakeMetrics.MAX_PEERS + 10; i++) {
+            metrics.recordSuccess(System.nanoTime(), TLS13, AES128, "CN=client-" + i);
+        }
+        HandshakeSnapshot snapshot = metrics.snapshot();
+
+        assertTrue(snapshot.getPeers().size() <= HandshakeMetrics.MAX_PEERS + 1);
+        assertEquals(Long.valueOf(10), snapshot.getPeers().get(HandshakeMetrics.OTHER_PEERS));
+    }
+
+    /**
+     * Test that failures are counted by reason, from the cause or from the received alert.
+     */
+    @Test
+    void testRecordFailure() {
+        HandshakeMetrics metrics = new HandshakeMetrics();
+        metrics.recordFailure(handshakeException("PKIX path validation failed", new CertificateExpiredException()));
+        metrics.recordFailure(new SSLHandshakeException("Received fatal alert: certificate_expired"));
+        metrics.recordFailure(handshakeException("Certificate 20 issued by CN=Test CA has been revoked on 2026",
+                new CertificateException("wrapped")));
+        metrics.recordFailure(new SSLHandshakeException("Received fatal alert: certificate_unknown"));
+        metrics.recordFailure(new SSLHandshakeException("Empty client certificate chain"));
+        metrics.recordFailure(new SSLHandshakeException("Received fatal alert: protocol_version"));
+        metrics.recordFailure(new SSLHandshakeException("no cipher suites in common"));
+        metrics.recordFailure(new SocketTimeoutException("Read timed out"));
+        metrics.recordFailure(handshakeException("Remote host terminated the handshake", new EOFException()));
+        metrics.recordFailure(new IllegalStateException("unexpected"));
+        HandshakeSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(10, snapshot.getFailed());
+        assertEquals(0, snapshot.getCompleted());
+        assertEquals(Long.valueOf(2), snapshot.getFailures().get(HandshakeFailure.CERTIFICATE_EXPIRED));
+        for (HandshakeFailure reason : HandshakeFailure.values()) {
+            assertTrue(snapshot.getFailures().containsKey(reason), reason.name());
+        }
+    }
+
+    private static SSLHandshakeException handshakeException(String message, Throwable cause) {
+        SSLHandshakeException exception = new SSLHandshakeException(message);
+        exception.initCause(cause);
+        return exception;
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.tls.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for LatencyHistogram class.
+ */
+class LatencyHistogramTest {
+
+    /**
+     * Test that every value falls in a bucket whose upper end is within 1/16 above it.
+     */
+    @Test
+    void testBucketsBoundRelativeError() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1000, 999_999, 1L << 40, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucket(value);
+            long highest = LatencyHistogram.highestValue(bucket);
+
+            assertTrue(highest >= value, "bucket of " + value);
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS, "error for " + value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValue(bucket - 1) < value, "lower bucket of " + value);
+        }
+    }
+
+    /**
+     * Test percentiles, mean and maximum of recorded latencies.
+     */
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500_500, snapshot.getMeanNanos());
+        assertEquals(1_000_000, snapshot.getMaxNanos());
+        assertWithin(500_000, snapshot.getPercentileNanos(0.5));
+        assertWithin(990_000, snapshot.getPercentileNanos(0.99));
+        assertEquals(1_000_000, snapshot.getPercentileNanos(1.0));
+    }
+
+    /**
+     * Test that an empty histogram reports zeros and negative latencies count as zero.
+     */
+    @Test
+    void testEmptyAndNegative() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.snapshot().getPercentileNanos(0.99));
+        histogram.record(-5);
+        assertEquals(0, histogram.snapshot().getPercentileNanos(0.99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.snapshot().getPercentileNanos(1.5));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / LatencyHistogram.SUB_BUCKETS,
+                "expected about " + expected + " but was " + actual);
+    }
+}
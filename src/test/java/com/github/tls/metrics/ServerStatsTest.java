@@ -0,0 +1,57 @@
+package com.github.tls.metrics;
+
+import com.github.tls.ssl.SessionStats;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLHandshakeException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ServerStats class.
+ */
+class ServerStatsTest {
+
+    /** Port used in the object name; nothing listens on it. */
+    private static final int PORT = 18999;
+
+    /**
+     * Test that the statistics are readable as MXBean attributes and unregistered again.
+     */
+    @Test
+    void testRegisteredAttributes() throws Exception {
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, null, null);
+        ConnectionStats connections = new ConnectionStats();
+        connections.connectionAccepted();
+        HandshakeMetrics handshakes = new HandshakeMetrics();
+        handshakes.recordSuccess(System.nanoTime(), "TLSv1.3", "TLS_AES_128_GCM_SHA256", "CN=client");
+        handshakes.recordFailure(new SSLHandshakeException("Received fatal alert: certificate_unknown"));
+        ServerStats stats = new ServerStats(context, connections, handshakes,
+                new SessionStats(context.getServerSessionContext()), () -> 3L, null);
+        ObjectName name = ServerStats.objectName(PORT);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        stats.register(name);
+        try {
+            assertEquals(1L, server.getAttribute(name, "AcceptedConnections"));
+            assertEquals(3L, server.getAttribute(name, "RejectedConnections"));
+            assertEquals(1L, server.getAttribute(name, "HandshakesCompleted"));
+            assertEquals(1L, server.getAttribute(name, "HandshakesFailed"));
+            assertEquals(context.getProvider().getName(), server.getAttribute(name, "Provider"));
+            assertTrue((Double) server.getAttribute(name, "HandshakeLatencyP99Millis") >= 0);
+            TabularData failures = (TabularData) server.getAttribute(name, "HandshakeFailures");
+            assertEquals(1, failures.size());
+            assertEquals(0.0, server.getAttribute(name, "TrustCacheHitRatio"));
+        } finally {
+            ServerStats.unregister(name);
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
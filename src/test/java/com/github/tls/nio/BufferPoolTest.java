@@ -0,0 +1,75 @@
+package com.github.tls.nio;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for BufferPool class.
+ */
+class BufferPoolTest {
+
+    /**
+     * Test that acquired buffers have the configured capacities.
+     */
+    @Test
+    void testAcquireCapacities() {
+        BufferPool pool = new BufferPool(64, 128, 4);
+
+        assertEquals(64, pool.acquirePacket().capacity());
+        assertEquals(128, pool.acquireApplication().capacity());
+    }
+
+    /**
+     * Test that released buffers are reused and cleared.
+     */
+    @Test
+    void testReleasedBufferIsReused() {
+        BufferPool pool = new BufferPool(64, 128, 4);
+        ByteBuffer buffer = pool.acquirePacket();
+        buffer.put((byte) 1);
+
+        pool.release(buffer);
+        ByteBuffer reused = pool.acquirePacket();
+
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(0, pool.pooledCount());
+    }
+
+    /**
+     * Test that the pool retains at most the configured number of buffers.
+     */
+    @Test
+    void testMaxPooled() {
+        BufferPool pool = new BufferPool(64, 128, 1);
+
+        pool.release(ByteBuffer.allocate(64));
+        pool.release(ByteBuffer.allocate(64));
+        pool.release(null);
+
+        assertEquals(1, pool.pooledCount());
+    }
+
+    /**
+     * Test that enlarged buffers are not pooled.
+     */
+    @Test
+    void testEnlargedBufferIsDropped() {
+        BufferPool pool = new BufferPool(64, 256, 4);
+        ByteBuffer buffer = pool.acquirePacket();
+        buffer.put(new byte[] {1, 2, 3});
+
+        ByteBuffer larger = BufferPool.enlarge(buffer, 100);
+
+        assertNotSame(buffer, larger);
+        assertEquals(128, larger.capacity());
+        assertEquals(3, larger.position());
+
+        pool.release(larger);
+        assertEquals(0, pool.pooledCount());
+    }
+}
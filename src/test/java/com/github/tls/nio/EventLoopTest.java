@@ -0,0 +1,119 @@
+package com.github.tls.nio;
+
+import com.github.tls.Server;
+import com.github.tls.TestStores;
+import com.github.tls.protocol.Protocol;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for EventLoop class.
+ */
+class EventLoopTest {
+
+    /** Timeout for loop operations in milliseconds. */
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Test that submitted tasks run on the loop thread.
+     */
+    @Test
+    void testExecuteRunsOnLoopThread() throws Exception {
+        EventLoop loop = new EventLoop("test-loop", 64, 128, Runnable::run, Protocol.LINE, null);
+        loop.start();
+        try {
+            CompletableFuture<String> threadName = new CompletableFuture<>();
+            loop.execute(() -> threadName.complete(Thread.currentThread().getName()));
+
+            assertEquals("test-loop", threadName.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        } finally {
+            loop.close(TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Test that tasks run in submission order.
+     */
+    @Test
+    void testTasksRunInOrder() throws Exception {
+        EventLoop loop = new EventLoop("test-loop", 64, 128, Runnable::run, Protocol.LINE, null);
+        loop.start();
+        try {
+            StringBuilder order = new StringBuilder();
+            CompletableFuture<String> done = new CompletableFuture<>();
+            loop.execute(() -> order.append('a'));
+            loop.execute(() -> order.append('b'));
+            loop.execute(() -> done.complete(order.toString()));
+
+            assertEquals("ab", done.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        } finally {
+            loop.close(TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Test that a connection throwing from its handler is closed without stopping the loop.
+     */
+    @Test
+    void testFailingConnectionDoesNotStopLoop() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        try (ServerSocketChannel listener = ServerSocketChannel.open()) {
+            Server server = new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).build());
+            SSLContext context = server.getContext();
+            SSLSession prototype = context.createSSLEngine().getSession();
+            // Without session statistics the connection throws once its handshake finishes
+            EventLoop loop = new EventLoop("test-loop", prototype.getPacketBufferSize(),
+                    prototype.getApplicationBufferSize(), Runnable::run, Protocol.LINE, null);
+            loop.start();
+            try {
+                listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                CompletableFuture<Integer> peer = CompletableFuture.supplyAsync(() -> handshakeAndRead(context,
+                        listener.socket().getLocalPort()));
+                SocketChannel channel = listener.accept();
+                channel.configureBlocking(false);
+                SSLEngine engine = context.createSSLEngine();
+                engine.setUseClientMode(false);
+                engine.setNeedClientAuth(true);
+                loop.register(channel, engine);
+
+                // The peer sees its connection closed, and the loop keeps running tasks
+                assertEquals(-1, (int) peer.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+                CompletableFuture<Boolean> alive = new CompletableFuture<>();
+                loop.execute(() -> alive.complete(Boolean.TRUE));
+                assertTrue(alive.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            } finally {
+                loop.close(TIMEOUT_MILLIS);
+            }
+        } finally {
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    private static int handshakeAndRead(SSLContext context, int port) {
+        try (SSLSocket socket = (SSLSocket) context.getSocketFactory()
+                .createSocket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setSoTimeout((int) TIMEOUT_MILLIS);
+            socket.getOutputStream().write("hello\n".getBytes("UTF-8"));
+            socket.getOutputStream().flush();
+            return socket.getInputStream().read();
+        } catch (IOException e) {
+            // A handshake cut short by the server also means the connection was closed
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.tls.nio;
+
+import com.github.tls.Server;
+import com.github.tls.TestStores;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for NioServer class.
+ */
+class NioServerTest {
+
+    /** Timeout for socket operations in milliseconds. */
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Test binding to an ephemeral port.
+     */
+    @Test
+    void testBindEphemeralPort() throws Exception {
+        NioServer server = new NioServer(SSLContext.getDefault(), 0);
+        try {
+            int port = server.bind();
+            assertTrue(port > 0);
+            assertEquals(port, server.bind());
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * Test the event loop count.
+     */
+    @Test
+    void testEventLoopCount() throws Exception {
+        assertEquals(3, new NioServer(SSLContext.getDefault(), 0, 3).getEventLoopCount());
+        assertEquals(Runtime.getRuntime().availableProcessors(),
+                new NioServer(SSLContext.getDefault(), 0).getEventLoopCount());
+        assertThrows(IllegalArgumentException.class, () -> new NioServer(SSLContext.getDefault(), 0, 0));
+    }
+
+    /**
+     * Test that a peer sending garbage instead of a TLS handshake is disconnected.
+     */
+    @Test
+    void testInvalidHandshakeClosesConnection() throws Exception {
+        NioServer server = new NioServer(SSLContext.getDefault(), 0, 2);
+        int port = server.bind();
+        Thread loop = new Thread(server, "nio-test");
+        loop.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            socket.getOutputStream().write("not a TLS record\n".getBytes("UTF-8"));
+            socket.getOutputStream().flush();
+
+            InputStream in = socket.getInputStream();
+            assertTimeoutPreemptively(java.time.Duration.ofMillis(TIMEOUT_MILLIS), () -> drain(in));
+        } finally {
+            server.close();
+            loop.join(TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Test a mutual TLS handshake and line echo through the event loops.
+     */
+    @Test
+    void testEchoOverMutualTls() throws Exception {
+        Path keyStore = TestStores.writeKeyStore();
+        try {
+            SSLContext context = new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).build())
+                    .getContext();
+            NioServer server = new NioServer(context, 0, 2);
+            int port = server.bind();
+            Thread loop = new Thread(server, "nio-test");
+            loop.start();
+            try (SSLSocket socket = (SSLSocket) context.getSocketFactory()
+                    .createSocket(InetAddress.getLoopbackAddress(), port)) {
+                socket.setSoTimeout(TIMEOUT_MILLIS);
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+                out.println("hello");
+                assertEquals("Echo: hello", in.readLine());
+                out.println("again");
+                assertEquals("Echo: again", in.readLine());
+                assertEquals("CN=memory-transport-test", socket.getSession().getPeerPrincipal().getName());
+                out.println("quit");
+                assertEquals("Goodbye!", in.readLine());
+            } finally {
+                server.close();
+                loop.join(TIMEOUT_MILLIS);
+            }
+            assertEquals(1, server.getSessionStats().getFullHandshakes());
+        } finally {
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[256];
+        try {
+            while (in.read(buffer) >= 0) {
+                // discard any alert sent before the close
+            }
+        } catch (java.net.SocketException e) {
+            // connection reset also means the server closed the connection
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.tls.pool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for ClientPoolConfig class.
+ */
+class ClientPoolConfigTest {
+
+    /**
+     * Test default configuration values.
+     */
+    @Test
+    void testDefaults() {
+        ClientPoolConfig config = ClientPoolConfig.defaults();
+
+        assertEquals(ClientPoolConfig.DEFAULT_MAX_TOTAL, config.getMaxTotal());
+        assertEquals(ClientPoolConfig.DEFAULT_MIN_IDLE, config.getMinIdle());
+        assertEquals(ClientPoolConfig.DEFAULT_MAX_WAIT_MILLIS, config.getMaxWaitMillis());
+        assertEquals(ClientPoolConfig.DEFAULT_IDLE_TIMEOUT_MILLIS, config.getIdleTimeoutMillis());
+        assertEquals(ClientPoolConfig.DEFAULT_VALIDATE_AFTER_IDLE_MILLIS, config.getValidateAfterIdleMillis());
+        assertEquals(ClientPoolConfig.DEFAULT_EVICTION_INTERVAL_MILLIS, config.getEvictionIntervalMillis());
+        assertEquals(ClientPoolConfig.DEFAULT_VALIDATION_TIMEOUT_MILLIS, config.getValidationTimeoutMillis());
+    }
+
+    /**
+     * Test builder overrides.
+     */
+    @Test
+    void testBuilderOverrides() {
+        ClientPoolConfig config = ClientPoolConfig.builder()
+                .maxTotal(3)
+                .minIdle(2)
+                .maxWaitMillis(10)
+                .idleTimeoutMillis(20)
+                .validateAfterIdleMillis(0)
+                .evictionIntervalMillis(30)
+                .validationTimeoutMillis(5)
+                .build();
+
+        assertEquals(3, config.getMaxTotal());
+        assertEquals(2, config.getMinIdle());
+        assertEquals(10, config.getMaxWaitMillis());
+        assertEquals(20, config.getIdleTimeoutMillis());
+        assertEquals(0, config.getValidateAfterIdleMillis());
+        assertEquals(30, config.getEvictionIntervalMillis());
+        assertEquals(5, config.getValidationTimeoutMillis());
+    }
+
+    /**
+     * Test builder validation of invalid values.
+     */
+    @Test
+    void testBuilderRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().maxTotal(0));
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().minIdle(-1));
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().maxWaitMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().idleTimeoutMillis(0));
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().validateAfterIdleMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().evictionIntervalMillis(0));
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().validationTimeoutMillis(0));
+        assertThrows(IllegalArgumentException.class, () -> ClientPoolConfig.builder().maxTotal(1).minIdle(2).build());
+    }
+}
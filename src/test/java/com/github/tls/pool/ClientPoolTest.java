@@ -0,0 +1,229 @@
+package com.github.tls.pool;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.Server;
+import com.github.tls.ServerConfig;
+import com.github.tls.TestStores;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+import javax.net.ssl.SSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for ClientPool class.
+ */
+class ClientPoolTest {
+
+    /** Milliseconds a test waits for the background task. */
+    private static final long TIMEOUT_MILLIS = 5000;
+    /** Milliseconds between polls of the pool metrics. */
+    private static final long POLL_MILLIS = 10;
+    /** Milliseconds between connections, so that a resumed session predates the second connection. */
+    private static final long CONNECTION_GAP_MILLIS = 10;
+    /** Short timeouts and intervals, in milliseconds, for the eviction test. */
+    private static final int SHORT_MILLIS = 50;
+    /** Server read timeout of the validation test, long enough for a handshake and a request. */
+    private static final int SERVER_TIMEOUT_MILLIS = 500;
+
+    private Path keyStore;
+    private Server server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        keyStore = TestStores.writeKeyStore();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        Files.deleteIfExists(keyStore);
+    }
+
+    /**
+     * Test that a failed connection surfaces as an exception and does not use up pool capacity.
+     */
+    @Test
+    void testBorrowFailsWhenServerUnavailable() throws Exception {
+        ClientConfig clientConfig = ClientConfig.builder().port(unusedPort()).build();
+        ClientPoolConfig config = ClientPoolConfig.builder().maxTotal(1).minIdle(0).maxWaitMillis(100).build();
+
+        try (ClientPool pool = new ClientPool(SSLContext.getDefault(), clientConfig, config)) {
+            // The cause is the refused connection itself, not a generic failure
+            assertThrows(ConnectException.class, pool::borrow);
+            assertThrows(ConnectException.class, pool::borrow);
+
+            PoolMetrics metrics = pool.getMetrics();
+            assertEquals(0, metrics.getActive());
+            assertEquals(0, metrics.getIdle());
+            assertEquals(0, metrics.getBorrows());
+            assertEquals(0, metrics.getHandshakes());
+        }
+    }
+
+    /**
+     * Test that a closed pool refuses to lend connections.
+     */
+    @Test
+    void testBorrowAfterClose() throws Exception {
+        ClientPoolConfig config = ClientPoolConfig.builder().minIdle(0).build();
+        ClientPool pool = new ClientPool(SSLContext.getDefault(), ClientConfig.defaults(), config);
+        pool.close();
+
+        assertThrows(IllegalStateException.class, pool::borrow);
+    }
+
+    /**
+     * Test that a returned connection is lent again instead of opening a new one.
+     */
+    @Test
+    void testReturnedConnectionIsReused() throws Exception {
+        try (ClientPool pool = pool(ServerConfig.DEFAULT_READ_TIMEOUT_MILLIS,
+                ClientPoolConfig.builder().minIdle(0))) {
+            Client first;
+            try (PooledClient lease = pool.borrow()) {
+                first = lease.getClient();
+                assertEquals("Echo: one", first.request("one"));
+                assertEquals(1, pool.getMetrics().getActive());
+            }
+            try (PooledClient lease = pool.borrow()) {
+                assertSame(first, lease.getClient());
+                assertEquals("Echo: two", lease.getClient().request("two"));
+            }
+
+            PoolMetrics metrics = pool.getMetrics();
+            assertEquals(0, metrics.getActive());
+            assertEquals(1, metrics.getIdle());
+            assertEquals(2, metrics.getBorrows());
+            assertEquals(1, metrics.getHandshakes());
+            assertTrue(metrics.getMaxWaitNanos() >= metrics.getMeanWaitNanos());
+        }
+    }
+
+    /**
+     * Test that an invalidated connection is closed on return and replaced on the next borrow.
+     */
+    @Test
+    void testInvalidatedConnectionIsReplaced() throws Exception {
+        try (ClientPool pool = pool(ServerConfig.DEFAULT_READ_TIMEOUT_MILLIS,
+                ClientPoolConfig.builder().minIdle(0))) {
+            Client first;
+            try (PooledClient lease = pool.borrow()) {
+                first = lease.getClient();
+                lease.invalidate();
+            }
+            assertEquals(0, pool.getMetrics().getIdle());
+            assertFalse(first.isConnected());
+            try (PooledClient lease = pool.borrow()) {
+                assertNotSame(first, lease.getClient());
+            }
+            assertEquals(2, pool.getMetrics().getHandshakes());
+        }
+    }
+
+    /**
+     * Test that connections opened after the first resume its session instead of a full handshake.
+     */
+    @Test
+    void testNewConnectionsResumeSession() throws Exception {
+        try (ClientPool pool = pool(ServerConfig.DEFAULT_READ_TIMEOUT_MILLIS,
+                ClientPoolConfig.builder().minIdle(0).maxTotal(2))) {
+            try (PooledClient first = pool.borrow()) {
+                // Reading a reply also receives the TLS 1.3 session ticket
+                assertEquals("Echo: first", first.getClient().request("first"));
+                Thread.sleep(CONNECTION_GAP_MILLIS);
+                try (PooledClient second = pool.borrow()) {
+                    assertNotSame(first.getClient(), second.getClient());
+                    assertEquals("Echo: second", second.getClient().request("second"));
+                }
+            }
+
+            PoolMetrics metrics = pool.getMetrics();
+            assertEquals(2, metrics.getHandshakes());
+            assertEquals(1, metrics.getResumedHandshakes());
+            assertEquals(1, server.getSessionStats().getResumedHandshakes());
+        }
+    }
+
+    /**
+     * Test that a connection the server closed while idle is discarded on borrow.
+     */
+    @Test
+    void testBorrowValidatesIdleConnection() throws Exception {
+        // The server drops connections silent for longer than its read timeout
+        try (ClientPool pool = pool(SERVER_TIMEOUT_MILLIS,
+                ClientPoolConfig.builder().minIdle(0).validateAfterIdleMillis(0))) {
+            Client first;
+            try (PooledClient lease = pool.borrow()) {
+                first = lease.getClient();
+            }
+            Thread.sleep(SERVER_TIMEOUT_MILLIS * 2);
+
+            try (PooledClient lease = pool.borrow()) {
+                assertNotSame(first, lease.getClient());
+                assertEquals("Echo: fresh", lease.getClient().request("fresh"));
+            }
+            assertEquals(2, pool.getMetrics().getHandshakes());
+        }
+    }
+
+    /**
+     * Test that the background task warms up the minimum idle connections and evicts the others once
+     * they have been idle too long.
+     */
+    @Test
+    void testIdleConnectionsAreEvictedDownToMinIdle() throws Exception {
+        ClientPoolConfig.Builder config = ClientPoolConfig.builder()
+                .minIdle(1)
+                .maxTotal(2)
+                .idleTimeoutMillis(SHORT_MILLIS)
+                .evictionIntervalMillis(SHORT_MILLIS);
+        try (ClientPool pool = pool(ServerConfig.DEFAULT_READ_TIMEOUT_MILLIS, config)) {
+            waitFor(() -> pool.getMetrics().getIdle() == 1);
+
+            PooledClient first = pool.borrow();
+            PooledClient second = pool.borrow();
+            first.close();
+            second.close();
+
+            waitFor(() -> pool.getMetrics().getIdle() == 1);
+            assertEquals(2, pool.getMetrics().getHandshakes());
+        }
+    }
+
+    private ClientPool pool(int serverReadTimeoutMillis, ClientPoolConfig.Builder config) throws IOException {
+        server = new Server(TestStores.PASSWORD,
+                TestStores.serverConfig(keyStore).port(0).readTimeoutMillis(serverReadTimeoutMillis).build());
+        int port = server.start();
+        return new ClientPool(server.getContext(), ClientConfig.builder().port(port).build(), config.build());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the pool");
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.tls.protocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for FrameCodec class.
+ */
+class FrameCodecTest {
+
+    /**
+     * Test that frames containing newlines and binary data round-trip unchanged.
+     */
+    @Test
+    void testRoundTripBinaryPayload() throws Exception {
+        byte[] payload = {'a', '\n', 0, (byte) 0xff, '\r', '\n'};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        FrameCodec.writeFrame(out, ByteBuffer.wrap(payload));
+        ByteBuffer frame = FrameCodec.readFrame(input(out.toByteArray()), null);
+
+        assertEquals(FrameCodec.HEADER_LENGTH + payload.length, out.size());
+        assertArrayEquals(payload, toArray(frame));
+    }
+
+    /**
+     * Test that a multiplexed frame carries the request ID ahead of the payload.
+     */
+    @Test
+    void testRequestIdFrame() throws Exception {
+        byte[] payload = {1, 2, 3};
+        ByteBuffer source = ByteBuffer.wrap(payload);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        FrameCodec.writeFrame(out, 0x0102030405060708L, source);
+        ByteBuffer frame = FrameCodec.readFrame(input(out.toByteArray()), null);
+
+        assertEquals(0, source.position());
+        assertEquals(FrameCodec.REQUEST_ID_LENGTH + payload.length, frame.remaining());
+        assertEquals(0x0102030405060708L, frame.getLong());
+        assertArrayEquals(payload, toArray(frame));
+    }
+
+    /**
+     * Test that the header is a big-endian length.
+     */
+    @Test
+    void testHeaderIsBigEndian() {
+        byte[] header = new byte[FrameCodec.HEADER_LENGTH];
+        FrameCodec.putHeader(header, 0x01020304);
+
+        assertArrayEquals(new byte[] {1, 2, 3, 4}, header);
+    }
+
+    /**
+     * Test that empty frames are supported.
+     */
+    @Test
+    void testEmptyFrame() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FrameCodec.writeFrame(out, ByteBuffer.allocate(0));
+
+        ByteBuffer frame = FrameCodec.readFrame(input(out.toByteArray()), null);
+
+        assertEquals(0, frame.remaining());
+    }
+
+    /**
+     * Test that a large enough buffer is reused and a small one is replaced.
+     */
+    @Test
+    void testBufferReuse() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FrameCodec.writeFrame(out, ByteBuffer.wrap(new byte[10]));
+        FrameCodec.writeFrame(out, ByteBuffer.wrap(new byte[20]));
+        DataInputStream in = input(out.toByteArray());
+
+        ByteBuffer large = ByteBuffer.allocate(16);
+        assertSame(large, FrameCodec.readFrame(in, large));
+        ByteBuffer replaced = FrameCodec.readFrame(in, large);
+        assertNotSame(large, replaced);
+        assertEquals(20, replaced.remaining());
+    }
+
+    /**
+     * Test that a clean end of stream yields null.
+     */
+    @Test
+    void testEndOfStream() throws Exception {
+        assertNull(FrameCodec.readFrame(input(new byte[0]), null));
+    }
+
+    /**
+     * Test that a stream ending inside a frame fails.
+     */
+    @Test
+    void testTruncatedFrame() {
+        assertThrows(EOFException.class, () -> FrameCodec.readFrame(input(new byte[] {0, 0}), null));
+        assertThrows(EOFException.class, () -> FrameCodec.readFrame(input(new byte[] {0, 0, 0, 2, 1}), null));
+    }
+
+    /**
+     * Test that invalid lengths are rejected.
+     */
+    @Test
+    void testInvalidLength() throws Exception {
+        assertThrows(ProtocolException.class,
+                () -> FrameCodec.readFrame(input(new byte[] {(byte) 0xff, 0, 0, 0}), null));
+        assertThrows(ProtocolException.class, () -> FrameCodec.checkLength(FrameCodec.MAX_FRAME_LENGTH + 1));
+        assertEquals(FrameCodec.MAX_FRAME_LENGTH, FrameCodec.checkLength(FrameCodec.MAX_FRAME_LENGTH));
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.tls.ssl;
+
+import java.io.ByteArrayInputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for CachingX509TrustManager class.
+ */
+class CachingX509TrustManagerTest {
+
+    /** Self-signed certificate valid from 2026-10-16 until 2126-09-22. */
+    private static final String CERTIFICATE = "-----BEGIN CERTIFICATE-----\n"
+            + "MIIBQjCB6aADAgECAggVUuqn54R20TAKBggqhkjOPQQDAjAVMRMwEQYDVQQDEwpj\n"
+            + "YWNoZS10ZXN0MCAXDTI2MTAxNjE5MjQ0M1oYDzIxMjYwOTIyMTkyNDQzWjAVMRMw\n"
+            + "EQYDVQQDEwpjYWNoZS10ZXN0MFkwEwYHKoZIzj0CAQYIKoZIzj0DAQcDQgAEJC7h\n"
+            + "TJWQFzkeLxbtsAM0O1DWOGF5MpzOT5B3Hr7oy/XTcB/QQXcUeZDNiWSgWddyMNe6\n"
+            + "5S7MIUsP59KZ8XOnIKMhMB8wHQYDVR0OBBYEFGLWe0+ZdobwkYTzBdTYnDxDOlhg\n"
+            + "MAoGCCqGSM49BAMCA0gAMEUCIQCbIltQzIrswvnrup8p1bQxV6XK/5C4gx3HBind\n"
+            + "HxAFgAIgG8vJHqDIoJg3FtyOStSR7ztO5k8j2YkCxgKn8EUDBww=\n"
+            + "-----END CERTIFICATE-----\n";
+    /** Time the tests start at, in epoch milliseconds: one day after the certificate became valid. */
+    private static final long START = 1_792_265_083_000L;
+    /** Maximum verdict age used by the tests. */
+    private static final long MAX_AGE = 60_000L;
+
+    private final CountingTrustManager delegate = new CountingTrustManager();
+    private long now = START;
+    private CachingX509TrustManager cache;
+    private X509Certificate[] chain;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new CachingX509TrustManager(delegate, 2, MAX_AGE, () -> now);
+        chain = new X509Certificate[] {(X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(CERTIFICATE.getBytes(StandardCharsets.US_ASCII)))};
+    }
+
+    /**
+     * Test that a repeated chain is answered from the cache.
+     */
+    @Test
+    void testRepeatedChainHits() throws Exception {
+        cache.checkClientTrusted(chain, "EC");
+        cache.checkClientTrusted(chain, "EC");
+        cache.checkClientTrusted(chain, "EC");
+
+        assertEquals(1, delegate.checks.get());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3, cache.getHitRatio(), 1e-9);
+    }
+
+    /**
+     * Test that the direction and key exchange algorithm are part of the key.
+     */
+    @Test
+    void testDirectionAndAuthTypeAreKeyed() throws Exception {
+        cache.checkClientTrusted(chain, "EC");
+        cache.checkServerTrusted(chain, "EC");
+        cache.checkClientTrusted(chain, "RSA");
+
+        assertEquals(3, delegate.checks.get());
+        assertEquals(0, cache.getHits());
+    }
+
+    /**
+     * Test that rejections are cached and rethrown with the original failure as cause.
+     */
+    @Test
+    void testRejectionIsCached() {
+        delegate.failure = new CertificateException("untrusted");
+
+        CertificateException first = assertThrows(CertificateException.class,
+                () -> cache.checkClientTrusted(chain, "EC"));
+        CertificateException second = assertThrows(CertificateException.class,
+                () -> cache.checkClientTrusted(chain, "EC"));
+
+        assertSame(delegate.failure, first);
+        assertNotSame(first, second);
+        assertSame(delegate.failure, second.getCause());
+        assertEquals(1, delegate.checks.get());
+    }
+
+    /**
+     * Test that verdicts expire after the maximum age and at the certificate's notAfter.
+     */
+    @Test
+    void testVerdictsExpire() throws Exception {
+        cache.checkClientTrusted(chain, "EC");
+        now = START + MAX_AGE;
+        cache.checkClientTrusted(chain, "EC");
+        assertEquals(2, delegate.checks.get());
+
+        cache = new CachingX509TrustManager(delegate, 2, Long.MAX_VALUE / 2, () -> now);
+        now = chain[0].getNotAfter().getTime() - 1;
+        cache.checkClientTrusted(chain, "EC");
+        cache.checkClientTrusted(chain, "EC");
+        now++;
+        cache.checkClientTrusted(chain, "EC");
+        assertEquals(4, delegate.checks.get());
+    }
+
+    /**
+     * Test that the least recently used verdict is evicted when the cache is full.
+     */
+    @Test
+    void testLeastRecentlyUsedIsEvicted() throws Exception {
+        cache.checkClientTrusted(chain, "EC");
+        cache.checkClientTrusted(chain, "RSA");
+        cache.checkClientTrusted(chain, "EC");
+        cache.checkClientTrusted(chain, "DH");
+
+        assertEquals(2, cache.size());
+        cache.checkClientTrusted(chain, "EC");
+        assertEquals(3, delegate.checks.get());
+        cache.checkClientTrusted(chain, "RSA");
+        assertEquals(4, delegate.checks.get());
+    }
+
+    /**
+     * Test that invalidating forgets all verdicts.
+     */
+    @Test
+    void testInvalidate() throws Exception {
+        cache.checkClientTrusted(chain, "EC");
+        cache.invalidate();
+
+        assertEquals(0, cache.size());
+        cache.checkClientTrusted(chain, "EC");
+        assertEquals(2, delegate.checks.get());
+    }
+
+    /**
+     * Test that an invalid size is rejected.
+     */
+    @Test
+    void testInvalidSizeFails() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingX509TrustManager(delegate, 0));
+    }
+
+    /**
+     * Trust manager counting its checks and failing them with a configurable exception.
+     */
+    private static final class CountingTrustManager extends X509ExtendedTrustManager {
+
+        private final AtomicInteger checks = new AtomicInteger();
+        private CertificateException failure;
+
+        private void check() throws CertificateException {
+            checks.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            check();
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            check();
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            check();
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            check();
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+                throws CertificateException {
+            check();
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+                throws CertificateException {
+            check();
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.tls.ssl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.SignatureException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.security.auth.x500.X500Principal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for CrlReader class.
+ */
+class CrlReaderTest {
+
+    /** A random 20 byte serial, the longest RFC 5280 allows. */
+    private static final BigInteger LONG_SERIAL = new BigInteger("4f2a1c9e0b7d3358e6a1f0c2d4b6a8e0f1e2d3c4", 16);
+    /** 2000-03-01T12:34:56Z, just past a leap day, in epoch milliseconds. */
+    private static final long UTC_TIME_MILLIS = 951_914_096_000L;
+    /** 2050-01-01T00:00:00Z, the first date CAs must encode as GeneralizedTime, in epoch milliseconds. */
+    private static final long GENERALIZED_TIME_MILLIS = 2_524_608_000_000L;
+
+    private X509Certificate ca;
+    private X509CRL jdkCrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        ca = (X509Certificate) factory.generateCertificate(stream(RevocationCheckingTrustManagerTest.CA));
+        jdkCrl = (X509CRL) factory.generateCRL(stream(RevocationCheckingTrustManagerTest.CRL));
+    }
+
+    /**
+     * Test that a PEM CRL reads the same as with the JDK parser.
+     */
+    @Test
+    void testMatchesJdkParser() throws Exception {
+        Recorder recorder = new Recorder();
+
+        assertEquals(1, CrlReader.read(stream(RevocationCheckingTrustManagerTest.CRL), trusted(), recorder));
+        assertEquals(jdkCrl.getIssuerX500Principal(), recorder.issuers.get(0));
+        assertEquals(jdkCrl.getNextUpdate().getTime(), recorder.nextUpdate);
+        assertTrue(recorder.verified);
+        X509CRLEntry entry = jdkCrl.getRevokedCertificates().iterator().next();
+        assertEquals(Arrays.asList(entry.getSerialNumber()), recorder.serials);
+        assertEquals(Arrays.asList(entry.getRevocationDate().getTime()), recorder.dates);
+    }
+
+    /**
+     * Test that a DER CRL is detected and read.
+     */
+    @Test
+    void testDerEncoding() throws Exception {
+        Recorder recorder = new Recorder();
+
+        assertEquals(1, CrlReader.read(new ByteArrayInputStream(jdkCrl.getEncoded()), trusted(), recorder));
+        assertEquals(1, recorder.serials.size());
+    }
+
+    /**
+     * Test that a CRL of a trusted issuer with a broken signature is refused.
+     */
+    @Test
+    void testInvalidSignatureIsRefused() throws Exception {
+        byte[] forged = jdkCrl.getEncoded();
+        forged[forged.length - 1] ^= 1;
+
+        assertThrows(SignatureException.class,
+                () -> CrlReader.read(new ByteArrayInputStream(forged), trusted(), new Recorder()));
+    }
+
+    /**
+     * Test long serials, GeneralizedTime, and the certificate issuer extension of indirect CRLs,
+     * which applies to its entry and all that follow.
+     */
+    @Test
+    void testIndirectCrl() throws Exception {
+        X500Principal other = new X500Principal("CN=Other CA");
+        byte[] issuerExtension = tlv(0x30, tlv(0x30, tlv(0x06, new byte[] {0x55, 0x1D, 0x1D}),
+                tlv(0x04, tlv(0x30, tlv(0xA4, other.getEncoded())))));
+        byte[] entries = tlv(0x30,
+                tlv(0x30, tlv(0x02, LONG_SERIAL.toByteArray()), utcTime()),
+                tlv(0x30, tlv(0x02, new byte[] {7}), generalizedTime(), issuerExtension),
+                tlv(0x30, tlv(0x02, new byte[] {8}), utcTime()));
+        Recorder recorder = new Recorder();
+
+        assertEquals(1, CrlReader.read(new ByteArrayInputStream(unsignedCrl(entries)), trusted(), recorder));
+        assertFalse(recorder.verified);
+        assertEquals(Arrays.asList(LONG_SERIAL, BigInteger.valueOf(7), BigInteger.valueOf(8)), recorder.serials);
+        assertEquals(Arrays.asList(UTC_TIME_MILLIS, GENERALIZED_TIME_MILLIS, UTC_TIME_MILLIS), recorder.dates);
+        assertEquals(Arrays.asList(new X500Principal("CN=Untrusted CA"), other, other), recorder.issuers);
+        assertEquals(CrlReader.NO_NEXT_UPDATE, recorder.nextUpdate);
+    }
+
+    /**
+     * Test that a truncated CRL fails instead of loading part of its entries.
+     */
+    @Test
+    void testTruncatedCrlFails() throws Exception {
+        byte[] encoded = jdkCrl.getEncoded();
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 10);
+
+        assertThrows(EOFException.class,
+                () -> CrlReader.read(new ByteArrayInputStream(truncated), trusted(), new Recorder()));
+    }
+
+    private X509Certificate[] trusted() {
+        return new X509Certificate[] {ca};
+    }
+
+    /**
+     * Encodes a CRL of an untrusted issuer without next update, with a placeholder signature.
+     */
+    private static byte[] unsignedCrl(byte[] entries) throws Exception {
+        byte[] ecdsaWithSha256 = {0x2A, (byte) 0x86, 0x48, (byte) 0xCE, 0x3D, 0x04, 0x03, 0x02};
+        byte[] algorithm = tlv(0x30, tlv(0x06, ecdsaWithSha256));
+        byte[] tbs = tlv(0x30, tlv(0x02, new byte[] {1}), algorithm,
+                new X500Principal("CN=Untrusted CA").getEncoded(), utcTime(), entries);
+        return tlv(0x30, tbs, algorithm, tlv(0x03, new byte[] {0, 0}));
+    }
+
+    private static byte[] utcTime() {
+        return tlv(0x17, "000301123456Z".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] generalizedTime() {
+        return tlv(0x18, "20500101000000Z".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] tlv(int tag, byte[]... values) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (byte[] value : values) {
+            content.write(value, 0, value.length);
+        }
+        ByteArrayOutputStream element = new ByteArrayOutputStream();
+        element.write(tag);
+        int length = content.size();
+        if (length < 0x80) {
+            element.write(length);
+        } else {
+            element.write(0x82);
+            element.write(length >> 8);
+            element.write(length);
+        }
+        element.write(content.toByteArray(), 0, length);
+        return element.toByteArray();
+    }
+
+    private static InputStream stream(String pem) {
+        return new ByteArrayInputStream(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Handler recording what it is given.
+     */
+    private static final class Recorder implements CrlReader.Handler {
+
+        private final List<X500Principal> issuers = new ArrayList<>();
+        private final List<BigInteger> serials = new ArrayList<>();
+        private final List<Long> dates = new ArrayList<>();
+        private long nextUpdate;
+        private boolean verified;
+
+        @Override
+        public void crl(X500Principal issuer, long nextUpdateMillis, boolean signatureVerified) {
+            nextUpdate = nextUpdateMillis;
+            verified = signatureVerified;
+        }
+
+        @Override
+        public void revoked(X500Principal issuer, byte[] serial, int offset, int length, long revocationMillis) {
+            issuers.add(issuer);
+            serials.add(new BigInteger(Arrays.copyOfRange(serial, offset, offset + length)));
+            dates.add(revocationMillis);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.tls.ssl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for DirectoryTicketKeyStore class.
+ */
+class DirectoryTicketKeyStoreTest {
+
+    /** Rotation period used by the tests. */
+    private static final long ROTATION = DirectoryTicketKeyStore.MIN_ROTATION_MILLIS;
+    /** A point in time inside rotation period 1000. */
+    private static final long NOW = 1000 * ROTATION + 5;
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("tickets");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Test that the first request creates the current period's key.
+     */
+    @Test
+    void testCreatesCurrentKey() throws Exception {
+        List<SessionTicketKey> keys = new DirectoryTicketKeyStore(directory, ROTATION, 0).getKeys(NOW);
+
+        assertEquals(1, keys.size());
+        assertEquals(1000, keys.get(0).getId());
+        assertEquals(1001 * ROTATION, keys.get(0).getNotAfterMillis());
+        assertTrue(Files.exists(directory.resolve("1000.key")));
+    }
+
+    /**
+     * Test that two nodes sharing a directory get the same keys.
+     */
+    @Test
+    void testNodesShareKeys() throws Exception {
+        DirectoryTicketKeyStore first = new DirectoryTicketKeyStore(directory, ROTATION, ROTATION);
+        DirectoryTicketKeyStore second = new DirectoryTicketKeyStore(directory, ROTATION, ROTATION);
+
+        List<SessionTicketKey> keys = first.getKeys(NOW);
+
+        assertEquals(keys, second.getKeys(NOW));
+        assertArrayEquals(keys.get(0).getSecret(), second.getKeys(NOW + 1).get(0).getSecret());
+    }
+
+    /**
+     * Test that rotation makes a new key current and keeps the previous key for decryption.
+     */
+    @Test
+    void testRotationKeepsPreviousKey() throws Exception {
+        DirectoryTicketKeyStore store = new DirectoryTicketKeyStore(directory, ROTATION, ROTATION);
+        SessionTicketKey previous = store.getKeys(NOW).get(0);
+
+        List<SessionTicketKey> keys = store.getKeys(NOW + ROTATION);
+
+        assertEquals(2, keys.size());
+        assertEquals(1001, keys.get(0).getId());
+        assertEquals(previous, keys.get(1));
+        assertFalse(java.util.Arrays.equals(previous.getSecret(), keys.get(0).getSecret()));
+    }
+
+    /**
+     * Test that keys older than the retention time are deleted.
+     */
+    @Test
+    void testExpiredKeysAreDeleted() throws Exception {
+        DirectoryTicketKeyStore store = new DirectoryTicketKeyStore(directory, ROTATION, ROTATION);
+        store.getKeys(NOW);
+
+        List<SessionTicketKey> keys = store.getKeys(NOW + 3 * ROTATION);
+
+        assertEquals(1, keys.size());
+        assertFalse(Files.exists(directory.resolve("1000.key")));
+    }
+
+    /**
+     * Test that a key file still being written is skipped.
+     */
+    @Test
+    void testIncompleteKeyIsSkipped() throws Exception {
+        Files.write(directory.resolve("1000.key"), new byte[3]);
+
+        assertTrue(new DirectoryTicketKeyStore(directory, ROTATION, 0).getKeys(NOW).isEmpty());
+    }
+
+    /**
+     * Test constructor and key validation.
+     */
+    @Test
+    void testRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> new DirectoryTicketKeyStore(directory, ROTATION - 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DirectoryTicketKeyStore(directory, ROTATION, -1));
+        assertThrows(IllegalArgumentException.class, () -> new SessionTicketKey(1, new byte[16], 0));
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.tls.ssl;
+
+import java.net.Socket;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for ReloadingX509KeyManager class.
+ */
+class ReloadingX509KeyManagerTest {
+
+    private final FixedKeyManager first = new FixedKeyManager();
+    private final FixedKeyManager second = new FixedKeyManager();
+    private final ReloadingX509KeyManager keyManager = new ReloadingX509KeyManager(first);
+
+    /**
+     * Test that an alias chosen before a swap keeps resolving to the material it was chosen from.
+     */
+    @Test
+    void testAliasChosenBeforeSwapUsesItsGeneration() {
+        String alias = keyManager.chooseEngineServerAlias("EC", null, null);
+        keyManager.swap(second);
+
+        assertSame(first.chain, keyManager.getCertificateChain(alias));
+        assertSame(second.chain, keyManager.getCertificateChain(keyManager.chooseEngineServerAlias("EC", null, null)));
+    }
+
+    /**
+     * Test that aliases are tagged with their generation.
+     */
+    @Test
+    void testAliasesAreTagged() {
+        assertEquals("0:server", keyManager.chooseServerAlias("EC", null, null));
+        assertArrayEquals(new String[] {"0:server"}, keyManager.getServerAliases("EC", null));
+        keyManager.swap(second);
+        assertEquals("1:server", keyManager.chooseEngineClientAlias(new String[] {"EC"}, null, null));
+        assertNull(keyManager.getClientAliases("RSA", null));
+    }
+
+    /**
+     * Test that only the generation before the current one is kept and untagged aliases are unknown.
+     */
+    @Test
+    void testRetiredGenerationIsUnknown() {
+        String alias = keyManager.chooseEngineServerAlias("EC", null, null);
+        keyManager.swap(second);
+        keyManager.swap(second);
+
+        assertNull(keyManager.getCertificateChain(alias));
+        assertNull(keyManager.getCertificateChain(FixedKeyManager.ALIAS));
+        assertNull(keyManager.getCertificateChain("x:server"));
+    }
+
+    /**
+     * Key manager with one alias for EC keys and a chain identifying the instance.
+     */
+    private static final class FixedKeyManager extends X509ExtendedKeyManager {
+
+        private static final String ALIAS = "server";
+
+        private final X509Certificate[] chain = new X509Certificate[0];
+
+        @Override
+        public String[] getClientAliases(String keyType, Principal[] issuers) {
+            return "EC".equals(keyType) ? new String[] {ALIAS} : null;
+        }
+
+        @Override
+        public String chooseClientAlias(String[] keyTypes, Principal[] issuers, Socket socket) {
+            return ALIAS;
+        }
+
+        @Override
+        public String chooseEngineClientAlias(String[] keyTypes, Principal[] issuers, SSLEngine engine) {
+            return ALIAS;
+        }
+
+        @Override
+        public String[] getServerAliases(String keyType, Principal[] issuers) {
+            return getClientAliases(keyType, issuers);
+        }
+
+        @Override
+        public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+            return ALIAS;
+        }
+
+        @Override
+        public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+            return ALIAS;
+        }
+
+        @Override
+        public X509Certificate[] getCertificateChain(String alias) {
+            return ALIAS.equals(alias) ? chain : null;
+        }
+
+        @Override
+        public PrivateKey getPrivateKey(String alias) {
+            return null;
+        }
+    }
+}
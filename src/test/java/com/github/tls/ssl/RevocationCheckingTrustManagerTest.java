@@ -0,0 +1,237 @@
+package com.github.tls.ssl;
+
+import java.io.ByteArrayInputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedTrustManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for RevocationCheckingTrustManager class.
+ */
+class RevocationCheckingTrustManagerTest {
+
+    /** Test CA certificate, valid until 2126. */
+    static final String CA = "-----BEGIN CERTIFICATE-----\n"
+            + "MIIBejCCASGgAwIBAgIUAVfdm717a+TEVudZV897VAHksmQwCgYIKoZIzj0EAwIw\n"
+            + "EjEQMA4GA1UEAwwHVGVzdCBDQTAgFw0yNjEwMTYxOTI4MDlaGA8yMTI2MDkyMjE5\n"
+            + "MjgwOVowEjEQMA4GA1UEAwwHVGVzdCBDQTBZMBMGByqGSM49AgEGCCqGSM49AwEH\n"
+            + "A0IABJ5VyDLDYOrhTytdZeDj0rUrhGaK2B794/aF/F8zcreLee6/9pkqevMW1TeR\n"
+            + "E6I3e8EkYSv8SkJCGUC1sFBtZ8CjUzBRMB0GA1UdDgQWBBTkITNZflnleS7tg5H8\n"
+            + "dlJRFv9WvTAfBgNVHSMEGDAWgBTkITNZflnleS7tg5H8dlJRFv9WvTAPBgNVHRMB\n"
+            + "Af8EBTADAQH/MAoGCCqGSM49BAMCA0cAMEQCICRc7CaDSjPtJ4i/l8fhS7Yyj0C2\n"
+            + "g/lQju7YNd3h0G8sAiBi+2uJJVGUcBdSzUWte7G6HFeYy7pcB/d26+9xhFp+fQ==\n"
+            + "-----END CERTIFICATE-----\n";
+    /** Another test CA with the same name but a different key, valid until 2126. */
+    private static final String IMPOSTOR_CA = "-----BEGIN CERTIFICATE-----\n"
+            + "MIIBejCCASGgAwIBAgIUTtKNodZ7Bt+XbpA5CmZk9aBySXAwCgYIKoZIzj0EAwIw\n"
+            + "EjEQMA4GA1UEAwwHVGVzdCBDQTAgFw0yNjEwMTYxOTI4NDdaGA8yMTI2MDkyMjE5\n"
+            + "Mjg0N1owEjEQMA4GA1UEAwwHVGVzdCBDQTBZMBMGByqGSM49AgEGCCqGSM49AwEH\n"
+            + "A0IABBHPkVuW0Hs3GR/tp05qWzJYvvmvF9KpijjYmBQvn54+zrKCW2Nlcb3De6wi\n"
+            + "2tMg5TKct1Dd877IXtGZjaWnXsajUzBRMB0GA1UdDgQWBBRu5HZJVqu+uMdIt0gl\n"
+            + "wqnqHtPCDTAfBgNVHSMEGDAWgBRu5HZJVqu+uMdIt0glwqnqHtPCDTAPBgNVHRMB\n"
+            + "Af8EBTADAQH/MAoGCCqGSM49BAMCA0cAMEQCIAucznNTRMt4zJe5O6fmDnfAXIh3\n"
+            + "tSzXMsy6A/H1wLlDAiAR/M7Gy9UwTKgd7miKpYG21DV/lS4/XosnyIOVNNucJg==\n"
+            + "-----END CERTIFICATE-----\n";
+    /** Certificate with serial 0x20 issued by the test CA, valid until 2126. */
+    private static final String REVOKED = "-----BEGIN CERTIFICATE-----\n"
+            + "MIIBDTCBtAIBIDAKBggqhkjOPQQDAjASMRAwDgYDVQQDDAdUZXN0IENBMCAXDTI2\n"
+            + "MTAxNjE5MjgwOVoYDzIxMjYwOTIyMTkyODA5WjASMRAwDgYDVQQDDAdyZXZva2Vk\n"
+            + "MFkwEwYHKoZIzj0CAQYIKoZIzj0DAQcDQgAEUuNQ3BrWRWo57OoJZO3eHJgU5aeB\n"
+            + "GrtTe2kZ2dGZYGRrMgqx2td/jwYrQn2aaWjlneOYhh9Lndo/zHZDIHFd7TAKBggq\n"
+            + "hkjOPQQDAgNIADBFAiEA5jNEvuSQcnKZu5fzgSKK8G9onoiVdTrPob7W+o0yzNQC\n"
+            + "ICBRwMACDdN34NjywP4cUZBvZ+C769UuvgD7KDrccA5F\n"
+            + "-----END CERTIFICATE-----\n";
+    /** Certificate with serial 0x21 issued by the test CA, valid until 2126. */
+    private static final String GOOD = "-----BEGIN CERTIFICATE-----\n"
+            + "MIIBCTCBsQIBITAKBggqhkjOPQQDAjASMRAwDgYDVQQDDAdUZXN0IENBMCAXDTI2\n"
+            + "MTAxNjE5MjgwOVoYDzIxMjYwOTIyMTkyODA5WjAPMQ0wCwYDVQQDDARnb29kMFkw\n"
+            + "EwYHKoZIzj0CAQYIKoZIzj0DAQcDQgAEUuNQ3BrWRWo57OoJZO3eHJgU5aeBGrtT\n"
+            + "e2kZ2dGZYGRrMgqx2td/jwYrQn2aaWjlneOYhh9Lndo/zHZDIHFd7TAKBggqhkjO\n"
+            + "PQQDAgNHADBEAiBfBziGlxbbYMqgFcVaGBknede8iQl2IAZK/Mrvur/udwIgHbkl\n"
+            + "1nOL5ZZ7Vh51mNW65KqJF/EHrLqLM1KIGH/RSUQ=\n"
+            + "-----END CERTIFICATE-----\n";
+    /** CRL of the test CA revoking serial 0x20, next update in 2126. */
+    static final String CRL = "-----BEGIN X509 CRL-----\n"
+            + "MIHAMGkCAQEwCgYIKoZIzj0EAwIwEjEQMA4GA1UEAwwHVGVzdCBDQRcNMjYxMDE2\n"
+            + "MTkyODA5WhgPMjEyNjA5MjIxOTI4MDlaMBQwEgIBIBcNMjYxMDE2MTkyODA5WqAO\n"
+            + "MAwwCgYDVR0UBAMCAQEwCgYIKoZIzj0EAwIDRwAwRAIgHIZe4ig7vYtxjudBnbhQ\n"
+            + "2HJPlfQGlPJHvuO3JMs6oX0CICiqtLYN5ZgVwGHwLaZDz9C6nyxaG2clg8zdUtrN\n"
+            + "MhGG\n"
+            + "-----END X509 CRL-----\n";
+    /** CRL of the test CA revoking nothing, next update in 2126. */
+    private static final String EMPTY_CRL = "-----BEGIN X509 CRL-----\n"
+            + "MIGsMFMCAQEwCgYIKoZIzj0EAwIwEjEQMA4GA1UEAwwHVGVzdCBDQRcNMjYxMDE2\n"
+            + "MTkyODE0WhgPMjEyNjA5MjIxOTI4MTRaoA4wDDAKBgNVHRQEAwIBAjAKBggqhkjO\n"
+            + "PQQDAgNJADBGAiEAy4b4QkoAnxa1M0xTpPOZikkWaxUrdyUDIXbDV27WrPcCIQCK\n"
+            + "L2e3cc1k+sR0JnW1va4oVyxm4OBQ/Ow4zcXqd05lSA==\n"
+            + "-----END X509 CRL-----\n";
+
+    private final CountingTrustManager delegate = new CountingTrustManager();
+    private Path crlFile;
+    private X509Certificate revoked;
+    private X509Certificate good;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        crlFile = Files.createTempFile("revoked", ".pem");
+        Files.write(crlFile, CRL.getBytes(StandardCharsets.US_ASCII));
+        delegate.issuers = new X509Certificate[] {certificate(CA)};
+        revoked = certificate(REVOKED);
+        good = certificate(GOOD);
+    }
+
+    @AfterEach
+    void deleteCrl() throws Exception {
+        Files.deleteIfExists(crlFile);
+    }
+
+    /**
+     * Test that a revoked certificate is rejected before the delegate runs.
+     */
+    @Test
+    void testRevokedCertificateIsRejected() throws Exception {
+        RevocationCheckingTrustManager trustManager = trustManager();
+
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkClientTrusted(new X509Certificate[] {revoked}, "EC", (Socket) null));
+        trustManager.checkClientTrusted(new X509Certificate[] {good}, "EC", (SSLEngine) null);
+
+        assertEquals(1, delegate.checks.get());
+        assertEquals(1, trustManager.getRevokedChains());
+        assertEquals(1, trustManager.getIndex().getCrlCount());
+        assertEquals(1, trustManager.getIndex().getSerialCount());
+    }
+
+    /**
+     * Test that a changed CRL file is picked up by a refresh and an unchanged one is not parsed again.
+     */
+    @Test
+    void testRefreshPicksUpChangedCrl() throws Exception {
+        Files.write(crlFile, EMPTY_CRL.getBytes(StandardCharsets.US_ASCII));
+        RevocationCheckingTrustManager trustManager = trustManager();
+        trustManager.checkServerTrusted(new X509Certificate[] {revoked}, "EC");
+
+        Files.write(crlFile, CRL.getBytes(StandardCharsets.US_ASCII));
+        Files.setLastModifiedTime(crlFile, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+
+        assertTrue(trustManager.refresh());
+        assertFalse(trustManager.refresh());
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkServerTrusted(new X509Certificate[] {revoked}, "EC"));
+    }
+
+    /**
+     * Test that a failed refresh keeps the previous CRLs.
+     */
+    @Test
+    void testFailedRefreshKeepsIndex() throws Exception {
+        RevocationCheckingTrustManager trustManager = trustManager();
+        Files.delete(crlFile);
+
+        assertFalse(trustManager.refresh());
+        assertThrows(CertificateException.class,
+                () -> trustManager.checkClientTrusted(new X509Certificate[] {revoked}, "EC"));
+    }
+
+    /**
+     * Test that a directory location loads all of its files.
+     */
+    @Test
+    void testDirectoryLocation() throws Exception {
+        Path directory = Files.createTempDirectory("crls");
+        try {
+            Files.write(directory.resolve("revoked.pem"), CRL.getBytes(StandardCharsets.US_ASCII));
+            Files.write(directory.resolve("empty.pem"), EMPTY_CRL.getBytes(StandardCharsets.US_ASCII));
+            RevocationCheckingTrustManager trustManager = new RevocationCheckingTrustManager(delegate,
+                    Collections.singletonList(directory.toString()));
+
+            assertEquals(2, trustManager.getIndex().getCrlCount());
+            assertEquals(1, trustManager.getIndex().getSerialCount());
+        } finally {
+            Files.delete(directory.resolve("revoked.pem"));
+            Files.delete(directory.resolve("empty.pem"));
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Test that a CRL not signed by the trusted CA of its name is refused.
+     */
+    @Test
+    void testForgedCrlIsRefused() throws Exception {
+        delegate.issuers = new X509Certificate[] {certificate(IMPOSTOR_CA)};
+
+        assertThrows(GeneralSecurityException.class, this::trustManager);
+    }
+
+    private RevocationCheckingTrustManager trustManager() throws Exception {
+        return new RevocationCheckingTrustManager(delegate, Collections.singletonList(crlFile.toString()));
+    }
+
+    private static X509Certificate certificate(String pem) throws Exception {
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(pem.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Trust manager accepting every chain and counting its checks.
+     */
+    private static final class CountingTrustManager extends X509ExtendedTrustManager {
+
+        private final AtomicInteger checks = new AtomicInteger();
+        private X509Certificate[] issuers = new X509Certificate[0];
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            checks.incrementAndGet();
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            checks.incrementAndGet();
+        }
+
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            checks.incrementAndGet();
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            checks.incrementAndGet();
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+            checks.incrementAndGet();
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+            checks.incrementAndGet();
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return issuers;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.tls.ssl;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for RevokedSerials class.
+ */
+class RevokedSerialsTest {
+
+    /** A random 20 byte serial, the longest RFC 5280 allows. */
+    private static final BigInteger LONG_SERIAL = new BigInteger("4f2a1c9e0b7d3358e6a1f0c2d4b6a8e0f1e2d3c4", 16);
+
+    /**
+     * Test that short serials are found regardless of input order and repetition.
+     */
+    @Test
+    void testShortSerials() {
+        RevokedSerials serials = RevokedSerials.of(Arrays.asList(
+                BigInteger.valueOf(42), BigInteger.ONE, BigInteger.valueOf(Long.MAX_VALUE), BigInteger.ONE));
+
+        assertEquals(3, serials.size());
+        assertTrue(serials.contains(BigInteger.ONE));
+        assertTrue(serials.contains(BigInteger.valueOf(42)));
+        assertTrue(serials.contains(BigInteger.valueOf(Long.MAX_VALUE)));
+        assertFalse(serials.contains(BigInteger.valueOf(2)));
+    }
+
+    /**
+     * Test that long serials sharing their low 64 bits are told apart.
+     */
+    @Test
+    void testLongSerials() {
+        BigInteger sameLowBits = LONG_SERIAL.add(BigInteger.ONE.shiftLeft(64));
+        RevokedSerials serials = RevokedSerials.of(Arrays.asList(LONG_SERIAL, BigInteger.TEN));
+
+        assertTrue(serials.contains(LONG_SERIAL));
+        assertFalse(serials.contains(sameLowBits));
+        assertFalse(serials.contains(BigInteger.valueOf(LONG_SERIAL.longValue())));
+        assertTrue(RevokedSerials.of(Arrays.asList(sameLowBits, LONG_SERIAL)).contains(LONG_SERIAL));
+    }
+
+    /**
+     * Test that unsorted long serials of different lengths keep their own encodings and dates.
+     */
+    @Test
+    void testUnsortedLongSerialsKeepDates() {
+        RevokedSerials.Builder builder = new RevokedSerials.Builder();
+        for (int i = 40; i > 0; i--) {
+            // Lengths from 9 to 20 bytes, low 64 bits descending
+            byte[] serial = LONG_SERIAL.shiftRight(8 * (i % 12)).add(BigInteger.valueOf(i)).toByteArray();
+            builder.add(serial, 0, serial.length, i);
+        }
+        RevokedSerials serials = builder.build();
+
+        assertEquals(40, serials.size());
+        for (int i = 1; i <= 40; i++) {
+            assertEquals(i, serials.find(LONG_SERIAL.shiftRight(8 * (i % 12)).add(BigInteger.valueOf(i))));
+        }
+        assertEquals(RevokedSerials.NOT_REVOKED, serials.find(LONG_SERIAL.add(BigInteger.valueOf(41))));
+    }
+
+    /**
+     * Test that non-conforming negative serials are matched exactly.
+     */
+    @Test
+    void testNegativeSerial() {
+        RevokedSerials serials = RevokedSerials.of(Collections.singletonList(BigInteger.valueOf(-5)));
+
+        assertTrue(serials.contains(BigInteger.valueOf(-5)));
+        assertFalse(serials.contains(BigInteger.valueOf(5)));
+    }
+
+    /**
+     * Test that an empty set contains nothing.
+     */
+    @Test
+    void testEmpty() {
+        RevokedSerials serials = RevokedSerials.of(Collections.emptyList());
+
+        assertEquals(0, serials.size());
+        assertFalse(serials.contains(BigInteger.ONE));
+        assertFalse(serials.contains(LONG_SERIAL));
+    }
+
+    /**
+     * Test that the builder keeps revocation dates with unsorted serials and ignores redundant
+     * leading zero bytes.
+     */
+    @Test
+    void testBuilderKeepsDates() {
+        RevokedSerials.Builder builder = new RevokedSerials.Builder();
+        for (int serial = 100; serial > 0; serial--) {
+            builder.add(new byte[] {0, 0, (byte) serial}, 0, 3, serial * 1000L);
+        }
+        byte[] twoTo63 = BigInteger.ONE.shiftLeft(63).toByteArray();
+        builder.add(twoTo63, 0, twoTo63.length, 7L);
+        RevokedSerials serials = builder.build();
+
+        assertEquals(101, serials.size());
+        assertEquals(42_000L, serials.find(BigInteger.valueOf(42)));
+        assertEquals(100_000L, serials.find(BigInteger.valueOf(100)));
+        assertEquals(7L, serials.find(BigInteger.ONE.shiftLeft(63)));
+        assertEquals(RevokedSerials.NOT_REVOKED, serials.find(BigInteger.valueOf(101)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.tls.ssl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for SSLContextConfig class.
+ */
+class SSLContextConfigTest {
+
+    /**
+     * Test default values and configured stores.
+     */
+    @Test
+    void testBuilder() {
+        SSLContextConfig config = SSLContextConfig.builder()
+                .keyStore("classpath:/server.jks", "secret")
+                .trustStore("/etc/truststore.p12", "changeit")
+                .trustStoreType("PKCS12")
+                .build();
+
+        assertEquals(SSLContextConfig.DEFAULT_PROTOCOL, config.getProtocol());
+        assertEquals(SSLContextConfig.DEFAULT_ENABLED_PROTOCOLS, config.getEnabledProtocols());
+        assertEquals(SSLContextConfig.DEFAULT_CIPHER_SUITES, config.getCipherSuites());
+        assertEquals(SSLContextConfig.DEFAULT_SESSION_CACHE_SIZE, config.getSessionCacheSize());
+        assertEquals(SSLContextConfig.DEFAULT_SESSION_TIMEOUT_SECONDS, config.getSessionTimeoutSeconds());
+        assertEquals(SSLContextConfig.DEFAULT_SESSION_TICKETS, config.isSessionTickets());
+        assertEquals("classpath:/server.jks", config.getKeyStoreLocation());
+        assertEquals(SSLContextConfig.DEFAULT_STORE_TYPE, config.getKeyStoreType());
+        assertArrayEquals("secret".toCharArray(), config.getKeyStorePassword());
+        assertEquals("/etc/truststore.p12", config.getTrustStoreLocation());
+        assertEquals("PKCS12", config.getTrustStoreType());
+        assertArrayEquals("changeit".toCharArray(), config.getTrustStorePassword());
+    }
+
+    /**
+     * Test that callers cannot change the stored passwords.
+     */
+    @Test
+    void testPasswordsAreCopied() {
+        SSLContextConfig config = SSLContextConfig.builder()
+                .keyStore("a.jks", "secret")
+                .trustStore("b.jks", "secret")
+                .build();
+
+        config.getKeyStorePassword()[0] = 'x';
+
+        assertArrayEquals("secret".toCharArray(), config.getKeyStorePassword());
+    }
+
+    /**
+     * Test builder validation.
+     */
+    @Test
+    void testBuilderRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> SSLContextConfig.builder().protocol(""));
+        assertThrows(IllegalArgumentException.class, () -> SSLContextConfig.builder().enabledProtocols());
+        assertThrows(IllegalArgumentException.class, () -> SSLContextConfig.builder().cipherSuites());
+        assertThrows(IllegalArgumentException.class, () -> SSLContextConfig.builder().sessionCacheSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> SSLContextConfig.builder().sessionTimeoutSeconds(-1));
+        assertThrows(IllegalArgumentException.class, () -> SSLContextConfig.builder().keyStore(null, "secret"));
+        assertThrows(NullPointerException.class, () -> SSLContextConfig.builder().keyStore("a.jks", null));
+        assertThrows(IllegalStateException.class, () -> SSLContextConfig.builder().keyStore("a.jks", "s").build());
+    }
+}
@@ -0,0 +1,328 @@
+package com.github.tls.ssl;
+
+import com.github.tls.TestStores;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.CertificateFactory;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for SSLContextFactory class.
+ */
+class SSLContextFactoryTest {
+
+    private static final String PASSWORD = "changeit";
+    /** Store type able to hold the secret key entry used to change a keystore. */
+    private static final String RELOADED_STORE_TYPE = "PKCS12";
+    /** Reload interval of the reload test. */
+    private static final long RELOAD_MILLIS = 20;
+
+    private final SSLContextFactory factory = new SSLContextFactory();
+    private Path keyStore;
+    private Path trustStore;
+
+    @BeforeEach
+    void createStores() throws Exception {
+        keyStore = Files.createTempFile("keystore", ".jks");
+        trustStore = Files.createTempFile("truststore", ".jks");
+        writeEmptyStore(keyStore, PASSWORD);
+        writeEmptyStore(trustStore, PASSWORD);
+    }
+
+    @AfterEach
+    void deleteStores() throws IOException {
+        Files.deleteIfExists(keyStore);
+        Files.deleteIfExists(trustStore);
+    }
+
+    /**
+     * Test that equal configurations share one context and keystore.
+     */
+    @Test
+    void testSameIdentitySharesContext() throws Exception {
+        SSLContext first = factory.getContext(config(PASSWORD));
+        SSLContext second = factory.getContext(config(PASSWORD));
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertSame(factory.getKeyStore(config(PASSWORD)), factory.getKeyStore(config(PASSWORD)));
+        assertEquals(1, factory.size());
+    }
+
+    /**
+     * Test that changed store content yields a new context.
+     */
+    @Test
+    void testChangedContentBuildsNewContext() throws Exception {
+        SSLContext first = factory.getContext(config(PASSWORD));
+        writeEmptyStore(keyStore, "another");
+
+        SSLContext second = factory.getContext(config("another"));
+
+        assertNotSame(first, second);
+        assertEquals(2, factory.size());
+    }
+
+    /**
+     * Test that changed store content for the same configuration replaces the cached context.
+     */
+    @Test
+    void testChangedContentReplacesCachedContext() throws Exception {
+        SSLContext first = factory.getContext(config(PASSWORD));
+        KeyStore store = KeyStore.getInstance(SSLContextConfig.DEFAULT_STORE_TYPE);
+        store.load(null, null);
+        store.setCertificateEntry("trusted", TestStores.loadKeyStore().getCertificate("server"));
+        writeStore(trustStore, store);
+
+        SSLContext second = factory.getContext(config(PASSWORD));
+
+        assertNotSame(first, second);
+        assertSame(second, factory.getContext(config(PASSWORD)));
+        assertEquals(1, factory.size());
+    }
+
+    /**
+     * Test that replacing a cached context after a content change cancels its CRL refresh, which would
+     * otherwise keep the old context alive.
+     */
+    @Test
+    void testReplacedContextStopsRefreshing() throws Exception {
+        Path crl = Files.createTempFile("revoked", ".pem");
+        try {
+            Files.write(crl, RevocationCheckingTrustManagerTest.CRL.getBytes(StandardCharsets.US_ASCII));
+            KeyStore store = KeyStore.getInstance(SSLContextConfig.DEFAULT_STORE_TYPE);
+            store.load(null, null);
+            byte[] ca = RevocationCheckingTrustManagerTest.CA.getBytes(StandardCharsets.US_ASCII);
+            store.setCertificateEntry("ca",
+                    CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(ca)));
+            writeStore(trustStore, store);
+            SSLContextConfig config = SSLContextConfig.builder()
+                    .keyStore(keyStore.toString(), PASSWORD)
+                    .trustStore(trustStore.toString(), PASSWORD)
+                    .crlLocations(crl.toString())
+                    .build();
+            SSLContext first = factory.getContext(config);
+            assertEquals(1, factory.getScheduledTaskCount());
+
+            store.setCertificateEntry("trusted", TestStores.loadKeyStore().getCertificate("server"));
+            writeStore(trustStore, store);
+
+            assertNotSame(first, factory.getContext(config));
+            assertEquals(1, factory.getScheduledTaskCount());
+            factory.clear();
+            assertEquals(0, factory.getScheduledTaskCount());
+        } finally {
+            Files.deleteIfExists(crl);
+        }
+    }
+
+    /**
+     * Test that the session ticket setting gets its own context and leaves the JVM-wide property alone.
+     */
+    @Test
+    void testSessionTicketsArePartOfIdentity() throws Exception {
+        String property = System.getProperty(SSLContextConfig.SESSION_TICKETS_PROPERTY);
+        SSLContextConfig withoutTickets = SSLContextConfig.builder()
+                .keyStore(keyStore.toString(), PASSWORD)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .sessionTickets(false)
+                .build();
+
+        assertNotSame(factory.getContext(config(PASSWORD)), factory.getContext(withoutTickets));
+        assertEquals(2, factory.size());
+        assertEquals(property, System.getProperty(SSLContextConfig.SESSION_TICKETS_PROPERTY));
+    }
+
+    /**
+     * Test that a wrong password fails instead of returning a cached context.
+     */
+    @Test
+    void testWrongPasswordFails() throws Exception {
+        factory.getContext(config(PASSWORD));
+
+        assertThrows(IOException.class, () -> factory.getContext(config("wrong")));
+    }
+
+    /**
+     * Test that a missing classpath store loads as an empty store.
+     */
+    @Test
+    void testMissingClasspathStoreIsEmpty() throws Exception {
+        SSLContextConfig config = SSLContextConfig.builder()
+                .keyStore(SSLContextConfig.CLASSPATH_PREFIX + "/missing.jks", PASSWORD)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .build();
+
+        assertEquals(0, factory.getKeyStore(config).size());
+    }
+
+    /**
+     * Test that clearing the cache builds new contexts.
+     */
+    @Test
+    void testClear() throws Exception {
+        SSLContext first = factory.getContext(config(PASSWORD));
+        factory.clear();
+
+        assertEquals(0, factory.size());
+        assertNotSame(first, factory.getContext(config(PASSWORD)));
+    }
+
+    /**
+     * Test that contexts enable TLS 1.3 and the AEAD suites by default.
+     */
+    @Test
+    void testDefaultParameters() throws Exception {
+        SSLParameters parameters = factory.getContext(config(PASSWORD)).getDefaultSSLParameters();
+
+        assertEquals("TLSv1.3", parameters.getProtocols()[0]);
+        assertEquals("TLS_AES_256_GCM_SHA384", parameters.getCipherSuites()[0]);
+        assertTrue(parameters.getUseCipherSuitesOrder());
+    }
+
+    /**
+     * Test that engines apply the configured order and skip unsupported values.
+     */
+    @Test
+    void testEngineAppliesConfiguredParameters() throws Exception {
+        SSLContextConfig config = SSLContextConfig.builder()
+                .keyStore(keyStore.toString(), PASSWORD)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .enabledProtocols("TLSv1.2", "TLSv9")
+                .cipherSuites("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256", "TLS_UNKNOWN", "TLS_AES_128_GCM_SHA256")
+                .build();
+
+        SSLEngine engine = factory.getContext(config).createSSLEngine();
+
+        assertArrayEquals(new String[] {"TLSv1.2"}, engine.getEnabledProtocols());
+        assertArrayEquals(new String[] {"TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256", "TLS_AES_128_GCM_SHA256"},
+                engine.getEnabledCipherSuites());
+        assertTrue(engine.getSSLParameters().getUseCipherSuitesOrder());
+    }
+
+    /**
+     * Test that a configuration without any supported protocol fails.
+     */
+    @Test
+    void testNoSupportedProtocolFails() {
+        SSLContextConfig config = SSLContextConfig.builder()
+                .keyStore(keyStore.toString(), PASSWORD)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .enabledProtocols("TLSv9")
+                .build();
+
+        assertThrows(GeneralSecurityException.class, () -> factory.getContext(config));
+    }
+
+    /**
+     * Test that a reloaded context keeps its identity and picks up changed store content.
+     */
+    @Test
+    void testReloadSwapsChangedStore() throws Exception {
+        KeyStore store = KeyStore.getInstance(RELOADED_STORE_TYPE);
+        store.load(null, null);
+        writeStore(keyStore, store);
+        SSLContextConfig config = SSLContextConfig.builder()
+                .keyStore(keyStore.toString(), PASSWORD)
+                .keyStoreType(RELOADED_STORE_TYPE)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .reloadIntervalMillis(RELOAD_MILLIS)
+                .build();
+        SSLContext context = factory.getContext(config);
+        assertEquals(0, factory.getKeyStore(config).size());
+
+        store.setEntry("secret", new KeyStore.SecretKeyEntry(new SecretKeySpec(new byte[16], "AES")),
+                new KeyStore.PasswordProtection(PASSWORD.toCharArray()));
+        writeStore(keyStore, store);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (factory.getKeyStore(config).size() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(RELOAD_MILLIS);
+        }
+        assertEquals(1, factory.getKeyStore(config).size());
+        assertSame(context, factory.getContext(config));
+        assertEquals(1, factory.size());
+        factory.clear();
+    }
+
+    /**
+     * Test that the trust cache is created only when configured.
+     */
+    @Test
+    void testTrustCache() throws Exception {
+        SSLContextConfig cached = SSLContextConfig.builder()
+                .keyStore(keyStore.toString(), PASSWORD)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .trustCacheSize(16)
+                .build();
+
+        assertNull(factory.getTrustCache(config(PASSWORD)));
+        assertNotNull(factory.getTrustCache(cached));
+        assertNotSame(factory.getContext(config(PASSWORD)), factory.getContext(cached));
+    }
+
+    /**
+     * Test that a missing CRL file fails instead of silently disabling revocation checking.
+     */
+    @Test
+    void testMissingCrlFails() {
+        SSLContextConfig config = SSLContextConfig.builder()
+                .keyStore(keyStore.toString(), PASSWORD)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .crlLocations(keyStore.resolveSibling("missing.crl").toString())
+                .build();
+
+        assertThrows(IOException.class, () -> factory.getContext(config));
+    }
+
+    /**
+     * Test that a negative reload interval is rejected.
+     */
+    @Test
+    void testNegativeReloadIntervalFails() {
+        assertThrows(IllegalArgumentException.class, () -> SSLContextConfig.builder().reloadIntervalMillis(-1));
+    }
+
+    private SSLContextConfig config(String keyStorePassword) {
+        return SSLContextConfig.builder()
+                .keyStore(keyStore.toString(), keyStorePassword)
+                .trustStore(trustStore.toString(), PASSWORD)
+                .build();
+    }
+
+    private static void writeStore(Path path, KeyStore store) throws Exception {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            store.store(out, PASSWORD.toCharArray());
+        }
+    }
+
+    private static void writeEmptyStore(Path path, String password) throws Exception {
+        KeyStore store = KeyStore.getInstance(SSLContextConfig.DEFAULT_STORE_TYPE);
+        store.load(null, null);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            store.store(out, password.toCharArray());
+        }
+    }
+}
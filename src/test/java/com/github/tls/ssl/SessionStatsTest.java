@@ -0,0 +1,75 @@
+package com.github.tls.ssl;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for SessionStats class.
+ */
+class SessionStatsTest {
+
+    /** Connection start time used by the tests, in epoch milliseconds. */
+    private static final long START = 1_000_000L;
+
+    private SessionStats stats;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SSLContext context = SSLContext.getInstance(SSLContextConfig.DEFAULT_PROTOCOL);
+        context.init(null, null, null);
+        context.getServerSessionContext().setSessionCacheSize(100);
+        context.getServerSessionContext().setSessionTimeout(60);
+        stats = new SessionStats(context.getServerSessionContext());
+    }
+
+    /**
+     * Test that sessions created before the connection count as resumed.
+     */
+    @Test
+    void testIsResumed() {
+        assertTrue(SessionStats.isResumed(session(START - 1), START));
+        assertFalse(SessionStats.isResumed(session(START), START));
+        assertFalse(SessionStats.isResumed(session(START + 1), START));
+    }
+
+    /**
+     * Test the full and resumed counters and the resumption ratio.
+     */
+    @Test
+    void testRecord() {
+        assertEquals(0, stats.getResumptionRatio());
+
+        stats.record(session(START + 1), START);
+        stats.record(session(START - 1), START);
+        stats.record(session(START - 1), START);
+        stats.record(session(START - 1), START);
+
+        assertEquals(1, stats.getFullHandshakes());
+        assertEquals(3, stats.getResumedHandshakes());
+        assertEquals(0.75, stats.getResumptionRatio());
+    }
+
+    /**
+     * Test that the cache settings of the session context are reported.
+     */
+    @Test
+    void testCacheSettings() {
+        assertEquals(100, stats.getCacheSize());
+        assertEquals(60, stats.getSessionTimeoutSeconds());
+        assertEquals(0, stats.getCachedSessions());
+    }
+
+    private static SSLSession session(long creationTime) {
+        SSLSession session = mock(SSLSession.class);
+        when(session.getCreationTime()).thenReturn(creationTime);
+        return session;
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.tls.ssl;
+
+import com.github.tls.TestStores;
+import com.github.tls.transport.MemoryTransport;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for SharedSessionTickets class. Installing keys needs the JVM options described on the
+ * class, which the build passes to the tests on Java 11 and later; on JDKs without stateless session
+ * tickets only the fallback is tested.
+ */
+class SharedSessionTicketsTest {
+
+    /** Seconds a test waits for the server side of a handshake. */
+    private static final long TIMEOUT_SECONDS = 10;
+    /** Milliseconds between connections, so that a resumed session predates the second connection. */
+    private static final long CONNECTION_GAP_MILLIS = 10;
+    /** Peer host and port under which the client caches its session. */
+    private static final String PEER_HOST = "node";
+    private static final int PEER_PORT = 8443;
+
+    private SSLContext context;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context = SSLContext.getInstance(SSLContextConfig.DEFAULT_PROTOCOL);
+        context.init(null, null, null);
+    }
+
+    /**
+     * Test that the internals are reachable wherever the JDK issues stateless tickets, so the tests
+     * below do not pass by checking nothing.
+     */
+    @Test
+    void testSupportedWhereJdkHasStatelessTickets() {
+        assertEquals(hasStatelessTickets(), SharedSessionTickets.isSupported(),
+                "Tests need --add-opens java.base/javax.net.ssl and java.base/sun.security.ssl");
+    }
+
+    /**
+     * Test that keys from the store are installed and retired keys are dropped.
+     */
+    @Test
+    void testRefreshInstallsKeys() {
+        AtomicReference<SessionTicketKey[]> keys = new AtomicReference<>(new SessionTicketKey[] {key(2), key(1)});
+        SharedSessionTickets tickets = new SharedSessionTickets(context, now -> Arrays.asList(keys.get()));
+
+        assertEquals(SharedSessionTickets.isSupported(), tickets.refresh());
+        if (SharedSessionTickets.isSupported()) {
+            assertEquals(new HashSet<>(Arrays.asList(1, 2)), tickets.getInstalledKeyIds());
+
+            keys.set(new SessionTicketKey[] {key(3), key(2)});
+            tickets.refresh();
+            assertEquals(new HashSet<>(Arrays.asList(2, 3)), tickets.getInstalledKeyIds());
+        }
+    }
+
+    /**
+     * Test that a session issued by one context resumes on another context sharing its keys, as on
+     * two nodes behind a load balancer, and not on a context with keys of its own.
+     */
+    @Test
+    void testSessionResumesOnAnotherContext() throws Exception {
+        if (!SharedSessionTickets.isSupported()) {
+            return;
+        }
+        Path keyStore = TestStores.writeKeyStore();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SSLContextConfig config = SSLContextConfig.builder()
+                    .keyStore(keyStore.toString(), TestStores.PASSWORD)
+                    .trustStore(keyStore.toString(), TestStores.PASSWORD)
+                    .build();
+            // Separate factories build separate contexts from the same configuration
+            SSLContext client = new SSLContextFactory().getContext(config);
+            SSLContext nodeA = new SSLContextFactory().getContext(config);
+            SSLContext nodeB = new SSLContextFactory().getContext(config);
+            SSLContext unshared = new SSLContextFactory().getContext(config);
+            SessionTicketKeyStore store = now -> Arrays.asList(key(2), key(1));
+            assertTrue(new SharedSessionTickets(nodeA, store).refresh());
+            assertTrue(new SharedSessionTickets(nodeB, store).refresh());
+
+            assertFalse(connect(executor, client, nodeA));
+            Thread.sleep(CONNECTION_GAP_MILLIS);
+            assertTrue(connect(executor, client, nodeB));
+            Thread.sleep(CONNECTION_GAP_MILLIS);
+            assertFalse(connect(executor, client, unshared));
+        } finally {
+            executor.shutdownNow();
+            Files.deleteIfExists(keyStore);
+        }
+    }
+
+    /**
+     * Test that a failing store leaves the context unchanged.
+     */
+    @Test
+    void testStoreFailureIsReported() {
+        SharedSessionTickets tickets = new SharedSessionTickets(context, now -> {
+            throw new java.io.IOException("unavailable");
+        });
+
+        assertFalse(tickets.refresh());
+        assertEquals(Collections.emptySet(), tickets.getInstalledKeyIds());
+    }
+
+    /**
+     * Test that the refresh interval is validated.
+     */
+    @Test
+    void testRejectsInvalidRefreshInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SharedSessionTickets(context, now -> Collections.emptyList(), 0));
+    }
+
+    /**
+     * Connects a client to a server over memory and reads one byte, which also delivers the session ticket.
+     *
+     * @return true if the server resumed the client's session
+     */
+    private static boolean connect(ExecutorService executor, SSLContext client, SSLContext server)
+            throws Exception {
+        SSLEngine clientEngine = client.createSSLEngine(PEER_HOST, PEER_PORT);
+        clientEngine.setUseClientMode(true);
+        SSLEngine serverEngine = server.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+        serverEngine.setNeedClientAuth(true);
+        MemoryTransport transport = new MemoryTransport(clientEngine, serverEngine);
+        long start = System.currentTimeMillis();
+        Future<?> serverSide = executor.submit(() -> {
+            transport.getServerStream().startHandshake();
+            transport.getServerStream().getOutputStream().write(1);
+            transport.getServerStream().getOutputStream().flush();
+            return null;
+        });
+        transport.getClientStream().startHandshake();
+        assertEquals(1, transport.getClientStream().getInputStream().read());
+        serverSide.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return SessionStats.isResumed(transport.getServerStream().getSession(), start);
+    }
+
+    private static boolean hasStatelessTickets() {
+        try {
+            Class.forName("sun.security.ssl.SessionTicketExtension");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static SessionTicketKey key(int id) {
+        byte[] secret = new byte[SessionTicketKey.SECRET_LENGTH];
+        Arrays.fill(secret, (byte) id);
+        return new SessionTicketKey(id, secret, Long.MAX_VALUE / 2);
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.tls.transport;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for MemoryPipe class.
+ */
+class MemoryPipeTest {
+
+    /** Seconds a test waits for the other side of the pipe. */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    void testReadReturnsWrittenBytes() throws IOException {
+        MemoryPipe pipe = new MemoryPipe(16);
+        pipe.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+
+        ByteBuffer target = ByteBuffer.allocate(2);
+        assertEquals(2, pipe.read(target, 0));
+        assertArrayEquals(new byte[] {1, 2}, target.array());
+        target.clear();
+        assertEquals(1, pipe.read(target, 0));
+        assertEquals(3, target.get(0));
+    }
+
+    @Test
+    void testWriteWaitsForReader() throws Exception {
+        MemoryPipe pipe = new MemoryPipe(4);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writing = executor.submit(() -> {
+                pipe.write(ByteBuffer.wrap(new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}));
+                return null;
+            });
+            ByteBuffer target = ByteBuffer.allocate(10);
+            while (target.hasRemaining()) {
+                pipe.read(target, 0);
+            }
+            writing.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertArrayEquals(new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, target.array());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReadTimesOut() {
+        MemoryPipe pipe = new MemoryPipe(4);
+        assertThrows(SocketTimeoutException.class, () -> pipe.read(ByteBuffer.allocate(1), 1));
+    }
+
+    @Test
+    void testCloseDrainsBeforeEndOfStream() throws IOException {
+        MemoryPipe pipe = new MemoryPipe(4);
+        pipe.write(ByteBuffer.wrap(new byte[] {1}));
+        pipe.close();
+
+        ByteBuffer target = ByteBuffer.allocate(4);
+        assertEquals(1, pipe.read(target, 0));
+        assertEquals(-1, pipe.read(target, 0));
+    }
+
+    @Test
+    void testWriteAfterCloseFails() {
+        MemoryPipe pipe = new MemoryPipe(4);
+        pipe.close();
+        ByteBuffer source = ByteBuffer.wrap(new byte[] {1});
+        assertThrows(IOException.class, () -> pipe.write(source));
+        assertFalse(source.position() > 0);
+    }
+}
@@ -0,0 +1,239 @@
+package com.github.tls.transport;
+
+import com.github.tls.Client;
+import com.github.tls.ClientConfig;
+import com.github.tls.Server;
+import com.github.tls.TestStores;
+import com.github.tls.protocol.FrameCodec;
+import com.github.tls.protocol.Protocol;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for MemoryTransport class, running the server and client over in-memory engines.
+ */
+class MemoryTransportTest {
+
+    /** Seconds a test waits for the other side of a connection. */
+    private static final long TIMEOUT_SECONDS = 10;
+    /** Milliseconds between connections, so that a resumed session predates the second connection. */
+    private static final long CONNECTION_GAP_MILLIS = 10;
+    /** Payload larger than a TLS record and than the pipes between the engines. */
+    private static final int LARGE_PAYLOAD = 100_000;
+    /** Size of each pipelined message, so that a full pipeline of them is far larger than the pipes. */
+    private static final int PIPELINED_MESSAGE = 20_000;
+    /** Number of pipelined messages, fewer than the default pipeline depth. */
+    private static final int PIPELINED_COUNT = 16;
+
+    private Path keyStore;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        keyStore = TestStores.writeKeyStore();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.shutdownNow();
+        Files.deleteIfExists(keyStore);
+    }
+
+    @Test
+    void testServerEchoesLines() throws Exception {
+        Server server = server(Protocol.LINE);
+        Client client = new Client(server.getContext(), ClientConfig.defaults());
+        MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+        Future<?> serving = executor.submit(() -> server.serve(transport.getServerStream()));
+
+        client.connect(transport.getClientStream());
+        assertTrue(client.isConnected());
+        assertEquals("Echo: Hello", client.request("Hello"));
+        assertEquals("Goodbye!", client.request("quit"));
+        serving.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        client.close();
+
+        assertTrue(transport.getServerStream().isClosed());
+        assertEquals(1, server.getHandshakeMetrics().snapshot().getCompleted());
+        assertEquals(2, server.getStats().getMessagesReceived());
+        assertEquals(0, server.getStats().getActiveConnections());
+    }
+
+    @Test
+    void testServerEchoesFramesLargerThanThePipes() throws Exception {
+        Server server = server(Protocol.FRAMED);
+        Client client = new Client(server.getContext(), ClientConfig.builder().protocol(Protocol.FRAMED).build());
+        MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+        Future<?> serving = executor.submit(() -> server.serve(transport.getServerStream()));
+        client.connect(transport.getClientStream());
+
+        byte[] payload = new byte[LARGE_PAYLOAD];
+        Arrays.fill(payload, (byte) 'x');
+        ByteBuffer reply = client.sendFrame(ByteBuffer.wrap(payload));
+        byte[] echoed = new byte[reply.remaining()];
+        reply.get(echoed);
+        assertArrayEquals(payload, echoed);
+
+        client.close();
+        serving.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(LARGE_PAYLOAD, server.getStats().getBytesWritten() - FrameCodec.HEADER_LENGTH);
+    }
+
+    @Test
+    void testPipelinedLargeMessagesDoNotDeadlock() throws Exception {
+        char[] filler = new char[PIPELINED_MESSAGE];
+        Arrays.fill(filler, 'x');
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < PIPELINED_COUNT; i++) {
+            messages.add(i + new String(filler));
+        }
+        for (Protocol protocol : Protocol.values()) {
+            Server server = server(protocol);
+            Client client = new Client(server.getContext(), ClientConfig.builder().protocol(protocol).build());
+            MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+            Future<?> serving = executor.submit(() -> server.serve(transport.getServerStream()));
+            client.connect(transport.getClientStream());
+
+            // Without the byte budget both peers block writing into full pipes
+            List<String> replies = executor.submit(() -> client.sendPipelined(messages))
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(PIPELINED_COUNT, replies.size());
+            for (int i = 0; i < PIPELINED_COUNT; i++) {
+                String expected = protocol == Protocol.LINE ? "Echo: " + messages.get(i) : messages.get(i);
+                assertEquals(expected, replies.get(i));
+            }
+            client.close();
+            serving.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testSecondConnectionResumesSession() throws Exception {
+        Server server = server(Protocol.LINE);
+        Client client = new Client(server.getContext(), ClientConfig.defaults());
+        for (int i = 0; i < 2; i++) {
+            MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+            Future<?> serving = executor.submit(() -> server.serve(transport.getServerStream()));
+            client.connect(transport.getClientStream());
+            assertEquals("Echo: " + i, client.request(Integer.toString(i)));
+            client.close();
+            serving.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            // Resumption is told apart by a session created before the connection
+            Thread.sleep(CONNECTION_GAP_MILLIS);
+        }
+        assertEquals(1, server.getSessionStats().getFullHandshakes());
+        assertEquals(1, server.getSessionStats().getResumedHandshakes());
+    }
+
+    @Test
+    void testSessionTicketsAreSetPerServer() throws Exception {
+        Server stateless = server(Protocol.LINE);
+        Server stateful = new Server(TestStores.PASSWORD,
+                TestStores.serverConfig(keyStore).sessionTickets(false).build());
+        for (Server server : Arrays.asList(stateless, stateful)) {
+            Client client = new Client(server.getContext(), ClientConfig.defaults());
+            MemoryTransport transport = new MemoryTransport(client.createEngine(), server.createEngine());
+            Future<?> serving = executor.submit(() -> server.serve(transport.getServerStream()));
+            client.connect(transport.getClientStream());
+            // Reading the reply also reads the session ticket sent after the handshake
+            assertEquals("Echo: Hello", client.request("Hello"));
+            client.close();
+            serving.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        // Only the server without tickets keeps the session in its cache
+        assertEquals(0, stateless.getSessionStats().getCachedSessions());
+        assertEquals(1, stateful.getSessionStats().getCachedSessions());
+    }
+
+    @Test
+    void testReadTimesOut() throws Exception {
+        MemoryTransport transport = handshaken();
+        TlsStream client = transport.getClientStream();
+        client.setSoTimeout(1);
+        assertThrows(SocketTimeoutException.class, () -> client.getInputStream().read());
+
+        // The connection is still usable after a timeout
+        transport.getServerStream().getOutputStream().write('a');
+        assertEquals('a', client.getInputStream().read());
+    }
+
+    @Test
+    void testCloseEndsPeerStream() throws Exception {
+        MemoryTransport transport = handshaken();
+        OutputStream out = transport.getClientStream().getOutputStream();
+        out.write("last".getBytes(StandardCharsets.UTF_8));
+        transport.getClientStream().close();
+
+        InputStream in = transport.getServerStream().getInputStream();
+        byte[] received = new byte[4];
+        assertEquals(4, in.read(received));
+        assertEquals("last", new String(received, StandardCharsets.UTF_8));
+        assertEquals(-1, in.read());
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+
+    @Test
+    void testFailedHandshakeFailsBothSides() throws Exception {
+        Server server = server(Protocol.LINE);
+        // The default context neither presents a client certificate nor trusts the server
+        SSLEngine untrusted = SSLContext.getDefault().createSSLEngine();
+        MemoryTransport transport = new MemoryTransport(untrusted, server.createEngine());
+        Future<?> serverSide = executor.submit(() -> {
+            transport.getServerStream().startHandshake();
+            return null;
+        });
+
+        assertThrows(SSLException.class, () -> transport.getClientStream().startHandshake());
+        Exception failure = assertThrows(Exception.class, () -> serverSide.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IOException, failure.toString());
+    }
+
+    @Test
+    void testInvalidPipeCapacity() throws Exception {
+        SSLContext context = SSLContext.getDefault();
+        assertThrows(IllegalArgumentException.class,
+                () -> new MemoryTransport(context.createSSLEngine(), context.createSSLEngine(), 0));
+    }
+
+    private Server server(Protocol protocol) {
+        return new Server(TestStores.PASSWORD, TestStores.serverConfig(keyStore).protocol(protocol).build());
+    }
+
+    private MemoryTransport handshaken() throws Exception {
+        SSLContext context = server(Protocol.LINE).getContext();
+        MemoryTransport transport = new MemoryTransport(context.createSSLEngine(), context.createSSLEngine());
+        Future<?> serverSide = executor.submit(() -> {
+            transport.getServerStream().startHandshake();
+            return null;
+        });
+        transport.getClientStream().startHandshake();
+        serverSide.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return transport;
+    }
+}